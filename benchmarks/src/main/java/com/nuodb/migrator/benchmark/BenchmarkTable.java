@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.value.NuoDBValueFormatRegistry;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
+import com.nuodb.migrator.backup.format.value.ValueHandle;
+import com.nuodb.migrator.backup.format.value.ValueHandleList;
+import com.nuodb.migrator.backup.format.value.ValueHandleListBuilder;
+import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
+import com.nuodb.migrator.jdbc.model.Field;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static com.nuodb.migrator.backup.format.value.ValueHandleListBuilder.newBuilder;
+import static com.nuodb.migrator.benchmark.JdbcStubs.newConnection;
+import static com.nuodb.migrator.benchmark.JdbcStubs.newResultSetMetaData;
+import static com.nuodb.migrator.jdbc.model.FieldFactory.newFieldList;
+
+/**
+ * Synthetic table of generated rows served by JDBC stubs. Rows are generated
+ * from a fixed seed, so that each run benchmarks the same data.
+ *
+ * @author Sergey Bushik
+ */
+public class BenchmarkTable {
+
+    /**
+     * Column type name generating columns of all types in turn
+     */
+    public static final String MIXED = "MIXED";
+
+    private static final long SEED = 20150101L;
+
+    private final Connection connection;
+    private final Dialect dialect;
+    private final ResultSetMetaData metaData;
+    private final Collection<? extends Field> fields;
+    private final Object[][] rows;
+    private ValueFormatRegistry valueFormatRegistry = new NuoDBValueFormatRegistry();
+
+    public BenchmarkTable(String columnType, int columns, int rows) throws SQLException {
+        ColumnType[] columnTypes = new ColumnType[columns];
+        String[] names = new String[columns];
+        int[] typeCodes = new int[columns];
+        String[] typeNames = new String[columns];
+        for (int column = 0; column < columns; column++) {
+            columnTypes[column] = MIXED.equals(columnType) ? ColumnType.values()[column % ColumnType.values().length]
+                    : ColumnType.valueOf(columnType);
+            names[column] = "C" + column;
+            typeCodes[column] = columnTypes[column].getTypeCode();
+            typeNames[column] = columnTypes[column].getTypeName();
+        }
+        Random random = new Random(SEED);
+        this.rows = new Object[rows][];
+        for (int row = 0; row < rows; row++) {
+            Object[] values = new Object[columns];
+            for (int column = 0; column < columns; column++) {
+                values[column] = columnTypes[column].newValue(random);
+            }
+            this.rows[row] = values;
+        }
+        this.connection = newConnection();
+        this.dialect = new NuoDBDialect();
+        this.metaData = newResultSetMetaData(names, typeCodes, typeNames);
+        this.fields = newFieldList(metaData);
+    }
+
+    public ResultSet newResultSet() {
+        return JdbcStubs.newResultSet(metaData, rows);
+    }
+
+    public ValueHandleList newValueHandleList(ResultSet resultSet) {
+        return init(newBuilder(connection, resultSet));
+    }
+
+    public ValueHandleList newValueHandleList(PreparedStatement statement) {
+        return init(newBuilder(connection, statement));
+    }
+
+    protected ValueHandleList init(ValueHandleListBuilder builder) {
+        return builder.withDialect(dialect).withFields(fields).withTimeZone(TimeZone.getTimeZone("UTC"))
+                .withValueFormatRegistry(valueFormatRegistry).build();
+    }
+
+    public ValueFormatRegistry getValueFormatRegistry() {
+        return valueFormatRegistry;
+    }
+
+    public void setValueFormatRegistry(ValueFormatRegistry valueFormatRegistry) {
+        this.valueFormatRegistry = valueFormatRegistry;
+    }
+
+    /**
+     * Creates row set of the given format with value types of the columns
+     *
+     * @param format
+     *            backup format
+     * @return row set
+     */
+    public RowSet newRowSet(String format) {
+        Backup backup = new Backup(format);
+        RowSet rowSet = new RowSet();
+        rowSet.setName("T");
+        for (ValueHandle valueHandle : newValueHandleList(newResultSet())) {
+            rowSet.addColumn(valueHandle.getName(), valueHandle.getValueType());
+        }
+        backup.addRowSet(rowSet);
+        return rowSet;
+    }
+
+    /**
+     * Reads rows through the value formats, as they are read on dump
+     *
+     * @return values of each row
+     */
+    public Value[][] newValues() throws SQLException {
+        ResultSet resultSet = newResultSet();
+        ValueHandleList valueHandleList = newValueHandleList(resultSet);
+        Value[][] values = new Value[rows.length][];
+        int row = 0;
+        while (resultSet.next()) {
+            values[row++] = getValues(valueHandleList);
+        }
+        return values;
+    }
+
+    public static Value[] getValues(ValueHandleList valueHandleList) {
+        Value[] values = new Value[valueHandleList.size()];
+        int index = 0;
+        for (ValueHandle valueHandle : valueHandleList) {
+            values[index++] = valueHandle.getValueFormat().getValue(valueHandle.getJdbcValueAccess(),
+                    valueHandle.getJdbcValueAccessOptions());
+        }
+        return values;
+    }
+
+    public static void setValues(ValueHandleList valueHandleList, Value[] values) {
+        int index = 0;
+        for (ValueHandle valueHandle : valueHandleList) {
+            valueHandle.getValueFormat().setValue(values[index++], valueHandle.getJdbcValueAccess(),
+                    valueHandle.getJdbcValueAccessOptions());
+        }
+    }
+
+    public int getRows() {
+        return rows.length;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Random;
+
+/**
+ * Column types benchmarked, each generating values of the Java type returned
+ * by a driver for the column
+ *
+ * @author Sergey Bushik
+ */
+public enum ColumnType {
+
+    INTEGER(Types.INTEGER, "INTEGER") {
+        @Override
+        public Object newValue(Random random) {
+            return random.nextInt();
+        }
+    },
+    BIGINT(Types.BIGINT, "BIGINT") {
+        @Override
+        public Object newValue(Random random) {
+            return random.nextLong();
+        }
+    },
+    DECIMAL(Types.DECIMAL, "DECIMAL") {
+        @Override
+        public Object newValue(Random random) {
+            return BigDecimal.valueOf(random.nextLong(), 4);
+        }
+    },
+    VARCHAR(Types.VARCHAR, "VARCHAR") {
+        @Override
+        public Object newValue(Random random) {
+            char[] value = new char[VARCHAR_LENGTH];
+            for (int index = 0; index < value.length; index++) {
+                value[index] = CHARACTERS.charAt(random.nextInt(CHARACTERS.length()));
+            }
+            return new String(value);
+        }
+    },
+    TIMESTAMP(Types.TIMESTAMP, "TIMESTAMP") {
+        @Override
+        public Object newValue(Random random) {
+            return new Timestamp(TIMESTAMP_BASE + random.nextInt(Integer.MAX_VALUE) * 1000L);
+        }
+    },
+    VARBINARY(Types.VARBINARY, "VARBINARY") {
+        @Override
+        public Object newValue(Random random) {
+            byte[] value = new byte[VARBINARY_LENGTH];
+            random.nextBytes(value);
+            return value;
+        }
+    };
+
+    private static final String CHARACTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ,\"'";
+    private static final int VARCHAR_LENGTH = 32;
+    private static final int VARBINARY_LENGTH = 64;
+    private static final long TIMESTAMP_BASE = 946684800000L;
+
+    private final int typeCode;
+    private final String typeName;
+
+    ColumnType(int typeCode, String typeName) {
+        this.typeCode = typeCode;
+        this.typeName = typeName;
+    }
+
+    public abstract Object newValue(Random random);
+
+    public int getTypeCode() {
+        return typeCode;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.XmlBackupOps;
+import com.nuodb.migrator.backup.format.FormatFactory;
+import com.nuodb.migrator.backup.format.Output;
+import com.nuodb.migrator.backup.format.SimpleFormatFactory;
+import com.nuodb.migrator.backup.format.value.Row;
+import com.nuodb.migrator.backup.format.value.RowReader;
+import com.nuodb.migrator.backup.format.value.ValueHandleList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.backup.format.value.RowReaders.newSequentialRowReader;
+import static com.nuodb.migrator.backup.format.value.RowReaders.newSynchronizedRowReader;
+import static com.nuodb.migrator.benchmark.BenchmarkTable.getValues;
+import static com.nuodb.migrator.benchmark.BenchmarkTable.setValues;
+import static com.nuodb.migrator.benchmark.JdbcStubs.newPreparedStatement;
+import static java.io.File.createTempFile;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+
+/**
+ * Measures the data path of a dump followed by a load: rows are fetched from a
+ * result set stub through the value formats, written to chunk files in a
+ * temporary directory, read back by the row reader and bound to a batched
+ * prepared statement stub. Meta data inspection and script generation are left
+ * out, as they do not depend on the number of rows.
+ *
+ * @author Sergey Bushik
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OperationsPerInvocation(DumpLoadBenchmark.ROWS)
+public class DumpLoadBenchmark {
+
+    public static final int ROWS = 10000;
+
+    public static final int ROWS_PER_CHUNK = 2500;
+
+    public static final int BATCH_SIZE = 1000;
+
+    @Param({ "csv", "bson", "xml" })
+    private String format;
+
+    @Param({ "16" })
+    private int columns;
+
+    @Param({ "MIXED" })
+    private String columnType;
+
+    private File dir;
+    private XmlBackupOps backupOps;
+    private FormatFactory formatFactory;
+    private Map<String, Object> attributes;
+    private BenchmarkTable table;
+    private RowSet rowSet;
+    private long[] counter;
+    private PreparedStatement statement;
+    private ValueHandleList statementValueHandles;
+
+    @Setup
+    public void setup() throws Exception {
+        dir = createTempFile("benchmark", "");
+        deleteQuietly(dir);
+        if (!dir.mkdirs()) {
+            throw new IOException("Can't create directory " + dir);
+        }
+        backupOps = new XmlBackupOps();
+        backupOps.setDir(dir.getPath());
+        formatFactory = new SimpleFormatFactory();
+        attributes = newHashMap();
+        table = new BenchmarkTable(columnType, columns, ROWS);
+        counter = new long[1];
+        statement = newPreparedStatement(counter);
+        statementValueHandles = table.newValueHandleList(statement);
+        dump();
+    }
+
+    @TearDown
+    public void tearDown() {
+        deleteQuietly(dir);
+    }
+
+    @Benchmark
+    public long dump() throws SQLException {
+        rowSet = table.newRowSet(format);
+        ResultSet resultSet = table.newResultSet();
+        ValueHandleList valueHandleList = table.newValueHandleList(resultSet);
+        Output output = null;
+        Chunk chunk = null;
+        long rows = 0;
+        while (resultSet.next()) {
+            if (chunk == null || chunk.getRowCount() == ROWS_PER_CHUNK) {
+                if (output != null) {
+                    output.writeEnd();
+                    output.close();
+                }
+                chunk = new Chunk();
+                chunk.setName(rowSet.getName() + "-" + rowSet.getChunks().size() + "." + format);
+                rowSet.addChunk(chunk);
+                output = formatFactory.createOutput(format, attributes);
+                output.setRowSet(rowSet);
+                output.setOutputStream(backupOps.openOutput(chunk.getName()));
+                output.init();
+                output.writeStart();
+            }
+            output.writeValues(getValues(valueHandleList));
+            chunk.incrementRowCount();
+            rows++;
+        }
+        if (output != null) {
+            output.writeEnd();
+            output.close();
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public long load() throws SQLException {
+        return load(false);
+    }
+
+    /**
+     * Loads rows through the synchronized row reader shared by loader threads
+     * of a table, measures the cost of the lock when it's uncontended
+     */
+    @Benchmark
+    public long loadSynchronized() throws SQLException {
+        return load(true);
+    }
+
+    protected long load(boolean synchronizedReader) throws SQLException {
+        RowReader rowReader = newSequentialRowReader(rowSet, backupOps, formatFactory, attributes);
+        if (synchronizedReader) {
+            rowReader = newSynchronizedRowReader(rowReader);
+        }
+        counter[0] = 0;
+        try {
+            Row row;
+            int batch = 0;
+            while ((row = rowReader.readRow()) != null) {
+                setValues(statementValueHandles, row.getValues());
+                statement.addBatch();
+                if (++batch == BATCH_SIZE) {
+                    statement.executeBatch();
+                    batch = 0;
+                }
+            }
+            statement.executeBatch();
+        } finally {
+            rowReader.close();
+        }
+        return counter[0];
+    }
+
+    @Benchmark
+    public long dumpLoad() throws SQLException {
+        dump();
+        return load();
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.FormatFactory;
+import com.nuodb.migrator.backup.format.Input;
+import com.nuodb.migrator.backup.format.Output;
+import com.nuodb.migrator.backup.format.SimpleFormatFactory;
+import com.nuodb.migrator.backup.format.value.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.collect.Maps.newHashMap;
+
+/**
+ * Measures encoding and decoding of rows by each of the backup formats for a
+ * range of column counts and column types. Values are prepared upfront, so that
+ * only the format itself is measured.
+ *
+ * @author Sergey Bushik
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OperationsPerInvocation(FormatBenchmark.ROWS)
+public class FormatBenchmark {
+
+    public static final int ROWS = 1000;
+
+    @Param({ "csv", "bson", "xml" })
+    private String format;
+
+    @Param({ "4", "16", "64" })
+    private int columns;
+
+    @Param({ "INTEGER", "DECIMAL", "VARCHAR", "TIMESTAMP", "VARBINARY", "MIXED" })
+    private String columnType;
+
+    private FormatFactory formatFactory;
+    private Map<String, Object> attributes;
+    private RowSet rowSet;
+    private Value[][] values;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkTable table = new BenchmarkTable(columnType, columns, ROWS);
+        formatFactory = new SimpleFormatFactory();
+        attributes = newHashMap();
+        rowSet = table.newRowSet(format);
+        values = table.newValues();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        write(outputStream);
+        bytes = outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public int write() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length);
+        write(outputStream);
+        return outputStream.size();
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) {
+        Input input = formatFactory.createInput(format, attributes);
+        input.setRowSet(rowSet);
+        input.setInputStream(new ByteArrayInputStream(bytes));
+        input.init();
+        input.readStart();
+        Value[] row;
+        while ((row = input.readValues()) != null) {
+            blackhole.consume(row);
+        }
+        input.readEnd();
+        input.close();
+    }
+
+    protected void write(ByteArrayOutputStream outputStream) {
+        Output output = formatFactory.createOutput(format, attributes);
+        output.setRowSet(rowSet);
+        output.setOutputStream(outputStream);
+        output.init();
+        output.writeStart();
+        for (Value[] row : values) {
+            output.writeValues(row);
+        }
+        output.writeEnd();
+        output.close();
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionResults;
+import com.nuodb.migrator.jdbc.metadata.inspector.SimpleInspectionResults;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.TABLE;
+import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
+
+/**
+ * Measures assembly of inspection results for synthetic schemas of growing
+ * size, as done when a database is inspected, and lookups of tables by name
+ * and by qualified name. Time of assembly should grow linearly with the number
+ * of tables.
+ *
+ * @author Sergey Bushik
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class InspectionResultsBenchmark {
+
+    public static final int TABLES_PER_SCHEMA = 1000;
+    public static final int COLUMNS_PER_TABLE = 10;
+
+    @Param({ "10000", "50000", "100000" })
+    private int tables;
+
+    private InspectionResults inspectionResults;
+    private String[] tableNames;
+    private String[] qualifiedNames;
+
+    @Setup
+    public void setup() {
+        tableNames = new String[tables];
+        qualifiedNames = new String[tables];
+        inspectionResults = assemble(tables);
+        int index = 0;
+        for (Object table : inspectionResults.getObjects(TABLE)) {
+            tableNames[index] = ((Table) table).getName();
+            qualifiedNames[index++] = ((Table) table).getQualifiedName();
+        }
+    }
+
+    @Benchmark
+    public InspectionResults assemble() {
+        return assemble(tables);
+    }
+
+    @Benchmark
+    public void getObject(Blackhole blackhole) {
+        for (String tableName : tableNames) {
+            blackhole.consume(inspectionResults.getObject(TABLE, tableName));
+        }
+    }
+
+    @Benchmark
+    public void getObjectByQualifiedName(Blackhole blackhole) {
+        for (String qualifiedName : qualifiedNames) {
+            blackhole.consume(inspectionResults.getObject(TABLE, qualifiedName));
+        }
+    }
+
+    /**
+     * Adds tables with columns to inspection results looking each table up by name afterwards, like table inspector
+     * does when it reads columns of already inspected tables.
+     */
+    protected static InspectionResults assemble(int tables) {
+        InspectionResults inspectionResults = new SimpleInspectionResults();
+        for (int index = 0; index < tables; index++) {
+            String tableName = "table" + index;
+            Table table = addTable(inspectionResults, null, "schema" + index / TABLES_PER_SCHEMA, tableName);
+            for (int column = 0; column < COLUMNS_PER_TABLE; column++) {
+                inspectionResults.addObject(table.addColumn("column" + column));
+            }
+            if (inspectionResults.getObject(TABLE, tableName) != table) {
+                throw new IllegalStateException("Table " + tableName + " is not found");
+            }
+        }
+        return inspectionResults;
+    }
+}
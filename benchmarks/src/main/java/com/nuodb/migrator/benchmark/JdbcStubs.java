@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+
+/**
+ * In-process JDBC stubs serving generated rows from memory and discarding
+ * bound parameters, so that benchmarks measure the migrator rather than a
+ * driver. Stubs are dynamic proxies, their dispatch cost is constant across
+ * runs and doesn't affect comparison of the results.
+ *
+ * @author Sergey Bushik
+ */
+public class JdbcStubs {
+
+    private JdbcStubs() {
+    }
+
+    public static Connection newConnection() {
+        return newProxy(Connection.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                String name = method.getName();
+                if ("getAutoCommit".equals(name)) {
+                    return true;
+                } else if ("isClosed".equals(name)) {
+                    return false;
+                } else {
+                    return getDefaultValue(method.getReturnType());
+                }
+            }
+        });
+    }
+
+    public static ResultSetMetaData newResultSetMetaData(final String[] names, final int[] typeCodes,
+            final String[] typeNames) {
+        return newProxy(ResultSetMetaData.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                String name = method.getName();
+                if ("getColumnCount".equals(name)) {
+                    return names.length;
+                }
+                int column = (Integer) args[0] - 1;
+                if ("getColumnLabel".equals(name) || "getColumnName".equals(name)) {
+                    return names[column];
+                } else if ("getColumnType".equals(name)) {
+                    return typeCodes[column];
+                } else if ("getColumnTypeName".equals(name)) {
+                    return typeNames[column];
+                } else {
+                    return getDefaultValue(method.getReturnType());
+                }
+            }
+        });
+    }
+
+    /**
+     * Creates forward only result set over the given rows, row values are
+     * returned by any of the getters accepting column index
+     *
+     * @param metaData
+     *            meta data of the result set
+     * @param rows
+     *            rows of values indexed by column
+     * @return result set stub
+     */
+    public static ResultSet newResultSet(final ResultSetMetaData metaData, final Object[][] rows) {
+        return newProxy(ResultSet.class, new InvocationHandler() {
+            private int row = -1;
+            private boolean wasNull;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                String name = method.getName();
+                if ("next".equals(name)) {
+                    return ++row < rows.length;
+                } else if ("wasNull".equals(name)) {
+                    return wasNull;
+                } else if ("getMetaData".equals(name)) {
+                    return metaData;
+                } else if (name.startsWith("get") && args != null && args[0] instanceof Integer) {
+                    Object value = rows[row][(Integer) args[0] - 1];
+                    wasNull = value == null;
+                    return convert(value, method.getReturnType());
+                } else {
+                    return getDefaultValue(method.getReturnType());
+                }
+            }
+        });
+    }
+
+    /**
+     * Creates prepared statement discarding bound parameters and counting
+     * added and executed rows
+     *
+     * @param counter
+     *            receives number of executed rows
+     * @return prepared statement stub
+     */
+    public static PreparedStatement newPreparedStatement(final long[] counter) {
+        return newProxy(PreparedStatement.class, new InvocationHandler() {
+            private int batch;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                String name = method.getName();
+                if ("addBatch".equals(name)) {
+                    batch++;
+                    return null;
+                } else if ("executeBatch".equals(name)) {
+                    int[] result = new int[batch];
+                    counter[0] += batch;
+                    batch = 0;
+                    return result;
+                } else if ("executeUpdate".equals(name)) {
+                    counter[0]++;
+                    return 1;
+                } else {
+                    return getDefaultValue(method.getReturnType());
+                }
+            }
+        });
+    }
+
+    protected static Object convert(Object value, Class<?> type) {
+        if (value == null) {
+            return getDefaultValue(type);
+        } else if (type == String.class) {
+            return value.toString();
+        } else if (type == int.class) {
+            return ((Number) value).intValue();
+        } else if (type == long.class) {
+            return ((Number) value).longValue();
+        } else if (type == short.class) {
+            return ((Number) value).shortValue();
+        } else if (type == byte.class) {
+            return ((Number) value).byteValue();
+        } else if (type == double.class) {
+            return ((Number) value).doubleValue();
+        } else if (type == float.class) {
+            return ((Number) value).floatValue();
+        } else if (type == BigDecimal.class && value instanceof Number && !(value instanceof BigDecimal)) {
+            return new BigDecimal(value.toString());
+        } else {
+            return value;
+        }
+    }
+
+    protected static Object getDefaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == char.class) {
+            return (char) 0;
+        } else {
+            return convert(0, type);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static <T> T newProxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(JdbcStubs.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+}
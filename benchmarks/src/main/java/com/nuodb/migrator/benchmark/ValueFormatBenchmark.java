@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.benchmark;
+
+import com.nuodb.migrator.backup.format.value.JdbcDateValueFormat;
+import com.nuodb.migrator.backup.format.value.JdbcTimeValueFormat;
+import com.nuodb.migrator.backup.format.value.JdbcTimestampValueFormat;
+import com.nuodb.migrator.backup.format.value.JdbcValueFormat;
+import com.nuodb.migrator.backup.format.value.SimpleValueFormatRegistry;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
+import com.nuodb.migrator.backup.format.value.ValueFormatRegistryBase;
+import com.nuodb.migrator.backup.format.value.ValueHandleList;
+import com.nuodb.migrator.jdbc.type.jdbc2.JdbcDateValue;
+import com.nuodb.migrator.jdbc.type.jdbc2.JdbcTimeValue;
+import com.nuodb.migrator.jdbc.type.jdbc2.JdbcTimestampValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import static com.nuodb.migrator.benchmark.BenchmarkTable.getValues;
+import static com.nuodb.migrator.benchmark.BenchmarkTable.setValues;
+import static com.nuodb.migrator.benchmark.JdbcStubs.newPreparedStatement;
+
+/**
+ * Measures conversion of the JDBC values to and from backup values by the value
+ * formats, as done on dump for each fetched row and on load for each inserted
+ * row. Column specific value formats are compared with the generic
+ * {@link JdbcValueFormat} switching on the type of each value.
+ *
+ * @author Sergey Bushik
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OperationsPerInvocation(ValueFormatBenchmark.ROWS)
+public class ValueFormatBenchmark {
+
+    public static final int ROWS = 1000;
+
+    /**
+     * Value formats picked per column type
+     */
+    public static final String SPECIFIC = "SPECIFIC";
+
+    /**
+     * Generic value format for all but temporal types
+     */
+    public static final String GENERIC = "GENERIC";
+
+    @Param({ "16" })
+    private int columns;
+
+    @Param({ "INTEGER", "BIGINT", "DECIMAL", "VARCHAR", "TIMESTAMP", "VARBINARY", "MIXED" })
+    private String columnType;
+
+    @Param({ SPECIFIC, GENERIC })
+    private String valueFormats;
+
+    private BenchmarkTable table;
+    private Value[][] values;
+    private ValueHandleList statementValueHandles;
+
+    @Setup
+    public void setup() throws SQLException {
+        table = new BenchmarkTable(columnType, columns, ROWS);
+        table.setValueFormatRegistry(createValueFormatRegistry());
+        values = table.newValues();
+        PreparedStatement statement = newPreparedStatement(new long[1]);
+        statementValueHandles = table.newValueHandleList(statement);
+    }
+
+    protected ValueFormatRegistry createValueFormatRegistry() {
+        if (SPECIFIC.equals(valueFormats)) {
+            return new SimpleValueFormatRegistry();
+        }
+        ValueFormatRegistry valueFormatRegistry = new ValueFormatRegistryBase(new JdbcValueFormat());
+        valueFormatRegistry.addValueFormat(JdbcTimestampValue.INSTANCE, new JdbcTimestampValueFormat());
+        valueFormatRegistry.addValueFormat(JdbcTimeValue.INSTANCE, new JdbcTimeValueFormat());
+        valueFormatRegistry.addValueFormat(JdbcDateValue.INSTANCE, new JdbcDateValueFormat());
+        return valueFormatRegistry;
+    }
+
+    @Benchmark
+    public void getValue(Blackhole blackhole) throws SQLException {
+        ResultSet resultSet = table.newResultSet();
+        ValueHandleList valueHandleList = table.newValueHandleList(resultSet);
+        while (resultSet.next()) {
+            blackhole.consume(getValues(valueHandleList));
+        }
+    }
+
+    @Benchmark
+    public void setValue() {
+        for (Value[] row : values) {
+            setValues(statementValueHandles, row);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
+import static java.lang.String.format;
+import static org.apache.commons.io.FileUtils.openInputStream;
+import static org.apache.commons.io.FileUtils.openOutputStream;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.apache.commons.lang3.StringUtils.join;
+import static org.apache.commons.lang3.StringUtils.splitPreserveAllTokens;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Append only journal of tab separated records kept next to the backup
+ * catalog. Each record is synced to the disk once written, so that the records
+ * survive a killed process, records of the existing journal are read back on
+ * resume. A record torn by a killed process is cut off before the journal is
+ * appended again, so that the records of the resumed run are not glued to it.
+ *
+ * @author Sergey Bushik
+ */
+public abstract class BackupJournal implements Closeable {
+
+    protected static final char SEPARATOR = '\t';
+    private static final String ENCODING = "UTF-8";
+
+    protected final transient Logger logger = getLogger(getClass());
+
+    private final File file;
+    private boolean resume;
+    private long length;
+    private FileOutputStream output;
+    private Writer writer;
+
+    protected BackupJournal(BackupOps backupOps, String suffix) {
+        this(FileUtils.getFile(backupOps.getDir(), backupOps.getFile() + suffix));
+    }
+
+    protected BackupJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens journal for writing, records of the existing journal are read if
+     * resume is requested, otherwise the journal is started over.
+     *
+     * @param resume
+     *            whether to resume from the existing journal
+     * @throws IOException
+     *             if journal can't be read or opened
+     */
+    public synchronized void open(boolean resume) throws IOException {
+        this.resume = resume && file.exists();
+        length = 0;
+        if (this.resume) {
+            read();
+        }
+        output = openOutputStream(file, this.resume);
+        if (this.resume) {
+            output.getChannel().truncate(length);
+        }
+        writer = new OutputStreamWriter(output, ENCODING);
+    }
+
+    /**
+     * Reads records of the existing journal up to the first incomplete or
+     * malformed one, length of the journal is set to the end of the last record
+     * read
+     */
+    protected void read() throws IOException {
+        InputStream input = new BufferedInputStream(openInputStream(file));
+        try {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long offset = 0;
+            int next;
+            while ((next = input.read()) != -1) {
+                offset++;
+                if (next != '\n') {
+                    line.write(next);
+                    continue;
+                }
+                String record = line.toString(ENCODING);
+                line.reset();
+                if (!readRecord(splitPreserveAllTokens(record, SEPARATOR))) {
+                    if (logger.isWarnEnabled()) {
+                        logger.warn(format("Skipping malformed journal record %s", record));
+                    }
+                    return;
+                }
+                length = offset;
+            }
+            // the last record is incomplete if the process was killed while
+            // writing it
+            if (line.size() > 0 && logger.isWarnEnabled()) {
+                logger.warn(format("Skipping incomplete journal record %s", line.toString(ENCODING)));
+            }
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    /**
+     * Reads record of the existing journal
+     *
+     * @param fields
+     *            record fields
+     * @return true if record is read, false if it's malformed
+     */
+    protected abstract boolean readRecord(String[] fields);
+
+    /**
+     * Writes record and syncs the journal
+     */
+    protected void writeRecord(List<String> fields) throws IOException {
+        write(fields);
+        sync();
+    }
+
+    /**
+     * Writes record without syncing the journal, so that several records are
+     * synced at once
+     */
+    protected void write(List<String> fields) throws IOException {
+        writer.write(join(fields, SEPARATOR));
+        writer.write('\n');
+    }
+
+    protected void sync() throws IOException {
+        writer.flush();
+        output.getFD().sync();
+    }
+
+    /**
+     * Returns true if the journal was resumed from the previous run
+     */
+    public synchronized boolean isResume() {
+        return resume;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    /**
+     * Closes and removes the journal, once the job is completed it's no longer
+     * needed.
+     */
+    public synchronized void delete() throws IOException {
+        close();
+        FileUtils.deleteQuietly(file);
+    }
+}
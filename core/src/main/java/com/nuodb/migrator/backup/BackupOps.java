@@ -60,6 +60,23 @@ public interface BackupOps {
 
     OutputStream openOutput(String name);
 
+    boolean exists(String name);
+
+    void rename(String name, String newName);
+
+    void delete(String name);
+
+    /**
+     * Opens reader of the backup catalog, which parses row sets on demand.
+     *
+     * @param context
+     *            read context
+     * @return backup reader, which should be closed by the caller
+     */
+    BackupReader openReader(Map context);
+
+    BackupReader openReader(InputStream input, Map context);
+
     Backup read();
 
     Backup read(Map context);
@@ -144,6 +144,40 @@ public abstract class BackupOpsBase implements BackupOps {
         }
     }
 
+    @Override
+    public boolean exists(String name) {
+        return FileUtils.getFile(getDir(), name).exists();
+    }
+
+    @Override
+    public void rename(String name, String newName) {
+        File file = FileUtils.getFile(getDir(), name);
+        File newFile = FileUtils.getFile(getDir(), newName);
+        if (logger.isTraceEnabled()) {
+            logger.trace(format("Renaming file %s to %s", file.getPath(), newFile.getPath()));
+        }
+        if (!file.renameTo(newFile)) {
+            throw new BackupException(format("Error renaming file %s to %s", file.getPath(), newFile.getPath()));
+        }
+    }
+
+    @Override
+    public void delete(String name) {
+        File file = FileUtils.getFile(getDir(), name);
+        if (logger.isTraceEnabled()) {
+            logger.trace(format("Deleting file %s", file.getPath()));
+        }
+        deleteQuietly(file);
+    }
+
+    @Override
+    public BackupReader openReader(Map context) {
+        return openReader(openBackupInput(), context);
+    }
+
+    @Override
+    public abstract BackupReader openReader(InputStream input, Map context);
+
     @Override
     public Backup read() {
         return read((Map) null);
@@ -0,0 +1,269 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup;
+
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.format.value.ValueFormatException;
+import com.nuodb.migrator.backup.format.value.ValueType;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.UUID;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.getReference;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.isReference;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.reference;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.apache.commons.io.IOUtils.copyLarge;
+import static org.apache.commons.io.IOUtils.toByteArray;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Stores binary values longer than the threshold out of line in files named
+ * after the hash of their content, so that a value repeated in a backup is
+ * stored once. Chunks keep only references to the stored values, which are
+ * resolved on read and opened on demand.
+ *
+ * @author Sergey Bushik
+ */
+public class LobStore {
+
+    public static final String ALGORITHM = "SHA-1";
+    public static final String SUFFIX = ".lob";
+    public static final String TEMP_SUFFIX = ".tmp";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    protected final transient Logger logger = getLogger(getClass());
+
+    private final BackupOps backupOps;
+    private long threshold;
+
+    public LobStore(BackupOps backupOps) {
+        this.backupOps = backupOps;
+    }
+
+    public LobStore(BackupOps backupOps, long threshold) {
+        this.backupOps = backupOps;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Stores binary value if it's longer than the threshold
+     *
+     * @param value
+     *            binary value to store
+     * @return reference to the stored value or the value itself, if it's not
+     *         longer than the threshold
+     */
+    public Value write(Value value) {
+        if (value.isNull() || isReference(value) || value.getValueType() != BINARY) {
+            return value;
+        }
+        long length = value.getLength();
+        if (length >= 0 && length <= threshold) {
+            return value;
+        }
+        InputStream input = value.asInputStream();
+        try {
+            // value of unknown length is read up to the threshold to learn if it's stored
+            ByteArrayOutputStream head = new ByteArrayOutputStream();
+            if (length < 0) {
+                byte[] buffer = new byte[(int) min(BUFFER_SIZE, threshold + 1)];
+                int read;
+                do {
+                    read = IOUtils.read(input, buffer, 0, (int) min(buffer.length, threshold + 1 - head.size()));
+                    head.write(buffer, 0, read);
+                } while (read > 0 && head.size() <= threshold);
+                if (head.size() <= threshold) {
+                    return binary(head.toByteArray());
+                }
+            }
+            return reference(write(head, input));
+        } catch (IOException exception) {
+            throw new BackupException("Error storing value", exception);
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    protected String write(ByteArrayOutputStream head, InputStream input) throws IOException {
+        String temp = UUID.randomUUID() + TEMP_SUFFIX;
+        MessageDigest digest = createDigest();
+        OutputStream output = new DigestOutputStream(backupOps.openOutput(temp), digest);
+        try {
+            head.writeTo(output);
+            copyLarge(input, output);
+        } catch (IOException exception) {
+            closeQuietly(output);
+            backupOps.delete(temp);
+            throw exception;
+        }
+        output.close();
+        String name = encodeHexString(digest.digest()) + SUFFIX;
+        if (backupOps.exists(name)) {
+            if (logger.isTraceEnabled()) {
+                logger.trace(format("Value %s is already stored", name));
+            }
+            backupOps.delete(temp);
+        } else {
+            try {
+                backupOps.rename(temp, name);
+            } catch (BackupException exception) {
+                // identical value stored concurrently by another thread
+                if (!backupOps.exists(name)) {
+                    throw exception;
+                }
+                if (logger.isTraceEnabled()) {
+                    logger.trace(format("Value %s is stored concurrently", name));
+                }
+                backupOps.delete(temp);
+            }
+        }
+        return name;
+    }
+
+    protected MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new BackupException(exception);
+        }
+    }
+
+    /**
+     * Resolves reference to a stored value, the value is opened when it's
+     * accessed
+     *
+     * @param value
+     *            value to resolve
+     * @return stored value if the value is a reference or the value itself
+     */
+    public Value read(Value value) {
+        return isReference(value) ? new StoredValue(backupOps, getReference(value)) : value;
+    }
+
+    public long getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(long threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Value read from the store on access, streams opened by the value are
+     * kept until it's closed, as they are consumed by the statement they're
+     * bound to only once it's executed.
+     */
+    static class StoredValue implements Value, Closeable {
+
+        private final transient BackupOps backupOps;
+        private final String name;
+        private final transient List<InputStream> inputs = newArrayList();
+
+        public StoredValue(BackupOps backupOps, String name) {
+            this.backupOps = backupOps;
+            this.name = name;
+        }
+
+        @Override
+        public boolean isNull() {
+            return false;
+        }
+
+        @Override
+        public String asString() {
+            return new String(asBytes());
+        }
+
+        @Override
+        public byte[] asBytes() {
+            InputStream input = backupOps.openInput(name);
+            try {
+                return toByteArray(input);
+            } catch (IOException exception) {
+                throw new ValueFormatException(exception);
+            } finally {
+                closeQuietly(input);
+            }
+        }
+
+        @Override
+        public InputStream asInputStream() {
+            InputStream input = backupOps.openInput(name);
+            inputs.add(input);
+            return input;
+        }
+
+        @Override
+        public void close() {
+            for (InputStream input : inputs) {
+                closeQuietly(input);
+            }
+            inputs.clear();
+        }
+
+        @Override
+        public Reader asReader() {
+            return new InputStreamReader(asInputStream());
+        }
+
+        @Override
+        public long getLength() {
+            return backupOps.getLength(name);
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return BINARY;
+        }
+
+        @Override
+        public String toString() {
+            return "Stored{'" + name + "'}";
+        }
+    }
+}
@@ -50,8 +50,6 @@ import static java.lang.String.format;
  */
 public class XmlBackupHandler extends XmlReadWriteHandlerBase<Backup> implements XmlConstants {
 
-    private static final String VERSION_ATTRIBUTE = "version";
-    private static final String FORMAT_ATTRIBUTE = "format";
     private static final String DATABASE_ELEMENT = "database";
     private static final String DATABASE_INFO_ELEMENT = "database-info";
 
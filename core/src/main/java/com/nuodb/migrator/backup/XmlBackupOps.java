@@ -35,15 +35,38 @@ import org.simpleframework.xml.strategy.Strategy;
 import org.simpleframework.xml.strategy.TreeStrategy;
 import org.simpleframework.xml.stream.Format;
 
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.Map;
 
+import static com.nuodb.migrator.backup.XmlBackupReader.copyElement;
+import static com.nuodb.migrator.backup.XmlBackupReader.copyStartElement;
+import static com.nuodb.migrator.backup.format.value.ValueType.toAlias;
+import static com.nuodb.migrator.utils.xml.XmlAliasTypeMapper.TYPE_ATTRIBUTE;
+import static com.nuodb.migrator.utils.xml.XmlPersister.INDENT;
+import static java.lang.String.valueOf;
+import static javax.xml.stream.XMLInputFactory.newInstance;
+import static javax.xml.stream.XMLOutputFactory.newFactory;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+import static org.apache.commons.lang3.StringUtils.repeat;
+
 /**
+ * Reads and writes backup catalog in xml. Database meta data is handled by the
+ * {@link XmlPersister}, while row sets and their chunks, which account for the
+ * most of a large catalog, are streamed with StAX.
+ *
  * @author Sergey Bushik
  */
 public class XmlBackupOps extends BackupOpsBase implements XmlConstants {
 
+    private static final String ENCODING = "UTF-8";
+    private static final String VERSION = "1.0";
+
     private final XmlPersister xmlPersister;
 
     public XmlBackupOps() {
@@ -66,14 +89,114 @@ public class XmlBackupOps extends BackupOpsBase implements XmlConstants {
         return null;
     }
 
+    @Override
+    public BackupReader openReader(InputStream input, Map context) {
+        return new XmlBackupReader(getXmlPersister(), input, context);
+    }
+
     @Override
     public Backup read(InputStream input, Map context) {
-        return getXmlPersister().read(Backup.class, input, context);
+        BackupReader backupReader = openReader(input, context);
+        while (backupReader.readRowSet() != null) {
+            // row set is added to the backup by the reader
+        }
+        return backupReader.getBackup();
     }
 
     @Override
     public void write(Backup backup, OutputStream output, Map context) {
-        getXmlPersister().write(backup, output, context);
+        try {
+            XMLStreamWriter xmlWriter = newFactory().createXMLStreamWriter(output, ENCODING);
+            xmlWriter.writeStartDocument(ENCODING, VERSION);
+            writeIndent(xmlWriter, 0);
+            writeBackup(backup, xmlWriter, context);
+            for (RowSet rowSet : backup.getRowSets()) {
+                writeRowSet(rowSet, xmlWriter);
+            }
+            writeIndent(xmlWriter, 0);
+            xmlWriter.writeEndElement();
+            xmlWriter.writeEndDocument();
+            xmlWriter.flush();
+        } catch (XMLStreamException exception) {
+            throw new BackupException("Error writing backup", exception);
+        }
+    }
+
+    /**
+     * Writes backup element with the database using the persister and leaves
+     * backup element open for the row sets to follow.
+     */
+    protected void writeBackup(Backup backup, XMLStreamWriter xmlWriter, Map context) throws XMLStreamException {
+        Backup header = new Backup(backup.getFormat(), backup.getDatabase());
+        header.setVersion(backup.getVersion());
+        StringWriter writer = new StringWriter();
+        getXmlPersister().write(header, writer, context);
+
+        XMLStreamReader xmlReader = newInstance().createXMLStreamReader(new StringReader(writer.toString()));
+        while (xmlReader.next() != START_ELEMENT) {
+            // skips prolog
+        }
+        copyStartElement(xmlReader, xmlWriter);
+        while (xmlReader.hasNext()) {
+            if (xmlReader.next() == START_ELEMENT) {
+                writeIndent(xmlWriter, 1);
+                copyElement(xmlReader, xmlWriter);
+            }
+        }
+        xmlReader.close();
+    }
+
+    protected void writeRowSet(RowSet rowSet, XMLStreamWriter xmlWriter) throws XMLStreamException {
+        writeIndent(xmlWriter, 1);
+        xmlWriter.writeStartElement(ROW_SET);
+        xmlWriter.writeAttribute(TYPE_ATTRIBUTE, rowSet instanceof QueryRowSet ? QUERY_TYPE : TABLE_TYPE);
+        if (rowSet.getName() != null) {
+            xmlWriter.writeAttribute(ROW_SET_NAME_ATTRIBUTE, rowSet.getName());
+        }
+        xmlWriter.writeAttribute(ROW_SET_ROW_COUNT_ATTRIBUTE, valueOf(rowSet.getRowCount()));
+        if (rowSet instanceof TableRowSet) {
+            TableRowSet tableRowSet = (TableRowSet) rowSet;
+            if (tableRowSet.getCatalog() != null) {
+                xmlWriter.writeAttribute(ROW_SET_CATALOG_ATTRIBUTE, tableRowSet.getCatalog());
+            }
+            if (tableRowSet.getSchema() != null) {
+                xmlWriter.writeAttribute(ROW_SET_SCHEMA_ATTRIBUTE, tableRowSet.getSchema());
+            }
+            if (tableRowSet.getTable() != null) {
+                xmlWriter.writeAttribute(ROW_SET_TABLE_ATTRIBUTE, tableRowSet.getTable());
+            }
+        }
+        if (rowSet instanceof QueryRowSet && ((QueryRowSet) rowSet).getQuery() != null) {
+            writeIndent(xmlWriter, 2);
+            xmlWriter.writeStartElement(ROW_SET_QUERY_ELEMENT);
+            xmlWriter.writeCharacters(((QueryRowSet) rowSet).getQuery());
+            xmlWriter.writeEndElement();
+        }
+        for (Column column : rowSet.getColumns()) {
+            writeIndent(xmlWriter, 2);
+            xmlWriter.writeEmptyElement(ROW_SET_COLUMN_ELEMENT);
+            if (column.getName() != null) {
+                xmlWriter.writeAttribute(ROW_SET_COLUMN_NAME_ATTRIBUTE, column.getName());
+            }
+            String valueType = toAlias(column.getValueType());
+            if (valueType != null) {
+                xmlWriter.writeAttribute(ROW_SET_COLUMN_VALUE_TYPE_ATTRIBUTE, valueType);
+            }
+        }
+        for (Chunk chunk : rowSet.getChunks()) {
+            writeIndent(xmlWriter, 2);
+            xmlWriter.writeEmptyElement(ROW_SET_CHUNK_ELEMENT);
+            if (chunk.getName() != null) {
+                xmlWriter.writeAttribute(ROW_SET_CHUNK_NAME_ATTRIBUTE, chunk.getName());
+            }
+            xmlWriter.writeAttribute(ROW_SET_CHUNK_ROW_COUNT_ATTRIBUTE, valueOf(chunk.getRowCount()));
+        }
+        writeIndent(xmlWriter, 1);
+        xmlWriter.writeEndElement();
+    }
+
+    private static void writeIndent(XMLStreamWriter xmlWriter, int level) throws XMLStreamException {
+        xmlWriter.writeCharacters("\n" + repeat(' ', level * INDENT));
     }
 
     public XmlPersister getXmlPersister() {
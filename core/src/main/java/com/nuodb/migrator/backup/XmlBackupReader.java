@@ -0,0 +1,304 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup;
+
+import com.nuodb.migrator.utils.xml.Xml10FilterReader;
+import com.nuodb.migrator.utils.xml.XmlPersister;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Map;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.nuodb.migrator.backup.format.value.ValueType.fromAlias;
+import static com.nuodb.migrator.utils.xml.XmlAliasTypeMapper.TYPE_ATTRIBUTE;
+import static java.lang.Long.parseLong;
+import static java.lang.String.format;
+import static javax.xml.XMLConstants.NULL_NS_URI;
+import static javax.xml.stream.XMLInputFactory.newInstance;
+import static javax.xml.stream.XMLOutputFactory.newFactory;
+import static javax.xml.stream.XMLStreamConstants.*;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+
+/**
+ * Streaming reader of the xml backup catalog. Everything preceding the first
+ * row set (backup attributes and database meta data) is handed over to the
+ * {@link XmlPersister}, so that the format and the post processing of the
+ * database stay with {@link XmlBackupHandler}, while row sets are parsed with
+ * StAX one at a time as they are requested.
+ *
+ * @author Sergey Bushik
+ */
+public class XmlBackupReader implements BackupReader, XmlConstants {
+
+    private final XmlPersister xmlPersister;
+    private final InputStream input;
+    private final Map context;
+    private XMLStreamReader xmlReader;
+    private Backup backup;
+    private boolean rowSetStarted;
+
+    public XmlBackupReader(XmlPersister xmlPersister, InputStream input, Map context) {
+        this.xmlPersister = xmlPersister;
+        this.input = input;
+        this.context = context;
+    }
+
+    @Override
+    public Backup getBackup() {
+        if (backup == null) {
+            try {
+                backup = readBackup();
+            } catch (XMLStreamException exception) {
+                throw new BackupException("Error reading backup", exception);
+            }
+        }
+        return backup;
+    }
+
+    @Override
+    public RowSet readRowSet() {
+        Backup backup = getBackup();
+        try {
+            RowSet rowSet = null;
+            if (nextRowSet()) {
+                rowSet = readRowSet(xmlReader);
+                backup.addRowSet(rowSet);
+            }
+            return rowSet;
+        } catch (XMLStreamException exception) {
+            throw new BackupException("Error reading row set", exception);
+        }
+    }
+
+    /**
+     * Copies backup element with all of its children preceding the first row
+     * set to a standalone document, which is read with the persister.
+     *
+     * @return backup with the database read
+     * @throws XMLStreamException
+     *             if xml is malformed
+     */
+    protected Backup readBackup() throws XMLStreamException {
+        xmlReader = newInstance().createXMLStreamReader(new Xml10FilterReader(new InputStreamReader(input, UTF_8)));
+        if (!nextElement() || !BACKUP_ELEMENT.equals(xmlReader.getLocalName())) {
+            throw new BackupException(format("Backup catalog should start with %s element", BACKUP_ELEMENT));
+        }
+        StringWriter header = new StringWriter();
+        XMLStreamWriter xmlWriter = newFactory().createXMLStreamWriter(header);
+        copyStartElement(xmlReader, xmlWriter);
+        while (nextElement()) {
+            if (ROW_SET.equals(xmlReader.getLocalName())) {
+                rowSetStarted = true;
+                break;
+            }
+            copyElement(xmlReader, xmlWriter);
+        }
+        xmlWriter.writeEndElement();
+        xmlWriter.close();
+        return xmlPersister.read(Backup.class, new StringReader(header.toString()), context);
+    }
+
+    protected boolean nextRowSet() throws XMLStreamException {
+        if (rowSetStarted) {
+            rowSetStarted = false;
+            return true;
+        }
+        while (nextElement()) {
+            if (ROW_SET.equals(xmlReader.getLocalName())) {
+                return true;
+            }
+            skipElement(xmlReader);
+        }
+        return false;
+    }
+
+    protected RowSet readRowSet(XMLStreamReader xmlReader) throws XMLStreamException {
+        String type = getAttribute(xmlReader, TYPE_ATTRIBUTE);
+        RowSet rowSet;
+        if (type == null || TABLE_TYPE.equals(type)) {
+            TableRowSet tableRowSet = new TableRowSet();
+            tableRowSet.setCatalog(getAttribute(xmlReader, ROW_SET_CATALOG_ATTRIBUTE, ROW_SET_CATALOG_NAME_ATTRIBUTE));
+            tableRowSet.setSchema(getAttribute(xmlReader, ROW_SET_SCHEMA_ATTRIBUTE, ROW_SET_SCHEMA_NAME_ATTRIBUTE));
+            tableRowSet.setTable(getAttribute(xmlReader, ROW_SET_TABLE_ATTRIBUTE, ROW_SET_TABLE_NAME_ATTRIBUTE));
+            rowSet = tableRowSet;
+        } else if (QUERY_TYPE.equals(type)) {
+            rowSet = new QueryRowSet();
+        } else {
+            throw new BackupException(format("Unsupported row set type %s", type));
+        }
+        rowSet.setType(type);
+        rowSet.setName(getAttribute(xmlReader, ROW_SET_NAME_ATTRIBUTE));
+        rowSet.setRowCount(getLongAttribute(xmlReader, ROW_SET_ROW_COUNT_ATTRIBUTE));
+        while (nextChildElement(xmlReader)) {
+            String element = xmlReader.getLocalName();
+            if (ROW_SET_QUERY_ELEMENT.equals(element) && rowSet instanceof QueryRowSet) {
+                ((QueryRowSet) rowSet).setQuery(xmlReader.getElementText());
+            } else if (ROW_SET_COLUMN_ELEMENT.equals(element)) {
+                rowSet.addColumn(getAttribute(xmlReader, ROW_SET_COLUMN_NAME_ATTRIBUTE),
+                        fromAlias(getAttribute(xmlReader, ROW_SET_COLUMN_VALUE_TYPE_ATTRIBUTE)));
+                skipElement(xmlReader);
+            } else if (ROW_SET_CHUNK_ELEMENT.equals(element)) {
+                Chunk chunk = new Chunk();
+                chunk.setName(getAttribute(xmlReader, ROW_SET_CHUNK_NAME_ATTRIBUTE));
+                chunk.setRowCount(getLongAttribute(xmlReader, ROW_SET_CHUNK_ROW_COUNT_ATTRIBUTE));
+                rowSet.addChunk(chunk);
+                skipElement(xmlReader);
+            } else {
+                skipElement(xmlReader);
+            }
+        }
+        return rowSet;
+    }
+
+    /**
+     * Moves to the next start element, including nested elements
+     *
+     * @return true if start element is found before the end of document
+     * @throws XMLStreamException
+     *             if xml is malformed
+     */
+    protected boolean nextElement() throws XMLStreamException {
+        while (xmlReader.hasNext()) {
+            if (xmlReader.next() == START_ELEMENT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves to the next child of the current element, stops at the end of the
+     * current element if there are no more children
+     */
+    protected static boolean nextChildElement(XMLStreamReader xmlReader) throws XMLStreamException {
+        while (xmlReader.hasNext()) {
+            switch (xmlReader.next()) {
+            case START_ELEMENT:
+                return true;
+            case END_ELEMENT:
+                return false;
+            }
+        }
+        return false;
+    }
+
+    protected static void skipElement(XMLStreamReader xmlReader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && xmlReader.hasNext()) {
+            switch (xmlReader.next()) {
+            case START_ELEMENT:
+                depth++;
+                break;
+            case END_ELEMENT:
+                depth--;
+                break;
+            }
+        }
+    }
+
+    /**
+     * Copies current element with its children, elements without content are
+     * written as empty elements.
+     */
+    protected static void copyElement(XMLStreamReader xmlReader, XMLStreamWriter xmlWriter)
+            throws XMLStreamException {
+        String element = xmlReader.getLocalName();
+        Map<String, String> attributes = newLinkedHashMap();
+        for (int index = 0; index < xmlReader.getAttributeCount(); index++) {
+            attributes.put(xmlReader.getAttributeLocalName(index), xmlReader.getAttributeValue(index));
+        }
+        int event = xmlReader.next();
+        if (event == END_ELEMENT) {
+            xmlWriter.writeEmptyElement(element);
+        } else {
+            xmlWriter.writeStartElement(element);
+        }
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            xmlWriter.writeAttribute(attribute.getKey(), attribute.getValue());
+        }
+        if (event == END_ELEMENT) {
+            return;
+        }
+        do {
+            switch (event) {
+            case START_ELEMENT:
+                copyElement(xmlReader, xmlWriter);
+                break;
+            case CHARACTERS:
+            case SPACE:
+                xmlWriter.writeCharacters(xmlReader.getText());
+                break;
+            case CDATA:
+                xmlWriter.writeCData(xmlReader.getText());
+                break;
+            }
+        } while ((event = xmlReader.next()) != END_ELEMENT);
+        xmlWriter.writeEndElement();
+    }
+
+    protected static void copyStartElement(XMLStreamReader xmlReader, XMLStreamWriter xmlWriter)
+            throws XMLStreamException {
+        xmlWriter.writeStartElement(xmlReader.getLocalName());
+        for (int index = 0; index < xmlReader.getAttributeCount(); index++) {
+            xmlWriter.writeAttribute(xmlReader.getAttributeLocalName(index), xmlReader.getAttributeValue(index));
+        }
+    }
+
+    protected static String getAttribute(XMLStreamReader xmlReader, String attribute) {
+        return xmlReader.getAttributeValue(NULL_NS_URI, attribute);
+    }
+
+    protected static String getAttribute(XMLStreamReader xmlReader, String attribute, String fallback) {
+        String value = getAttribute(xmlReader, attribute);
+        return value != null ? value : getAttribute(xmlReader, fallback);
+    }
+
+    protected static long getLongAttribute(XMLStreamReader xmlReader, String attribute) {
+        String value = getAttribute(xmlReader, attribute);
+        return value != null ? parseLong(value) : 0;
+    }
+
+    @Override
+    public void close() {
+        if (xmlReader != null) {
+            try {
+                xmlReader.close();
+            } catch (XMLStreamException exception) {
+                throw new BackupException("Error closing backup reader", exception);
+            }
+        }
+        closeQuietly(input);
+    }
+}
@@ -38,22 +38,19 @@ import org.simpleframework.xml.stream.OutputNode;
  */
 public class XmlChunkHandler extends XmlReadWriteHandlerBase<Chunk> implements XmlConstants {
 
-    private static final String NAME = "name";
-    private static final String ROW_COUNT = "row-count";
-
     public XmlChunkHandler() {
         super(Chunk.class);
     }
 
     @Override
     protected void readAttributes(InputNode input, Chunk chunk, XmlReadContext context) throws Exception {
-        chunk.setName(context.readAttribute(input, NAME, String.class));
-        chunk.setRowCount(context.readAttribute(input, ROW_COUNT, Long.class));
+        chunk.setName(context.readAttribute(input, ROW_SET_CHUNK_NAME_ATTRIBUTE, String.class));
+        chunk.setRowCount(context.readAttribute(input, ROW_SET_CHUNK_ROW_COUNT_ATTRIBUTE, Long.class));
     }
 
     @Override
     protected void writeAttributes(Chunk chunk, OutputNode output, XmlWriteContext context) throws Exception {
-        context.writeAttribute(output, NAME, chunk.getName());
-        context.writeAttribute(output, ROW_COUNT, chunk.getRowCount());
+        context.writeAttribute(output, ROW_SET_CHUNK_NAME_ATTRIBUTE, chunk.getName());
+        context.writeAttribute(output, ROW_SET_CHUNK_ROW_COUNT_ATTRIBUTE, chunk.getRowCount());
     }
 }
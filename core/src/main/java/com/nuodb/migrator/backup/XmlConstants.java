@@ -34,8 +34,44 @@ public interface XmlConstants {
 
     final String XML_HANDLER_REGISTRY = "com/nuodb/migrator/backup/xml.handler.registry";
 
+    final String BACKUP_ELEMENT = "backup";
+
+    final String VERSION_ATTRIBUTE = "version";
+
+    final String FORMAT_ATTRIBUTE = "format";
+
     final String ROW_SET = "row-set";
 
+    final String ROW_SET_NAME_ATTRIBUTE = "name";
+
+    final String ROW_SET_ROW_COUNT_ATTRIBUTE = "row-count";
+
+    final String ROW_SET_CATALOG_ATTRIBUTE = "catalog";
+
+    final String ROW_SET_SCHEMA_ATTRIBUTE = "schema";
+
+    final String ROW_SET_TABLE_ATTRIBUTE = "table";
+
+    final String ROW_SET_CATALOG_NAME_ATTRIBUTE = "catalog-name";
+
+    final String ROW_SET_SCHEMA_NAME_ATTRIBUTE = "schema-name";
+
+    final String ROW_SET_TABLE_NAME_ATTRIBUTE = "table-name";
+
+    final String ROW_SET_QUERY_ELEMENT = "query";
+
+    final String ROW_SET_COLUMN_ELEMENT = "column";
+
+    final String ROW_SET_COLUMN_NAME_ATTRIBUTE = "name";
+
+    final String ROW_SET_COLUMN_VALUE_TYPE_ATTRIBUTE = "value-type";
+
+    final String ROW_SET_CHUNK_ELEMENT = "chunk";
+
+    final String ROW_SET_CHUNK_NAME_ATTRIBUTE = "name";
+
+    final String ROW_SET_CHUNK_ROW_COUNT_ATTRIBUTE = "row-count";
+
     final String QUERY_TYPE = "query";
 
     final String TABLE_TYPE = "table";
@@ -37,15 +37,13 @@ import org.simpleframework.xml.stream.OutputNode;
  */
 public class XmlQueryRowSetHandler extends XmlRowSetHandler<QueryRowSet> {
 
-    private static final String QUERY_ELEMENT = "query";
-
     public XmlQueryRowSetHandler() {
         super(QueryRowSet.class, QUERY_TYPE);
     }
 
     @Override
     protected void readElement(InputNode input, QueryRowSet rowSet, XmlReadContext context) throws Exception {
-        if (QUERY_ELEMENT.equals(input.getName())) {
+        if (ROW_SET_QUERY_ELEMENT.equals(input.getName())) {
             rowSet.setQuery(context.read(input, String.class));
         } else {
             super.readElement(input, rowSet, context);
@@ -54,7 +52,7 @@ public class XmlQueryRowSetHandler extends XmlRowSetHandler<QueryRowSet> {
 
     @Override
     protected void writeElements(QueryRowSet rowSet, OutputNode output, XmlWriteContext context) throws Exception {
-        context.writeElement(output, QUERY_ELEMENT, rowSet.getQuery());
+        context.writeElement(output, ROW_SET_QUERY_ELEMENT, rowSet.getQuery());
         super.writeElements(rowSet, output, context);
     }
 }
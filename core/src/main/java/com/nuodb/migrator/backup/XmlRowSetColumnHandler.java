@@ -41,22 +41,19 @@ import static com.nuodb.migrator.backup.format.value.ValueType.toAlias;
  */
 public class XmlRowSetColumnHandler extends XmlReadWriteHandlerBase<Column> implements XmlConstants {
 
-    private static final String NAME_ATTRIBUTE = "name";
-    private static final String VALUE_TYPE_ATTRIBUTE = "value-type";
-
     public XmlRowSetColumnHandler() {
         super(Column.class);
     }
 
     @Override
     protected void readAttributes(InputNode input, Column target, XmlReadContext context) throws Exception {
-        target.setName(context.readAttribute(input, NAME_ATTRIBUTE, String.class));
-        target.setValueType(fromAlias(context.readAttribute(input, VALUE_TYPE_ATTRIBUTE, String.class)));
+        target.setName(context.readAttribute(input, ROW_SET_COLUMN_NAME_ATTRIBUTE, String.class));
+        target.setValueType(fromAlias(context.readAttribute(input, ROW_SET_COLUMN_VALUE_TYPE_ATTRIBUTE, String.class)));
     }
 
     @Override
     protected void writeAttributes(Column column, OutputNode output, XmlWriteContext context) throws Exception {
-        context.writeAttribute(output, NAME_ATTRIBUTE, column.getName());
-        context.writeAttribute(output, VALUE_TYPE_ATTRIBUTE, toAlias(column.getValueType()));
+        context.writeAttribute(output, ROW_SET_COLUMN_NAME_ATTRIBUTE, column.getName());
+        context.writeAttribute(output, ROW_SET_COLUMN_VALUE_TYPE_ATTRIBUTE, toAlias(column.getValueType()));
     }
 }
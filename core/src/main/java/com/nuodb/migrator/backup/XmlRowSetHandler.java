@@ -40,11 +40,6 @@ import static com.nuodb.migrator.utils.xml.XmlAliasTypeMapper.TYPE_ATTRIBUTE;
  */
 public abstract class XmlRowSetHandler<T extends RowSet> extends XmlReadWriteHandlerBase<T> implements XmlConstants {
 
-    private static final String NAME_ATTRIBUTE = "name";
-    private static final String ROW_COUNT_ATTRIBUTE = "row-count";
-    private static final String COLUMN_ELEMENT = "column";
-    private static final String CHUNK_ELEMENT = "chunk";
-
     private final String typeAttribute;
 
     protected XmlRowSetHandler(Class<? extends T> type, String typeAttribute) {
@@ -55,8 +50,8 @@ public abstract class XmlRowSetHandler<T extends RowSet> extends XmlReadWriteHan
     @Override
     protected void readAttributes(InputNode input, T target, XmlReadContext context) throws Exception {
         target.setType(context.readAttribute(input, TYPE_ATTRIBUTE, String.class));
-        target.setName(context.readAttribute(input, NAME_ATTRIBUTE, String.class));
-        Long rowCount = context.readAttribute(input, ROW_COUNT_ATTRIBUTE, Long.class);
+        target.setName(context.readAttribute(input, ROW_SET_NAME_ATTRIBUTE, String.class));
+        Long rowCount = context.readAttribute(input, ROW_SET_ROW_COUNT_ATTRIBUTE, Long.class);
         target.setRowCount(rowCount != null ? rowCount : 0);
     }
 
@@ -64,16 +59,16 @@ public abstract class XmlRowSetHandler<T extends RowSet> extends XmlReadWriteHan
     protected void writeAttributes(T rowSet, OutputNode output, XmlWriteContext context) throws Exception {
         context.writeAttribute(output, TYPE_ATTRIBUTE, getTypeAttribute());
         if (rowSet.getName() != null) {
-            context.writeAttribute(output, NAME_ATTRIBUTE, rowSet.getName());
+            context.writeAttribute(output, ROW_SET_NAME_ATTRIBUTE, rowSet.getName());
         }
-        context.writeAttribute(output, ROW_COUNT_ATTRIBUTE, rowSet.getRowCount());
+        context.writeAttribute(output, ROW_SET_ROW_COUNT_ATTRIBUTE, rowSet.getRowCount());
     }
 
     @Override
     protected void readElement(InputNode input, T rowSet, XmlReadContext context) throws Exception {
-        if (COLUMN_ELEMENT.equals(input.getName())) {
+        if (ROW_SET_COLUMN_ELEMENT.equals(input.getName())) {
             rowSet.addColumn(context.read(input, Column.class));
-        } else if (CHUNK_ELEMENT.equals(input.getName())) {
+        } else if (ROW_SET_CHUNK_ELEMENT.equals(input.getName())) {
             rowSet.addChunk(context.read(input, Chunk.class));
         }
     }
@@ -81,10 +76,10 @@ public abstract class XmlRowSetHandler<T extends RowSet> extends XmlReadWriteHan
     @Override
     protected void writeElements(T rowSet, OutputNode output, XmlWriteContext context) throws Exception {
         for (Column column : rowSet.getColumns()) {
-            context.writeElement(output, COLUMN_ELEMENT, column);
+            context.writeElement(output, ROW_SET_COLUMN_ELEMENT, column);
         }
         for (Chunk chunk : rowSet.getChunks()) {
-            context.writeElement(output, CHUNK_ELEMENT, chunk);
+            context.writeElement(output, ROW_SET_CHUNK_ELEMENT, chunk);
         }
     }
 
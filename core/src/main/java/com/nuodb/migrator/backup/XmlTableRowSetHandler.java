@@ -37,14 +37,6 @@ import org.simpleframework.xml.stream.OutputNode;
  */
 public class XmlTableRowSetHandler extends XmlRowSetHandler<TableRowSet> {
 
-    private static final String CATALOG_ATTRIBUTE = "catalog";
-    private static final String SCHEMA_ATTRIBUTE = "schema";
-    private static final String TABLE_ATTRIBUTE = "table";
-    // old format attributes
-    private static final String CATALOG_NAME_ATTRIBUTE = "catalog-name";
-    private static final String SCHEMA_NAME_ATTRIBUTE = "schema-name";
-    private static final String TABLE_NAME_ATTRIBUTE = "table-name";
-
     public XmlTableRowSetHandler() {
         super(TableRowSet.class, TABLE_TYPE);
     }
@@ -52,23 +44,24 @@ public class XmlTableRowSetHandler extends XmlRowSetHandler<TableRowSet> {
     @Override
     protected void readAttributes(InputNode input, TableRowSet target, XmlReadContext context) throws Exception {
         super.readAttributes(input, target, context);
-        target.setCatalog(context.readAttribute(input, CATALOG_ATTRIBUTE, String.class,
-                context.readAttribute(input, CATALOG_NAME_ATTRIBUTE, String.class)));
-        target.setSchema(context.readAttribute(input, SCHEMA_ATTRIBUTE, String.class,
-                context.readAttribute(input, SCHEMA_NAME_ATTRIBUTE, String.class)));
-        target.setTable(context.readAttribute(input, TABLE_ATTRIBUTE, String.class,
-                context.readAttribute(input, TABLE_NAME_ATTRIBUTE, String.class)));
+        // falls back to old format attributes
+        target.setCatalog(context.readAttribute(input, ROW_SET_CATALOG_ATTRIBUTE, String.class,
+                context.readAttribute(input, ROW_SET_CATALOG_NAME_ATTRIBUTE, String.class)));
+        target.setSchema(context.readAttribute(input, ROW_SET_SCHEMA_ATTRIBUTE, String.class,
+                context.readAttribute(input, ROW_SET_SCHEMA_NAME_ATTRIBUTE, String.class)));
+        target.setTable(context.readAttribute(input, ROW_SET_TABLE_ATTRIBUTE, String.class,
+                context.readAttribute(input, ROW_SET_TABLE_NAME_ATTRIBUTE, String.class)));
     }
 
     @Override
     protected void writeAttributes(TableRowSet rowSet, OutputNode output, XmlWriteContext context) throws Exception {
         super.writeAttributes(rowSet, output, context);
         if (rowSet.getCatalog() != null) {
-            context.writeAttribute(output, CATALOG_ATTRIBUTE, rowSet.getCatalog());
+            context.writeAttribute(output, ROW_SET_CATALOG_ATTRIBUTE, rowSet.getCatalog());
         }
         if (rowSet.getSchema() != null) {
-            context.writeAttribute(output, SCHEMA_ATTRIBUTE, rowSet.getSchema());
+            context.writeAttribute(output, ROW_SET_SCHEMA_ATTRIBUTE, rowSet.getSchema());
         }
-        context.writeAttribute(output, TABLE_ATTRIBUTE, rowSet.getTable());
+        context.writeAttribute(output, ROW_SET_TABLE_ATTRIBUTE, rowSet.getTable());
     }
 }
@@ -38,15 +38,14 @@ import de.undercouch.bson4jackson.BsonFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
-import java.util.BitSet;
 import java.util.List;
 
 import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
 import static com.fasterxml.jackson.core.JsonToken.VALUE_NULL;
-import static com.nuodb.migrator.backup.format.utils.BitSetUtils.EMPTY;
-import static com.nuodb.migrator.backup.format.utils.BitSetUtils.fromByteArray;
+import static com.nuodb.migrator.backup.format.utils.BitSetUtils.get;
 import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.decodeBinary;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
 import static de.undercouch.bson4jackson.BsonGenerator.Feature.ENABLE_STREAMING;
 
@@ -55,6 +54,12 @@ import static de.undercouch.bson4jackson.BsonGenerator.Feature.ENABLE_STREAMING;
  */
 public class BsonInput extends InputBase implements BsonFormat {
 
+    private static final BsonFactory BSON_FACTORY = new BsonFactory();
+
+    static {
+        BSON_FACTORY.enable(ENABLE_STREAMING);
+    }
+
     private JsonParser bsonReader;
 
     @Override
@@ -80,10 +85,12 @@ public class BsonInput extends InputBase implements BsonFormat {
         }
     }
 
+    /**
+     * Factory is thread safe once configured and is shared by the inputs of
+     * all chunks
+     */
     protected BsonFactory createBsonFactory() {
-        BsonFactory factory = new BsonFactory();
-        factory.enable(ENABLE_STREAMING);
-        return factory;
+        return BSON_FACTORY;
     }
 
     @Override
@@ -106,10 +113,10 @@ public class BsonInput extends InputBase implements BsonFormat {
                 int length = valueTypes.size();
                 values = new Value[length];
                 int index = 0;
-                BitSet nulls = isNextToken(VALUE_NULL) ? EMPTY : fromByteArray((byte[]) bsonReader.getEmbeddedObject());
+                byte[] nulls = isNextToken(VALUE_NULL) ? null : (byte[]) bsonReader.getEmbeddedObject();
                 while (index < length) {
                     Object value;
-                    if (nulls.get(index)) {
+                    if (nulls != null && get(nulls, index)) {
                         value = null;
                     } else {
                         bsonReader.nextToken();
@@ -119,7 +126,7 @@ public class BsonInput extends InputBase implements BsonFormat {
                     valueType = valueType != null ? valueType : STRING;
                     switch (valueType) {
                     case BINARY:
-                        values[index] = binary((byte[]) value);
+                        values[index] = value instanceof String ? decodeBinary((String) value) : binary((byte[]) value);
                         break;
                     case STRING:
                         values[index] = string((String) value);
@@ -37,19 +37,27 @@ import de.undercouch.bson4jackson.BsonFactory;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Writer;
-import java.util.BitSet;
 import java.util.Collection;
 
 import static com.google.common.collect.Iterables.get;
-import static com.nuodb.migrator.backup.format.utils.BitSetUtils.toByteArray;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.encodeBinary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.isReference;
 import static de.undercouch.bson4jackson.BsonGenerator.Feature.ENABLE_STREAMING;
+import static java.util.Arrays.fill;
 
 /**
  * @author Sergey Bushik
  */
 public class BsonOutput extends OutputBase implements BsonFormat {
 
+    private static final BsonFactory BSON_FACTORY = new BsonFactory();
+
+    static {
+        BSON_FACTORY.enable(ENABLE_STREAMING);
+    }
+
     private JsonGenerator bsonWriter;
+    private byte[] nulls;
 
     public BsonOutput() {
         super(MAX_SIZE);
@@ -78,10 +86,12 @@ public class BsonOutput extends OutputBase implements BsonFormat {
         }
     }
 
+    /**
+     * Factory is thread safe once configured and is shared by the outputs of
+     * all chunks
+     */
     protected BsonFactory createBsonFactory() {
-        BsonFactory factory = new BsonFactory();
-        factory.enable(ENABLE_STREAMING);
-        return factory;
+        return BSON_FACTORY;
     }
 
     @Override
@@ -98,14 +108,11 @@ public class BsonOutput extends OutputBase implements BsonFormat {
     public void writeValues(Value[] values) {
         try {
             bsonWriter.writeStartArray();
-            BitSet nulls = new BitSet();
-            for (int i = 0; i < values.length; i++) {
-                nulls.set(i, values[i].isNull());
-            }
-            if (nulls.isEmpty()) {
+            int length = writeNulls(values);
+            if (length == 0) {
                 bsonWriter.writeNull();
             } else {
-                bsonWriter.writeBinary(toByteArray(nulls));
+                bsonWriter.writeBinary(nulls, 0, length);
             }
             Collection<Column> columns = getRowSet().getColumns();
             for (int i = 0; i < values.length; i++) {
@@ -113,7 +120,11 @@ public class BsonOutput extends OutputBase implements BsonFormat {
                 if (!value.isNull()) {
                     switch (get(columns, i).getValueType()) {
                     case BINARY:
-                        bsonWriter.writeBinary(value.asBytes());
+                        if (isReference(value)) {
+                            bsonWriter.writeString(encodeBinary(value));
+                        } else {
+                            bsonWriter.writeBinary(value.asBytes());
+                        }
                         break;
                     case STRING:
                         bsonWriter.writeString(value.asString());
@@ -127,6 +138,32 @@ public class BsonOutput extends OutputBase implements BsonFormat {
         }
     }
 
+    /**
+     * Marks null values in the bitmap reused across rows, the bitmap is written
+     * up to its last non zero byte exactly as a bit set converted with
+     * BitSetUtils.toByteArray
+     *
+     * @param values
+     *            row values
+     * @return number of bytes to write or 0 if there are no null values
+     */
+    protected int writeNulls(Value[] values) {
+        int size = (values.length + 7) / 8;
+        if (nulls == null || nulls.length < size) {
+            nulls = new byte[size];
+        } else {
+            fill(nulls, 0, size, (byte) 0);
+        }
+        int length = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].isNull()) {
+                nulls[i / 8] |= 1 << (i % 8);
+                length = i / 8 + 1;
+            }
+        }
+        return length;
+    }
+
     @Override
     public void writeEnd() {
         try {
@@ -45,7 +45,6 @@ import java.util.Iterator;
 import java.util.List;
 
 import static com.google.common.collect.Lists.newArrayList;
-import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.BASE64;
 import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.*;
 import static java.lang.String.valueOf;
@@ -115,7 +114,7 @@ public class CsvInput extends InputBase implements CsvFormat {
             type = type != null ? type : STRING;
             switch (type) {
             case BINARY:
-                values[index] = binary(BASE64.decode(value));
+                values[index] = decodeBinary(value);
                 break;
             case STRING:
                 values[index] = string(value);
@@ -41,7 +41,7 @@ import java.io.Writer;
 import java.util.Collection;
 
 import static com.google.common.collect.Iterables.get;
-import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.BASE64;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.encodeBinary;
 import static java.lang.String.valueOf;
 import static java.nio.charset.Charset.forName;
 
@@ -97,7 +97,7 @@ public class CsvOutput extends OutputBase implements CsvFormat {
                 String value = null;
                 switch (get(columns, i).getValueType()) {
                 case BINARY:
-                    value = BASE64.encode(values[i].asBytes());
+                    value = encodeBinary(values[i]);
                     break;
                 case STRING:
                     value = values[i].asString();
@@ -28,47 +28,208 @@
 package com.nuodb.migrator.backup.format.utils;
 
 import com.nuodb.migrator.backup.format.value.ValueFormatException;
-import org.apache.commons.codec.DecoderException;
 
-import static org.apache.commons.codec.binary.Base64.decodeBase64;
-import static org.apache.commons.codec.binary.Base64.encodeBase64;
-import static org.apache.commons.codec.binary.Hex.decodeHex;
-import static org.apache.commons.codec.binary.Hex.encodeHex;
+import static java.lang.String.format;
+import static java.util.Arrays.fill;
 
 /**
+ * Encodes binary values into text and back. Values are encoded straight into
+ * a caller's char buffer and decoded from any char sequence, so that binary
+ * values are neither copied to intermediate strings nor to byte arrays of
+ * characters.
+ *
  * @author Sergey Bushik
  */
 public abstract class BinaryEncoder {
 
-    public static final BinaryEncoder HEX = new BinaryEncoder() {
+    public static final BinaryEncoder HEX = new HexEncoder();
+
+    public static final BinaryEncoder BASE64 = new Base64Encoder();
+
+    public String encode(byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        char[] buffer = new char[getEncodedLength(value.length)];
+        encode(value, 0, value.length, buffer, 0);
+        return new String(buffer);
+    }
+
+    public byte[] decode(String value) {
+        return value != null ? decode((CharSequence) value) : null;
+    }
+
+    /**
+     * Returns number of characters needed to encode the given number of bytes
+     *
+     * @param length
+     *            number of bytes
+     * @return number of characters
+     */
+    public abstract int getEncodedLength(int length);
+
+    /**
+     * Encodes bytes into the buffer
+     *
+     * @param value
+     *            bytes to encode
+     * @param offset
+     *            offset of the first byte
+     * @param length
+     *            number of bytes to encode
+     * @param buffer
+     *            buffer of at least {@link #getEncodedLength(int)} characters
+     *            from the offset
+     * @param bufferOffset
+     *            offset in the buffer
+     * @return number of characters written to the buffer
+     */
+    public abstract int encode(byte[] value, int offset, int length, char[] buffer, int bufferOffset);
+
+    public abstract byte[] decode(CharSequence value);
+
+    static class HexEncoder extends BinaryEncoder {
+
+        private static final char[] DIGITS = "0123456789ABCDEF".toCharArray();
+
+        @Override
+        public int getEncodedLength(int length) {
+            return length << 1;
+        }
+
         @Override
-        public String encode(byte[] value) {
-            return value != null ? new String(encodeHex(value, false)) : null;
+        public int encode(byte[] value, int offset, int length, char[] buffer, int bufferOffset) {
+            int position = bufferOffset;
+            for (int index = offset; index < offset + length; index++) {
+                buffer[position++] = DIGITS[(value[index] & 0xF0) >>> 4];
+                buffer[position++] = DIGITS[value[index] & 0x0F];
+            }
+            return position - bufferOffset;
         }
 
         @Override
-        public byte[] decode(String value) {
-            try {
-                return value != null ? decodeHex(value.toCharArray()) : null;
-            } catch (DecoderException exception) {
-                throw new ValueFormatException(exception);
+        public byte[] decode(CharSequence value) {
+            int length = value.length();
+            if ((length & 0x01) != 0) {
+                throw new ValueFormatException("Odd number of characters in hex value");
+            }
+            byte[] bytes = new byte[length >> 1];
+            for (int index = 0; index < bytes.length; index++) {
+                bytes[index] = (byte) (digit(value, index << 1) << 4 | digit(value, (index << 1) + 1));
+            }
+            return bytes;
+        }
+
+        protected int digit(CharSequence value, int index) {
+            int digit = Character.digit(value.charAt(index), 16);
+            if (digit < 0) {
+                throw new ValueFormatException(
+                        format("Illegal hexadecimal character %s at index %d", value.charAt(index), index));
+            }
+            return digit;
+        }
+    }
+
+    /**
+     * Base64 encoder writing padded text of the standard alphabet. Decoding
+     * accepts both the standard and the URL safe alphabets and skips
+     * characters out of the alphabet, such as line breaks.
+     */
+    static class Base64Encoder extends BinaryEncoder {
+
+        private static final char[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+                .toCharArray();
+
+        private static final char PAD = '=';
+
+        private static final byte[] DECODE_TABLE = new byte[128];
+
+        static {
+            fill(DECODE_TABLE, (byte) -1);
+            for (int index = 0; index < ALPHABET.length; index++) {
+                DECODE_TABLE[ALPHABET[index]] = (byte) index;
             }
+            DECODE_TABLE['-'] = 62;
+            DECODE_TABLE['_'] = 63;
         }
-    };
 
-    public static final BinaryEncoder BASE64 = new BinaryEncoder() {
         @Override
-        public String encode(byte[] value) {
-            return value != null ? new String(encodeBase64(value)) : null;
+        public int getEncodedLength(int length) {
+            return (length + 2) / 3 * 4;
         }
 
         @Override
-        public byte[] decode(String value) {
-            return value != null ? decodeBase64(value) : null;
+        public int encode(byte[] value, int offset, int length, char[] buffer, int bufferOffset) {
+            int position = bufferOffset;
+            int index = offset;
+            int end = offset + length - length % 3;
+            while (index < end) {
+                int bits = (value[index++] & 0xFF) << 16 | (value[index++] & 0xFF) << 8 | (value[index++] & 0xFF);
+                buffer[position++] = ALPHABET[bits >>> 18 & 0x3F];
+                buffer[position++] = ALPHABET[bits >>> 12 & 0x3F];
+                buffer[position++] = ALPHABET[bits >>> 6 & 0x3F];
+                buffer[position++] = ALPHABET[bits & 0x3F];
+            }
+            int remainder = length % 3;
+            if (remainder > 0) {
+                int bits = (value[index] & 0xFF) << 16;
+                if (remainder == 2) {
+                    bits |= (value[index + 1] & 0xFF) << 8;
+                }
+                buffer[position++] = ALPHABET[bits >>> 18 & 0x3F];
+                buffer[position++] = ALPHABET[bits >>> 12 & 0x3F];
+                buffer[position++] = remainder == 2 ? ALPHABET[bits >>> 6 & 0x3F] : PAD;
+                buffer[position++] = PAD;
+            }
+            return position - bufferOffset;
         }
-    };
 
-    public abstract String encode(byte[] value);
+        @Override
+        public byte[] decode(CharSequence value) {
+            int length = value.length();
+            int digits = 0;
+            for (int index = 0; index < length; index++) {
+                char c = value.charAt(index);
+                if (c == PAD) {
+                    break;
+                }
+                if (isDigit(c)) {
+                    digits++;
+                }
+            }
+            // a single trailing digit carries less than a byte and is dropped
+            byte[] bytes = new byte[digits / 4 * 3 + (digits % 4 > 1 ? digits % 4 - 1 : 0)];
+            int position = 0;
+            int bits = 0;
+            int count = 0;
+            for (int index = 0; index < length && position < bytes.length; index++) {
+                char c = value.charAt(index);
+                if (c == PAD) {
+                    break;
+                }
+                if (!isDigit(c)) {
+                    continue;
+                }
+                bits = bits << 6 | DECODE_TABLE[c];
+                if (++count == 4) {
+                    bytes[position++] = (byte) (bits >> 16);
+                    bytes[position++] = (byte) (bits >> 8);
+                    bytes[position++] = (byte) bits;
+                    bits = 0;
+                    count = 0;
+                }
+            }
+            if (count == 2) {
+                bytes[position] = (byte) (bits >> 4);
+            } else if (count == 3) {
+                bytes[position++] = (byte) (bits >> 10);
+                bytes[position] = (byte) (bits >> 2);
+            }
+            return bytes;
+        }
 
-    public abstract byte[] decode(String value);
+        protected boolean isDigit(char c) {
+            return c < DECODE_TABLE.length && DECODE_TABLE[c] >= 0;
+        }
+    }
 }
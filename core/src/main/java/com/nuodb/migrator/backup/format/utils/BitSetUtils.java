@@ -59,6 +59,21 @@ public class BitSetUtils {
         return bits;
     }
 
+    /**
+     * Reads the bit straight from the byte array, bits beyond the array are
+     * not set
+     *
+     * @param bytes
+     *            bits converted to a byte array
+     * @param index
+     *            index of the bit
+     * @return true if the bit is set
+     */
+    public static boolean get(byte[] bytes, int index) {
+        int offset = index / 8;
+        return offset < bytes.length && (bytes[offset] & (1 << (index % 8))) != 0;
+    }
+
     public static String toHexString(BitSet bits) {
         return HEX.encode(toByteArray(bits));
     }
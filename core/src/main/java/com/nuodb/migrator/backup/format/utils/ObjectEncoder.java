@@ -0,0 +1,482 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.utils;
+
+import com.nuodb.migrator.backup.format.value.ValueFormatException;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Reader;
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Struct;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static java.lang.String.format;
+import static java.util.Arrays.copyOfRange;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.apache.commons.io.IOUtils.toByteArray;
+
+/**
+ * Encodes objects of the OTHER, JAVA_OBJECT, STRUCT and REF columns into a
+ * compact tagged binary form. Strings, numbers, temporal values, binary values,
+ * UUIDs, structs and arrays are written as is, structs and arrays are written
+ * attribute by attribute together with their SQL type names, so that they can
+ * be rebuilt through the target connection. Java serialization is used only
+ * for the other serializable objects. Values written with Java serialization by
+ * the previous versions are recognized by the serialization stream magic and
+ * are decoded as before.
+ *
+ * @author Sergey Bushik
+ */
+public class ObjectEncoder {
+
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int BOOLEAN = 2;
+    private static final int BYTE = 3;
+    private static final int SHORT = 4;
+    private static final int INTEGER = 5;
+    private static final int LONG = 6;
+    private static final int FLOAT = 7;
+    private static final int DOUBLE = 8;
+    private static final int BIG_INTEGER = 9;
+    private static final int BIG_DECIMAL = 10;
+    private static final int BYTES = 11;
+    private static final int DATE = 12;
+    private static final int TIME = 13;
+    private static final int TIMESTAMP = 14;
+    private static final int UUID = 15;
+    private static final int STRUCT = 16;
+    private static final int ARRAY = 17;
+    private static final int SERIALIZED = 18;
+    private static final int SQL_ARRAY = 19;
+
+    /**
+     * First byte of the Java serialization stream magic
+     */
+    private static final int STREAM_MAGIC = 0xAC;
+
+    private ObjectEncoder() {
+    }
+
+    public static byte[] encode(Object value) {
+        if (value == null) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            write(new DataOutputStream(bytes), value);
+        } catch (IOException exception) {
+            throw new ValueFormatException(exception);
+        } catch (SQLException exception) {
+            throw new ValueFormatException(exception);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Object decode(byte[] value) {
+        if (value == null || value.length == 0) {
+            return null;
+        }
+        try {
+            if ((value[0] & 0xFF) == STREAM_MAGIC) {
+                return readSerialized(new ByteArrayInputStream(value));
+            }
+            return read(new DataInputStream(new ByteArrayInputStream(value)));
+        } catch (IOException exception) {
+            throw new ValueFormatException(exception);
+        } catch (ClassNotFoundException exception) {
+            throw new ValueFormatException(exception);
+        }
+    }
+
+    protected static void write(DataOutputStream output, Object value) throws IOException, SQLException {
+        if (value == null) {
+            output.writeByte(NULL);
+        } else if (value instanceof String) {
+            output.writeByte(STRING);
+            writeString(output, (String) value);
+        } else if (value instanceof Boolean) {
+            output.writeByte(BOOLEAN);
+            output.writeBoolean((Boolean) value);
+        } else if (value instanceof Byte) {
+            output.writeByte(BYTE);
+            output.writeByte((Byte) value);
+        } else if (value instanceof Short) {
+            output.writeByte(SHORT);
+            output.writeShort((Short) value);
+        } else if (value instanceof Integer) {
+            output.writeByte(INTEGER);
+            output.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte(LONG);
+            output.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            output.writeByte(FLOAT);
+            output.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            output.writeByte(DOUBLE);
+            output.writeDouble((Double) value);
+        } else if (value instanceof BigInteger) {
+            output.writeByte(BIG_INTEGER);
+            writeBytes(output, ((BigInteger) value).toByteArray());
+        } else if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            output.writeByte(BIG_DECIMAL);
+            output.writeInt(decimal.scale());
+            writeBytes(output, decimal.unscaledValue().toByteArray());
+        } else if (value instanceof byte[]) {
+            output.writeByte(BYTES);
+            writeBytes(output, (byte[]) value);
+        } else if (value instanceof Timestamp) {
+            Timestamp timestamp = (Timestamp) value;
+            output.writeByte(TIMESTAMP);
+            output.writeLong(timestamp.getTime());
+            output.writeInt(timestamp.getNanos());
+        } else if (value instanceof Date) {
+            output.writeByte(DATE);
+            output.writeLong(((Date) value).getTime());
+        } else if (value instanceof Time) {
+            output.writeByte(TIME);
+            output.writeLong(((Time) value).getTime());
+        } else if (value instanceof UUID) {
+            UUID uuid = (UUID) value;
+            output.writeByte(UUID);
+            output.writeLong(uuid.getMostSignificantBits());
+            output.writeLong(uuid.getLeastSignificantBits());
+        } else if (value instanceof Struct) {
+            Struct struct = (Struct) value;
+            output.writeByte(STRUCT);
+            writeString(output, struct.getSQLTypeName());
+            writeArray(output, struct.getAttributes());
+        } else if (value instanceof Array) {
+            Array array = (Array) value;
+            output.writeByte(SQL_ARRAY);
+            writeNullableString(output, array.getBaseTypeName());
+            writeNullableString(output, getSQLTypeName(array));
+            writeArray(output, (Object[]) array.getArray());
+        } else if (value instanceof Object[]) {
+            output.writeByte(ARRAY);
+            writeArray(output, (Object[]) value);
+        } else if (value instanceof Blob) {
+            output.writeByte(BYTES);
+            writeBytes(output, readBlob((Blob) value));
+        } else if (value instanceof Clob) {
+            output.writeByte(STRING);
+            writeString(output, readClob((Clob) value));
+        } else if (value instanceof Serializable) {
+            output.writeByte(SERIALIZED);
+            writeBytes(output, writeSerialized(value));
+        } else {
+            throw new ValueFormatException(format("Can't encode %s value", value.getClass().getName()));
+        }
+    }
+
+    protected static Object read(DataInputStream input) throws IOException, ClassNotFoundException {
+        int tag = input.readUnsignedByte();
+        switch (tag) {
+        case NULL:
+            return null;
+        case STRING:
+            return readString(input);
+        case BOOLEAN:
+            return input.readBoolean();
+        case BYTE:
+            return input.readByte();
+        case SHORT:
+            return input.readShort();
+        case INTEGER:
+            return input.readInt();
+        case LONG:
+            return input.readLong();
+        case FLOAT:
+            return input.readFloat();
+        case DOUBLE:
+            return input.readDouble();
+        case BIG_INTEGER:
+            return new BigInteger(readBytes(input));
+        case BIG_DECIMAL:
+            int scale = input.readInt();
+            return new BigDecimal(new BigInteger(readBytes(input)), scale);
+        case BYTES:
+            return readBytes(input);
+        case DATE:
+            return new Date(input.readLong());
+        case TIME:
+            return new Time(input.readLong());
+        case TIMESTAMP:
+            Timestamp timestamp = new Timestamp(input.readLong());
+            timestamp.setNanos(input.readInt());
+            return timestamp;
+        case UUID:
+            return new UUID(input.readLong(), input.readLong());
+        case STRUCT:
+            String typeName = readString(input);
+            return new DecodedStruct(typeName, readArray(input));
+        case ARRAY:
+            return readArray(input);
+        case SQL_ARRAY:
+            String baseTypeName = readNullableString(input);
+            String sqlTypeName = readNullableString(input);
+            return new DecodedArray(baseTypeName, sqlTypeName, readArray(input));
+        case SERIALIZED:
+            return readSerialized(new ByteArrayInputStream(readBytes(input)));
+        default:
+            throw new ValueFormatException(format("Unknown encoded value tag %d", tag));
+        }
+    }
+
+    protected static void writeString(DataOutputStream output, String value) throws IOException {
+        writeBytes(output, value.getBytes(UTF_8));
+    }
+
+    protected static String readString(DataInputStream input) throws IOException {
+        return new String(readBytes(input), UTF_8);
+    }
+
+    protected static void writeNullableString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            writeString(output, value);
+        }
+    }
+
+    protected static String readNullableString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? readString(input) : null;
+    }
+
+    protected static void writeBytes(DataOutputStream output, byte[] value) throws IOException {
+        output.writeInt(value.length);
+        output.write(value);
+    }
+
+    protected static byte[] readBytes(DataInputStream input) throws IOException {
+        byte[] value = new byte[input.readInt()];
+        input.readFully(value);
+        return value;
+    }
+
+    protected static void writeArray(DataOutputStream output, Object[] values) throws IOException, SQLException {
+        output.writeInt(values.length);
+        for (Object value : values) {
+            write(output, value);
+        }
+    }
+
+    protected static Object[] readArray(DataInputStream input) throws IOException, ClassNotFoundException {
+        Object[] values = new Object[input.readInt()];
+        for (int index = 0; index < values.length; index++) {
+            values[index] = read(input);
+        }
+        return values;
+    }
+
+    /**
+     * Returns name of the collection type for the vendor arrays, which declare
+     * it, like oracle.sql.ARRAY does
+     *
+     * @param array
+     *            to get SQL type name of
+     * @return SQL type name or null if the array doesn't provide it
+     */
+    protected static String getSQLTypeName(Array array) throws SQLException {
+        Method method;
+        try {
+            method = array.getClass().getMethod("getSQLTypeName");
+        } catch (NoSuchMethodException exception) {
+            return null;
+        }
+        try {
+            return (String) method.invoke(array);
+        } catch (IllegalAccessException exception) {
+            return null;
+        } catch (InvocationTargetException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new ValueFormatException(cause);
+        }
+    }
+
+    protected static byte[] readBlob(Blob blob) throws IOException, SQLException {
+        InputStream input = blob.getBinaryStream();
+        try {
+            return toByteArray(input);
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    protected static String readClob(Clob clob) throws IOException, SQLException {
+        Reader reader = clob.getCharacterStream();
+        try {
+            return IOUtils.toString(reader);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    protected static byte[] writeSerialized(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream output = new ObjectOutputStream(bytes);
+        output.writeObject(value);
+        output.close();
+        return bytes.toByteArray();
+    }
+
+    protected static Object readSerialized(InputStream input) throws IOException, ClassNotFoundException {
+        return new ObjectInputStream(input).readObject();
+    }
+
+    /**
+     * Struct decoded from its SQL type name and attributes
+     */
+    public static class DecodedStruct implements Struct {
+
+        private final String typeName;
+        private final Object[] attributes;
+
+        public DecodedStruct(String typeName, Object[] attributes) {
+            this.typeName = typeName;
+            this.attributes = attributes;
+        }
+
+        @Override
+        public String getSQLTypeName() {
+            return typeName;
+        }
+
+        @Override
+        public Object[] getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public Object[] getAttributes(Map<String, Class<?>> map) {
+            return attributes;
+        }
+    }
+
+    /**
+     * Array decoded from its base type name, name of the collection type and
+     * elements
+     */
+    public static class DecodedArray implements Array {
+
+        private final String baseTypeName;
+        private final String sqlTypeName;
+        private final Object[] elements;
+
+        public DecodedArray(String baseTypeName, String sqlTypeName, Object[] elements) {
+            this.baseTypeName = baseTypeName;
+            this.sqlTypeName = sqlTypeName;
+            this.elements = elements;
+        }
+
+        @Override
+        public String getBaseTypeName() {
+            return baseTypeName;
+        }
+
+        @Override
+        public int getBaseType() throws SQLException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        public String getSQLTypeName() {
+            return sqlTypeName;
+        }
+
+        @Override
+        public Object getArray() {
+            return elements;
+        }
+
+        @Override
+        public Object getArray(Map<String, Class<?>> map) {
+            return elements;
+        }
+
+        @Override
+        public Object getArray(long index, int count) {
+            return copyOfRange(elements, (int) index - 1, (int) index - 1 + count);
+        }
+
+        @Override
+        public Object getArray(long index, int count, Map<String, Class<?>> map) {
+            return getArray(index, count);
+        }
+
+        @Override
+        public ResultSet getResultSet() throws SQLException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public ResultSet getResultSet(Map<String, Class<?>> map) throws SQLException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public ResultSet getResultSet(long index, int count) throws SQLException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public ResultSet getResultSet(long index, int count, Map<String, Class<?>> map) throws SQLException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public void free() {
+        }
+    }
+}
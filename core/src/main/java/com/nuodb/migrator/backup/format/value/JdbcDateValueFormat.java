@@ -33,11 +33,10 @@ import com.nuodb.migrator.jdbc.type.JdbcValueAccess;
 
 import java.sql.Date;
 import java.sql.SQLException;
-import java.text.DateFormat;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Map;
 
+import static com.nuodb.migrator.backup.format.value.TemporalUtils.formatYear;
+import static com.nuodb.migrator.backup.format.value.TemporalUtils.parseDate;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.STRING_NULL;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
 import static java.lang.String.format;
@@ -50,47 +49,30 @@ public class JdbcDateValueFormat extends ValueFormatBase<Date> {
 
     private static final String YEAR_TYPE = "YEAR";
 
-    private static final DateFormat YEAR_FORMAT = new SimpleDateFormat("yyyy");
-
     @Override
     protected Value doGetValue(JdbcValueAccess<Date> access, Map<String, Object> options) throws SQLException {
         Date date = access.getValue(options);
         if (date == null) {
             return STRING_NULL;
         } else if (JdbcTypeDesc.equals(access.getField().getTypeName(), YEAR_TYPE)) {
-            return string(YEAR_FORMAT.format(date));
+            return string(formatYear(date));
         } else {
             return string(date.toString());
         }
     }
 
     @Override
-    protected void doSetValue(Value value, JdbcValueAccess<Date> access, Map<String, Object> options)
+    protected void doSetValue(Value variant, JdbcValueAccess<Date> access, Map<String, Object> options)
             throws SQLException {
-        if (!(doSetValueAsDate(access, value, options) || doSetValueAsYear(access, value, options))) {
-            throw new ValueFormatException(format("Value %s is not a date nor year", value));
-        }
-    }
-
-    protected boolean doSetValueAsDate(JdbcValueAccess<Date> jdbcValueAccess, Value variant,
-            Map<String, Object> valueAccessOptions) throws SQLException {
-        try {
-            final String value = variant.asString();
-            jdbcValueAccess.setValue(!isEmpty(value) ? Date.valueOf(value) : null, valueAccessOptions);
-            return true;
-        } catch (IllegalArgumentException exception) {
-            return false;
-        }
-    }
-
-    protected boolean doSetValueAsYear(JdbcValueAccess<Date> jdbcValueAccess, Value variant,
-            Map<String, Object> valueAccessOptions) throws SQLException {
-        try {
-            final String value = variant.asString();
-            jdbcValueAccess.setValue(YEAR_FORMAT.parse(value), valueAccessOptions);
-            return true;
-        } catch (ParseException e) {
-            return false;
+        String value = variant.asString();
+        if (isEmpty(value)) {
+            access.setValue(null, options);
+        } else {
+            Date date = parseDate(value);
+            if (date == null) {
+                throw new ValueFormatException(format("Value %s is not a date nor year", variant));
+            }
+            access.setValue(date, options);
         }
     }
 
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.type.JdbcValueAccess;
+
+import java.util.Map;
+
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Formats exact numeric values as text, loaded values are parsed to the Java
+ * type of the column given by {@link NumericType}
+ *
+ * @author Sergey Bushik
+ */
+public class JdbcNumericValueFormat extends ValueFormatBase<Object> {
+
+    private final NumericType numericType;
+
+    public JdbcNumericValueFormat(NumericType numericType) {
+        this.numericType = numericType;
+    }
+
+    @Override
+    protected Value doGetValue(JdbcValueAccess<Object> access, Map<String, Object> options) throws Exception {
+        Object value = access.getValue(options);
+        return string(value != null ? value.toString() : null);
+    }
+
+    @Override
+    protected void doSetValue(Value variant, JdbcValueAccess<Object> access, Map<String, Object> options)
+            throws Exception {
+        String value = variant.asString();
+        access.setValue(!isEmpty(value) ? numericType.parse(value) : null, options);
+    }
+
+    @Override
+    public ValueType getValueType(Field field) {
+        return ValueType.STRING;
+    }
+
+    public NumericType getNumericType() {
+        return numericType;
+    }
+
+    /**
+     * Java type numeric values are parsed to with {@link NumericUtils}
+     */
+    public enum NumericType {
+
+        /**
+         * TINYINT and SMALLINT
+         */
+        SHORT {
+            @Override
+            public Object parse(String value) {
+                return NumericUtils.parseShort(value);
+            }
+        },
+
+        /**
+         * INTEGER
+         */
+        INT {
+            @Override
+            public Object parse(String value) {
+                return NumericUtils.parseInt(value);
+            }
+        },
+
+        /**
+         * BIGINT
+         */
+        LONG {
+            @Override
+            public Object parse(String value) {
+                return NumericUtils.parseLong(value);
+            }
+        },
+
+        /**
+         * NUMERIC and DECIMAL
+         */
+        DECIMAL {
+            @Override
+            public Object parse(String value) {
+                return NumericUtils.parseDecimal(value);
+            }
+        };
+
+        public abstract Object parse(String value);
+    }
+}
@@ -34,6 +34,7 @@ import java.sql.SQLException;
 import java.sql.Time;
 import java.util.Map;
 
+import static com.nuodb.migrator.backup.format.value.TemporalUtils.parseTime;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
 import static java.lang.String.format;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
@@ -53,10 +54,14 @@ public class JdbcTimeValueFormat extends ValueFormatBase<Time> {
     protected void doSetValue(Value variant, JdbcValueAccess<Time> access, Map<String, Object> options)
             throws SQLException {
         final String value = variant.asString();
-        try {
-            access.setValue(!isEmpty(value) ? value : null, options);
-        } catch (IllegalArgumentException exception) {
-            throw new ValueFormatException(format("Value %s is not in the hh:mm:ss format", value));
+        if (isEmpty(value)) {
+            access.setValue(null, options);
+        } else {
+            Time time = parseTime(value);
+            if (time == null) {
+                throw new ValueFormatException(format("Value %s is not in the hh:mm:ss format", value));
+            }
+            access.setValue(time, options);
         }
     }
 
@@ -28,23 +28,30 @@
 package com.nuodb.migrator.backup.format.value;
 
 import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.type.JdbcLobStream;
 import com.nuodb.migrator.jdbc.type.JdbcValueAccess;
 
 import javax.sql.rowset.serial.SerialRef;
 import java.io.*;
-import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.Ref;
 import java.sql.RowId;
 import java.sql.Types;
 import java.util.Map;
 
+import static com.nuodb.migrator.backup.format.utils.ObjectEncoder.decode;
+import static com.nuodb.migrator.backup.format.utils.ObjectEncoder.encode;
+import static com.nuodb.migrator.backup.format.value.NumericUtils.parseDecimal;
+import static com.nuodb.migrator.backup.format.value.NumericUtils.parseInt;
+import static com.nuodb.migrator.backup.format.value.NumericUtils.parseLong;
+import static com.nuodb.migrator.backup.format.value.NumericUtils.parseShort;
 import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
 import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static com.nuodb.migrator.jdbc.type.JdbcLobStream.newBinaryStream;
+import static com.nuodb.migrator.jdbc.type.JdbcLobStream.newCharacterStream;
 import static java.lang.String.format;
-import static org.apache.commons.io.IOUtils.closeQuietly;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 /**
@@ -82,22 +89,23 @@ public class JdbcValueFormat extends ValueFormatBase<Object> {
         case Types.BINARY:
         case Types.VARBINARY:
         case Types.LONGVARBINARY:
-        case Types.BLOB:
             value = binary(access.getValue(byte[].class, options));
             break;
+        case Types.BLOB:
+            value = binary(access.getValue(InputStream.class, options), -1);
+            break;
         case Types.OTHER:
         case Types.JAVA_OBJECT:
         case Types.STRUCT:
-            result = access.getValue(options);
-            value = binary(result != null ? write(result) : null);
+            value = binary(encode(access.getValue(options)));
             break;
         case Types.CLOB:
         case Types.NCLOB:
-            value = string(access.getValue(String.class, options));
+            value = string(access.getValue(Reader.class, options), -1);
             break;
         case Types.REF:
             result = access.getValue(options);
-            value = binary(write(new SerialRef((Ref) result)));
+            value = binary(result != null ? encode(new SerialRef((Ref) result)) : null);
             break;
         case Types.DATALINK:
             result = access.getValue(options);
@@ -125,7 +133,8 @@ public class JdbcValueFormat extends ValueFormatBase<Object> {
     protected void doSetValue(Value value, JdbcValueAccess<Object> access, Map<String, Object> options)
             throws Exception {
         Field field = access.getField();
-        final String result = value.asString();
+        // large objects are bound as streams and are not read into a string
+        final String result = isLob(field) ? null : value.asString();
         switch (field.getTypeCode()) {
         case Types.BIT:
         case Types.BOOLEAN:
@@ -133,13 +142,13 @@ public class JdbcValueFormat extends ValueFormatBase<Object> {
             break;
         case Types.TINYINT:
         case Types.SMALLINT:
-            access.setValue(!isEmpty(result) ? Short.parseShort(result) : null, options);
+            access.setValue(!isEmpty(result) ? parseShort(result) : null, options);
             break;
         case Types.INTEGER:
-            access.setValue(!isEmpty(result) ? Integer.parseInt(result) : null, options);
+            access.setValue(!isEmpty(result) ? parseInt(result) : null, options);
             break;
         case Types.BIGINT:
-            access.setValue(!isEmpty(result) ? Long.parseLong(result) : null, options);
+            access.setValue(!isEmpty(result) ? parseLong(result) : null, options);
             break;
         case Types.FLOAT:
         case Types.REAL:
@@ -150,7 +159,7 @@ public class JdbcValueFormat extends ValueFormatBase<Object> {
             break;
         case Types.NUMERIC:
         case Types.DECIMAL:
-            access.setValue(!isEmpty(result) ? new BigDecimal(result) : null, options);
+            access.setValue(!isEmpty(result) ? parseDecimal(result) : null, options);
             break;
         case Types.CHAR:
         case Types.VARCHAR:
@@ -168,19 +177,17 @@ public class JdbcValueFormat extends ValueFormatBase<Object> {
         case Types.OTHER:
         case Types.JAVA_OBJECT:
         case Types.STRUCT:
-            access.setValue(read(value.asBytes()), options);
+            access.setValue(decode(value.asBytes()), options);
             break;
         case Types.BLOB:
-            access.setValue(value.asBytes(), options);
+            access.setValue(binaryStream(value), options);
             break;
         case Types.CLOB:
-            access.setValue(result, options);
-            break;
         case Types.NCLOB:
-            access.setValue(result, options);
+            access.setValue(characterStream(value), options);
             break;
         case Types.REF:
-            access.setValue(!isEmpty(result) ? read(value.asBytes()) : null, options);
+            access.setValue(!isEmpty(result) ? decode(value.asBytes()) : null, options);
             break;
         case Types.DATALINK:
             access.setValue(!isEmpty(result) ? new URL(result) : null, options);
@@ -194,35 +201,30 @@ public class JdbcValueFormat extends ValueFormatBase<Object> {
         }
     }
 
-    protected byte[] write(Object object) throws IOException {
-        if (object == null) {
-            return null;
-        }
-        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
-        ObjectOutputStream output = null;
-        try {
-            output = new ObjectOutputStream(bytes);
-            output.writeObject(object);
-        } finally {
-            closeQuietly(bytes);
-            closeQuietly(output);
+    protected boolean isLob(Field field) {
+        switch (field.getTypeCode()) {
+        case Types.BLOB:
+        case Types.CLOB:
+        case Types.NCLOB:
+            return true;
+        default:
+            return false;
         }
-        return bytes.toByteArray();
     }
 
-    protected Object read(byte[] value) throws ClassNotFoundException, IOException {
-        if (value == null) {
+    protected JdbcLobStream binaryStream(Value value) {
+        if (value.isNull()) {
             return null;
         }
-        ByteArrayInputStream bytes = new ByteArrayInputStream(value);
-        ObjectInputStream input = null;
-        try {
-            input = new ObjectInputStream(bytes);
-            return input.readObject();
-        } finally {
-            closeQuietly(bytes);
-            closeQuietly(input);
+        // length of a string value is in characters, not in bytes
+        return newBinaryStream(value.asInputStream(), value.getValueType() == BINARY ? value.getLength() : -1);
+    }
+
+    protected JdbcLobStream characterStream(Value value) {
+        if (value.isNull()) {
+            return null;
         }
+        return newCharacterStream(value.asReader(), value.getValueType() == STRING ? value.getLength() : -1);
     }
 
     @Override
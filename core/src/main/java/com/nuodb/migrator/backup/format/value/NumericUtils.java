@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import java.math.BigDecimal;
+
+/**
+ * Parses numeric values straight from the text with a single scan. Plain
+ * decimal notation with up to 18 digits, which is the bulk of numeric values,
+ * is parsed without intermediate objects and decimals of that size are built
+ * from a long unscaled value. Anything else, including malformed values, is
+ * handed to the JDK parsers, so the accepted values and the reported errors
+ * are the same.
+ *
+ * @author Sergey Bushik
+ */
+public class NumericUtils {
+
+    /**
+     * Number of decimal digits which always fits into a long
+     */
+    private static final int LONG_DIGITS = 18;
+
+    private NumericUtils() {
+    }
+
+    public static short parseShort(String value) {
+        long result = parseLong(value, LONG_DIGITS);
+        return result >= Short.MIN_VALUE && result <= Short.MAX_VALUE ? (short) result : Short.parseShort(value);
+    }
+
+    public static int parseInt(String value) {
+        long result = parseLong(value, LONG_DIGITS);
+        return result >= Integer.MIN_VALUE && result <= Integer.MAX_VALUE ? (int) result : Integer.parseInt(value);
+    }
+
+    public static long parseLong(String value) {
+        return parseLong(value, LONG_DIGITS);
+    }
+
+    public static BigDecimal parseDecimal(String value) {
+        int length = value.length();
+        int position = 0;
+        boolean negative = false;
+        if (length > 0) {
+            char sign = value.charAt(0);
+            if (sign == '-' || sign == '+') {
+                negative = sign == '-';
+                position++;
+            }
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; position < length; position++) {
+            char c = value.charAt(position);
+            if (c >= '0' && c <= '9') {
+                if (++digits > LONG_DIGITS) {
+                    return new BigDecimal(value);
+                }
+                unscaled = unscaled * 10 + c - '0';
+                if (scale >= 0) {
+                    scale++;
+                }
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return new BigDecimal(value);
+            }
+        }
+        if (digits == 0) {
+            return new BigDecimal(value);
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale < 0 ? 0 : scale);
+    }
+
+    /**
+     * Parses optionally signed integer of up to the given number of digits,
+     * the rest is parsed with {@link Long#parseLong(String)}
+     */
+    private static long parseLong(String value, int maxDigits) {
+        int length = value.length();
+        int position = 0;
+        boolean negative = false;
+        if (length > 0) {
+            char sign = value.charAt(0);
+            if (sign == '-' || sign == '+') {
+                negative = sign == '-';
+                position++;
+            }
+        }
+        int digits = length - position;
+        if (digits == 0 || digits > maxDigits) {
+            return Long.parseLong(value);
+        }
+        long result = 0;
+        for (; position < length; position++) {
+            char c = value.charAt(position);
+            if (c < '0' || c > '9') {
+                return Long.parseLong(value);
+            }
+            result = result * 10 + c - '0';
+        }
+        return negative ? -result : result;
+    }
+}
@@ -30,43 +30,108 @@ package com.nuodb.migrator.backup.format.value;
 import com.nuodb.migrator.jdbc.model.Field;
 import com.nuodb.migrator.jdbc.type.JdbcValueAccess;
 
+import java.lang.reflect.Method;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Struct;
 import java.util.Map;
 
-import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
-import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
-import static com.nuodb.migrator.utils.ReflectionUtils.*;
+import static com.nuodb.migrator.backup.format.utils.ObjectEncoder.DecodedArray;
+import static com.nuodb.migrator.backup.format.utils.ObjectEncoder.decode;
+import static com.nuodb.migrator.backup.format.utils.ObjectEncoder.encode;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.utils.ReflectionUtils.getClassLoader;
+import static com.nuodb.migrator.utils.ReflectionUtils.invokeMethodNoWrap;
 
 /**
  * @author Mukund
  */
 public class OracleStructTypeValueFormat extends LazyInitValueFormatBase<Object> {
 
-    private static final String STRUCT = "oracle.sql.STRUCT";
-    private Class<?> structClass;
+    private static final String ORACLE_CONNECTION = "oracle.jdbc.OracleConnection";
+
+    private Class<?> oracleConnectionClass;
+    private Method createOracleArray;
 
     @Override
     protected void doLazyInit() {
-        ClassLoader classLoader = getClassLoader();
         try {
-            structClass = classLoader.loadClass(STRUCT);
+            initOracleConnection(getClassLoader().loadClass(ORACLE_CONNECTION));
         } catch (Exception exception) {
             throw new ValueFormatException(exception);
         }
     }
 
+    protected void initOracleConnection(Class<?> oracleConnectionClass) throws NoSuchMethodException {
+        this.oracleConnectionClass = oracleConnectionClass;
+        this.createOracleArray = oracleConnectionClass.getMethod("createOracleArray", String.class, Object.class);
+    }
+
     @Override
     protected Value doGetValue(JdbcValueAccess<Object> access, Map<String, Object> options) throws Throwable {
-        return string(null);
+        return binary(encode(access.getValue(options)));
     }
 
     @Override
     protected void doSetValue(Value value, JdbcValueAccess<Object> access, Map<String, Object> options)
             throws Throwable {
-        access.setValue("BLOB", options);
+        access.setValue(createValue(getConnection(access), decode(value.asBytes())), options);
+    }
+
+    /**
+     * Rebuilds decoded structs & arrays through the connection, nested structs
+     * & arrays are rebuilt first, so that they can be bound as attributes of
+     * the enclosing ones
+     *
+     * @param connection
+     *            to create structs & arrays with
+     * @param value
+     *            decoded value
+     * @return value to bind
+     * @throws Throwable
+     *             if struct or array can't be created
+     */
+    protected Object createValue(Connection connection, Object value) throws Throwable {
+        if (value instanceof Struct) {
+            Struct struct = (Struct) value;
+            return connection.createStruct(struct.getSQLTypeName(),
+                    createValues(connection, struct.getAttributes()));
+        } else if (value instanceof DecodedArray) {
+            DecodedArray array = (DecodedArray) value;
+            return createArray(connection, array.getBaseTypeName(), array.getSQLTypeName(),
+                    createValues(connection, (Object[]) array.getArray()));
+        } else if (value instanceof Object[]) {
+            return createValues(connection, (Object[]) value);
+        } else {
+            return value;
+        }
+    }
+
+    protected Object[] createValues(Connection connection, Object[] values) throws Throwable {
+        Object[] result = new Object[values.length];
+        for (int index = 0; index < values.length; index++) {
+            result[index] = createValue(connection, values[index]);
+        }
+        return result;
+    }
+
+    /**
+     * Oracle driver doesn't support {@link Connection#createArrayOf(String, Object[])}
+     * and requires collection type name to create VARRAY or nested table
+     */
+    protected Array createArray(Connection connection, String baseTypeName, String sqlTypeName,
+            Object[] elements) throws Throwable {
+        if (sqlTypeName != null && connection.isWrapperFor(oracleConnectionClass)) {
+            return invokeMethodNoWrap(connection.unwrap(oracleConnectionClass), createOracleArray, sqlTypeName,
+                    elements);
+        } else {
+            return connection.createArrayOf(baseTypeName, elements);
+        }
     }
 
     @Override
     public ValueType getValueType(Field field) {
-        return STRING;
+        return BINARY;
     }
 }
@@ -28,6 +28,7 @@
 package com.nuodb.migrator.backup.format.value;
 
 import com.nuodb.migrator.jdbc.dialect.PostgreSQLBitVaryingValue;
+import com.nuodb.migrator.jdbc.type.jdbc2.JdbcOtherValue;
 
 /**
  * @author Sergey Bushik
@@ -36,5 +37,6 @@ public class PostgreSQLValueFormatRegistry extends SimpleValueFormatRegistry {
 
     public PostgreSQLValueFormatRegistry() {
         addValueFormat(PostgreSQLBitVaryingValue.INSTANCE, new PostgreSQLBitVaryingValueFormat());
+        addValueFormat(JdbcOtherValue.INSTANCE, new PostgreSQLOtherValueFormat());
     }
 }
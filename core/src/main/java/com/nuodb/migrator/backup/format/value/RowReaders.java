@@ -27,8 +27,10 @@
  */
 package com.nuodb.migrator.backup.format.value;
 
+import com.google.common.base.Predicate;
 import com.nuodb.migrator.backup.BackupOps;
 import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.LobStore;
 import com.nuodb.migrator.backup.RowSet;
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.Input;
@@ -36,6 +38,7 @@ import com.nuodb.migrator.backup.format.Input;
 import java.util.Iterator;
 import java.util.Map;
 
+import static com.nuodb.migrator.backup.format.value.ValueUtils.closeValues;
 import static org.apache.commons.io.IOUtils.closeQuietly;
 
 /**
@@ -56,6 +59,19 @@ public class RowReaders {
         return new SynchronizedRowReader(rowReader, mutex);
     }
 
+    /**
+     * Creates row reader returning only rows accepted by the predicate
+     *
+     * @param rowReader
+     *            underlying row reader
+     * @param predicate
+     *            accepts rows to be returned
+     * @return filtering row reader
+     */
+    public static RowReader newFilteringRowReader(RowReader rowReader, Predicate<Row> predicate) {
+        return new FilteringRowReader(rowReader, predicate);
+    }
+
     static class SequentialRowReader implements RowReader {
 
         private final RowSet rowSet;
@@ -63,6 +79,7 @@ public class RowReaders {
         private final FormatFactory formatFactory;
         private final Map<String, Object> formatAttributes;
 
+        private final LobStore lobStore;
         private Iterator<Chunk> chunks;
         private Chunk chunk;
         private Input input;
@@ -75,6 +92,7 @@ public class RowReaders {
             this.backupOps = backupOps;
             this.formatFactory = formatFactory;
             this.formatAttributes = formatAttributes;
+            this.lobStore = new LobStore(backupOps);
         }
 
         @Override
@@ -127,6 +145,11 @@ public class RowReaders {
                     }
                 }
             }
+            if (values != null) {
+                for (int index = 0; index < values.length; index++) {
+                    values[index] = lobStore.read(values[index]);
+                }
+            }
             row = values != null ? new Row(chunk, values, number++) : null;
         }
     }
@@ -160,4 +183,30 @@ public class RowReaders {
             }
         }
     }
+
+    static class FilteringRowReader implements RowReader {
+
+        private final RowReader rowReader;
+        private final Predicate<Row> predicate;
+
+        FilteringRowReader(RowReader rowReader, Predicate<Row> predicate) {
+            this.rowReader = rowReader;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public Row readRow() {
+            Row row;
+            while ((row = rowReader.readRow()) != null && !predicate.apply(row)) {
+                // streams of the skipped row are never read
+                closeValues(row.getValues());
+            }
+            return row;
+        }
+
+        @Override
+        public void close() {
+            rowReader.close();
+        }
+    }
 }
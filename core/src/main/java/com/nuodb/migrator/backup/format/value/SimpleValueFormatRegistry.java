@@ -27,11 +27,32 @@
  */
 package com.nuodb.migrator.backup.format.value;
 
+import com.nuodb.migrator.jdbc.type.jdbc2.JdbcBigIntValue;
+import com.nuodb.migrator.jdbc.type.jdbc2.JdbcCharValue;
 import com.nuodb.migrator.jdbc.type.jdbc2.JdbcDateValue;
+import com.nuodb.migrator.jdbc.type.jdbc2.JdbcDecimalValue;
+import com.nuodb.migrator.jdbc.type.jdbc2.JdbcIntegerValue;
+import com.nuodb.migrator.jdbc.type.jdbc2.JdbcLongVarCharValue;
+import com.nuodb.migrator.jdbc.type.jdbc2.JdbcNumericValue;
+import com.nuodb.migrator.jdbc.type.jdbc2.JdbcSmallIntValue;
 import com.nuodb.migrator.jdbc.type.jdbc2.JdbcTimeValue;
 import com.nuodb.migrator.jdbc.type.jdbc2.JdbcTimestampValue;
+import com.nuodb.migrator.jdbc.type.jdbc2.JdbcTinyIntValue;
+import com.nuodb.migrator.jdbc.type.jdbc2.JdbcVarCharValue;
+import com.nuodb.migrator.jdbc.type.jdbc4.JdbcNCharValue;
+import com.nuodb.migrator.jdbc.type.jdbc4.JdbcNLongVarCharValue;
+import com.nuodb.migrator.jdbc.type.jdbc4.JdbcNVarCharValue;
+
+import static com.nuodb.migrator.backup.format.value.JdbcNumericValueFormat.NumericType.DECIMAL;
+import static com.nuodb.migrator.backup.format.value.JdbcNumericValueFormat.NumericType.INT;
+import static com.nuodb.migrator.backup.format.value.JdbcNumericValueFormat.NumericType.LONG;
+import static com.nuodb.migrator.backup.format.value.JdbcNumericValueFormat.NumericType.SHORT;
 
 /**
+ * Registers formats of the most common types, which are picked for a column
+ * once, so that converting its values doesn't go through the type switch of
+ * the default {@link JdbcValueFormat}
+ *
  * @author Sergey Bushik
  */
 public class SimpleValueFormatRegistry extends ValueFormatRegistryBase {
@@ -41,5 +62,21 @@ public class SimpleValueFormatRegistry extends ValueFormatRegistryBase {
         addValueFormat(JdbcTimestampValue.INSTANCE, new JdbcTimestampValueFormat());
         addValueFormat(JdbcTimeValue.INSTANCE, new JdbcTimeValueFormat());
         addValueFormat(JdbcDateValue.INSTANCE, new JdbcDateValueFormat());
+
+        ValueFormat shortValueFormat = new JdbcNumericValueFormat(SHORT);
+        addValueFormat(JdbcTinyIntValue.INSTANCE, shortValueFormat);
+        addValueFormat(JdbcSmallIntValue.INSTANCE, shortValueFormat);
+        addValueFormat(JdbcIntegerValue.INSTANCE, new JdbcNumericValueFormat(INT));
+        addValueFormat(JdbcBigIntValue.INSTANCE, new JdbcNumericValueFormat(LONG));
+        ValueFormat decimalValueFormat = new JdbcNumericValueFormat(DECIMAL);
+        addValueFormat(JdbcNumericValue.INSTANCE, decimalValueFormat);
+        addValueFormat(JdbcDecimalValue.INSTANCE, decimalValueFormat);
+        ValueFormat stringValueFormat = new JdbcStringValueFormat();
+        addValueFormat(JdbcCharValue.INSTANCE, stringValueFormat);
+        addValueFormat(JdbcVarCharValue.INSTANCE, stringValueFormat);
+        addValueFormat(JdbcLongVarCharValue.INSTANCE, stringValueFormat);
+        addValueFormat(JdbcNCharValue.INSTANCE, stringValueFormat);
+        addValueFormat(JdbcNVarCharValue.INSTANCE, stringValueFormat);
+        addValueFormat(JdbcNLongVarCharValue.INSTANCE, stringValueFormat);
     }
 }
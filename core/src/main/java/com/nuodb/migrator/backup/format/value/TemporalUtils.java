@@ -0,0 +1,270 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+/**
+ * Parses timestamp, date, time and year values in a single pass without
+ * throwing exceptions on a mismatched shape. Recognized shapes are the ones
+ * accepted by {@link Timestamp#valueOf(String)}, {@link Date#valueOf(String)},
+ * {@link Time#valueOf(String)} and a year of 1 to 4 digits, except for
+ * timestamps with hours of more than 2 digits or signed. The values are built
+ * in the default time zone like the JDK does. Each method returns null if the
+ * value is not of a recognized shape.
+ *
+ * @author Sergey Bushik
+ */
+@SuppressWarnings("deprecation")
+public class TemporalUtils {
+
+    private static final int YEAR_LENGTH = 4;
+    private static final int NANOS_LENGTH = 9;
+    private static final int HOUR_MAX_LENGTH = 9;
+
+    private static final int[] POWERS_OF_TEN = { 1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000,
+            1000000000 };
+
+    private TemporalUtils() {
+    }
+
+    /**
+     * Parses yyyy-[m]m-[d]d [h]h:[m]m:[s]s[.f...], yyyy-[m]m-[d]d or yyyy
+     * shaped value. Unlike {@link Timestamp#valueOf(String)} hours are limited
+     * to 2 digits and can't be signed.
+     *
+     * @param value
+     *            value to parse
+     * @return timestamp or null if the value is not of a recognized shape
+     */
+    public static Timestamp parseTimestamp(String value) {
+        int start = start(value);
+        int end = end(value, start);
+        int position = digits(value, start, end);
+        if (position == end) {
+            return isYear(start, end) ? new Timestamp(parse(value, start, end) - 1900, 0, 1, 0, 0, 0, 0) : null;
+        }
+        int date = parseDate(value, start, end);
+        if (date < 0) {
+            return null;
+        }
+        int year = parse(value, start, start + YEAR_LENGTH);
+        int dateEnd = dateEnd(value, start, end);
+        if (dateEnd == end) {
+            return new Timestamp(year - 1900, month(date), day(date), 0, 0, 0, 0);
+        }
+        if (value.charAt(dateEnd) != ' ') {
+            return null;
+        }
+        // hh:mm:ss[.f...]
+        int hourStart = dateEnd + 1;
+        int hourEnd = digits(value, hourStart, end);
+        if (!isLength(hourStart, hourEnd, 1, 2) || !isChar(value, hourEnd, end, ':')) {
+            return null;
+        }
+        int minuteEnd = digits(value, hourEnd + 1, end);
+        if (!isLength(hourEnd + 1, minuteEnd, 1, 2) || !isChar(value, minuteEnd, end, ':')) {
+            return null;
+        }
+        int secondEnd = digits(value, minuteEnd + 1, end);
+        if (!isLength(minuteEnd + 1, secondEnd, 1, 2)) {
+            return null;
+        }
+        int nanos = 0;
+        if (secondEnd != end) {
+            if (value.charAt(secondEnd) != '.') {
+                return null;
+            }
+            int nanosEnd = digits(value, secondEnd + 1, end);
+            if (nanosEnd != end || !isLength(secondEnd + 1, nanosEnd, 1, NANOS_LENGTH)) {
+                return null;
+            }
+            nanos = parse(value, secondEnd + 1, nanosEnd) * POWERS_OF_TEN[NANOS_LENGTH - (nanosEnd - secondEnd - 1)];
+        }
+        return new Timestamp(year - 1900, month(date), day(date), parse(value, hourStart, hourEnd),
+                parse(value, hourEnd + 1, minuteEnd), parse(value, minuteEnd + 1, secondEnd), nanos);
+    }
+
+    /**
+     * Parses yyyy-[m]m-[d]d or yyyy shaped value
+     *
+     * @param value
+     *            value to parse
+     * @return date or null if the value is not of a recognized shape
+     */
+    public static Date parseDate(String value) {
+        int start = start(value);
+        int end = end(value, start);
+        int position = digits(value, start, end);
+        if (position == end) {
+            return isYear(start, end) ? new Date(parse(value, start, end) - 1900, 0, 1) : null;
+        }
+        int date = parseDate(value, start, end);
+        if (date < 0 || dateEnd(value, start, end) != end) {
+            return null;
+        }
+        return new Date(parse(value, start, start + YEAR_LENGTH) - 1900, month(date), day(date));
+    }
+
+    /**
+     * Parses [-+][h]h:[m]m:[s]s shaped value, hours are not limited to 2
+     * digits and can be signed to accommodate time intervals, like MySQL
+     * -838:59:59. The sign applies to hours only, the same as it does in
+     * {@link Time#valueOf(String)}.
+     *
+     * @param value
+     *            value to parse
+     * @return time or null if the value is not of a recognized shape
+     */
+    public static Time parseTime(String value) {
+        int start = start(value);
+        int end = end(value, start);
+        boolean negative = isChar(value, start, end, '-');
+        int hourStart = negative || isChar(value, start, end, '+') ? start + 1 : start;
+        int hourEnd = digits(value, hourStart, end);
+        if (!isLength(hourStart, hourEnd, 1, HOUR_MAX_LENGTH) || !isChar(value, hourEnd, end, ':')) {
+            return null;
+        }
+        int minuteEnd = digits(value, hourEnd + 1, end);
+        if (!isLength(hourEnd + 1, minuteEnd, 1, 2) || !isChar(value, minuteEnd, end, ':')) {
+            return null;
+        }
+        int secondEnd = digits(value, minuteEnd + 1, end);
+        if (secondEnd != end || !isLength(minuteEnd + 1, secondEnd, 1, 2)) {
+            return null;
+        }
+        int hour = parse(value, hourStart, hourEnd);
+        return new Time(negative ? -hour : hour, parse(value, hourEnd + 1, minuteEnd),
+                parse(value, minuteEnd + 1, secondEnd));
+    }
+
+    /**
+     * Formats year of the date in the default time zone padded to 4 digits
+     *
+     * @param date
+     *            date to format
+     * @return formatted year
+     */
+    public static String formatYear(java.util.Date date) {
+        String year = String.valueOf(date.getYear() + 1900);
+        if (year.length() >= YEAR_LENGTH) {
+            return year;
+        }
+        StringBuilder builder = new StringBuilder(YEAR_LENGTH);
+        for (int i = year.length(); i < YEAR_LENGTH; i++) {
+            builder.append('0');
+        }
+        return builder.append(year).toString();
+    }
+
+    /**
+     * Parses yyyy-[m]m-[d]d prefix of the value
+     *
+     * @return month and day packed into an int or -1 if the value doesn't start
+     *         with a date
+     */
+    private static int parseDate(String value, int start, int end) {
+        int yearEnd = start + YEAR_LENGTH;
+        if (digits(value, start, end) != yearEnd || !isChar(value, yearEnd, end, '-')) {
+            return -1;
+        }
+        int monthEnd = digits(value, yearEnd + 1, end);
+        if (!isLength(yearEnd + 1, monthEnd, 1, 2) || !isChar(value, monthEnd, end, '-')) {
+            return -1;
+        }
+        int dayEnd = digits(value, monthEnd + 1, end);
+        if (!isLength(monthEnd + 1, dayEnd, 1, 2)) {
+            return -1;
+        }
+        int month = parse(value, yearEnd + 1, monthEnd);
+        int day = parse(value, monthEnd + 1, dayEnd);
+        return month >= 1 && month <= 12 && day >= 1 && day <= 31 ? (month - 1) << 8 | day : -1;
+    }
+
+    private static int dateEnd(String value, int start, int end) {
+        return digits(value, digits(value, start + YEAR_LENGTH + 1, end) + 1, end);
+    }
+
+    private static int month(int date) {
+        return date >> 8;
+    }
+
+    private static int day(int date) {
+        return date & 0xFF;
+    }
+
+    private static boolean isYear(int start, int end) {
+        return isLength(start, end, 1, YEAR_LENGTH);
+    }
+
+    private static boolean isLength(int start, int end, int min, int max) {
+        int length = end - start;
+        return length >= min && length <= max;
+    }
+
+    private static boolean isChar(String value, int position, int end, char c) {
+        return position < end && value.charAt(position) == c;
+    }
+
+    private static int start(String value) {
+        int start = 0;
+        while (start < value.length() && value.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int end(String value, int start) {
+        int end = value.length();
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static int digits(String value, int position, int end) {
+        while (position < end && isDigit(value.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int parse(String value, int start, int end) {
+        int result = 0;
+        for (int position = start; position < end; position++) {
+            result = result * 10 + value.charAt(position) - '0';
+        }
+        return result;
+    }
+}
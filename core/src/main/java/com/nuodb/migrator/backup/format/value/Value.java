@@ -27,6 +27,8 @@
  */
 package com.nuodb.migrator.backup.format.value;
 
+import java.io.InputStream;
+import java.io.Reader;
 import java.io.Serializable;
 
 /**
@@ -40,5 +42,17 @@ public interface Value extends Serializable {
 
     byte[] asBytes();
 
+    InputStream asInputStream();
+
+    Reader asReader();
+
+    /**
+     * Length of the value in bytes for binary and in characters for string
+     * values
+     *
+     * @return length of the value or -1 if the value is not read yet
+     */
+    long getLength();
+
     ValueType getValueType();
 }
@@ -33,10 +33,14 @@ import com.nuodb.migrator.jdbc.metadata.Column;
 import com.nuodb.migrator.jdbc.metadata.Table;
 import com.nuodb.migrator.jdbc.model.Field;
 import com.nuodb.migrator.jdbc.type.JdbcValueAccess;
+import com.nuodb.migrator.jfr.ValueFormatErrorEvent;
 
 import java.sql.Connection;
 import java.util.Map;
 
+import static com.nuodb.migrator.jfr.MigratorEvents.AVAILABLE;
+import static com.nuodb.migrator.jfr.MigratorEvents.GET;
+import static com.nuodb.migrator.jfr.MigratorEvents.SET;
 import static java.lang.String.format;
 
 /**
@@ -49,8 +53,10 @@ public abstract class ValueFormatBase<T> implements ValueFormat<T> {
         try {
             return doGetValue(access, options);
         } catch (ValueFormatException exception) {
+            commitValueFormatErrorEvent(GET, access, exception);
             throw exception;
         } catch (Throwable cause) {
+            commitValueFormatErrorEvent(GET, access, cause);
             return onGetValueError(access, cause);
         }
     }
@@ -67,8 +73,10 @@ public abstract class ValueFormatBase<T> implements ValueFormat<T> {
         try {
             doSetValue(value, access, options);
         } catch (ValueFormatException exception) {
+            commitValueFormatErrorEvent(SET, access, exception);
             throw exception;
         } catch (Throwable cause) {
+            commitValueFormatErrorEvent(SET, access, cause);
             onSetValueError(access, cause);
         }
     }
@@ -81,6 +89,20 @@ public abstract class ValueFormatBase<T> implements ValueFormat<T> {
                 access.getField().getTypeName()), cause);
     }
 
+    protected void commitValueFormatErrorEvent(String operation, JdbcValueAccess access, Throwable error) {
+        if (AVAILABLE) {
+            ValueFormatErrorEvent event = new ValueFormatErrorEvent();
+            if (event.shouldCommit()) {
+                Field field = access.getField();
+                event.setColumn(field != null ? field.getName() : null);
+                event.setType(field != null ? field.getTypeName() : null);
+                event.setOperation(operation);
+                event.setMessage(error.getMessage());
+                event.commit();
+            }
+        }
+    }
+
     protected String getColumnName(Field field) {
         if (field instanceof Column) {
             Column column = (Column) field;
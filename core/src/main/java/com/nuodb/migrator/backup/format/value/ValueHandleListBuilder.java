@@ -44,7 +44,9 @@ import java.util.Map;
 import java.util.TimeZone;
 
 import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.jdbc.type.jdbc2.JdbcDateValueBase.CALENDAR;
 import static com.nuodb.migrator.jdbc.type.jdbc2.JdbcDateValueBase.TIMEZONE;
+import static java.util.Calendar.getInstance;
 
 /**
  * @author Sergey Bushik
@@ -123,7 +125,7 @@ public abstract class ValueHandleListBuilder {
     }
 
     protected void initValueType(ValueHandle valueHandle) {
-        valueHandle.setValueType(buildValueFormat(valueHandle).getValueType(valueHandle));
+        valueHandle.setValueType(valueHandle.getValueFormat().getValueType(valueHandle));
     }
 
     protected void initJdbcValueAccess(ValueHandle valueHandle) {
@@ -145,6 +147,10 @@ public abstract class ValueHandleListBuilder {
             if (dialect.supportsStatementWithTimezone()) {
                 jdbcValueAccessOptions = newHashMap();
                 jdbcValueAccessOptions.put(TIMEZONE, getTimeZone());
+                // calendar is created once per column & is confined to the thread of the statement or result set
+                if (getTimeZone() != null) {
+                    jdbcValueAccessOptions.put(CALENDAR, getInstance(getTimeZone()));
+                }
             }
             break;
         default:
@@ -27,11 +27,24 @@
  */
 package com.nuodb.migrator.backup.format.value;
 
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.Arrays;
 import java.util.List;
 
+import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.BASE64;
 import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
 import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.apache.commons.io.IOUtils.toByteArray;
+import static org.apache.commons.lang3.StringUtils.startsWith;
 
 /**
  * @author Sergey Bushik
@@ -41,6 +54,12 @@ public class ValueUtils {
     public static final Value BINARY_NULL = new BinaryValue(null);
     public static final Value STRING_NULL = new StringValue(null);
 
+    /**
+     * Prefix of encoded binary value referring to a value stored out of line,
+     * the prefix is not used by base64 and never starts an inline value
+     */
+    public static final String REFERENCE_PREFIX = "@";
+
     public static void fill(Value[] values, List<ValueType> valueTypes, int offset) {
         for (; offset < values.length; offset++) {
             ValueType valueType = valueTypes.get(offset);
@@ -64,6 +83,118 @@ public class ValueUtils {
         return value == null ? STRING_NULL : new StringValue(value);
     }
 
+    /**
+     * Closes stream or file backing the value, such as a spooled or a stored
+     * large object, once the value is no longer needed. Values held in memory
+     * are left as they are.
+     *
+     * @param value
+     *            value to close
+     */
+    public static void closeValue(Value value) {
+        if (value instanceof Closeable) {
+            closeQuietly((Closeable) value);
+        }
+    }
+
+    public static void closeValues(Value[] values) {
+        if (values != null) {
+            for (Value value : values) {
+                closeValue(value);
+            }
+        }
+    }
+
+    /**
+     * Creates binary value read from the stream, the stream is read once either
+     * by the format writing it or when the value is accessed as bytes
+     *
+     * @param value
+     *            stream of bytes
+     * @param length
+     *            number of bytes in the stream or -1 if not known
+     * @return binary value
+     */
+    public static Value binary(InputStream value, long length) {
+        return value == null ? BINARY_NULL : new BinaryStreamValue(value, length);
+    }
+
+    /**
+     * Creates string value read from the reader, the reader is read once either
+     * by the format writing it or when the value is accessed as string
+     *
+     * @param value
+     *            reader of characters
+     * @param length
+     *            number of characters in the reader or -1 if not known
+     * @return string value
+     */
+    public static Value string(Reader value, long length) {
+        return value == null ? STRING_NULL : new StringStreamValue(value, length);
+    }
+
+    /**
+     * Creates binary value referring to the value stored out of line under the
+     * given name
+     *
+     * @param name
+     *            name of the stored value
+     * @return reference value
+     */
+    public static Value reference(String name) {
+        return new ReferenceValue(name);
+    }
+
+    public static boolean isReference(Value value) {
+        return value instanceof ReferenceValue;
+    }
+
+    public static String getReference(Value value) {
+        return ((ReferenceValue) value).getName();
+    }
+
+    /**
+     * Encodes binary value as base64 text or as a reference
+     *
+     * @param value
+     *            binary value to encode
+     * @return encoded text
+     */
+    public static String encodeBinary(Value value) {
+        return isReference(value) ? REFERENCE_PREFIX + getReference(value) : BASE64.encode(value.asBytes());
+    }
+
+    /**
+     * Decodes base64 text or a reference, the text is decoded as is without
+     * copying it to a string
+     *
+     * @param value
+     *            encoded text
+     * @return binary value or reference
+     */
+    public static Value decodeBinary(CharSequence value) {
+        if (value == null) {
+            return BINARY_NULL;
+        }
+        return startsWith(value, REFERENCE_PREFIX)
+                ? reference(value.subSequence(REFERENCE_PREFIX.length(), value.length()).toString())
+                : binary(BASE64.decode(value));
+    }
+
+    /**
+     * Checks whether value is backed by a stream, which is not read into memory
+     * yet
+     *
+     * @param value
+     *            to check
+     * @return true if value should be accessed with {@link Value#asInputStream()}
+     *         or {@link Value#asReader()}
+     */
+    public static boolean isStream(Value value) {
+        return value instanceof BinaryStreamValue ? ((BinaryStreamValue) value).isStream()
+                : value instanceof StringStreamValue && ((StringStreamValue) value).isStream();
+    }
+
     static class BinaryValue implements Value {
 
         private final byte[] value;
@@ -82,6 +213,21 @@ public class ValueUtils {
             return value;
         }
 
+        @Override
+        public InputStream asInputStream() {
+            return value != null ? new ByteArrayInputStream(value) : null;
+        }
+
+        @Override
+        public Reader asReader() {
+            return value != null ? new InputStreamReader(asInputStream()) : null;
+        }
+
+        @Override
+        public long getLength() {
+            return value != null ? value.length : -1;
+        }
+
         @Override
         public boolean isNull() {
             return value == null;
@@ -136,6 +282,21 @@ public class ValueUtils {
             return value != null ? value.getBytes() : null;
         }
 
+        @Override
+        public InputStream asInputStream() {
+            return value != null ? new ByteArrayInputStream(asBytes()) : null;
+        }
+
+        @Override
+        public Reader asReader() {
+            return value != null ? new StringReader(value) : null;
+        }
+
+        @Override
+        public long getLength() {
+            return value != null ? value.length() : -1;
+        }
+
         @Override
         public boolean isNull() {
             return value == null;
@@ -171,4 +332,225 @@ public class ValueUtils {
             return "String{'" + value + "'}";
         }
     }
+
+    static class BinaryStreamValue implements Value, Closeable {
+
+        private transient InputStream stream;
+        private final long length;
+        private byte[] value;
+
+        public BinaryStreamValue(InputStream stream, long length) {
+            this.stream = stream;
+            this.length = length;
+        }
+
+        public boolean isStream() {
+            return value == null;
+        }
+
+        @Override
+        public String asString() {
+            return new String(asBytes());
+        }
+
+        @Override
+        public byte[] asBytes() {
+            if (value == null) {
+                try {
+                    value = toByteArray(stream);
+                } catch (IOException exception) {
+                    throw new ValueFormatException(exception);
+                } finally {
+                    closeQuietly(stream);
+                    stream = null;
+                }
+            }
+            return value;
+        }
+
+        @Override
+        public InputStream asInputStream() {
+            return value != null ? new ByteArrayInputStream(value) : stream;
+        }
+
+        @Override
+        public Reader asReader() {
+            return new InputStreamReader(asInputStream());
+        }
+
+        @Override
+        public long getLength() {
+            return value != null ? value.length : length;
+        }
+
+        @Override
+        public boolean isNull() {
+            return false;
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return BINARY;
+        }
+
+        @Override
+        public void close() {
+            closeQuietly(stream);
+            stream = null;
+        }
+
+        @Override
+        public String toString() {
+            return "BinaryStream{" + length + '}';
+        }
+    }
+
+    static class StringStreamValue implements Value, Closeable {
+
+        private transient Reader reader;
+        private final long length;
+        private String value;
+
+        public StringStreamValue(Reader reader, long length) {
+            this.reader = reader;
+            this.length = length;
+        }
+
+        public boolean isStream() {
+            return value == null;
+        }
+
+        @Override
+        public String asString() {
+            if (value == null) {
+                try {
+                    value = IOUtils.toString(reader);
+                } catch (IOException exception) {
+                    throw new ValueFormatException(exception);
+                } finally {
+                    closeQuietly(reader);
+                    reader = null;
+                }
+            }
+            return value;
+        }
+
+        @Override
+        public byte[] asBytes() {
+            return asString().getBytes();
+        }
+
+        @Override
+        public InputStream asInputStream() {
+            return new ByteArrayInputStream(asBytes());
+        }
+
+        @Override
+        public Reader asReader() {
+            return value != null ? new StringReader(value) : reader;
+        }
+
+        @Override
+        public long getLength() {
+            return value != null ? value.length() : length;
+        }
+
+        @Override
+        public boolean isNull() {
+            return false;
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return STRING;
+        }
+
+        @Override
+        public void close() {
+            closeQuietly(reader);
+            reader = null;
+        }
+
+        @Override
+        public String toString() {
+            return "StringStream{" + length + '}';
+        }
+    }
+
+    static class ReferenceValue implements Value {
+
+        private final String name;
+
+        public ReferenceValue(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String asString() {
+            throw newUnresolvedReference();
+        }
+
+        @Override
+        public byte[] asBytes() {
+            throw newUnresolvedReference();
+        }
+
+        @Override
+        public InputStream asInputStream() {
+            throw newUnresolvedReference();
+        }
+
+        @Override
+        public Reader asReader() {
+            throw newUnresolvedReference();
+        }
+
+        @Override
+        public long getLength() {
+            return -1;
+        }
+
+        @Override
+        public boolean isNull() {
+            return false;
+        }
+
+        @Override
+        public ValueType getValueType() {
+            return BINARY;
+        }
+
+        protected ValueFormatException newUnresolvedReference() {
+            return new ValueFormatException("Value reference " + name + " is not resolved");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (o == null || getClass() != o.getClass())
+                return false;
+
+            ReferenceValue that = (ReferenceValue) o;
+
+            if (name != null ? !name.equals(that.name) : that.name != null)
+                return false;
+
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return name != null ? name.hashCode() : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Reference{'" + name + "'}";
+        }
+    }
 }
@@ -41,9 +41,15 @@ public interface XmlFormat {
 
     final String ATTRIBUTE_ENCODING = "xml.encoding";
     final String ATTRIBUTE_VERSION = "xml.version";
+    /**
+     * Column values longer than the threshold in characters are spooled to a
+     * temporary file rather than kept in memory
+     */
+    final String ATTRIBUTE_SPOOL_THRESHOLD = "xml.spool.threshold";
 
     final String ENCODING = "utf-8";
     final String VERSION = "1.0";
+    final int SPOOL_THRESHOLD = 1024 * 1024;
 
     final String ELEMENT_ROWS = "rs";
     final String ELEMENT_COLUMN = "c";
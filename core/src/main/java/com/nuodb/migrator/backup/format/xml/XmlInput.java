@@ -31,24 +31,49 @@ import com.nuodb.migrator.backup.format.InputBase;
 import com.nuodb.migrator.backup.format.InputException;
 import com.nuodb.migrator.backup.format.value.Value;
 import com.nuodb.migrator.backup.format.value.ValueType;
+import org.apache.commons.codec.binary.Base64OutputStream;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.Writer;
 import java.util.BitSet;
 import java.util.List;
 
-import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.BASE64;
+import static com.google.common.base.Charsets.US_ASCII;
+import static com.google.common.base.Charsets.UTF_8;
 import static com.nuodb.migrator.backup.format.utils.BitSetUtils.EMPTY;
 import static com.nuodb.migrator.backup.format.utils.BitSetUtils.fromHexString;
+import static com.nuodb.migrator.backup.format.utils.SpoolUtils.createSpoolFile;
+import static com.nuodb.migrator.backup.format.utils.SpoolUtils.openSpoolFile;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
 import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.BINARY_NULL;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.STRING_NULL;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.decodeBinary;
 import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static java.lang.Integer.parseInt;
 import static javax.xml.XMLConstants.NULL_NS_URI;
 import static javax.xml.stream.XMLInputFactory.newInstance;
+import static javax.xml.stream.XMLStreamConstants.CDATA;
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.COMMENT;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.ENTITY_REFERENCE;
+import static javax.xml.stream.XMLStreamConstants.PROCESSING_INSTRUCTION;
+import static javax.xml.stream.XMLStreamConstants.SPACE;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 /**
  * @author Sergey Bushik
@@ -97,33 +122,111 @@ public class XmlInput extends InputBase implements XmlFormat {
             values = new Value[length];
             int index = 0;
             while (index < length) {
-                String value = null;
+                Value value = null;
                 ValueType valueType = valueTypes.get(index);
                 if (!nulls.get(index) && isNextElement(ELEMENT_COLUMN)) {
-                    try {
-                        ValueType valueLevel = VALUE_TYPES
-                                .fromAlias(getAttributeValue(NULL_NS_URI, ATTRIBUTE_VALUE_TYPE));
-                        valueType = valueLevel != null ? valueLevel : valueType;
-                        value = xmlReader.getElementText();
-                    } catch (XMLStreamException exception) {
-                        throw new InputException(exception);
-                    }
+                    ValueType valueLevel = VALUE_TYPES.fromAlias(getAttributeValue(NULL_NS_URI, ATTRIBUTE_VALUE_TYPE));
+                    valueType = valueLevel != null ? valueLevel : valueType;
+                    value = readValue(valueType != null ? valueType : STRING);
                 }
                 valueType = valueType != null ? valueType : STRING;
-                switch (valueType) {
-                case BINARY:
-                    values[index] = binary(BASE64.decode(value));
-                    break;
-                case STRING:
-                    values[index] = string(value);
-                    break;
+                if (value == null) {
+                    switch (valueType) {
+                    case BINARY:
+                        value = BINARY_NULL;
+                        break;
+                    case STRING:
+                        value = STRING_NULL;
+                        break;
+                    }
                 }
+                values[index] = value;
                 index++;
             }
         }
         return values;
     }
 
+    /**
+     * Reads text of the current element. Text longer than spool threshold is
+     * written to a spool file, which is read by the returned value and deleted
+     * once the value is consumed.
+     *
+     * @param valueType
+     *            type of the value
+     * @return value of the element
+     */
+    protected Value readValue(ValueType valueType) {
+        StringBuilder text = new StringBuilder();
+        File file = null;
+        Writer writer = null;
+        long length = 0;
+        try {
+            int event;
+            while ((event = xmlReader.next()) != END_ELEMENT) {
+                switch (event) {
+                case CHARACTERS:
+                case CDATA:
+                case SPACE:
+                    text.append(xmlReader.getTextCharacters(), xmlReader.getTextStart(), xmlReader.getTextLength());
+                    break;
+                case ENTITY_REFERENCE:
+                    text.append(xmlReader.getText());
+                    break;
+                case PROCESSING_INSTRUCTION:
+                case COMMENT:
+                    break;
+                default:
+                    throw new InputException("Text only element expected");
+                }
+                if (text.length() >= getSpoolThreshold()) {
+                    if (writer == null) {
+                        file = createSpoolFile();
+                        writer = openSpoolWriter(file, valueType);
+                    }
+                    writer.append(text);
+                    length += text.length();
+                    text.setLength(0);
+                }
+            }
+            if (writer == null) {
+                return valueType == BINARY ? decodeBinary(text) : string(text.toString());
+            }
+            writer.append(text);
+            length += text.length();
+            writer.close();
+            writer = null;
+            Value value = valueType == BINARY ? binary(openSpoolFile(file), file.length())
+                    : string(new InputStreamReader(openSpoolFile(file), UTF_8), length);
+            file = null;
+            return value;
+        } catch (XMLStreamException exception) {
+            throw new InputException(exception);
+        } catch (IOException exception) {
+            throw new InputException(exception);
+        } finally {
+            closeQuietly(writer);
+            if (file != null) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Base64 text of a binary value is decoded as it's written to the spool
+     * file
+     */
+    protected Writer openSpoolWriter(File file, ValueType valueType) throws IOException {
+        OutputStream output = new FileOutputStream(file);
+        return valueType == BINARY ? new OutputStreamWriter(new Base64OutputStream(output, false), US_ASCII)
+                : new OutputStreamWriter(output, UTF_8);
+    }
+
+    protected int getSpoolThreshold() {
+        String spoolThreshold = (String) getAttribute(ATTRIBUTE_SPOOL_THRESHOLD);
+        return isEmpty(spoolThreshold) ? SPOOL_THRESHOLD : parseInt(spoolThreshold);
+    }
+
     protected boolean nextElement() {
         while (xmlReader.getEventType() != XMLStreamConstants.END_DOCUMENT) {
             try {
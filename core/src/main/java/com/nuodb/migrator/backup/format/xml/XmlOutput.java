@@ -36,7 +36,14 @@ import com.nuodb.migrator.backup.format.value.ValueType;
 import javax.xml.XMLConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.io.Writer;
 import java.util.BitSet;
 import java.util.Collection;
@@ -44,16 +51,29 @@ import java.util.Collection;
 import static com.google.common.collect.Iterables.get;
 import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.BASE64;
 import static com.nuodb.migrator.backup.format.utils.BitSetUtils.toHexString;
+import static com.nuodb.migrator.backup.format.utils.SpoolUtils.createSpoolFile;
+import static com.nuodb.migrator.backup.format.utils.SpoolUtils.openSpoolFile;
 import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.encodeBinary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.isReference;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.isStream;
 import static com.nuodb.migrator.backup.format.xml.XmlUtils.isValid;
+import static java.lang.Integer.parseInt;
+import static java.lang.Math.min;
 import static javax.xml.stream.XMLOutputFactory.newInstance;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.apache.commons.io.IOUtils.read;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 /**
  * @author Sergey Bushik
  */
 public class XmlOutput extends OutputBase implements XmlFormat {
 
+    private static final int BINARY_BUFFER_SIZE = 3 * 16 * 1024;
+
     private XMLStreamWriter xmlWriter;
+    private char[] binaryBuffer;
 
     @Override
     public String getFormat() {
@@ -106,16 +126,19 @@ public class XmlOutput extends OutputBase implements XmlFormat {
                 if (!value.isNull()) {
                     ValueType valueType = get(columns, i).getValueType();
                     xmlWriter.writeStartElement(ELEMENT_COLUMN);
-                    String content;
                     if (valueType == BINARY) {
-                        content = BASE64.encode(value.asBytes());
-                    } else if (!isValid(value.asString())) {
-                        xmlWriter.writeAttribute(ATTRIBUTE_VALUE_TYPE, VALUE_TYPES.toAlias(BINARY));
-                        content = BASE64.encode(value.asBytes());
+                        if (isStream(value)) {
+                            writeBinary(value.asInputStream());
+                        } else if (isReference(value)) {
+                            xmlWriter.writeCharacters(encodeBinary(value));
+                        } else {
+                            writeBinary(value.asBytes());
+                        }
+                    } else if (isStream(value)) {
+                        writeString(value.asReader());
                     } else {
-                        content = value.asString();
+                        writeString(value.asString());
                     }
-                    xmlWriter.writeCharacters(content);
                     xmlWriter.writeEndElement();
                 }
                 i++;
@@ -123,6 +146,97 @@ public class XmlOutput extends OutputBase implements XmlFormat {
             xmlWriter.writeEndElement();
         } catch (XMLStreamException e) {
             throw new OutputException(e);
+        } catch (IOException e) {
+            throw new OutputException(e);
+        }
+    }
+
+    protected void writeString(String value) throws XMLStreamException {
+        if (!isValid(value)) {
+            xmlWriter.writeAttribute(ATTRIBUTE_VALUE_TYPE, VALUE_TYPES.toAlias(BINARY));
+            writeBinary(value.getBytes());
+        } else {
+            xmlWriter.writeCharacters(value);
+        }
+    }
+
+    /**
+     * Encodes bytes in pieces into the binary buffer, which is written out as
+     * is
+     */
+    protected void writeBinary(byte[] value) throws XMLStreamException {
+        for (int offset = 0; offset < value.length; offset += BINARY_BUFFER_SIZE) {
+            writeBinary(value, offset, min(BINARY_BUFFER_SIZE, value.length - offset));
+        }
+    }
+
+    protected void writeBinary(byte[] value, int offset, int length) throws XMLStreamException {
+        if (binaryBuffer == null) {
+            binaryBuffer = new char[BASE64.getEncodedLength(BINARY_BUFFER_SIZE)];
+        }
+        xmlWriter.writeCharacters(binaryBuffer, 0, BASE64.encode(value, offset, length, binaryBuffer, 0));
+    }
+
+    /**
+     * Encodes stream in pieces of the size divisible by 3, so that the pieces
+     * are joined to the same base64 text as the whole stream would be
+     */
+    protected void writeBinary(InputStream input) throws IOException, XMLStreamException {
+        try {
+            byte[] buffer = new byte[BINARY_BUFFER_SIZE];
+            int length;
+            while ((length = read(input, buffer)) > 0) {
+                writeBinary(buffer, 0, length);
+            }
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    /**
+     * Writes string of up to spool threshold characters from memory. Longer
+     * string is copied to a spool file first, as it's written in base64 if any
+     * of its characters is not valid in xml and that is known only once the
+     * whole string is read.
+     */
+    protected void writeString(Reader reader) throws IOException, XMLStreamException {
+        File file = null;
+        try {
+            char[] buffer = new char[getSpoolThreshold()];
+            int length = read(reader, buffer);
+            if (length < buffer.length) {
+                writeString(new String(buffer, 0, length));
+                return;
+            }
+            file = createSpoolFile();
+            boolean valid = true;
+            Writer writer = new OutputStreamWriter(new FileOutputStream(file));
+            try {
+                do {
+                    valid = valid && isValid(buffer, 0, length);
+                    writer.write(buffer, 0, length);
+                } while ((length = read(reader, buffer)) > 0);
+            } finally {
+                closeQuietly(writer);
+            }
+            if (valid) {
+                Reader spool = new InputStreamReader(openSpoolFile(file));
+                try {
+                    while ((length = read(spool, buffer)) > 0) {
+                        xmlWriter.writeCharacters(buffer, 0, length);
+                    }
+                } finally {
+                    closeQuietly(spool);
+                }
+            } else {
+                xmlWriter.writeAttribute(ATTRIBUTE_VALUE_TYPE, VALUE_TYPES.toAlias(BINARY));
+                writeBinary(openSpoolFile(file));
+            }
+        } finally {
+            closeQuietly(reader);
+            if (file != null) {
+                file.delete();
+            }
         }
     }
 
@@ -149,6 +263,11 @@ public class XmlOutput extends OutputBase implements XmlFormat {
         }
     }
 
+    protected int getSpoolThreshold() {
+        String spoolThreshold = (String) getAttribute(ATTRIBUTE_SPOOL_THRESHOLD);
+        return isEmpty(spoolThreshold) ? SPOOL_THRESHOLD : parseInt(spoolThreshold);
+    }
+
     protected String getEncoding() {
         return (String) getAttribute(ATTRIBUTE_VERSION, ENCODING);
     }
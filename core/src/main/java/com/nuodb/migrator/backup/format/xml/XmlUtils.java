@@ -49,4 +49,13 @@ public class XmlUtils {
         }
         return true;
     }
+
+    public static boolean isValid(char[] value, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (!isValid(value[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -29,9 +29,11 @@ package com.nuodb.migrator.backup.loader;
 
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.collect.AbstractIterator;
 import com.nuodb.migrator.MigratorException;
 import com.nuodb.migrator.backup.Backup;
 import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.BackupReader;
 import com.nuodb.migrator.backup.Column;
 import com.nuodb.migrator.backup.RowSet;
 import com.nuodb.migrator.backup.TableRowSet;
@@ -74,7 +76,9 @@ import com.nuodb.migrator.jdbc.query.InsertQueryBuilder;
 import com.nuodb.migrator.jdbc.query.InsertType;
 import com.nuodb.migrator.jdbc.query.Query;
 import com.nuodb.migrator.jdbc.session.Session;
+import com.nuodb.migrator.jdbc.session.HasIdleSessions;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
+import com.nuodb.migrator.metrics.MetricRegistry;
 import com.nuodb.migrator.jdbc.session.Work;
 import com.nuodb.migrator.jdbc.type.JdbcTypeNameMap;
 import com.nuodb.migrator.spec.ConnectionSpec;
@@ -86,8 +90,10 @@ import com.nuodb.migrator.utils.concurrent.ForkJoinPool;
 import com.nuodb.migrator.utils.concurrent.ForkJoinTask;
 import org.slf4j.Logger;
 
+import java.io.File;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.ExecutorService;
@@ -141,9 +147,11 @@ public class BackupLoader {
     private InspectionManager inspectionManager;
     private Parallelizer parallelizer = new TableLevelParallelizer();
     private MetaDataSpec metaDataSpec;
+    private MetricRegistry metricRegistry;
     private Collection<MigrationMode> migrationModes = MIGRATION_MODES;
     private PrioritySet<NamingStrategy> namingStrategies;
     private RowSetMapper rowSetMapper = new SimpleRowSetMapper();
+    private boolean resume;
     private Collection<ScriptType> scriptTypes;
     private MetaDataFilterManager metaDataFilterManager;
     private ConnectionSpec targetSpec;
@@ -179,17 +187,27 @@ public class BackupLoader {
 
     protected BackupLoaderContext createBackupLoaderContext(BackupOps backupOps, Map context) throws Exception {
         BackupLoaderContext backupLoaderContext = new SimpleBackupLoaderContext();
-        backupLoaderContext.setBackup(backupOps.read(context));
+        BackupReader backupReader = backupOps.openReader(context);
+        backupLoaderContext.setBackupReader(backupReader);
+        backupLoaderContext.setBackup(backupReader.getBackup());
         backupLoaderContext.setBackupOps(backupOps);
         backupLoaderContext.setBackupOpsContext(context);
         backupLoaderContext.setCommitStrategy(getCommitStrategy());
 
         ExecutorService executorService = getExecutorService();
         backupLoaderContext.setExecutorService(executorService == null ? createExecutorService() : executorService);
+        MetricRegistry metricRegistry = getMetricRegistry();
+        if (metricRegistry != null && backupLoaderContext.getExecutorService() instanceof ForkJoinPool) {
+            metricRegistry.registerExecutor((ForkJoinPool) backupLoaderContext.getExecutorService());
+        }
+        backupLoaderContext.setMetricRegistry(metricRegistry);
         backupLoaderContext.setFormatAttributes(getFormatAttributes());
         backupLoaderContext.setFormatFactory(getFormatFactory());
         backupLoaderContext.setInsertTypeFactory(getInsertTypeFactory());
         backupLoaderContext.setMigrationModes(getMigrationModes());
+        if (backupLoaderContext.isLoadData()) {
+            backupLoaderContext.setBackupLoaderJournal(openBackupLoaderJournal(backupOps));
+        }
         backupLoaderContext.setParallelizer(getParallelizer());
         backupLoaderContext.setRowSetMapper(getRowSetMapper());
         backupLoaderContext.setSourceTables(getSourceTables(backupLoaderContext));
@@ -202,6 +220,35 @@ public class BackupLoader {
         return backupLoaderContext;
     }
 
+    /**
+     * Opens journal recording load progress next to the backup catalog, the
+     * journal of the previous run is picked up if resume is requested. Backup
+     * directory may be read only, in which case data is loaded without the
+     * journal, unless resume is requested.
+     *
+     * @param backupOps
+     *            backup ops of the loaded backup
+     * @return opened journal or null if backup directory is not writable
+     * @throws Exception
+     *             if journal can't be opened
+     */
+    protected BackupLoaderJournal openBackupLoaderJournal(BackupOps backupOps) throws Exception {
+        BackupLoaderJournal backupLoaderJournal = new BackupLoaderJournal(backupOps);
+        File dir = backupLoaderJournal.getFile().getAbsoluteFile().getParentFile();
+        if (dir.exists() && !dir.canWrite()) {
+            if (isResume()) {
+                throw new BackupLoaderException(
+                        format("Can't resume load, journal directory %s is not writable", dir));
+            }
+            if (logger.isWarnEnabled()) {
+                logger.warn(format("Directory %s is not writable, load can't be resumed", dir));
+            }
+            return null;
+        }
+        backupLoaderJournal.open(isResume());
+        return backupLoaderJournal;
+    }
+
     /**
      * Returns a filtered list of source tables to load depending on the
      * requested source table names and their patterns or all source tables if
@@ -368,6 +415,11 @@ public class BackupLoader {
         } finally {
             backupLoaderManager.close();
         }
+        BackupLoaderJournal backupLoaderJournal = backupLoaderManager.getBackupLoaderContext()
+                .getBackupLoaderJournal();
+        if (backupLoaderJournal != null) {
+            backupLoaderJournal.delete();
+        }
         hasTablesScriptGenerator
                 .migratorSummary(backupLoaderManager.getBackupLoaderContext().getScriptGeneratorManager());
         return backupLoaderManager.getBackupLoaderContext().getBackup();
@@ -375,6 +427,12 @@ public class BackupLoader {
 
     protected void loadSchema(BackupLoaderManager backupLoaderManager) throws Exception {
         BackupLoaderContext backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
+        BackupLoaderJournal backupLoaderJournal = backupLoaderContext.getBackupLoaderJournal();
+        if (backupLoaderJournal != null && backupLoaderJournal.isSchemaLoaded()) {
+            // schema was created by the resumed load
+            backupLoaderManager.loadSchemaDone();
+            return;
+        }
         ScriptGeneratorManager scriptGeneratorManager = backupLoaderContext.getScriptGeneratorManager();
         Collection<MetaDataType> objectTypes = getObjectTypes();
         ScriptExporter scriptExporter = createScriptExporter(backupLoaderContext);
@@ -398,6 +456,9 @@ public class BackupLoader {
             }
             Session targetSession = backupLoaderContext.getTargetSession();
             targetSession.getConnection().commit();
+            if (backupLoaderJournal != null) {
+                backupLoaderJournal.writeSchemaLoaded();
+            }
         } finally {
             closeQuietly(scriptExporter);
             scriptGeneratorManager.setObjectTypes(objectTypes);
@@ -439,9 +500,26 @@ public class BackupLoader {
         backupLoaderContext
                 .setDatabase(database != null ? database : openDatabase(backupLoaderContext.getTargetSession()));
         initLoadTables(backupLoaderContext);
+        prewarmTargetSessions(backupLoaderContext);
         executeWork(new LoadTablesWork(backupLoaderManager), backupLoaderManager);
     }
 
+    /**
+     * Opens a target session per loader thread ahead of time, so that the
+     * first table loads don't wait for connections to be opened
+     *
+     * @param backupLoaderContext
+     *            context of this load
+     * @throws SQLException
+     *             if target session can't be opened
+     */
+    protected void prewarmTargetSessions(BackupLoaderContext backupLoaderContext) throws SQLException {
+        SessionFactory targetSessionFactory = backupLoaderContext.getTargetSessionFactory();
+        if (targetSessionFactory instanceof HasIdleSessions) {
+            ((HasIdleSessions) targetSessionFactory).prewarm(getThreads());
+        }
+    }
+
     /**
      * Load constraints for source tables without row sets
      *
@@ -563,43 +641,72 @@ public class BackupLoader {
     }
 
     protected void initLoadTables(BackupLoaderContext backupLoaderContext) {
-        LoadTables loadTables = createLoadTables(backupLoaderContext);
-        backupLoaderContext.setLoadTables(loadTables);
-        for (LoadTable loadTable : loadTables) {
-            loadTable.setThreads(backupLoaderContext.getParallelizer().getThreads(loadTable, backupLoaderContext));
-        }
+        backupLoaderContext.setLoadTables(createLoadTables(backupLoaderContext));
     }
 
-    protected LoadTables createLoadTables(BackupLoaderContext backupLoaderContext) {
-        LoadTables loadTables = new LoadTables();
-        Collection<Table> sourceTables = backupLoaderContext.getSourceTables();
-        Backup backup = backupLoaderContext.getBackup();
-        Database database = backup.getDatabase();
-        for (RowSet rowSet : backup.getRowSets()) {
-            if (isEmpty(rowSet.getChunks())) {
-                continue;
-            }
-            TableRowSet tableRowSet = rowSet instanceof TableRowSet ? (TableRowSet) rowSet : null;
-            Catalog sourceCatalog = database.hasCatalog(tableRowSet.getCatalog())
-                    ? database.getCatalog(tableRowSet.getCatalog())
-                    : null;
-            Schema sourceSchema = sourceCatalog != null && sourceCatalog.hasSchema(tableRowSet.getSchema())
-                    ? sourceCatalog.getSchema(tableRowSet.getSchema())
-                    : null;
-            Table sourceTable = sourceSchema != null && sourceSchema.hasTable(tableRowSet.getTable())
-                    ? sourceSchema.getTable(tableRowSet.getTable())
-                    : null;
-            if (!isEmpty(sourceTables) && (sourceTable == null || !sourceTables.contains(sourceTable))) {
-                continue;
+    /**
+     * Creates load tables from the row sets, which are read from the backup
+     * catalog on demand as load tables are iterated.
+     *
+     * @param backupLoaderContext
+     *            backup loader context
+     * @return load tables
+     */
+    protected LoadTables createLoadTables(final BackupLoaderContext backupLoaderContext) {
+        final Iterator<RowSet> rowSets = getRowSets(backupLoaderContext);
+        return new LoadTables(new AbstractIterator<LoadTable>() {
+            @Override
+            protected LoadTable computeNext() {
+                while (rowSets.hasNext()) {
+                    LoadTable loadTable = createLoadTable(rowSets.next(), backupLoaderContext);
+                    if (loadTable != null) {
+                        return loadTable;
+                    }
+                }
+                return endOfData();
             }
-            Table targetTable = backupLoaderContext.getRowSetMapper().mapRowSet(rowSet, backupLoaderContext);
-            if (targetTable == null) {
-                continue;
+        });
+    }
+
+    protected Iterator<RowSet> getRowSets(BackupLoaderContext backupLoaderContext) {
+        final BackupReader backupReader = backupLoaderContext.getBackupReader();
+        if (backupReader == null) {
+            return backupLoaderContext.getBackup().getRowSets().iterator();
+        }
+        return new AbstractIterator<RowSet>() {
+            @Override
+            protected RowSet computeNext() {
+                RowSet rowSet = backupReader.readRowSet();
+                return rowSet != null ? rowSet : endOfData();
             }
-            Query query = createQuery(rowSet, targetTable, backupLoaderContext);
-            loadTables.addLoadTable(new LoadTable(rowSet, targetTable, query));
+        };
+    }
+
+    protected LoadTable createLoadTable(RowSet rowSet, BackupLoaderContext backupLoaderContext) {
+        if (isEmpty(rowSet.getChunks())) {
+            return null;
+        }
+        Collection<Table> sourceTables = backupLoaderContext.getSourceTables();
+        Database database = backupLoaderContext.getBackup().getDatabase();
+        TableRowSet tableRowSet = rowSet instanceof TableRowSet ? (TableRowSet) rowSet : null;
+        Catalog sourceCatalog = database.hasCatalog(tableRowSet.getCatalog())
+                ? database.getCatalog(tableRowSet.getCatalog())
+                : null;
+        Schema sourceSchema = sourceCatalog != null && sourceCatalog.hasSchema(tableRowSet.getSchema())
+                ? sourceCatalog.getSchema(tableRowSet.getSchema())
+                : null;
+        Table sourceTable = sourceSchema != null && sourceSchema.hasTable(tableRowSet.getTable())
+                ? sourceSchema.getTable(tableRowSet.getTable())
+                : null;
+        if (!isEmpty(sourceTables) && (sourceTable == null || !sourceTables.contains(sourceTable))) {
+            return null;
         }
-        return loadTables;
+        Table targetTable = backupLoaderContext.getRowSetMapper().mapRowSet(rowSet, backupLoaderContext);
+        if (targetTable == null) {
+            return null;
+        }
+        Query query = createQuery(rowSet, targetTable, backupLoaderContext);
+        return new LoadTable(rowSet, targetTable, query);
     }
 
     protected void executeWork(final Work work, final BackupLoaderManager backupLoaderManager) {
@@ -820,6 +927,22 @@ public class BackupLoader {
         this.rowSetMapper = rowSetMapper;
     }
 
+    public MetricRegistry getMetricRegistry() {
+        return metricRegistry;
+    }
+
+    public void setMetricRegistry(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
     public Collection<ScriptType> getScriptTypes() {
         return scriptTypes;
     }
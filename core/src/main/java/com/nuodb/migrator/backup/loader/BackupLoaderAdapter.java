@@ -39,7 +39,7 @@ public class BackupLoaderAdapter extends WorkAdapter implements BackupLoaderList
     }
 
     @Override
-    public void onLoadRow(LoadRowEvent event) {
+    public void onLoadRows(LoadRowsEvent event) {
     }
 
     @Override
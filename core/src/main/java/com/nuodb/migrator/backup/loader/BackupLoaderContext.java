@@ -29,6 +29,7 @@ package com.nuodb.migrator.backup.loader;
 
 import com.nuodb.migrator.backup.Backup;
 import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.BackupReader;
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
 import com.nuodb.migrator.jdbc.commit.CommitStrategy;
@@ -38,6 +39,7 @@ import com.nuodb.migrator.jdbc.metadata.generator.ScriptExporter;
 import com.nuodb.migrator.jdbc.metadata.generator.ScriptGeneratorManager;
 import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
+import com.nuodb.migrator.metrics.MetricRegistry;
 import com.nuodb.migrator.spec.ConnectionSpec;
 import com.nuodb.migrator.spec.MigrationMode;
 
@@ -63,6 +65,18 @@ public interface BackupLoaderContext {
 
     void setBackupOps(BackupOps backupOps);
 
+    BackupReader getBackupReader();
+
+    void setBackupReader(BackupReader backupReader);
+
+    BackupLoaderJournal getBackupLoaderJournal();
+
+    void setBackupLoaderJournal(BackupLoaderJournal backupLoaderJournal);
+
+    MetricRegistry getMetricRegistry();
+
+    void setMetricRegistry(MetricRegistry metricRegistry);
+
     Map getBackupOpsContext();
 
     void setBackupOpsContext(Map backupOpsContext);
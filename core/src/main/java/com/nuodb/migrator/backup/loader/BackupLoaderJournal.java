@@ -0,0 +1,318 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.backup.BackupJournal;
+import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.format.value.Row;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.google.common.collect.Sets.newHashSet;
+import static java.lang.Long.parseLong;
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static org.apache.commons.lang3.StringEscapeUtils.escapeJava;
+import static org.apache.commons.lang3.StringEscapeUtils.unescapeJava;
+
+/**
+ * Append only journal of the load progress kept next to the backup catalog.
+ * Rows committed to the target are recorded per chunk as a watermark, which is
+ * the number of leading rows of the chunk all committed, followed by ranges of
+ * rows committed past the watermark, as with row level parallelization the
+ * rows of a chunk are committed out of order by several threads. Completion of
+ * the schema and of each constraint is recorded as well. On resume rows found
+ * in the journal are skipped and the schema and constraints are not created
+ * again.
+ * <p>
+ * Rows are recorded as pending in the same way before the transaction
+ * committing them, as the journal can't be written atomically with the target.
+ * Rows pending but not committed according to the journal may or may not be in
+ * the target, they are loaded one by one on resume and duplicate key errors
+ * are tolerated for them. Tables without primary or unique keys may still get
+ * such rows twice.
+ *
+ * @author Sergey Bushik
+ */
+public class BackupLoaderJournal extends BackupJournal {
+
+    public static final String JOURNAL_SUFFIX = ".load.journal";
+
+    private static final String SCHEMA_RECORD = "schema";
+    private static final String CONSTRAINT_RECORD = "constraint";
+    private static final String ROWS_RECORD = "rows";
+    private static final String PENDING_RECORD = "pending";
+
+    private final Map<String, ChunkRows> chunkRows = newHashMap();
+    private final Map<String, ChunkRows> pendingRows = newHashMap();
+    private final Set<String> constraints = newHashSet();
+    private boolean schema;
+
+    public BackupLoaderJournal(BackupOps backupOps) {
+        super(backupOps, JOURNAL_SUFFIX);
+    }
+
+    @Override
+    protected void read() throws IOException {
+        super.read();
+        if (logger.isInfoEnabled()) {
+            logger.info(format("Resuming load, %d partially or fully loaded chunk(s) found in %s",
+                    chunkRows.size(), getFile()));
+        }
+    }
+
+    @Override
+    protected boolean readRecord(String[] fields) {
+        try {
+            boolean rowsRecord = ROWS_RECORD.equals(fields[0]);
+            if ((rowsRecord || PENDING_RECORD.equals(fields[0])) && fields.length >= 3 && fields.length % 2 == 1) {
+                // the latest record of the chunk supersedes the previous ones
+                ChunkRows rows = new ChunkRows(parseLong(fields[2]));
+                for (int index = 3; index < fields.length; index += 2) {
+                    rows.add(parseLong(fields[index]), parseLong(fields[index + 1]));
+                }
+                (rowsRecord ? chunkRows : pendingRows).put(unescapeJava(fields[1]), rows);
+                return true;
+            } else if (CONSTRAINT_RECORD.equals(fields[0]) && fields.length == 2) {
+                constraints.add(unescapeJava(fields[1]));
+                return true;
+            } else if (SCHEMA_RECORD.equals(fields[0]) && fields.length == 1) {
+                schema = true;
+                return true;
+            }
+        } catch (NumberFormatException exception) {
+            if (logger.isTraceEnabled()) {
+                logger.trace("Malformed number in journal record", exception);
+            }
+        }
+        return false;
+    }
+
+    public synchronized boolean isSchemaLoaded() {
+        return schema;
+    }
+
+    public synchronized void writeSchemaLoaded() throws IOException {
+        writeRecord(asList(SCHEMA_RECORD));
+        schema = true;
+    }
+
+    public synchronized boolean isConstraintLoaded(String constraint) {
+        return constraints.contains(constraint);
+    }
+
+    public synchronized void writeConstraintLoaded(String constraint) throws IOException {
+        writeRecord(asList(CONSTRAINT_RECORD, escapeJava(constraint)));
+        constraints.add(constraint);
+    }
+
+    /**
+     * Checks if the row of the chunk was committed to the target
+     *
+     * @param chunk
+     *            chunk name
+     * @param row
+     *            zero based row number in the chunk
+     * @return true if the row is already loaded
+     */
+    public synchronized boolean isRowCommitted(String chunk, long row) {
+        ChunkRows rows = chunkRows.get(chunk);
+        return rows != null && rows.contains(row);
+    }
+
+    /**
+     * Returns the number of leading rows of the chunk which are all committed
+     */
+    public synchronized long getCommittedRows(String chunk) {
+        ChunkRows rows = chunkRows.get(chunk);
+        return rows != null ? rows.watermark : 0;
+    }
+
+    /**
+     * Returns the number of rows of the chunk committed to the target
+     */
+    public synchronized long getCommittedRowCount(String chunk) {
+        ChunkRows rows = chunkRows.get(chunk);
+        return rows != null ? rows.count() : 0;
+    }
+
+    /**
+     * Checks if the row of the chunk was about to be committed to the target by
+     * the previous run, but wasn't recorded as committed
+     *
+     * @param chunk
+     *            chunk name
+     * @param row
+     *            zero based row number in the chunk
+     * @return true if the row may or may not be loaded
+     */
+    public synchronized boolean isRowPending(String chunk, long row) {
+        ChunkRows rows = pendingRows.get(chunk);
+        return rows != null && rows.contains(row) && !isRowCommitted(chunk, row);
+    }
+
+    /**
+     * Records rows about to be committed to the target, journal is synced once
+     * for all of the chunks before the transaction is committed.
+     *
+     * @param pendingRows
+     *            rows to be committed with a single transaction
+     * @throws IOException
+     *             if journal can't be written
+     */
+    public synchronized void writePendingRows(CommittedRows pendingRows) throws IOException {
+        writeRows(PENDING_RECORD, this.pendingRows, pendingRows);
+    }
+
+    /**
+     * Merges rows just committed to the target and records updated state of
+     * each affected chunk, journal is synced once for all of the chunks.
+     *
+     * @param committedRows
+     *            rows committed with a single transaction
+     * @throws IOException
+     *             if journal can't be written
+     */
+    public synchronized void writeCommittedRows(CommittedRows committedRows) throws IOException {
+        writeRows(ROWS_RECORD, chunkRows, committedRows);
+    }
+
+    protected void writeRows(String record, Map<String, ChunkRows> chunkRows, CommittedRows committedRows)
+            throws IOException {
+        for (Map.Entry<String, List<long[]>> entry : committedRows.ranges.entrySet()) {
+            String chunk = entry.getKey();
+            ChunkRows rows = chunkRows.get(chunk);
+            if (rows == null) {
+                chunkRows.put(chunk, rows = new ChunkRows(0));
+            }
+            for (long[] range : entry.getValue()) {
+                rows.add(range[0], range[1]);
+            }
+            List<String> fields = newArrayList(record, escapeJava(chunk), String.valueOf(rows.watermark));
+            for (Map.Entry<Long, Long> range : rows.ranges.entrySet()) {
+                fields.add(String.valueOf(range.getKey()));
+                fields.add(String.valueOf(range.getValue()));
+            }
+            write(fields);
+        }
+        sync();
+    }
+
+    /**
+     * Committed rows of a chunk, the watermark is the number of leading rows
+     * all committed, ranges are committed rows past the watermark keyed by the
+     * first row with the row next to the last one as a value.
+     */
+    static class ChunkRows {
+
+        private final TreeMap<Long, Long> ranges = new TreeMap<Long, Long>();
+        private long watermark;
+
+        ChunkRows(long watermark) {
+            this.watermark = watermark;
+        }
+
+        void add(long from, long to) {
+            Map.Entry<Long, Long> previous = ranges.floorEntry(from);
+            if (previous != null && previous.getValue() >= from) {
+                from = previous.getKey();
+                to = Math.max(to, previous.getValue());
+                ranges.remove(from);
+            }
+            Map.Entry<Long, Long> next;
+            while ((next = ranges.ceilingEntry(from)) != null && next.getKey() <= to) {
+                to = Math.max(to, next.getValue());
+                ranges.remove(next.getKey());
+            }
+            if (from <= watermark) {
+                watermark = Math.max(watermark, to);
+            } else {
+                ranges.put(from, to);
+            }
+        }
+
+        long count() {
+            long count = watermark;
+            for (Map.Entry<Long, Long> range : ranges.entrySet()) {
+                count += range.getValue() - range.getKey();
+            }
+            return count;
+        }
+
+        boolean contains(long row) {
+            if (row < watermark) {
+                return true;
+            }
+            Map.Entry<Long, Long> range = ranges.floorEntry(row);
+            return range != null && row < range.getValue();
+        }
+    }
+
+    /**
+     * Rows loaded by a single thread and not yet committed, consecutive rows of
+     * a chunk are collapsed into ranges.
+     */
+    public static class CommittedRows {
+
+        private final Map<String, List<long[]>> ranges = newLinkedHashMap();
+        private long[] range;
+        private String chunk;
+
+        public void add(Row row) {
+            String chunk = row.getChunk().getName();
+            long number = row.getNumber();
+            if (range != null && chunk.equals(this.chunk) && range[1] == number) {
+                range[1]++;
+            } else {
+                List<long[]> chunkRanges = ranges.get(chunk);
+                if (chunkRanges == null) {
+                    ranges.put(chunk, chunkRanges = newArrayList());
+                }
+                chunkRanges.add(range = new long[] { number, number + 1 });
+                this.chunk = chunk;
+            }
+        }
+
+        public boolean isEmpty() {
+            return ranges.isEmpty();
+        }
+
+        public void clear() {
+            ranges.clear();
+            range = null;
+            chunk = null;
+        }
+    }
+}
@@ -36,7 +36,16 @@ public interface BackupLoaderListener extends WorkListener {
 
     void onLoadStart(LoadChunkEvent event);
 
-    void onLoadRow(LoadRowEvent event);
+    /**
+     * Triggered for each batch of loaded rows, at most each
+     * {@link LoadTableForkWork#ROWS_PER_EVENT} rows and at the end of each
+     * chunk
+     *
+     * @param event
+     *            containing chunk loaded and a number of rows loaded from it
+     *            since the previous event
+     */
+    void onLoadRows(LoadRowsEvent event);
 
     void onLoadEnd(LoadChunkEvent event);
 }
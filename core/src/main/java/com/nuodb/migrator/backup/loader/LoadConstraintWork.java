@@ -111,6 +111,10 @@ public class LoadConstraintWork extends WorkBase {
 
     @Override
     public void execute() throws Exception {
+        BackupLoaderJournal backupLoaderJournal = backupLoaderContext.getBackupLoaderJournal();
+        if (backupLoaderJournal != null && backupLoaderJournal.isConstraintLoaded(getName())) {
+            return;
+        }
         if (backupLoaderManager.canExecute(this)) {
             ScriptGeneratorManager scriptGeneratorManager = backupLoaderContext.getScriptGeneratorManager();
             Schema schema = getLoadConstraint().getTable().getSchema();
@@ -124,6 +128,9 @@ public class LoadConstraintWork extends WorkBase {
             }
             scriptExporter.exportScripts(scripts);
             getSession().getConnection().commit();
+            if (backupLoaderJournal != null) {
+                backupLoaderJournal.writeConstraintLoaded(getName());
+            }
         }
     }
 
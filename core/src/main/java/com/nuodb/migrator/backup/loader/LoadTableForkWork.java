@@ -28,7 +28,9 @@
 package com.nuodb.migrator.backup.loader;
 
 import com.google.common.base.Function;
+import com.nuodb.migrator.backup.Chunk;
 import com.nuodb.migrator.backup.Column;
+import com.nuodb.migrator.backup.loader.BackupLoaderJournal.CommittedRows;
 import com.nuodb.migrator.backup.format.value.Row;
 import com.nuodb.migrator.backup.format.value.RowReader;
 import com.nuodb.migrator.backup.format.value.Value;
@@ -40,16 +42,32 @@ import com.nuodb.migrator.jdbc.commit.CommitExecutor;
 import com.nuodb.migrator.jdbc.commit.CommitStrategy;
 import com.nuodb.migrator.jdbc.model.Field;
 import com.nuodb.migrator.jdbc.session.WorkForkJoinTaskBase;
+import com.nuodb.migrator.jfr.ChunkEvent;
+import com.nuodb.migrator.jfr.CommitEvent;
+import com.nuodb.migrator.jfr.LoadTableEvent;
+import com.nuodb.migrator.metrics.Histogram;
+import com.nuodb.migrator.metrics.MetricRegistry;
 import org.slf4j.Logger;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.List;
 
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.backup.BackupMessages.LOAD_TABLE_FORK_WORK;
 import static com.nuodb.migrator.backup.format.value.ValueHandleListBuilder.newBuilder;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.closeValues;
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
-import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
+import static com.nuodb.migrator.jfr.FlightRecorderSupport.isEnabled;
+import static com.nuodb.migrator.jfr.MigratorEvents.AVAILABLE;
+import static com.nuodb.migrator.jfr.MigratorEvents.LOAD;
+import static com.nuodb.migrator.metrics.MetricNames.COMMIT_LATENCY;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static org.apache.commons.lang3.StringUtils.startsWith;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -60,6 +78,17 @@ import static org.slf4j.LoggerFactory.getLogger;
 @SuppressWarnings("all")
 public class LoadTableForkWork extends WorkForkJoinTaskBase {
 
+    /**
+     * Maximum number of rows reported to the listeners in a single event
+     */
+    public static final int ROWS_PER_EVENT = 1000;
+
+    /**
+     * SQL state class of integrity constraint violations, duplicate keys
+     * included
+     */
+    private static final String INTEGRITY_CONSTRAINT_VIOLATION = "23";
+
     private transient Logger logger = getLogger(getClass());
 
     private LoadTable loadTable;
@@ -70,6 +99,18 @@ public class LoadTableForkWork extends WorkForkJoinTaskBase {
     private PreparedStatement statement;
     private CommitExecutor commitExecutor;
     private ValueHandleList valueHandleList;
+    private final List<Value[]> boundValues = newArrayList();
+    private BackupLoaderJournal backupLoaderJournal;
+    private CommittedRows committedRows;
+    private Histogram commitLatency;
+    private Chunk chunk;
+    private long rows;
+    private long chunkRows;
+    private long loadedRows;
+    private long executedRows;
+    private ChunkEvent chunkEvent;
+    private boolean commitEvents;
+    private boolean chunkEvents;
 
     public LoadTableForkWork(LoadTable loadTable, RowReader rowReader, int thread,
             BackupLoaderManager backupLoaderManager) {
@@ -88,37 +129,252 @@ public class LoadTableForkWork extends WorkForkJoinTaskBase {
     @Override
     protected void init() throws Exception {
         backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
-        statement = getSession().getConnection().prepareStatement(loadTable.getQuery().toString());
+        statement = getSession().prepareStatement(loadTable.getQuery().toString());
         CommitStrategy commitStrategy = backupLoaderContext.getCommitStrategy() != null
                 ? backupLoaderContext.getCommitStrategy()
                 : new BatchCommitStrategy();
         commitExecutor = commitStrategy.createCommitExecutor(statement, loadTable.getQuery());
+        backupLoaderJournal = backupLoaderContext.getBackupLoaderJournal();
+        MetricRegistry metricRegistry = backupLoaderContext.getMetricRegistry();
+        if (metricRegistry != null) {
+            commitLatency = metricRegistry.histogram(COMMIT_LATENCY);
+        }
+        if (backupLoaderJournal != null) {
+            committedRows = new CommittedRows();
+        }
+        // checked once per work rather than per row, recordings started
+        // later on are picked up by the next works
+        commitEvents = AVAILABLE && isEnabled(CommitEvent.class);
+        chunkEvents = AVAILABLE && isEnabled(ChunkEvent.class);
     }
 
     @Override
     public void execute() throws Exception {
+        LoadTableEvent loadTableEvent = AVAILABLE ? new LoadTableEvent() : null;
+        if (loadTableEvent != null) {
+            loadTableEvent.begin();
+        }
         try {
             Row row;
             while ((row = rowReader.readRow()) != null && backupLoaderManager.canExecute(this)) {
                 backupLoaderManager.beforeLoadRow(this, loadTable, row);
+                boolean pending = isRowPending(row);
+                if (pending) {
+                    // rows executed before are committed first, so that the
+                    // pending row is committed or rolled back on its own
+                    finishRows();
+                    closeBoundValues();
+                    writeCommittedRows();
+                }
                 int index = 0;
                 Value[] values = row.getValues();
+                boundValues.add(values);
                 initValueHandleList();
                 for (ValueHandle valueHandle : valueHandleList) {
                     valueHandle.getValueFormat().setValue(values[index++], valueHandle.getJdbcValueAccess(),
                             valueHandle.getJdbcValueAccessOptions());
                 }
-                commitExecutor.execute();
+                if (committedRows != null) {
+                    committedRows.add(row);
+                }
+                if (pending ? executePendingRow(row) : executeRow()) {
+                    writeCommittedRows();
+                }
+                if (!commitExecutor.isBatched()) {
+                    closeBoundValues();
+                }
+                loadRow(row);
                 backupLoaderManager.afterLoadRow(this, loadTable, row);
             }
-            commitExecutor.finish();
+            finishRows();
+            closeBoundValues();
+            writeCommittedRows();
+            loadRows();
+            commitChunkEvent();
         } catch (Exception exception) {
             System.out.println("--> LoadTableForkWork.execute: " + this.getLoadTable().getTable().getQualifiedName());
             exception.printStackTrace();
             throw exception;
+        } finally {
+            if (loadTableEvent != null && loadTableEvent.shouldCommit()) {
+                loadTableEvent.setTable(getTableName());
+                loadTableEvent.setThread(thread);
+                loadTableEvent.setRows(loadedRows);
+                loadTableEvent.commit();
+            }
+        }
+    }
+
+    /**
+     * Executes statement for the current row, latency is recorded if metrics
+     * are collected and rows got committed
+     */
+    protected boolean executeRow() throws Exception {
+        boolean commitNext = (commitEvents || committedRows != null) && commitExecutor.isCommitNext();
+        // event is created only for the execution committing the batch
+        CommitEvent commitEvent = commitEvents && commitNext ? new CommitEvent() : null;
+        if (commitEvent != null) {
+            commitEvent.begin();
+        }
+        if (committedRows != null && commitNext) {
+            backupLoaderJournal.writePendingRows(committedRows);
+        }
+        long start = commitLatency != null ? nanoTime() : 0;
+        boolean commit = commitExecutor.execute();
+        executedRows++;
+        if (commit) {
+            if (commitLatency != null) {
+                commitLatency.update(nanoTime() - start);
+            }
+            commitRows(commitEvent);
+        }
+        return commit;
+    }
+
+    protected void finishRows() throws Exception {
+        CommitEvent commitEvent = commitEvents && executedRows > 0 ? new CommitEvent() : null;
+        if (commitEvent != null) {
+            commitEvent.begin();
+        }
+        if (committedRows != null && !committedRows.isEmpty()) {
+            backupLoaderJournal.writePendingRows(committedRows);
+        }
+        long start = nanoTime();
+        commitExecutor.finish();
+        if (commitLatency != null) {
+            commitLatency.update(nanoTime() - start);
+        }
+        commitRows(commitEvent);
+    }
+
+    /**
+     * Checks if the row was about to be committed by the previous run, but it's
+     * unknown whether the commit went through
+     */
+    protected boolean isRowPending(Row row) {
+        return backupLoaderJournal != null && backupLoaderJournal.isResume()
+                && backupLoaderJournal.isRowPending(row.getChunk().getName(), row.getNumber());
+    }
+
+    /**
+     * Inserts and commits the pending row on its own, the row is skipped if the
+     * target rejects it as a duplicate, as it's loaded by the previous run
+     *
+     * @return true as the row is either committed or found in the target
+     */
+    protected boolean executePendingRow(Row row) throws Exception {
+        backupLoaderJournal.writePendingRows(committedRows);
+        Connection connection = statement.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        try {
+            statement.executeUpdate();
+            if (!autoCommit) {
+                connection.commit();
+            }
+        } catch (SQLException exception) {
+            if (!isDuplicateKey(exception)) {
+                throw exception;
+            }
+            if (!autoCommit) {
+                connection.rollback();
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug(format("Row %d of chunk %s is already loaded to %s", row.getNumber(),
+                        row.getChunk().getName(), getTableName()));
+            }
+        }
+        return true;
+    }
+
+    protected boolean isDuplicateKey(SQLException exception) {
+        return exception instanceof SQLIntegrityConstraintViolationException
+                || startsWith(exception.getSQLState(), INTEGRITY_CONSTRAINT_VIOLATION);
+    }
+
+    /**
+     * Records batch of rows executed since the previous commit
+     */
+    protected void commitRows(CommitEvent commitEvent) {
+        if (commitEvent != null && executedRows > 0 && commitEvent.shouldCommit()) {
+            commitEvent.setTable(getTableName());
+            commitEvent.setRows(executedRows);
+            commitEvent.commit();
+        }
+        executedRows = 0;
+    }
+
+    /**
+     * Counts loaded row, rows are reported to the listeners in batches, a
+     * batch is reported before the end of its chunk is signalled
+     */
+    protected void loadRow(Row row) {
+        if (chunk != row.getChunk()) {
+            loadRows();
+            commitChunkEvent();
+            chunk = row.getChunk();
+            chunkEvent = chunkEvents ? new ChunkEvent() : null;
+            if (chunkEvent != null) {
+                chunkEvent.begin();
+            }
+        }
+        loadedRows++;
+        chunkRows++;
+        if (++rows == ROWS_PER_EVENT || row.getNumber() == chunk.getRowCount() - 1) {
+            loadRows();
+        }
+    }
+
+    /**
+     * Reports rows loaded since the previous report
+     */
+    protected void loadRows() {
+        if (rows > 0) {
+            backupLoaderManager.loadRows(this, loadTable, chunk, rows);
+            rows = 0;
+        }
+    }
+
+    /**
+     * Records rows of the current chunk loaded by this work
+     */
+    protected void commitChunkEvent() {
+        if (chunkEvent != null && chunkEvent.shouldCommit()) {
+            chunkEvent.setTable(getTableName());
+            chunkEvent.setChunk(chunk.getName());
+            chunkEvent.setOperation(LOAD);
+            chunkEvent.setRows(chunkRows);
+            chunkEvent.setBytes(chunk.getSize() != null ? chunk.getSize() : 0);
+            chunkEvent.commit();
+        }
+        chunkEvent = null;
+        chunkRows = 0;
+    }
+
+    protected String getTableName() {
+        return loadTable.getTable().getQualifiedName();
+    }
+
+    /**
+     * Records rows committed since the previous commit to the load journal
+     */
+    protected void writeCommittedRows() throws Exception {
+        if (committedRows != null && !committedRows.isEmpty()) {
+            backupLoaderJournal.writeCommittedRows(committedRows);
+            committedRows.clear();
         }
     }
 
+    /**
+     * Closes streams and spool files of the values bound since the statement
+     * was executed last time, once executed the values are not read anymore
+     */
+    protected void closeBoundValues() {
+        for (Value[] values : boundValues) {
+            closeValues(values);
+        }
+        boundValues.clear();
+    }
+
     protected void initValueHandleList() {
         if (valueHandleList == null) {
             ValueHandleListBuilder builder = newBuilder(getSession().getConnection(), statement);
@@ -139,7 +395,10 @@ public class LoadTableForkWork extends WorkForkJoinTaskBase {
     @Override
     public void close() throws Exception {
         super.close();
-        closeQuietly(statement);
+        closeBoundValues();
+        if (statement != null) {
+            getSession().closeStatement(statement);
+        }
     }
 
     public int getThread() {
@@ -27,6 +27,8 @@
  */
 package com.nuodb.migrator.backup.loader;
 
+import com.google.common.base.Predicate;
+import com.nuodb.migrator.backup.format.value.Row;
 import com.nuodb.migrator.backup.format.value.RowReader;
 import com.nuodb.migrator.jdbc.session.WorkForkJoinTaskBase;
 import org.slf4j.Logger;
@@ -35,6 +37,7 @@ import java.util.Collection;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.backup.BackupMessages.LOAD_TABLE_WORK;
+import static com.nuodb.migrator.backup.format.value.RowReaders.newFilteringRowReader;
 import static com.nuodb.migrator.backup.format.value.RowReaders.newSequentialRowReader;
 import static com.nuodb.migrator.backup.format.value.RowReaders.newSynchronizedRowReader;
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
@@ -71,6 +74,17 @@ public class LoadTableWork extends WorkForkJoinTaskBase {
         BackupLoaderContext backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
         RowReader rowReader = newSequentialRowReader(loadTable.getRowSet(), backupLoaderContext.getBackupOps(),
                 backupLoaderContext.getFormatFactory(), backupLoaderContext.getFormatAttributes());
+        final BackupLoaderJournal backupLoaderJournal = backupLoaderContext.getBackupLoaderJournal();
+        if (backupLoaderJournal != null && backupLoaderJournal.isResume()) {
+            // formats are read sequentially, rows committed before are decoded
+            // and skipped
+            rowReader = newFilteringRowReader(rowReader, new Predicate<Row>() {
+                @Override
+                public boolean apply(Row row) {
+                    return !backupLoaderJournal.isRowCommitted(row.getChunk().getName(), row.getNumber());
+                }
+            });
+        }
         int threads = loadTable.getThreads();
         if (threads > 1) {
             rowReader = newSynchronizedRowReader(rowReader);
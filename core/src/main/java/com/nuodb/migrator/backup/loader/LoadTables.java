@@ -27,33 +27,75 @@
  */
 package com.nuodb.migrator.backup.loader;
 
+import com.google.common.collect.AbstractIterator;
+
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 
 import static com.google.common.collect.Lists.newArrayList;
 
 /**
+ * Load tables, which are optionally pulled on demand from a pending iterator,
+ * so that tables can be scheduled while the backup catalog is still being
+ * read. Iterators returned by this class are safe to use from several threads
+ * and they all observe tables in the same order.
+ *
  * @author Sergey Bushik
  */
 public class LoadTables implements Iterable<LoadTable> {
 
-    private Collection<LoadTable> loadTables;
+    private final List<LoadTable> loadTables;
+    private Iterator<LoadTable> pending;
 
     public LoadTables() {
+        this(null);
+    }
+
+    public LoadTables(Iterator<LoadTable> pending) {
         this.loadTables = newArrayList();
+        this.pending = pending;
     }
 
-    public void addLoadTable(LoadTable loadTable) {
+    public synchronized void addLoadTable(LoadTable loadTable) {
         loadTables.add(loadTable);
         loadTable.setLoadTables(this);
     }
 
     @Override
     public Iterator<LoadTable> iterator() {
-        return getLoadTables().iterator();
+        return new AbstractIterator<LoadTable>() {
+
+            private int index;
+
+            @Override
+            protected LoadTable computeNext() {
+                synchronized (LoadTables.this) {
+                    if (index == loadTables.size() && hasPending()) {
+                        addLoadTable(pending.next());
+                    }
+                    return index < loadTables.size() ? loadTables.get(index++) : endOfData();
+                }
+            }
+        };
     }
 
-    public Collection<LoadTable> getLoadTables() {
+    /**
+     * Returns all load tables, pulling the pending ones first.
+     *
+     * @return collection of load tables
+     */
+    public synchronized Collection<LoadTable> getLoadTables() {
+        while (hasPending()) {
+            addLoadTable(pending.next());
+        }
         return loadTables;
     }
+
+    private boolean hasPending() {
+        if (pending != null && !pending.hasNext()) {
+            pending = null;
+        }
+        return pending != null;
+    }
 }
@@ -27,7 +27,10 @@
  */
 package com.nuodb.migrator.backup.loader;
 
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
 import com.nuodb.migrator.jdbc.session.WorkRunnableBase;
+import com.nuodb.migrator.metrics.MetricRegistry;
 import com.nuodb.migrator.utils.concurrent.ForkJoinTask;
 
 import java.util.Collection;
@@ -35,6 +38,7 @@ import java.util.Collection;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.backup.BackupMessages.LOAD_TABLES_WORK;
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
+import static com.nuodb.migrator.metrics.MetricNames.ROWS_EXPECTED;
 
 /**
  * @author Sergey Bushik
@@ -55,16 +59,44 @@ public class LoadTablesWork extends WorkRunnableBase {
 
     @Override
     public void execute() throws Exception {
-        LoadTables loadTables = backupLoaderManager.getBackupLoaderContext().getLoadTables();
+        BackupLoaderContext backupLoaderContext = backupLoaderManager.getBackupLoaderContext();
+        LoadTables loadTables = backupLoaderContext.getLoadTables();
+        Parallelizer parallelizer = backupLoaderContext.getParallelizer();
+        MetricRegistry metricRegistry = backupLoaderContext.getMetricRegistry();
+        BackupLoaderJournal backupLoaderJournal = backupLoaderContext.getBackupLoaderJournal();
         Collection<LoadTableWork> loadTableWorks = newArrayList();
+        long expectedRows = 0;
+        // load tables are read lazily, each one is forked as soon as it's available
         for (LoadTable loadTable : loadTables) {
+            loadTable.setThreads(parallelizer.getThreads(loadTable, backupLoaderContext));
+            expectedRows += getExpectedRows(loadTable, backupLoaderJournal);
             LoadTableWork loadTableWork = new LoadTableWork(loadTable, backupLoaderManager);
             loadTableWork.fork();
             loadTableWorks.add(loadTableWork);
         }
+        // total is known once the catalog is read completely, ETA is not
+        // reported before that, as it would be based on a part of the tables
+        if (metricRegistry != null) {
+            metricRegistry.meter(ROWS_EXPECTED).mark(expectedRows);
+        }
         for (LoadTableWork loadTableWork : loadTableWorks) {
             loadTableWork.join();
         }
         backupLoaderManager.loadDataDone();
     }
+
+    /**
+     * Returns the number of rows to be loaded to the table by this run, rows
+     * committed by the previous runs are skipped and aren't expected
+     */
+    protected long getExpectedRows(LoadTable loadTable, BackupLoaderJournal backupLoaderJournal) {
+        RowSet rowSet = loadTable.getRowSet();
+        long expectedRows = rowSet.getRowCount();
+        if (backupLoaderJournal != null && backupLoaderJournal.isResume() && rowSet.getChunks() != null) {
+            for (Chunk chunk : rowSet.getChunks()) {
+                expectedRows -= backupLoaderJournal.getCommittedRowCount(chunk.getName());
+            }
+        }
+        return Math.max(expectedRows, 0);
+    }
 }
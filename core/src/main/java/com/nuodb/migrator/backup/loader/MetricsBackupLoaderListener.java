@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.metrics.Meter;
+import com.nuodb.migrator.metrics.MetricRegistry;
+
+import static com.nuodb.migrator.metrics.MetricNames.BYTES;
+import static com.nuodb.migrator.metrics.MetricNames.ROWS;
+
+/**
+ * Counts loaded rows and bytes of loaded chunks, in total and per row set
+ *
+ * @author Sergey Bushik
+ */
+public class MetricsBackupLoaderListener extends BackupLoaderAdapter {
+
+    private final MetricRegistry metricRegistry;
+    private final Meter rows;
+    private final Meter bytes;
+
+    public MetricsBackupLoaderListener(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+        this.rows = metricRegistry.meter(ROWS);
+        this.bytes = metricRegistry.meter(BYTES);
+    }
+
+    @Override
+    public void onLoadRows(LoadRowsEvent event) {
+        rows.mark(event.getRows());
+        metricRegistry.meter(ROWS, event.getLoadTable().getRowSet().getName()).mark(event.getRows());
+    }
+
+    @Override
+    public void onLoadEnd(LoadChunkEvent event) {
+        Chunk chunk = event.getChunk();
+        if (chunk != null && chunk.getSize() != null) {
+            bytes.mark(chunk.getSize());
+            metricRegistry.meter(BYTES, event.getLoadTable().getRowSet().getName()).mark(chunk.getSize());
+        }
+    }
+}
@@ -29,6 +29,7 @@ package com.nuodb.migrator.backup.loader;
 
 import com.nuodb.migrator.backup.Backup;
 import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.BackupReader;
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
 import com.nuodb.migrator.jdbc.commit.CommitStrategy;
@@ -38,6 +39,7 @@ import com.nuodb.migrator.jdbc.metadata.generator.ScriptExporter;
 import com.nuodb.migrator.jdbc.metadata.generator.ScriptGeneratorManager;
 import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
+import com.nuodb.migrator.metrics.MetricRegistry;
 import com.nuodb.migrator.spec.ConnectionSpec;
 import com.nuodb.migrator.spec.MigrationMode;
 import org.slf4j.Logger;
@@ -61,6 +63,9 @@ public class SimpleBackupLoaderContext implements BackupLoaderContext {
 
     private Backup backup;
     private BackupOps backupOps;
+    private BackupReader backupReader;
+    private BackupLoaderJournal backupLoaderJournal;
+    private MetricRegistry metricRegistry;
     private Map backupOpsContext;
     private CommitStrategy commitStrategy;
     private Database database;
@@ -115,6 +120,36 @@ public class SimpleBackupLoaderContext implements BackupLoaderContext {
         this.backupOps = backupOps;
     }
 
+    @Override
+    public BackupReader getBackupReader() {
+        return backupReader;
+    }
+
+    @Override
+    public void setBackupReader(BackupReader backupReader) {
+        this.backupReader = backupReader;
+    }
+
+    @Override
+    public BackupLoaderJournal getBackupLoaderJournal() {
+        return backupLoaderJournal;
+    }
+
+    @Override
+    public void setBackupLoaderJournal(BackupLoaderJournal backupLoaderJournal) {
+        this.backupLoaderJournal = backupLoaderJournal;
+    }
+
+    @Override
+    public MetricRegistry getMetricRegistry() {
+        return metricRegistry;
+    }
+
+    @Override
+    public void setMetricRegistry(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
     @Override
     public Map getBackupOpsContext() {
         return backupOpsContext;
@@ -32,13 +32,18 @@ import com.nuodb.migrator.backup.format.value.Row;
 import com.nuodb.migrator.jdbc.session.SimpleWorkManager;
 import com.nuodb.migrator.jdbc.session.Work;
 
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
+import static com.google.common.collect.Lists.newCopyOnWriteArrayList;
 import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
+import static com.nuodb.migrator.jdbc.session.BalancedSessionFactory.AFFINITY;
 import static com.nuodb.migrator.utils.ValidationUtils.isNotNull;
 import static java.lang.Long.MAX_VALUE;
 import static java.lang.String.format;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.commons.io.IOUtils.closeQuietly;
 
 /**
  * @author Sergey Bushik
@@ -47,12 +52,47 @@ public class SimpleBackupLoaderManager extends SimpleWorkManager<BackupLoaderLis
 
     private BackupLoaderSync backupLoaderSync;
     private BackupLoaderContext backupLoaderContext;
+    private List<BackupLoaderRowListener> rowListeners = newCopyOnWriteArrayList();
+
+    @Override
+    public void addListener(BackupLoaderListener listener) {
+        super.addListener(listener);
+        if (listener instanceof BackupLoaderRowListener) {
+            rowListeners.add((BackupLoaderRowListener) listener);
+        }
+    }
+
+    @Override
+    public void addListener(int index, BackupLoaderListener listener) {
+        super.addListener(index, listener);
+        if (listener instanceof BackupLoaderRowListener) {
+            rowListeners.add((BackupLoaderRowListener) listener);
+        }
+    }
+
+    @Override
+    public void removeListener(BackupLoaderListener listener) {
+        super.removeListener(listener);
+        rowListeners.remove(listener);
+    }
 
     @Override
     public boolean canExecute(Work work) {
         return getFailures().isEmpty();
     }
 
+    /**
+     * Sessions loading the same table share table name as their affinity
+     */
+    @Override
+    protected Map<Object, Object> createContext(Work work) {
+        Map<Object, Object> context = super.createContext(work);
+        if (work instanceof LoadTableForkWork) {
+            context.put(AFFINITY, ((LoadTableForkWork) work).getLoadTable().getTable().getQualifiedName());
+        }
+        return context;
+    }
+
     @Override
     public void beforeLoadRow(Work work, LoadTable loadTable, Row row) {
         Chunk chunk = row.getChunk();
@@ -77,7 +117,7 @@ public class SimpleBackupLoaderManager extends SimpleWorkManager<BackupLoaderLis
     public void afterLoadRow(Work work, LoadTable loadTable, Row row) {
         Chunk chunk = row.getChunk();
         long number = row.getNumber();
-        if (number == chunk.getRowSet().getRowCount()) {
+        if (number == chunk.getRowCount() - 1) {
             if (logger.isTraceEnabled()) {
                 logger.trace(format("Rows from %s chunk loaded", chunk.getName()));
             }
@@ -85,7 +125,9 @@ public class SimpleBackupLoaderManager extends SimpleWorkManager<BackupLoaderLis
                 onEndChunk(new LoadChunkEvent(work, loadTable, row.getChunk()));
             }
         }
-        onLoadRow(new LoadRowEvent(work, loadTable, row));
+        if (!rowListeners.isEmpty()) {
+            onLoadRow(new LoadRowEvent(work, loadTable, row));
+        }
     }
 
     protected void onEndChunk(LoadChunkEvent loadChunkEvent) {
@@ -95,11 +137,24 @@ public class SimpleBackupLoaderManager extends SimpleWorkManager<BackupLoaderLis
     }
 
     protected void onLoadRow(LoadRowEvent event) {
-        for (BackupLoaderListener listener : getListeners()) {
+        for (BackupLoaderRowListener listener : rowListeners) {
             listener.onLoadRow(event);
         }
     }
 
+    @Override
+    public void loadRows(Work work, LoadTable loadTable, Chunk chunk, long rows) {
+        if (hasListeners()) {
+            onLoadRows(new LoadRowsEvent(work, loadTable, chunk, rows));
+        }
+    }
+
+    protected void onLoadRows(LoadRowsEvent event) {
+        for (BackupLoaderListener listener : getListeners()) {
+            listener.onLoadRows(event);
+        }
+    }
+
     @Override
     public void loadFailed() {
         backupLoaderSync.loadFailed();
@@ -170,6 +225,8 @@ public class SimpleBackupLoaderManager extends SimpleWorkManager<BackupLoaderLis
             closeQuietly(backupLoaderContext.getSourceSession());
             closeQuietly(backupLoaderContext.getTargetSession());
             closeQuietly(backupLoaderContext.getScriptExporter());
+            closeQuietly(backupLoaderContext.getBackupReader());
+            closeQuietly(backupLoaderContext.getBackupLoaderJournal());
         }
         super.close();
     }
@@ -30,6 +30,7 @@ package com.nuodb.migrator.backup.writer;
 import com.nuodb.migrator.MigratorException;
 import com.nuodb.migrator.backup.Backup;
 import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.LobStore;
 import com.nuodb.migrator.backup.QueryRowSet;
 import com.nuodb.migrator.backup.TableRowSet;
 import com.nuodb.migrator.backup.format.FormatFactory;
@@ -51,6 +52,7 @@ import com.nuodb.migrator.jdbc.query.Query;
 import com.nuodb.migrator.jdbc.query.QueryLimit;
 import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
+import com.nuodb.migrator.metrics.MetricRegistry;
 import com.nuodb.migrator.jdbc.session.Work;
 import com.nuodb.migrator.jdbc.split.QuerySplitter;
 import com.nuodb.migrator.spec.ConnectionSpec;
@@ -105,10 +107,13 @@ public class BackupWriter {
     private String format = FORMAT;
     private Map<String, Object> formatAttributes = newHashMap();
     private FormatFactory formatFactory;
+    private Long lobThreshold;
     private MetaDataSpec metaDataSpec;
+    private MetricRegistry metricRegistry;
     private Collection<MigrationMode> migrationModes = MIGRATION_MODES;
     private QueryLimit queryLimit;
     private Collection<QuerySpec> querySpecs;
+    private boolean resume;
     private ConnectionSpec sourceSpec;
     private SessionFactory sourceSessionFactory;
     private TimeZone timeZone;
@@ -235,16 +240,44 @@ public class BackupWriter {
 
         ExecutorService executorService = getExecutorService();
         backupWriterContext.setExecutorService(executorService == null ? createExecutorService() : executorService);
+        MetricRegistry metricRegistry = getMetricRegistry();
+        if (metricRegistry != null && backupWriterContext.getExecutorService() instanceof ForkJoinPool) {
+            metricRegistry.registerExecutor((ForkJoinPool) backupWriterContext.getExecutorService());
+        }
+        backupWriterContext.setMetricRegistry(metricRegistry);
         backupWriterContext.setFormat(getFormat());
         backupWriterContext.setFormatAttributes(getFormatAttributes());
         backupWriterContext.setFormatFactory(getFormatFactory());
         backupWriterContext.setMigrationModes(getMigrationModes());
         backupWriterContext.setThreads(getThreads());
         backupWriterContext.setTimeZone(getTimeZone());
+        if (backupWriterContext.isWriteData()) {
+            backupWriterContext.setBackupWriterJournal(openBackupWriterJournal(backupOps));
+            Long lobThreshold = getLobThreshold();
+            if (lobThreshold != null) {
+                backupWriterContext.setLobStore(new LobStore(backupOps, lobThreshold));
+            }
+        }
         openSourceSession(backupWriterContext);
         return backupWriterContext;
     }
 
+    /**
+     * Opens journal of the completed chunks and splits, the journal of the
+     * previous run is picked up if resume is requested.
+     *
+     * @param backupOps
+     *            backup ops to open journal for
+     * @return opened journal
+     * @throws Exception
+     *             if journal can't be opened
+     */
+    protected BackupWriterJournal openBackupWriterJournal(BackupOps backupOps) throws Exception {
+        BackupWriterJournal backupWriterJournal = new BackupWriterJournal(backupOps);
+        backupWriterJournal.open(isResume());
+        return backupWriterJournal;
+    }
+
     protected InspectionScope getInspectionScope() {
         return new TableInspectionScope(sourceSpec.getCatalog(), sourceSpec.getSchema(), getTableTypes());
     }
@@ -341,6 +374,10 @@ public class BackupWriter {
         backupOpsContext.put(META_DATA_SPEC, getMetaDataSpec());
         backupOpsContext.put(INSPECTION_SCOPE, getInspectionScope());
         backupWriterContext.getBackupOps().write(backup, backupOpsContext);
+        BackupWriterJournal backupWriterJournal = backupWriterContext.getBackupWriterJournal();
+        if (backupWriterJournal != null) {
+            backupWriterJournal.delete();
+        }
         return backup;
     }
 
@@ -433,6 +470,30 @@ public class BackupWriter {
         this.database = database;
     }
 
+    public MetricRegistry getMetricRegistry() {
+        return metricRegistry;
+    }
+
+    public void setMetricRegistry(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
+    public Long getLobThreshold() {
+        return lobThreshold;
+    }
+
+    public void setLobThreshold(Long lobThreshold) {
+        this.lobThreshold = lobThreshold;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
     public ExecutorService getExecutorService() {
         return executorService;
     }
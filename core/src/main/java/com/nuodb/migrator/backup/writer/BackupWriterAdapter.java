@@ -39,7 +39,7 @@ public class BackupWriterAdapter extends WorkAdapter implements BackupWriterList
     }
 
     @Override
-    public void onWriteRow(WriteRowEvent event) {
+    public void onWriteRows(WriteRowsEvent event) {
     }
 
     @Override
@@ -29,11 +29,13 @@ package com.nuodb.migrator.backup.writer;
 
 import com.nuodb.migrator.backup.Backup;
 import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.LobStore;
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
 import com.nuodb.migrator.jdbc.metadata.Database;
 import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
+import com.nuodb.migrator.metrics.MetricRegistry;
 import com.nuodb.migrator.spec.MigrationMode;
 
 import java.util.Collection;
@@ -62,6 +64,18 @@ public interface BackupWriterContext {
 
     void setBackupOpsContext(Map backupOpsContext);
 
+    BackupWriterJournal getBackupWriterJournal();
+
+    void setBackupWriterJournal(BackupWriterJournal backupWriterJournal);
+
+    LobStore getLobStore();
+
+    void setLobStore(LobStore lobStore);
+
+    MetricRegistry getMetricRegistry();
+
+    void setMetricRegistry(MetricRegistry metricRegistry);
+
     Database getDatabase();
 
     void setDatabase(Database database);
@@ -0,0 +1,252 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.writer;
+
+import com.nuodb.migrator.backup.BackupJournal;
+import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.Column;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.backup.format.value.ValueType.fromAlias;
+import static com.nuodb.migrator.backup.format.value.ValueType.toAlias;
+import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static org.apache.commons.io.FileUtils.checksumCRC32;
+import static org.apache.commons.lang3.StringEscapeUtils.escapeJava;
+import static org.apache.commons.lang3.StringEscapeUtils.unescapeJava;
+import static org.apache.commons.lang3.StringUtils.defaultString;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Append only journal of the dump progress kept next to the backup catalog.
+ * Each chunk is recorded with its row count, size and CRC32 checksum once it's
+ * closed, and each query split is recorded once all of its rows are written.
+ * On resume completed splits are restored from the journal rather than queried
+ * again, splits which were interrupted half way are written from scratch.
+ *
+ * @author Sergey Bushik
+ */
+public class BackupWriterJournal extends BackupJournal {
+
+    public static final String JOURNAL_SUFFIX = ".journal";
+
+    private static final String CHUNK_RECORD = "chunk";
+    private static final String SPLIT_RECORD = "split";
+
+    private final BackupOps backupOps;
+    private final Map<String, List<JournalChunk>> chunks = newHashMap();
+    private final Map<String, Split> splits = newHashMap();
+
+    public BackupWriterJournal(BackupOps backupOps) {
+        super(backupOps, JOURNAL_SUFFIX);
+        this.backupOps = backupOps;
+    }
+
+    @Override
+    protected void read() throws IOException {
+        super.read();
+        if (logger.isInfoEnabled()) {
+            logger.info(format("Resuming dump, %d completed split(s) found in %s", splits.size(), getFile()));
+        }
+    }
+
+    @Override
+    protected boolean readRecord(String[] fields) {
+        try {
+            if (CHUNK_RECORD.equals(fields[0]) && fields.length == 7) {
+                String key = getKey(unescapeJava(fields[1]), parseInt(fields[2]));
+                Chunk chunk = new Chunk();
+                chunk.setName(unescapeJava(fields[3]));
+                chunk.setRowCount(parseLong(fields[4]));
+                chunk.setSize(parseLong(fields[5]));
+                List<JournalChunk> splitChunks = chunks.get(key);
+                if (splitChunks == null) {
+                    chunks.put(key, splitChunks = newArrayList());
+                }
+                splitChunks.add(new JournalChunk(chunk, parseLong(fields[6])));
+                return true;
+            } else if (SPLIT_RECORD.equals(fields[0]) && fields.length >= 3 && fields.length % 2 == 1) {
+                String key = getKey(unescapeJava(fields[1]), parseInt(fields[2]));
+                Collection<Column> columns = newArrayList();
+                for (int index = 3; index < fields.length; index += 2) {
+                    String valueType = unescapeJava(fields[index + 1]);
+                    columns.add(new Column(unescapeJava(fields[index]),
+                            isEmpty(valueType) ? null : fromAlias(valueType)));
+                }
+                List<JournalChunk> splitChunks = chunks.remove(key);
+                splits.put(key, new Split(splitChunks != null ? splitChunks : newArrayList(), columns));
+                return true;
+            }
+        } catch (NumberFormatException exception) {
+            if (logger.isTraceEnabled()) {
+                logger.trace("Malformed number in journal record", exception);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records a closed chunk of the given row set split
+     */
+    public synchronized void writeChunk(String rowSet, int splitIndex, Chunk chunk, long size, long checksum)
+            throws IOException {
+        writeRecord(asList(CHUNK_RECORD, escapeJava(rowSet), String.valueOf(splitIndex), escapeJava(chunk.getName()),
+                String.valueOf(chunk.getRowCount()), String.valueOf(size), String.valueOf(checksum)));
+    }
+
+    /**
+     * Records completion of the given row set split along with the row set
+     * columns, which are needed to rebuild catalog without querying the split
+     */
+    public synchronized void writeSplit(String rowSet, int splitIndex, Collection<Column> columns)
+            throws IOException {
+        List<String> fields = newArrayList(SPLIT_RECORD, escapeJava(rowSet), String.valueOf(splitIndex));
+        for (Column column : columns) {
+            fields.add(escapeJava(defaultString(column.getName())));
+            fields.add(escapeJava(defaultString(toAlias(column.getValueType()))));
+        }
+        writeRecord(fields);
+    }
+
+    /**
+     * Returns completed split restored from the journal, provided that all of
+     * its chunks are still in place and match the recorded sizes. Checksums are
+     * not read here, as it would take a full pass over the chunks on the thread
+     * scheduling the splits, call {@link #verify(Split)} from the split's own
+     * work instead.
+     *
+     * @param rowSet
+     *            row set name
+     * @param splitIndex
+     *            index of the split
+     * @return completed split or null if the split should be written
+     */
+    public synchronized Split getSplit(String rowSet, int splitIndex) {
+        Split split = splits.get(getKey(rowSet, splitIndex));
+        if (split != null && !verifySize(split)) {
+            splits.remove(getKey(rowSet, splitIndex));
+            split = null;
+        }
+        return split;
+    }
+
+    protected boolean verifySize(Split split) {
+        for (JournalChunk journalChunk : split.journalChunks) {
+            Chunk chunk = journalChunk.chunk;
+            File file = FileUtils.getFile(backupOps.getDir(), chunk.getName());
+            if (!file.exists() || file.length() != chunk.getSize()) {
+                warnMismatch(chunk);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Verifies checksums of the split chunks against the recorded ones
+     *
+     * @param split
+     *            completed split returned by {@link #getSplit(String, int)}
+     * @return true if all of the chunks match the journal
+     */
+    public boolean verify(Split split) {
+        for (JournalChunk journalChunk : split.journalChunks) {
+            Chunk chunk = journalChunk.chunk;
+            File file = FileUtils.getFile(backupOps.getDir(), chunk.getName());
+            boolean verified;
+            try {
+                verified = checksumCRC32(file) == journalChunk.checksum;
+            } catch (IOException exception) {
+                verified = false;
+            }
+            if (!verified) {
+                warnMismatch(chunk);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected void warnMismatch(Chunk chunk) {
+        if (logger.isWarnEnabled()) {
+            logger.warn(format("Chunk %s doesn't match the journal, its split will be written again", chunk.getName()));
+        }
+    }
+
+    protected static String getKey(String rowSet, int splitIndex) {
+        return rowSet + SEPARATOR + splitIndex;
+    }
+
+    /**
+     * Query split completed in one of the previous runs
+     */
+    public static class Split {
+
+        private final List<JournalChunk> journalChunks;
+        private final Collection<Column> columns;
+
+        Split(List<JournalChunk> journalChunks, Collection<Column> columns) {
+            this.journalChunks = journalChunks;
+            this.columns = columns;
+        }
+
+        public Collection<Chunk> getChunks() {
+            Collection<Chunk> chunks = newArrayList();
+            for (JournalChunk journalChunk : journalChunks) {
+                chunks.add(journalChunk.chunk);
+            }
+            return chunks;
+        }
+
+        public Collection<Column> getColumns() {
+            return columns;
+        }
+    }
+
+    static class JournalChunk {
+
+        private final Chunk chunk;
+        private final long checksum;
+
+        JournalChunk(Chunk chunk, long checksum) {
+            this.chunk = chunk;
+            this.checksum = checksum;
+        }
+    }
+}
@@ -43,12 +43,14 @@ public interface BackupWriterListener extends WorkListener {
     void onWriteStart(WriteChunkEvent event);
 
     /**
-     * Triggered for each exported row
+     * Triggered for each batch of exported rows, at most each
+     * {@link WriteQueryWork#ROWS_PER_EVENT} rows and at the end of each chunk
      *
      * @param event
-     *            containing details about row set and chunk written
+     *            containing chunk written and a number of rows written to it
+     *            since the previous event
      */
-    void onWriteRow(WriteRowEvent event);
+    void onWriteRows(WriteRowsEvent event);
 
     /**
      * Triggered when row set export is completed
@@ -53,8 +53,12 @@ public interface BackupWriterManager extends WorkManager<BackupWriterListener> {
 
     void writeStart(Work work, WriteQuery writeQuery, Chunk chunk);
 
+    boolean hasRowListeners();
+
     void writeRow(Work work, WriteQuery writeQuery, Row row);
 
+    void writeRows(Work work, WriteQuery writeQuery, Chunk chunk, long rows);
+
     void writeEnd(Work work, WriteQuery writeQuery);
 
     void writeEnd(Work work, WriteQuery writeQuery, Chunk chunk);
@@ -29,11 +29,13 @@ package com.nuodb.migrator.backup.writer;
 
 import com.nuodb.migrator.backup.Backup;
 import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.LobStore;
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistry;
 import com.nuodb.migrator.jdbc.metadata.Database;
 import com.nuodb.migrator.jdbc.session.Session;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
+import com.nuodb.migrator.metrics.MetricRegistry;
 import com.nuodb.migrator.spec.MigrationMode;
 import org.slf4j.Logger;
 
@@ -57,6 +59,9 @@ public class SimpleBackupWriterContext implements BackupWriterContext {
     private Backup backup;
     private BackupOps backupOps;
     private Map backupOpsContext;
+    private BackupWriterJournal backupWriterJournal;
+    private LobStore lobStore;
+    private MetricRegistry metricRegistry;
     private Database database;
     private ExecutorService executorService;
     private String format;
@@ -110,6 +115,36 @@ public class SimpleBackupWriterContext implements BackupWriterContext {
         this.backupOpsContext = backupOpsContext;
     }
 
+    @Override
+    public BackupWriterJournal getBackupWriterJournal() {
+        return backupWriterJournal;
+    }
+
+    @Override
+    public void setBackupWriterJournal(BackupWriterJournal backupWriterJournal) {
+        this.backupWriterJournal = backupWriterJournal;
+    }
+
+    @Override
+    public LobStore getLobStore() {
+        return lobStore;
+    }
+
+    @Override
+    public void setLobStore(LobStore lobStore) {
+        this.lobStore = lobStore;
+    }
+
+    @Override
+    public MetricRegistry getMetricRegistry() {
+        return metricRegistry;
+    }
+
+    @Override
+    public void setMetricRegistry(MetricRegistry metricRegistry) {
+        this.metricRegistry = metricRegistry;
+    }
+
     @Override
     public Database getDatabase() {
         return database;
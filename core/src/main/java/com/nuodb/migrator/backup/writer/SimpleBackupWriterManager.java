@@ -39,16 +39,19 @@ import com.nuodb.migrator.jdbc.session.Work;
 
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.newCopyOnWriteArrayList;
 import static com.google.common.collect.Multimaps.newSetMultimap;
 import static com.google.common.collect.Multimaps.synchronizedSetMultimap;
 import static com.google.common.collect.Sets.newTreeSet;
 import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
 import static java.lang.Long.MAX_VALUE;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.commons.io.IOUtils.closeQuietly;
 
 /**
  * @author Sergey Bushik
@@ -59,6 +62,7 @@ public class SimpleBackupWriterManager extends SimpleWorkManager<BackupWriterLis
     private BackupWriterSync backupWriterSync;
     private BackupWriterContext backupWriterContext;
     private Multimap<WriteQuery, WriteQueryWork> writeQueries;
+    private List<BackupWriterRowListener> rowListeners = newCopyOnWriteArrayList();
 
     public SimpleBackupWriterManager() {
         this.writeQueries = synchronizedSetMultimap(newSetMultimap(
@@ -76,6 +80,28 @@ public class SimpleBackupWriterManager extends SimpleWorkManager<BackupWriterLis
                 }));
     }
 
+    @Override
+    public void addListener(BackupWriterListener listener) {
+        super.addListener(listener);
+        if (listener instanceof BackupWriterRowListener) {
+            rowListeners.add((BackupWriterRowListener) listener);
+        }
+    }
+
+    @Override
+    public void addListener(int index, BackupWriterListener listener) {
+        super.addListener(index, listener);
+        if (listener instanceof BackupWriterRowListener) {
+            rowListeners.add((BackupWriterRowListener) listener);
+        }
+    }
+
+    @Override
+    public void removeListener(BackupWriterListener listener) {
+        super.removeListener(listener);
+        rowListeners.remove(listener);
+    }
+
     @Override
     public boolean canExecute(Work work) {
         return getFailures().isEmpty();
@@ -102,19 +128,37 @@ public class SimpleBackupWriterManager extends SimpleWorkManager<BackupWriterLis
         }
     }
 
+    @Override
+    public boolean hasRowListeners() {
+        return !rowListeners.isEmpty();
+    }
+
     @Override
     public void writeRow(Work work, WriteQuery writeQuery, Row row) {
-        if (hasListeners()) {
+        if (hasRowListeners()) {
             onWriteRow(new WriteRowEvent(work, writeQuery, row));
         }
     }
 
     protected void onWriteRow(WriteRowEvent event) {
-        for (BackupWriterListener listener : getListeners()) {
+        for (BackupWriterRowListener listener : rowListeners) {
             listener.onWriteRow(event);
         }
     }
 
+    @Override
+    public void writeRows(Work work, WriteQuery writeQuery, Chunk chunk, long rows) {
+        if (hasListeners()) {
+            onWriteRows(new WriteRowsEvent(work, writeQuery, chunk, rows));
+        }
+    }
+
+    protected void onWriteRows(WriteRowsEvent event) {
+        for (BackupWriterListener listener : getListeners()) {
+            listener.onWriteRows(event);
+        }
+    }
+
     @Override
     public void writeEnd(Work work, WriteQuery writeQuery, Chunk chunk) {
         if (hasListeners()) {
@@ -206,6 +250,7 @@ public class SimpleBackupWriterManager extends SimpleWorkManager<BackupWriterLis
                 }
             }
             closeQuietly(backupWriterContext.getSourceSession());
+            closeQuietly(backupWriterContext.getBackupWriterJournal());
         }
         super.close();
     }
@@ -73,6 +73,9 @@ public class WriteQueriesWork extends WorkRunnableBase {
                 boolean hasNextQuerySplit = querySplitter.hasNextQuerySplit(connection);
                 WriteQueryWork writeQueryWork = new WriteQueryWork(writeQuery, nextQuerySplit, hasNextQuerySplit,
                         backupWriterManager);
+                // split completed by one of the previous runs is verified by
+                // its own work rather than here, before the rest are forked
+                writeQueryWork.resume();
                 writeQueryWork.fork();
                 writeQueryWorks.add(writeQueryWork);
             }
@@ -29,6 +29,7 @@ package com.nuodb.migrator.backup.writer;
 
 import com.nuodb.migrator.backup.Chunk;
 import com.nuodb.migrator.backup.Column;
+import com.nuodb.migrator.backup.LobStore;
 import com.nuodb.migrator.backup.QueryRowSet;
 import com.nuodb.migrator.backup.RowSet;
 import com.nuodb.migrator.backup.format.Output;
@@ -43,13 +44,21 @@ import com.nuodb.migrator.jdbc.model.Field;
 import com.nuodb.migrator.jdbc.query.StatementCallback;
 import com.nuodb.migrator.jdbc.session.WorkForkJoinTaskBase;
 import com.nuodb.migrator.jdbc.split.QuerySplit;
+import com.nuodb.migrator.metrics.Histogram;
+import com.nuodb.migrator.metrics.MetricRegistry;
+import com.nuodb.migrator.jfr.ChunkEvent;
+import com.nuodb.migrator.jfr.WriteQueryEvent;
 import com.nuodb.migrator.utils.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.OutputStream;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Collection;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Checksum;
 
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.indexOf;
@@ -59,9 +68,13 @@ import static com.nuodb.migrator.backup.format.value.ValueHandleListBuilder.newB
 import static com.nuodb.migrator.context.ContextUtils.getMessage;
 import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
 import static com.nuodb.migrator.jdbc.model.FieldFactory.newFieldList;
+import static com.nuodb.migrator.jfr.MigratorEvents.AVAILABLE;
+import static com.nuodb.migrator.jfr.MigratorEvents.WRITE;
+import static com.nuodb.migrator.metrics.MetricNames.FETCH_LATENCY;
 import static com.nuodb.migrator.utils.Collections.isEmpty;
 import static com.nuodb.migrator.utils.Predicates.equalTo;
 import static com.nuodb.migrator.utils.Predicates.instanceOf;
+import static java.lang.System.nanoTime;
 import static java.util.Arrays.asList;
 import static org.apache.commons.lang3.StringUtils.lowerCase;
 
@@ -76,6 +89,11 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
 
     private static final String QUERY = "query";
 
+    /**
+     * Maximum number of rows reported to the listeners in a single event
+     */
+    public static final int ROWS_PER_EVENT = 1000;
+
     private final BackupWriterManager backupWriterManager;
     private final WriteQuery writeQuery;
     private final QuerySplit querySplit;
@@ -86,6 +104,13 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
     private Collection<Chunk> chunks;
     private BackupWriterContext backupWriterContext;
     private ValueHandleList valueHandleList;
+    private BackupWriterJournal backupWriterJournal;
+    private LobStore lobStore;
+    private Checksum checksum;
+    private Histogram fetchLatency;
+    private long rows;
+    private ChunkEvent chunkEvent;
+    private BackupWriterJournal.Split split;
 
     public WriteQueryWork(WriteQuery writeQuery, QuerySplit querySplit, boolean hasNextQuerySplit,
             BackupWriterManager backupWriterManager) {
@@ -101,10 +126,47 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
         return getMessage(WRITE_QUERY_WORK, getRowSetName());
     }
 
+    /**
+     * Restores chunks of this split from the journal of the previous run.
+     * Checksums of the restored chunks are verified once the work is executed,
+     * the split is written from scratch if they don't match.
+     *
+     * @return true if split was completed previously and shouldn't be written
+     */
+    public boolean resume() {
+        backupWriterContext = backupWriterManager.getBackupWriterContext();
+        backupWriterJournal = backupWriterContext.getBackupWriterJournal();
+        lobStore = backupWriterContext.getLobStore();
+        split = backupWriterJournal != null
+                ? backupWriterJournal.getSplit(getRowSetName(), querySplit.getSplitIndex())
+                : null;
+        if (split == null) {
+            return false;
+        }
+        RowSet rowSet = writeQuery.getRowSet();
+        if (isEmpty(rowSet.getColumns())) {
+            rowSet.setColumns(split.getColumns());
+        }
+        rowSet.setName(getRowSetName());
+        chunks = newArrayList(split.getChunks());
+        return true;
+    }
+
     @Override
     public void init() throws Exception {
         backupWriterContext = backupWriterManager.getBackupWriterContext();
+        backupWriterJournal = backupWriterContext.getBackupWriterJournal();
+        lobStore = backupWriterContext.getLobStore();
+        MetricRegistry metricRegistry = backupWriterContext.getMetricRegistry();
+        if (metricRegistry != null) {
+            fetchLatency = metricRegistry.histogram(FETCH_LATENCY);
+        }
+        if (split == null) {
+            initQuery();
+        }
+    }
 
+    protected void initQuery() throws Exception {
         final Dialect dialect = getSession().getDialect();
         resultSet = querySplit.getResultSet(getSession().getConnection(), new StatementCallback() {
             @Override
@@ -140,13 +202,35 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
 
     @Override
     public void execute() throws Exception {
+        if (split != null) {
+            if (backupWriterJournal.verify(split)) {
+                backupWriterManager.writeStart(this, writeQuery);
+                backupWriterManager.writeEnd(this, writeQuery);
+                return;
+            }
+            split = null;
+            initQuery();
+        }
+        WriteQueryEvent writeQueryEvent = AVAILABLE ? new WriteQueryEvent() : null;
+        if (writeQueryEvent != null) {
+            writeQueryEvent.begin();
+        }
+        try {
+            write();
+        } finally {
+            commitWriteQueryEvent(writeQueryEvent);
+        }
+    }
+
+    protected void write() throws Exception {
         backupWriterManager.writeStart(this, writeQuery);
         ResultSet resultSet = getResultSet();
         Output output = getOutput();
         Chunk chunk = null;
         long number = 0;
         Value[] values = new Value[valueHandleList.size()];
-        while (backupWriterManager.canExecute(this) && resultSet.next()) {
+        boolean hasNext = true;
+        while (backupWriterManager.canExecute(this) && (hasNext = next(resultSet))) {
             if (chunk == null) {
                 writeStart(chunk = addChunk());
             }
@@ -154,19 +238,28 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
                 writeEnd(chunk);
                 writeStart(chunk = addChunk());
             }
-            Row row = new Row(chunk, values, number);
             int index = 0;
             for (ValueHandle valueHandle : valueHandleList) {
-                values[index++] = valueHandle.getValueFormat().getValue(valueHandle.getJdbcValueAccess(),
+                Value value = valueHandle.getValueFormat().getValue(valueHandle.getJdbcValueAccess(),
                         valueHandle.getJdbcValueAccessOptions());
+                values[index++] = lobStore != null ? lobStore.write(value) : value;
             }
             output.writeValues(values);
             chunk.incrementRowCount();
-            backupWriterManager.writeRow(this, writeQuery, row);
+            if (backupWriterManager.hasRowListeners()) {
+                backupWriterManager.writeRow(this, writeQuery, new Row(chunk, values, number));
+            }
+            if (++rows == ROWS_PER_EVENT) {
+                writeRows(chunk);
+            }
         }
         if (chunk != null) {
             writeEnd(chunk);
         }
+        if (!hasNext && backupWriterJournal != null) {
+            backupWriterJournal.writeSplit(getRowSetName(), querySplit.getSplitIndex(),
+                    writeQuery.getRowSet().getColumns());
+        }
         backupWriterManager.writeEnd(this, writeQuery);
     }
 
@@ -176,8 +269,48 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
         closeQuietly(resultSet);
     }
 
+    protected void commitWriteQueryEvent(WriteQueryEvent writeQueryEvent) {
+        if (writeQueryEvent != null && writeQueryEvent.shouldCommit()) {
+            long rows = 0;
+            long bytes = 0;
+            for (Chunk chunk : chunks) {
+                rows += chunk.getRowCount();
+                bytes += chunk.getSize() != null ? chunk.getSize() : 0;
+            }
+            writeQueryEvent.setTable(getRowSetName());
+            writeQueryEvent.setSplit(querySplit.getSplitIndex());
+            writeQueryEvent.setRows(rows);
+            writeQueryEvent.setBytes(bytes);
+            writeQueryEvent.commit();
+        }
+    }
+
+    /**
+     * Advances result set, time spent waiting for the source is recorded if
+     * metrics are collected
+     */
+    protected boolean next(ResultSet resultSet) throws SQLException {
+        if (fetchLatency == null) {
+            return resultSet.next();
+        }
+        long start = nanoTime();
+        try {
+            return resultSet.next();
+        } finally {
+            fetchLatency.update(nanoTime() - start);
+        }
+    }
+
     protected void writeStart(Chunk chunk) throws Exception {
-        output.setOutputStream(backupWriterContext.getBackupOps().openOutput(chunk.getName()));
+        chunkEvent = AVAILABLE ? new ChunkEvent() : null;
+        if (chunkEvent != null) {
+            chunkEvent.begin();
+        }
+        OutputStream outputStream = backupWriterContext.getBackupOps().openOutput(chunk.getName());
+        if (backupWriterJournal != null) {
+            outputStream = new CheckedOutputStream(outputStream, checksum = new CRC32());
+        }
+        output.setOutputStream(outputStream);
         output.init();
         output.writeStart();
         backupWriterManager.writeStart(this, writeQuery, chunk);
@@ -186,7 +319,31 @@ public class WriteQueryWork extends WorkForkJoinTaskBase {
     protected void writeEnd(Chunk chunk) throws Exception {
         output.writeEnd();
         output.close();
+        long size = chunk.getSize(backupWriterContext.getBackupOps());
+        if (backupWriterJournal != null) {
+            backupWriterJournal.writeChunk(getRowSetName(), querySplit.getSplitIndex(), chunk, size,
+                    checksum.getValue());
+        }
+        writeRows(chunk);
         backupWriterManager.writeEnd(this, writeQuery, chunk);
+        if (chunkEvent != null && chunkEvent.shouldCommit()) {
+            chunkEvent.setTable(getRowSetName());
+            chunkEvent.setChunk(chunk.getName());
+            chunkEvent.setOperation(WRITE);
+            chunkEvent.setRows(chunk.getRowCount());
+            chunkEvent.setBytes(size);
+            chunkEvent.commit();
+        }
+    }
+
+    /**
+     * Reports rows written to the chunk since the previous report
+     */
+    protected void writeRows(Chunk chunk) {
+        if (rows > 0) {
+            backupWriterManager.writeRows(this, writeQuery, chunk, rows);
+            rows = 0;
+        }
     }
 
     protected Chunk addChunk() {
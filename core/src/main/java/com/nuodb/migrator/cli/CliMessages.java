@@ -91,6 +91,8 @@ public interface CliMessages {
     final String TABLE_EXCLUDE_OPTION_DESCRIPTION = "com.nuodb.migrator.table.exclude.option.description";
     final String TABLE_TYPE_OPTION_DESCRIPTION = "com.nuodb.migrator.table.type.option.description";
     final String TABLE_TYPE_ARGUMENT_NAME = "com.nuodb.migrator.table.type.argument.name";
+    final String INSPECTION_SNAPSHOT_OPTION_DESCRIPTION = "com.nuodb.migrator.inspection.snapshot.option.description";
+    final String INSPECTION_SNAPSHOT_ARGUMENT_NAME = "com.nuodb.migrator.inspection.snapshot.argument.name";
     final String TABLE_ARGUMENT_NAME = "com.nuodb.migrator.table.argument.name";
     final String TABLE_EXCLUDE_ARGUMENT_NAME = "com.nuodb.migrator.table.exclude.argument.name";
 
@@ -101,13 +103,23 @@ public interface CliMessages {
     final String EXECUTOR_GROUP_NAME = "com.nuodb.migrator.executor.group.name";
     final String THREADS_OPTION_DESCRIPTION = "com.nuodb.migrator.threads.option.description";
     final String THREADS_ARGUMENT_NAME = "com.nuodb.migrator.threads.argument.name";
+    final String METRICS_INTERVAL_OPTION_DESCRIPTION = "com.nuodb.migrator.metrics.interval.option.description";
+    final String METRICS_INTERVAL_ARGUMENT_NAME = "com.nuodb.migrator.metrics.interval.argument.name";
+    final String METRICS_OUTPUT_OPTION_DESCRIPTION = "com.nuodb.migrator.metrics.output.option.description";
+    final String METRICS_OUTPUT_ARGUMENT_NAME = "com.nuodb.migrator.metrics.output.argument.name";
     final String PARALLELIZER_OPTION_DESCRIPTION = "com.nuodb.migrator.parallelizer.option.description";
     final String PARALLELIZER_ARGUMENT_NAME = "com.nuodb.migrator.parallelizer.argument.name";
     final String PARALLELIZER_ATTRIBUTES_OPTION_DESCRIPTION = "com.nuodb.migrator.parallelizer.attributes.option.description";
     final String PARALLELIZER_ATTRIBUTES_ARGUMENT_NAME = "com.nuodb.migrator.parallelizer.attributes.argument.name";
+    final String TARGET_BALANCING_OPTION_DESCRIPTION = "com.nuodb.migrator.target.balancing.option.description";
+    final String TARGET_BALANCING_ARGUMENT_NAME = "com.nuodb.migrator.target.balancing.argument.name";
 
     final String QUERY_LIMIT_OPTION_DESCRIPTION = "com.nuodb.migrator.query.limit.option.description";
     final String QUERY_LIMIT_ARGUMENT_NAME = "com.nuodb.migrator.query.limit.argument.name";
+    final String LOB_THRESHOLD_OPTION_DESCRIPTION = "com.nuodb.migrator.lob.threshold.option.description";
+    final String LOB_THRESHOLD_ARGUMENT_NAME = "com.nuodb.migrator.lob.threshold.argument.name";
+    final String RESUME_OPTION_DESCRIPTION = "com.nuodb.migrator.resume.option.description";
+    final String LOAD_RESUME_OPTION_DESCRIPTION = "com.nuodb.migrator.load.resume.option.description";
 
     final String LOAD_GROUP_NAME = "com.nuodb.migrator.load.group.name";
     final String TARGET_GROUP_NAME = "com.nuodb.migrator.target.group.name";
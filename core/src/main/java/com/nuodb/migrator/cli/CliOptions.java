@@ -84,11 +84,20 @@ public interface CliOptions {
     final String TABLE_INSERT = "table.*.insert";
     final String TABLE_REPLACE = "table.*.replace";
 
+    final String INSPECTION_SNAPSHOT = "inspection.snapshot";
+
     final String THREADS = "threads";
     final String THREADS_SHORT = "t";
 
+    final String METRICS_INTERVAL = "metrics.interval";
+    final String METRICS_OUTPUT = "metrics.output";
+
     final String QUERY_LIMIT = "query.limit";
 
+    final String LOB_THRESHOLD = "lob.threshold";
+
+    final String RESUME = "resume";
+
     final String QUERY = "query";
 
     final String TARGET_DRIVER = "target.driver";
@@ -107,6 +116,7 @@ public interface CliOptions {
     final String PARALLELIZER = "parallelizer";
     final String PARALLELIZER_ATTRIBUTES = "parallelizer.*";
     final String PARALLELIZER_SHORT = "p";
+    final String TARGET_BALANCING = "target.balancing";
 
     final String INPUT = "input.*";
     final String INPUT_PATH = "input.path";
@@ -93,6 +93,8 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
         group.withOption(createQueryGroup());
         group.withOption(createTimeZoneOption());
         group.withOption(createQueryLimitOption());
+        group.withOption(createLobThresholdOption());
+        group.withOption(createResumeOption());
         return group.build();
     }
 
@@ -115,12 +117,25 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
                 .withArgument(newArgumentBuilder().withName(getMessage(QUERY_LIMIT_ARGUMENT_NAME)).build()).build();
     }
 
+    protected Option createLobThresholdOption() {
+        return newBasicOptionBuilder().withName(LOB_THRESHOLD)
+                .withDescription(getMessage(LOB_THRESHOLD_OPTION_DESCRIPTION))
+                .withArgument(newArgumentBuilder().withName(getMessage(LOB_THRESHOLD_ARGUMENT_NAME)).build()).build();
+    }
+
+    protected Option createResumeOption() {
+        return newBasicOptionBuilder().withName(RESUME).withDescription(getMessage(RESUME_OPTION_DESCRIPTION)).build();
+    }
+
     protected void parseDataMigrationGroup(OptionSet optionSet, DumpJobSpec jobSpec) {
         jobSpec.setMetaDataFilterManager(parseMetaDataFilterManagerGroup(optionSet, this));
         jobSpec.setQuerySpecs(parseQueryGroup(optionSet));
         jobSpec.setTimeZone(parseTimeZoneOption(optionSet, this));
         jobSpec.setThreads(parseThreadsOption(optionSet, this));
+        jobSpec.setMetricsSpec(parseMetricsSpec(optionSet, this));
         jobSpec.setQueryLimit(parseQueryLimitOption(optionSet, this));
+        jobSpec.setLobThreshold(parseLobThresholdOption(optionSet, this));
+        jobSpec.setResume(optionSet.hasOption(RESUME));
     }
 
     protected Collection<QuerySpec> parseQueryGroup(OptionSet optionSet) {
@@ -136,6 +151,11 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
         return !isEmpty(queryLimitValue) ? new QueryLimit(parseLong(queryLimitValue)) : null;
     }
 
+    protected Long parseLobThresholdOption(OptionSet optionSet, Option option) {
+        String lobThresholdValue = (String) optionSet.getValue(LOB_THRESHOLD);
+        return !isEmpty(lobThresholdValue) ? parseLong(lobThresholdValue) : null;
+    }
+
     @Override
     protected Group createSchemaMigrationGroup() {
         GroupBuilder group = newGroupBuilder().withName(getMessage(SCHEMA_MIGRATION_GROUP_NAME));
@@ -149,6 +169,12 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
                 .build();
         group.withOption(tableType);
 
+        Option inspectionSnapshot = newBasicOptionBuilder().withName(INSPECTION_SNAPSHOT)
+                .withDescription(getMessage(INSPECTION_SNAPSHOT_OPTION_DESCRIPTION))
+                .withArgument(newArgumentBuilder().withName(getMessage(INSPECTION_SNAPSHOT_ARGUMENT_NAME)).build())
+                .build();
+        group.withOption(inspectionSnapshot);
+
         Option metaData = newRegexOptionBuilder().withName(META_DATA)
                 .withDescription(getMessage(META_DATA_OPTION_DESCRIPTION)).withRegex(META_DATA, 1, LOW)
                 .withArgument(newArgumentBuilder().withName(getMessage(META_DATA_ARGUMENT_NAME))
@@ -163,5 +189,6 @@ public class CliDumpJob extends CliJob<DumpJobSpec> {
             jobSpec.setObjectTypes(parseObjectTypes(optionSet));
         }
         jobSpec.setTableTypes(parseTableTypes(optionSet));
+        jobSpec.setSnapshotDirectory((String) optionSet.getValue(INSPECTION_SNAPSHOT));
     }
 }
@@ -32,10 +32,12 @@ import com.nuodb.migrator.backup.loader.Parallelizer;
 import com.nuodb.migrator.backup.loader.RowLevelParallelizer;
 import com.nuodb.migrator.backup.loader.TableLevelParallelizer;
 import com.nuodb.migrator.cli.parse.Option;
+import com.nuodb.migrator.cli.parse.OptionException;
 import com.nuodb.migrator.cli.parse.OptionSet;
 import com.nuodb.migrator.cli.parse.option.GroupBuilder;
 import com.nuodb.migrator.cli.parse.option.OptionFormat;
 import com.nuodb.migrator.jdbc.query.InsertType;
+import com.nuodb.migrator.jdbc.session.SessionBalancing;
 import com.nuodb.migrator.spec.LoadJobSpec;
 
 import java.util.Map;
@@ -45,6 +47,7 @@ import static com.nuodb.migrator.context.ContextUtils.getMessage;
 import static com.nuodb.migrator.utils.Priority.LOW;
 import static com.nuodb.migrator.utils.ReflectionUtils.newInstance;
 import static java.lang.Integer.MAX_VALUE;
+import static java.lang.String.format;
 import static java.lang.String.CASE_INSENSITIVE_ORDER;
 
 /**
@@ -54,6 +57,9 @@ public class CliLoadJob extends CliJob<LoadJobSpec> {
 
     public static final String PARALLELIZER_TABLE_LEVEL = "table.level";
     public static final String PARALLELIZER_ROW_LEVEL = "row.level";
+    public static final String BALANCING_ROUND_ROBIN = "round.robin";
+    public static final String BALANCING_LEAST_LATENCY = "least.latency";
+    public static final String BALANCING_TABLE_AFFINITY = "table.affinity";
 
     public CliLoadJob() {
         super(LOAD);
@@ -94,9 +100,15 @@ public class CliLoadJob extends CliJob<LoadJobSpec> {
         group.withOption(createCommitGroup());
         group.withOption(createInsertTypeGroup());
         group.withOption(createTimeZoneOption());
+        group.withOption(createResumeOption());
         return group.build();
     }
 
+    protected Option createResumeOption() {
+        return newBasicOptionBuilder().withName(RESUME).withDescription(getMessage(LOAD_RESUME_OPTION_DESCRIPTION))
+                .build();
+    }
+
     protected Option createInsertTypeGroup() {
         GroupBuilder group = newGroupBuilder().withName(getMessage(INSERT_TYPE_GROUP_NAME));
 
@@ -135,6 +147,12 @@ public class CliLoadJob extends CliJob<LoadJobSpec> {
                         .withOptionFormat(optionFormat).withMinimum(1).withMaximum(MAX_VALUE).build())
                 .build();
         group.withOption(parallelizerAttributes);
+
+        Option balancing = newBasicOptionBuilder().withName(TARGET_BALANCING)
+                .withDescription(getMessage(TARGET_BALANCING_OPTION_DESCRIPTION))
+                .withArgument(newArgumentBuilder().withName(getMessage(TARGET_BALANCING_ARGUMENT_NAME)).build())
+                .build();
+        group.withOption(balancing);
     }
 
     protected void parseDataMigrationGroup(OptionSet optionSet, LoadJobSpec jobSpec) {
@@ -142,6 +160,7 @@ public class CliLoadJob extends CliJob<LoadJobSpec> {
         jobSpec.setCommitStrategy(parseCommitGroup(optionSet, this));
         jobSpec.setTimeZone(parseTimeZoneOption(optionSet, this));
         parseInsertTypeGroup(optionSet, jobSpec);
+        jobSpec.setResume(optionSet.hasOption(RESUME));
     }
 
     protected void parseInsertTypeGroup(OptionSet optionSet, LoadJobSpec loadJobSpec) {
@@ -158,6 +177,7 @@ public class CliLoadJob extends CliJob<LoadJobSpec> {
 
     protected void parseExecutorGroup(OptionSet optionSet, LoadJobSpec jobSpec) {
         jobSpec.setThreads(parseThreadsOption(optionSet, this));
+        jobSpec.setMetricsSpec(parseMetricsSpec(optionSet, this));
         String parallelizerValue = (String) optionSet.getValue(PARALLELIZER, PARALLELIZER_TABLE_LEVEL);
         Parallelizer parallelizer = createParallelizerMapping().get(parallelizerValue);
         if (parallelizer == null) {
@@ -166,6 +186,30 @@ public class CliLoadJob extends CliJob<LoadJobSpec> {
         parallelizer.setAttributes(parseAttributes(optionSet.<String>getValues(PARALLELIZER_ATTRIBUTES),
                 optionSet.getOption(PARALLELIZER_ATTRIBUTES)));
         jobSpec.setParallelizer(parallelizer);
+        jobSpec.setSessionBalancing(parseSessionBalancing(optionSet));
+    }
+
+    protected SessionBalancing parseSessionBalancing(OptionSet optionSet) {
+        String sessionBalancingValue = (String) optionSet.getValue(TARGET_BALANCING);
+        SessionBalancing sessionBalancing = null;
+        if (sessionBalancingValue != null) {
+            Map<String, SessionBalancing> sessionBalancingMapping = createSessionBalancingMapping();
+            sessionBalancing = sessionBalancingMapping.get(sessionBalancingValue);
+            if (sessionBalancing == null) {
+                throw new OptionException(format("Unexpected value for %s option, valid values are %s",
+                        TARGET_BALANCING, sessionBalancingMapping.keySet()), optionSet.getOption(TARGET_BALANCING));
+            }
+        }
+        return sessionBalancing;
+    }
+
+    protected Map<String, SessionBalancing> createSessionBalancingMapping() {
+        Map<String, SessionBalancing> sessionBalancingMapping = new TreeMap<String, SessionBalancing>(
+                CASE_INSENSITIVE_ORDER);
+        sessionBalancingMapping.put(BALANCING_ROUND_ROBIN, SessionBalancing.ROUND_ROBIN);
+        sessionBalancingMapping.put(BALANCING_LEAST_LATENCY, SessionBalancing.LEAST_LATENCY);
+        sessionBalancingMapping.put(BALANCING_TABLE_AFFINITY, SessionBalancing.TABLE_AFFINITY);
+        return sessionBalancingMapping;
     }
 
     protected Map<String, Parallelizer> createParallelizerMapping() {
@@ -66,6 +66,7 @@ import com.nuodb.migrator.jdbc.metadata.generator.TriggerQualifyNamingStrategy;
 import com.nuodb.migrator.jdbc.type.JdbcTypeCodes;
 import com.nuodb.migrator.spec.DriverConnectionSpec;
 import com.nuodb.migrator.spec.JdbcTypeSpec;
+import com.nuodb.migrator.spec.MetricsSpec;
 import com.nuodb.migrator.spec.MigrationMode;
 import com.nuodb.migrator.spec.ResourceSpec;
 import com.nuodb.migrator.spec.ScriptGeneratorJobSpecBase;
@@ -352,6 +353,12 @@ public class CliRunSupport extends CliSupport {
                 .build();
         group.withOption(tableType);
 
+        Option inspectionSnapshot = newBasicOptionBuilder().withName(INSPECTION_SNAPSHOT)
+                .withDescription(getMessage(INSPECTION_SNAPSHOT_OPTION_DESCRIPTION))
+                .withArgument(newArgumentBuilder().withName(getMessage(INSPECTION_SNAPSHOT_ARGUMENT_NAME)).build())
+                .build();
+        group.withOption(inspectionSnapshot);
+
         Option metaData = newRegexOptionBuilder().withName(META_DATA)
                 .withDescription(getMessage(META_DATA_OPTION_DESCRIPTION)).withRegex(META_DATA, 1, LOW)
                 .withArgument(newArgumentBuilder().withName(getMessage(META_DATA_ARGUMENT_NAME))
@@ -501,6 +508,18 @@ public class CliRunSupport extends CliSupport {
                 .withDescription(getMessage(THREADS_OPTION_DESCRIPTION))
                 .withArgument(newArgumentBuilder().withName(getMessage(THREADS_ARGUMENT_NAME)).build()).build();
         group.withOption(threads);
+
+        Option metricsInterval = newBasicOptionBuilder().withName(METRICS_INTERVAL)
+                .withDescription(getMessage(METRICS_INTERVAL_OPTION_DESCRIPTION))
+                .withArgument(newArgumentBuilder().withName(getMessage(METRICS_INTERVAL_ARGUMENT_NAME)).build())
+                .build();
+        group.withOption(metricsInterval);
+
+        Option metricsOutput = newBasicOptionBuilder().withName(METRICS_OUTPUT)
+                .withDescription(getMessage(METRICS_OUTPUT_OPTION_DESCRIPTION))
+                .withArgument(newArgumentBuilder().withName(getMessage(METRICS_OUTPUT_ARGUMENT_NAME)).build())
+                .build();
+        group.withOption(metricsOutput);
     }
 
     protected MetaDataFilterManager parseMetaDataFilterManagerGroup(OptionSet optionSet, Option option) {
@@ -685,6 +704,7 @@ public class CliRunSupport extends CliSupport {
         jobSpec.setIdentifierQuoting(parseIdentifierQuoting(optionSet, option));
         jobSpec.setIdentifierNormalizer(parseIdentifierNormalizer(optionSet, option));
         jobSpec.setTableTypes(parseTableTypes(optionSet));
+        jobSpec.setSnapshotDirectory((String) optionSet.getValue(INSPECTION_SNAPSHOT));
     }
 
     protected TranslationConfig parseTranslationConfig(OptionSet optionSet, Option option) {
@@ -841,6 +861,18 @@ public class CliRunSupport extends CliSupport {
         return !StringUtils.isEmpty(threadsValue) ? parseInt(threadsValue) : null;
     }
 
+    protected MetricsSpec parseMetricsSpec(OptionSet optionSet, Option option) {
+        String intervalValue = (String) optionSet.getValue(METRICS_INTERVAL);
+        String outputValue = (String) optionSet.getValue(METRICS_OUTPUT);
+        if (StringUtils.isEmpty(intervalValue) && StringUtils.isEmpty(outputValue)) {
+            return null;
+        }
+        MetricsSpec metricsSpec = new MetricsSpec();
+        metricsSpec.setInterval(!StringUtils.isEmpty(intervalValue) ? parseInt(intervalValue) : null);
+        metricsSpec.setPath(!StringUtils.isEmpty(outputValue) ? outputValue : null);
+        return metricsSpec;
+    }
+
     public TimeZone getDefaultTimeZone() {
         return defaultTimeZone;
     }
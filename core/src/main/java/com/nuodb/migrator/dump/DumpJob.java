@@ -30,12 +30,19 @@ package com.nuodb.migrator.dump;
 import com.nuodb.migrator.MigratorException;
 import com.nuodb.migrator.backup.writer.BackupWriter;
 import com.nuodb.migrator.backup.writer.BackupWriterListener;
+import com.nuodb.migrator.backup.writer.MetricsBackupWriterListener;
+import com.nuodb.migrator.jdbc.connection.ConnectionProvider;
+import com.nuodb.migrator.jdbc.connection.DriverConnectionProvider;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionManager;
 import com.nuodb.migrator.jdbc.query.QueryLimit;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
 import com.nuodb.migrator.job.HasServicesJobBase;
+import com.nuodb.migrator.metrics.MetricRegistry;
+import com.nuodb.migrator.metrics.MetricsReporter;
 import com.nuodb.migrator.spec.ConnectionSpec;
 import com.nuodb.migrator.spec.DumpJobSpec;
 import com.nuodb.migrator.spec.MetaDataSpec;
+import com.nuodb.migrator.spec.MetricsSpec;
 import com.nuodb.migrator.spec.MigrationMode;
 import com.nuodb.migrator.spec.QuerySpec;
 import com.nuodb.migrator.spec.ResourceSpec;
@@ -49,6 +56,7 @@ import static com.nuodb.migrator.jdbc.session.SessionFactories.newSessionFactory
 import static com.nuodb.migrator.jdbc.session.SessionObservers.newSessionTimeZoneSetter;
 import static com.nuodb.migrator.jdbc.session.SessionObservers.newTransactionIsolationSetter;
 import static java.sql.Connection.*;
+import static java.util.Collections.singleton;
 
 /**
  * @author Sergey Bushik
@@ -57,6 +65,7 @@ import static java.sql.Connection.*;
 public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
 
     private BackupWriter backupWriter;
+    private MetricsReporter metricsReporter;
 
     public DumpJob() {
     }
@@ -73,25 +82,49 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
         for (BackupWriterListener listener : getListeners()) {
             backupWriter.addListener(listener);
         }
+        MetricRegistry metricRegistry = new MetricRegistry();
+        backupWriter.addListener(new MetricsBackupWriterListener(metricRegistry));
+        backupWriter.setMetricRegistry(metricRegistry);
         backupWriter.setFormat(getFormat());
         backupWriter.setFormatAttributes(getFormatAttributes());
         backupWriter.setFormatFactory(createFormatFactory());
-        backupWriter.setInspectionManager(createInspectionManager());
+        int threads = getThreads() != null ? getThreads() : THREADS;
+        SessionFactory sourceSessionFactory = createSourceSessionFactory(threads, metricRegistry);
+        InspectionManager inspectionManager = createInspectionManager(sourceSessionFactory, threads);
+        inspectionManager.setInspectionCache(createInspectionCache(getMetaDataSpec()));
+        backupWriter.setInspectionManager(inspectionManager);
         backupWriter.setMetaDataSpec(getMetaDataSpec());
+        backupWriter.setLobThreshold(getLobThreshold());
         backupWriter.setMigrationModes(getMigrationModes());
         backupWriter.setQueryLimit(getQueryLimit());
         backupWriter.setQuerySpecs(getQuerySpecs());
+        backupWriter.setResume(isResume());
         backupWriter.setSourceSpec(getSourceSpec());
-        backupWriter.setSourceSessionFactory(createSourceSessionFactory());
+        backupWriter.setSourceSessionFactory(sourceSessionFactory);
         backupWriter.setTimeZone(getTimeZone());
-        backupWriter.setThreads(getThreads() != null ? getThreads() : THREADS);
+        backupWriter.setThreads(threads);
         backupWriter.setValueFormatRegistryResolver(createValueFormatRegistryResolver());
         setBackupWriter(backupWriter);
-    }
-
-    protected SessionFactory createSourceSessionFactory() {
-        SessionFactory sessionFactory = newSessionFactory(
-                createConnectionProviderFactory().createConnectionProvider(getSourceSpec()), createDialectResolver());
+        setMetricsReporter(createMetricsReporter(metricRegistry, "Dump", getMetricsSpec()));
+    }
+
+    /**
+     * Source connections are pooled and sized from the number of dump threads,
+     * statistics of the pool are reported with the job metrics.
+     *
+     * @param threads
+     *            number of dump threads
+     * @param metricRegistry
+     *            metrics of the job
+     * @return source session factory
+     */
+    protected SessionFactory createSourceSessionFactory(int threads, MetricRegistry metricRegistry) {
+        ConnectionProvider connectionProvider = createConnectionProvider(getSourceSpec(), threads);
+        DriverConnectionProvider driverConnectionProvider = getDriverConnectionProvider(connectionProvider);
+        if (driverConnectionProvider != null) {
+            metricRegistry.registerConnectionPools(singleton(driverConnectionProvider));
+        }
+        SessionFactory sessionFactory = newSessionFactory(connectionProvider, createDialectResolver());
         if (getSourceSpec().getTransactionIsolation() == null) {
             sessionFactory.addSessionObserver(newTransactionIsolationSetter(
                     new int[] { TRANSACTION_SERIALIZABLE, TRANSACTION_REPEATABLE_READ, TRANSACTION_READ_COMMITTED }));
@@ -102,6 +135,8 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
 
     @Override
     public void execute() throws Exception {
+        MetricsReporter metricsReporter = getMetricsReporter();
+        metricsReporter.start();
         try {
             BackupWriter backupWriter = getBackupWriter();
             backupWriter.write(getPath());
@@ -109,6 +144,8 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
             throw exception;
         } catch (Exception exception) {
             throw new DumpException(exception);
+        } finally {
+            metricsReporter.close();
         }
     }
 
@@ -124,6 +161,14 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
         this.backupWriter = backupWriter;
     }
 
+    public MetricsReporter getMetricsReporter() {
+        return metricsReporter;
+    }
+
+    public void setMetricsReporter(MetricsReporter metricsReporter) {
+        this.metricsReporter = metricsReporter;
+    }
+
     protected Collection<BackupWriterListener> getListeners() {
         return getJobSpec().getListeners();
     }
@@ -144,6 +189,10 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
         return getJobSpec().getMetaDataSpec();
     }
 
+    protected MetricsSpec getMetricsSpec() {
+        return getJobSpec().getMetricsSpec();
+    }
+
     protected ResourceSpec getOutputSpec() {
         return getJobSpec().getOutputSpec();
     }
@@ -152,6 +201,10 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
         return getOutputSpec().getPath();
     }
 
+    public Long getLobThreshold() {
+        return getJobSpec().getLobThreshold();
+    }
+
     public QueryLimit getQueryLimit() {
         return getJobSpec().getQueryLimit();
     }
@@ -160,6 +213,10 @@ public class DumpJob extends HasServicesJobBase<DumpJobSpec> {
         return getJobSpec().getQuerySpecs();
     }
 
+    protected boolean isResume() {
+        return getJobSpec().isResume();
+    }
+
     protected ConnectionSpec getSourceSpec() {
         return getJobSpec().getSourceSpec();
     }
@@ -78,6 +78,16 @@ public class BatchCommitStrategy implements CommitStrategy {
                 }
             }
 
+            @Override
+            public boolean isCommitNext() {
+                return batches + 1 > batchSize;
+            }
+
+            @Override
+            public boolean isBatched() {
+                return batches > 0;
+            }
+
             @Override
             public void finish() throws SQLException {
                 if (batches > 0) {
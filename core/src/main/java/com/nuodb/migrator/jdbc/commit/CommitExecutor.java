@@ -41,7 +41,39 @@ public interface CommitExecutor<S extends Statement> {
 
     Query getQuery();
 
+    /**
+     * Executes statement for the current row
+     *
+     * @return true if the executed rows are committed by this call, including
+     *         the current one
+     * @throws SQLException
+     *             if statement fails
+     */
     boolean execute() throws SQLException;
 
+    /**
+     * Checks if the next call to {@link #execute()} commits the rows executed
+     * so far along with the next one
+     *
+     * @return true if the next execution commits
+     * @throws SQLException
+     *             if commit mode can't be determined
+     */
+    boolean isCommitNext() throws SQLException;
+
+    /**
+     * Checks if some of the executed rows are batched and not yet sent to the
+     * database, values bound for such rows are still in use
+     *
+     * @return true if there are batched rows
+     */
+    boolean isBatched();
+
+    /**
+     * Executes and commits remaining rows
+     *
+     * @throws SQLException
+     *             if statement or commit fails
+     */
     void finish() throws SQLException;
 }
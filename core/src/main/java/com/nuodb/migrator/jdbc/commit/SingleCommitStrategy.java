@@ -52,6 +52,8 @@ public class SingleCommitStrategy implements CommitStrategy {
     public CommitExecutor createCommitExecutor(Statement statement, Query query) {
         return new CommitExecutorBase(statement, query) {
 
+            private Boolean autoCommit;
+
             @Override
             public boolean execute() throws SQLException {
                 if (statement instanceof PreparedStatement) {
@@ -59,7 +61,21 @@ public class SingleCommitStrategy implements CommitStrategy {
                 } else {
                     statement.execute(query.toString());
                 }
-                return true;
+                return isCommitNext();
+            }
+
+            @Override
+            public boolean isCommitNext() throws SQLException {
+                // rows are committed by each execution in auto commit mode only
+                if (autoCommit == null) {
+                    autoCommit = statement.getConnection().getAutoCommit();
+                }
+                return autoCommit;
+            }
+
+            @Override
+            public boolean isBatched() {
+                return false;
             }
 
             @Override
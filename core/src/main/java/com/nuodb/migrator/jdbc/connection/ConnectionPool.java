@@ -0,0 +1,380 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.connection;
+
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.Long.getLong;
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Connection pool without synchronized sections on borrow and return paths.
+ * Idle connections are kept in a non blocking deque and are handed out most
+ * recently used first, pool capacity is enforced with a semaphore only if
+ * maximum number of connections is set. Connections are not validated on
+ * borrow, instead they are retired once their lifetime exceeds configured
+ * limit. Settings a connection is opened with are restored once it's returned,
+ * so that the next borrower doesn't inherit settings changed by the previous
+ * one.
+ * <p>
+ * Borrowers of an exhausted pool wait for {@value #BORROW_TIMEOUT_PROPERTY}
+ * system property milliseconds, 60 seconds by default or indefinitely if it's
+ * set to 0, and fail once the time is out.
+ *
+ * @author Sergey Bushik
+ */
+public class ConnectionPool {
+
+    public static final int MAX_CONNECTIONS = 0;
+    public static final long MAX_LIFETIME = MILLISECONDS.convert(30, MINUTES);
+    public static final String BORROW_TIMEOUT_PROPERTY = "com.nuodb.migrator.connection.borrow.timeout";
+    public static final long BORROW_TIMEOUT = getLong(BORROW_TIMEOUT_PROPERTY, MILLISECONDS.convert(60, SECONDS));
+
+    private final transient Logger logger = getLogger(getClass());
+
+    private final ConnectionFactory connectionFactory;
+    private final ConcurrentLinkedDeque<PoolEntry> idle = new ConcurrentLinkedDeque<PoolEntry>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong createCount = new AtomicLong();
+    private final AtomicLong waitTime = new AtomicLong();
+    private final AtomicLong maxWaitTime = new AtomicLong();
+    private final Semaphore permits;
+    private final int maxConnections;
+    private final long maxLifetime;
+    private final long borrowTimeout;
+    private volatile boolean closed;
+
+    public ConnectionPool(ConnectionFactory connectionFactory) {
+        this(connectionFactory, MAX_CONNECTIONS, MAX_LIFETIME, BORROW_TIMEOUT);
+    }
+
+    /**
+     * @param connectionFactory
+     *            opens physical connections
+     * @param maxConnections
+     *            maximum number of borrowed connections, 0 for no limit
+     * @param maxLifetime
+     *            milliseconds after which physical connection is retired, 0
+     *            for no limit
+     * @param borrowTimeout
+     *            milliseconds to wait for a connection if pool is exhausted, 0
+     *            to wait indefinitely
+     */
+    public ConnectionPool(ConnectionFactory connectionFactory, int maxConnections, long maxLifetime,
+            long borrowTimeout) {
+        this.connectionFactory = connectionFactory;
+        this.maxConnections = maxConnections;
+        this.maxLifetime = maxLifetime;
+        this.borrowTimeout = borrowTimeout;
+        this.permits = maxConnections > 0 ? new Semaphore(maxConnections) : null;
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new ConnectionException("Connection pool is closed");
+        }
+        long start = nanoTime();
+        acquirePermit();
+        PoolEntry entry;
+        try {
+            entry = borrow();
+        } catch (SQLException exception) {
+            releasePermit();
+            throw exception;
+        } catch (RuntimeException exception) {
+            releasePermit();
+            throw exception;
+        }
+        active.incrementAndGet();
+        borrowCount.incrementAndGet();
+        long wait = nanoTime() - start;
+        waitTime.addAndGet(wait);
+        long max;
+        while (wait > (max = maxWaitTime.get()) && !maxWaitTime.compareAndSet(max, wait)) {
+        }
+        return new PooledConnection(this, entry);
+    }
+
+    protected PoolEntry borrow() throws SQLException {
+        PoolEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            if (isExpired(entry)) {
+                closeQuietly(entry);
+            } else {
+                return entry;
+            }
+        }
+        Connection connection = connectionFactory.createConnection();
+        try {
+            entry = new PoolEntry(connection);
+        } catch (SQLException exception) {
+            connection.close();
+            throw exception;
+        }
+        createCount.incrementAndGet();
+        return entry;
+    }
+
+    protected void release(PoolEntry entry) {
+        active.decrementAndGet();
+        try {
+            Connection connection = entry.getConnection();
+            if (closed || isExpired(entry) || connection.isClosed()) {
+                closeQuietly(entry);
+            } else {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                }
+                entry.restoreState();
+                idle.offerFirst(entry);
+                idleCount.incrementAndGet();
+                if (closed && idle.remove(entry)) {
+                    idleCount.decrementAndGet();
+                    closeQuietly(entry);
+                }
+            }
+        } catch (SQLException exception) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Discarding connection failed to reset", exception);
+            }
+            closeQuietly(entry);
+        } finally {
+            releasePermit();
+        }
+    }
+
+    protected boolean isExpired(PoolEntry entry) {
+        return maxLifetime > 0 && currentTimeMillis() - entry.getCreated() > maxLifetime;
+    }
+
+    protected void acquirePermit() throws SQLException {
+        if (permits != null) {
+            boolean acquired;
+            try {
+                if (borrowTimeout > 0) {
+                    acquired = permits.tryAcquire(borrowTimeout, MILLISECONDS);
+                } else {
+                    permits.acquire();
+                    acquired = true;
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new ConnectionException("Interrupted while waiting for a connection", exception);
+            }
+            if (!acquired) {
+                throw new ConnectionException(
+                        format("Timed out after %d ms waiting for one of %d connection(s)", borrowTimeout,
+                                maxConnections));
+            }
+        }
+    }
+
+    protected void releasePermit() {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    protected void closeQuietly(PoolEntry entry) {
+        try {
+            entry.getConnection().close();
+        } catch (SQLException exception) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Failed closing pooled connection", exception);
+            }
+        }
+    }
+
+    public void close() {
+        closed = true;
+        PoolEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            idleCount.decrementAndGet();
+            closeQuietly(entry);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("Connection pool closed: %s", this));
+        }
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    public int getIdle() {
+        return idleCount.get();
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public long getCreateCount() {
+        return createCount.get();
+    }
+
+    /**
+     * @return total time in milliseconds threads spent waiting for a
+     *         connection, including physical connection opening
+     */
+    public long getWaitTime() {
+        return MILLISECONDS.convert(waitTime.get(), NANOSECONDS);
+    }
+
+    public long getMaxWaitTime() {
+        return MILLISECONDS.convert(maxWaitTime.get(), NANOSECONDS);
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public long getMaxLifetime() {
+        return maxLifetime;
+    }
+
+    public long getBorrowTimeout() {
+        return borrowTimeout;
+    }
+
+    @Override
+    public String toString() {
+        return format("active %d, idle %d, borrowed %d, created %d, wait time %d ms, max wait time %d ms",
+                getActive(), getIdle(), getBorrowCount(), getCreateCount(), getWaitTime(), getMaxWaitTime());
+    }
+
+    /**
+     * Opens physical connections for the pool
+     */
+    public interface ConnectionFactory {
+
+        Connection createConnection() throws SQLException;
+    }
+
+    static class PoolEntry {
+
+        private final Connection connection;
+        private final long created = currentTimeMillis();
+        private final boolean autoCommit;
+        private final int transactionIsolation;
+        private final boolean readOnly;
+        private final String catalog;
+
+        PoolEntry(Connection connection) throws SQLException {
+            this.connection = connection;
+            this.autoCommit = connection.getAutoCommit();
+            this.transactionIsolation = connection.getTransactionIsolation();
+            this.readOnly = connection.isReadOnly();
+            this.catalog = connection.getCatalog();
+        }
+
+        /**
+         * Restores settings the connection was opened with
+         *
+         * @throws SQLException
+         *             if settings can't be restored
+         */
+        public void restoreState() throws SQLException {
+            if (connection.getAutoCommit() != autoCommit) {
+                connection.setAutoCommit(autoCommit);
+            }
+            if (connection.getTransactionIsolation() != transactionIsolation) {
+                connection.setTransactionIsolation(transactionIsolation);
+            }
+            if (connection.isReadOnly() != readOnly) {
+                connection.setReadOnly(readOnly);
+            }
+            if (catalog != null && !catalog.equals(connection.getCatalog())) {
+                connection.setCatalog(catalog);
+            }
+        }
+
+        public Connection getConnection() {
+            return connection;
+        }
+
+        public long getCreated() {
+            return created;
+        }
+    }
+
+    /**
+     * Connection handle returned to a borrower, closing it releases physical
+     * connection back to the pool. Handle becomes unusable once closed.
+     */
+    static class PooledConnection extends DelegatingConnection {
+
+        private final ConnectionPool connectionPool;
+        private volatile PoolEntry entry;
+
+        PooledConnection(ConnectionPool connectionPool, PoolEntry entry) {
+            super(entry.getConnection());
+            this.connectionPool = connectionPool;
+            this.entry = entry;
+        }
+
+        @Override
+        protected Connection getDelegate() throws SQLException {
+            if (entry == null) {
+                throw new SQLException("Connection is closed");
+            }
+            return super.getDelegate();
+        }
+
+        @Override
+        public boolean isClosed() throws SQLException {
+            return entry == null || super.isClosed();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            PoolEntry entry = this.entry;
+            if (entry != null) {
+                this.entry = null;
+                connectionPool.release(entry);
+            }
+        }
+    }
+}
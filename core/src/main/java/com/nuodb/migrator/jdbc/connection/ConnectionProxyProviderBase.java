@@ -28,14 +28,10 @@
 package com.nuodb.migrator.jdbc.connection;
 
 import com.nuodb.migrator.spec.ConnectionSpec;
-import com.nuodb.migrator.utils.aop.AopProxy;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 
-import static com.nuodb.migrator.utils.aop.AopProxyUtils.createAopProxy;
-import static com.nuodb.migrator.utils.aop.MethodInterceptors.newIntroduceInterfacesInterceptor;
-
 /**
  * @author Sergey Bushik
  */
@@ -50,31 +46,36 @@ public abstract class ConnectionProxyProviderBase<C extends ConnectionSpec> exte
 
     @Override
     protected Connection openConnection() throws SQLException {
-        final AopProxy aopProxy = createConnectionProxy(createConnection());
-        initConnectionProxy(aopProxy);
-        return (Connection) aopProxy;
+        return createConnectionProxy(createConnection());
     }
 
-    protected AopProxy createConnectionProxy(Connection connection) {
-        return createAopProxy(connection, Connection.class, ConnectionProxy.class);
-    }
-
-    protected void initConnectionProxy(final AopProxy connection) {
-        connection.addAdvice(newIntroduceInterfacesInterceptor(new ConnectionProxy<C>() {
-            @Override
-            public Connection getConnection() {
-                return ConnectionProxyProviderBase.this.getConnection((Connection) connection.getTarget());
-            }
-
-            @Override
-            public C getConnectionSpec() {
-                return ConnectionProxyProviderBase.this.getConnectionSpec();
-            }
-        }, ConnectionProxy.class));
+    protected Connection createConnectionProxy(Connection connection) {
+        return new DelegatingConnectionProxy(connection);
     }
 
     @SuppressWarnings("unchecked")
     protected Connection getConnection(Connection connection) {
         return connection;
     }
+
+    /**
+     * Connection exposing connection spec and underlying vendor connection
+     * through {@link ConnectionProxy}
+     */
+    protected class DelegatingConnectionProxy extends DelegatingConnection implements ConnectionProxy<C> {
+
+        public DelegatingConnectionProxy(Connection connection) {
+            super(connection);
+        }
+
+        @Override
+        public Connection getConnection() {
+            return ConnectionProxyProviderBase.this.getConnection(getTarget());
+        }
+
+        @Override
+        public C getConnectionSpec() {
+            return ConnectionProxyProviderBase.this.getConnectionSpec();
+        }
+    }
 }
@@ -29,24 +29,33 @@ package com.nuodb.migrator.jdbc.connection;
 
 import com.nuodb.migrator.jdbc.url.JdbcUrl;
 import com.nuodb.migrator.spec.DriverConnectionSpec;
-import org.apache.commons.dbcp.BasicDataSource;
+import com.nuodb.migrator.utils.ReflectionException;
 
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Map;
+import java.util.Properties;
 
+import static com.nuodb.migrator.jdbc.connection.ConnectionPool.BORROW_TIMEOUT;
+import static com.nuodb.migrator.jdbc.connection.ConnectionPool.MAX_CONNECTIONS;
+import static com.nuodb.migrator.jdbc.connection.ConnectionPool.MAX_LIFETIME;
 import static com.nuodb.migrator.utils.Collections.isEmpty;
-import static com.nuodb.migrator.utils.ReflectionUtils.getClassLoader;
-import static com.nuodb.migrator.utils.ReflectionUtils.invokeMethod;
+import static com.nuodb.migrator.utils.ReflectionUtils.loadClass;
+import static com.nuodb.migrator.utils.ReflectionUtils.newInstance;
+import static java.lang.String.format;
 
 @SuppressWarnings("unchecked")
 public class DriverConnectionProvider extends ConnectionProxyProviderBase<DriverConnectionSpec> {
 
-    private static final String GET_INNERMOST_DELEGATE = "getInnermostDelegate";
+    private static final String USER = "user";
+    private static final String PASSWORD = "password";
 
-    private BasicDataSource basicDataSource;
+    private int maxConnections = MAX_CONNECTIONS;
+    private long maxLifetime = MAX_LIFETIME;
+    private long borrowTimeout = BORROW_TIMEOUT;
+    private volatile ConnectionPool connectionPool;
 
     public DriverConnectionProvider(DriverConnectionSpec connectionSpec) {
         super(connectionSpec);
@@ -54,62 +63,101 @@ public class DriverConnectionProvider extends ConnectionProxyProviderBase<Driver
 
     @Override
     protected Connection createConnection() throws SQLException {
-        synchronized (this) {
-            if (basicDataSource == null) {
-                DriverConnectionSpec connectionSpec = getConnectionSpec();
-
-                BasicDataSource basicDataSource = new BasicDataSource();
-                basicDataSource.setDriverClassName(connectionSpec.getDriver());
-                basicDataSource.setDriverClassLoader(getClassLoader());
-                basicDataSource.setUrl(connectionSpec.getUrl());
-                basicDataSource.setUsername(connectionSpec.getUsername());
-                basicDataSource.setPassword(connectionSpec.getPassword());
-                JdbcUrl jdbcUrl = connectionSpec.getJdbcUrl();
-                if (jdbcUrl != null) {
-                    addParameters(basicDataSource, jdbcUrl.getParameters());
+        ConnectionPool connectionPool = this.connectionPool;
+        if (connectionPool == null) {
+            synchronized (this) {
+                if ((connectionPool = this.connectionPool) == null) {
+                    this.connectionPool = connectionPool = createConnectionPool();
                 }
-                addParameters(basicDataSource, connectionSpec.getProperties());
-                basicDataSource.setAccessToUnderlyingConnectionAllowed(true);
+            }
+        }
+        return connectionPool.getConnection();
+    }
 
-                this.basicDataSource = basicDataSource;
+    protected ConnectionPool createConnectionPool() throws SQLException {
+        DriverConnectionSpec connectionSpec = getConnectionSpec();
+        final String url = connectionSpec.getUrl();
+        final Driver driver = createDriver(connectionSpec.getDriver());
+        final Properties properties = new Properties();
+        JdbcUrl jdbcUrl = connectionSpec.getJdbcUrl();
+        if (jdbcUrl != null) {
+            addProperties(properties, jdbcUrl.getParameters());
+        }
+        addProperties(properties, connectionSpec.getProperties());
+        if (connectionSpec.getUsername() != null) {
+            properties.put(USER, connectionSpec.getUsername());
+        }
+        if (connectionSpec.getPassword() != null) {
+            properties.put(PASSWORD, connectionSpec.getPassword());
+        }
+        return new ConnectionPool(new ConnectionPool.ConnectionFactory() {
+            @Override
+            public Connection createConnection() throws SQLException {
+                Connection connection = driver != null ? driver.connect(url, properties)
+                        : DriverManager.getConnection(url, properties);
+                if (connection == null) {
+                    throw new ConnectionException(format("Driver %s does not accept %s url", driver, url));
+                }
+                return connection;
             }
+        }, getMaxConnections(), getMaxLifetime(), getBorrowTimeout());
+    }
+
+    protected Driver createDriver(String driver) throws SQLException {
+        try {
+            return driver != null ? (Driver) newInstance(loadClass(driver)) : null;
+        } catch (ReflectionException exception) {
+            throw new SQLException(format("Cannot load JDBC driver class '%s'", driver), exception.getCause());
         }
-        return basicDataSource.getConnection();
     }
 
-    protected void addParameters(BasicDataSource basicDataSource, Map<String, Object> properties) {
-        if (!isEmpty(properties)) {
-            for (Map.Entry<String, Object> entry : properties.entrySet()) {
-                basicDataSource.addConnectionProperty(entry.getKey(), (String) entry.getValue());
+    protected void addProperties(Properties properties, Map<String, Object> parameters) {
+        if (!isEmpty(parameters)) {
+            for (Map.Entry<String, Object> entry : parameters.entrySet()) {
+                properties.put(entry.getKey(), (String) entry.getValue());
             }
         }
     }
 
     @Override
     public Connection getConnection(Connection connection) {
-        if (connection == null) {
-            return null;
-        }
-        try {
-            Class connectionClass = connection.getClass();
-            while (!Modifier.isPublic(connectionClass.getModifiers())) {
-                connectionClass = connectionClass.getSuperclass();
-                if (connectionClass == null) {
-                    return connection;
-                }
-            }
-            Method method = connectionClass.getMethod(GET_INNERMOST_DELEGATE, (Class[]) null);
-            Connection delegate = invokeMethod(connection, method);
-            return (delegate != null ? delegate : connection);
-        } catch (NoSuchMethodException exception) {
-            return connection;
-        }
+        return connection instanceof DelegatingConnection ? ((DelegatingConnection) connection).getTarget()
+                : connection;
     }
 
     @Override
     public void close() throws SQLException {
-        if (basicDataSource != null) {
-            basicDataSource.close();
+        ConnectionPool connectionPool = this.connectionPool;
+        if (connectionPool != null) {
+            connectionPool.close();
         }
     }
+
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public long getMaxLifetime() {
+        return maxLifetime;
+    }
+
+    public void setMaxLifetime(long maxLifetime) {
+        this.maxLifetime = maxLifetime;
+    }
+
+    public long getBorrowTimeout() {
+        return borrowTimeout;
+    }
+
+    public void setBorrowTimeout(long borrowTimeout) {
+        this.borrowTimeout = borrowTimeout;
+    }
 }
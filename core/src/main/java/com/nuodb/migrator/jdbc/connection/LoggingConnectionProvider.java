@@ -29,41 +29,32 @@ package com.nuodb.migrator.jdbc.connection;
 
 import com.nuodb.migrator.spec.ConnectionSpec;
 import com.nuodb.migrator.utils.aop.AopProxy;
-import com.nuodb.migrator.utils.aop.MethodMatcher;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 
-import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
-import java.util.Collection;
 
-import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.utils.aop.AopProxyUtils.createAopProxy;
 import static com.nuodb.migrator.utils.aop.MethodAdvisors.newMethodAdvisor;
 import static com.nuodb.migrator.utils.aop.MethodMatchers.newMethodMatcher;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
+ * Wraps connections, statements and prepared statements into delegating
+ * classes logging executed queries. Parameters of prepared statements are
+ * captured only if query logger is enabled when statement is prepared,
+ * queries are formatted only when they are actually logged.
+ *
  * @author Sergey Bushik
  */
 @SuppressWarnings("unchecked")
 public class LoggingConnectionProvider extends ConnectionProxyProviderBase {
 
-    private static final String GET_META_DATA_METHOD = "getMetaData";
     private static final String GET_CONNECTION_METHOD = "getConnection";
-    private static final String CREATE_STATEMENT_METHOD = "createStatement";
-    private static final String PREPARE_STATEMENT_METHOD = "prepareStatement";
-    private static final Collection<String> EXECUTE_METHODS = newArrayList("execute", "executeQuery", "executeUpdate");
-    private static final String SET_NULL_METHOD = "setNull";
-    private static final Collection<String> SET_METHODS = newArrayList("setNull", "setBoolean", "setByte", "setShort",
-            "setInt", "setLong", "setFloat", "setDouble", "setBigDecimal", "setString", "setBytes", "setDate",
-            "setTime", "setTimestamp", "setAsciiStream", "setUnicodeStream", "setBinaryStream", "setObject",
-            "setCharacterStream", "setRef", "setBlob", "setClob", "setArray", "setURL", "setRowId", "setNString",
-            "setNCharacterStream", "setNClob", "setSQLXML");
 
     private final ConnectionProvider connectionProvider;
     private final QueryLogger queryLogger;
@@ -89,6 +80,10 @@ public class LoggingConnectionProvider extends ConnectionProxyProviderBase {
         return connectionProvider.getConnectionSpec();
     }
 
+    public ConnectionProvider getConnectionProvider() {
+        return connectionProvider;
+    }
+
     @Override
     protected void initConnection(Connection connection) throws SQLException {
         if (connectionProvider instanceof ConnectionProviderBase) {
@@ -97,135 +92,36 @@ public class LoggingConnectionProvider extends ConnectionProxyProviderBase {
     }
 
     @Override
-    protected void initConnectionProxy(final AopProxy connection) {
-        super.initConnectionProxy(connection);
-
-        connection.addAdvisor(newMethodAdvisor(new MethodInterceptor() {
-            @Override
-            public Object invoke(MethodInvocation invocation) throws Throwable {
-                AopProxy metaData = createAopProxy(invocation.proceed(), DatabaseMetaData.class);
-                initMetaDataProxy(connection, metaData);
-                return metaData;
-            }
-        }, newMethodMatcher(Connection.class, GET_META_DATA_METHOD)));
-
-        // statement advices
-        connection.addAdvisor(newMethodAdvisor(new MethodInterceptor() {
-            @Override
-            public Object invoke(MethodInvocation invocation) throws Throwable {
-                final AopProxy statement = createAopProxy(invocation.proceed(), Statement.class);
-                initStatementProxy(connection, statement);
-                return statement;
-            }
-        }, new MethodMatcher() {
-            @Override
-            public boolean matches(Method method, Class<?> targetClass, Object[] arguments) {
-                return method.getName().startsWith(CREATE_STATEMENT_METHOD);
-            }
-        }));
-
-        // prepared statement advices
-        connection.addAdvisor(newMethodAdvisor(new MethodInterceptor() {
-            @Override
-            public Object invoke(MethodInvocation invocation) throws Throwable {
-                final AopProxy statement = createAopProxy(invocation.proceed(), PreparedStatement.class);
-                initPreparedStatementProxy(connection, statement, (String) invocation.getArguments()[0]);
-                return statement;
-            }
-        }, new MethodMatcher() {
-            @Override
-            public boolean matches(Method method, Class<?> targetClass, Object[] arguments) {
-                return method.getName().startsWith(PREPARE_STATEMENT_METHOD);
-            }
-        }));
+    protected Connection createConnectionProxy(Connection connection) {
+        return new LoggingConnection(connection);
     }
 
-    protected void initMetaDataProxy(final AopProxy connection, final AopProxy metaData) {
-        // metaData.getConnection() returns proxy
-        metaData.addAdvisor(newMethodAdvisor(new MethodInterceptor() {
+    protected DatabaseMetaData createMetaData(final Connection connection, DatabaseMetaData metaData) {
+        AopProxy proxy = createAopProxy(metaData, DatabaseMetaData.class);
+        // metaData.getConnection() returns wrapping connection
+        proxy.addAdvisor(newMethodAdvisor(new MethodInterceptor() {
             @Override
             public Object invoke(MethodInvocation invocation) throws Throwable {
                 return connection;
             }
         }, newMethodMatcher(DatabaseMetaData.class, GET_CONNECTION_METHOD)));
+        return (DatabaseMetaData) proxy;
     }
 
-    protected void initStatementProxy(final AopProxy connection, final AopProxy statement) {
-        // statement.getConnection() returns proxy connection
-        statement.addAdvisor(newMethodAdvisor(new MethodInterceptor() {
-            @Override
-            public Object invoke(MethodInvocation invocation) throws Throwable {
-                return connection;
-            }
-        }, newMethodMatcher(Statement.class, GET_CONNECTION_METHOD)));
-
-        // statement.execute(query), statement.executeQuery(query),
-        // statement.executeUpdate(query) logs query string
-        statement.addAdvisor(newMethodAdvisor(new MethodInterceptor() {
-            @Override
-            public Object invoke(MethodInvocation invocation) throws Throwable {
-                log((Statement) statement, (String) invocation.getArguments()[0]);
-                return invocation.proceed();
-            }
-        }, new MethodMatcher() {
-            @Override
-            public boolean matches(Method method, Class<?> targetClass, Object[] arguments) {
-                return method.getDeclaringClass() == Statement.class && EXECUTE_METHODS.contains(method.getName());
-            }
-        }));
+    protected Statement createStatement(Connection connection, Statement statement) {
+        return new LoggingStatement(connection, statement, queryLogger);
     }
 
-    protected void initPreparedStatementProxy(final AopProxy connection, final AopProxy statement, final String query) {
-        initStatementProxy(connection, statement);
-
-        final QueryFormat queryFormat = createQueryFormat((Statement) statement, query);
-        // statement.setXXX() capture parameters
-        statement.addAdvisor(newMethodAdvisor(new MethodInterceptor() {
-            @Override
-            public Object invoke(MethodInvocation invocation) throws Throwable {
-                Object[] arguments = invocation.getArguments();
-                Object parameter = arguments[0];
-                if (parameter instanceof Integer) {
-                    Object value = SET_NULL_METHOD.equals(invocation.getMethod().getName()) ? null : arguments[1];
-                    queryFormat.setParameter(((Integer) parameter) - 1, value);
-                }
-                return invocation.proceed();
-            }
-        }, new MethodMatcher() {
-            @Override
-            public boolean matches(Method method, Class<?> targetClass, Object[] arguments) {
-                return method.getDeclaringClass() == PreparedStatement.class && SET_METHODS.contains(method.getName());
-            }
-        }));
-        // statement.execute(), statement.executeQuery(),
-        // statement.executeUpdate() logs query string
-        statement.addAdvisor(newMethodAdvisor(new MethodInterceptor() {
-            @Override
-            public Object invoke(MethodInvocation invocation) throws Throwable {
-                log((Statement) statement, queryFormat.format());
-                return invocation.proceed();
-            }
-        }, new MethodMatcher() {
-            @Override
-            public boolean matches(Method method, Class<?> targetClass, Object[] arguments) {
-                return method.getDeclaringClass() == PreparedStatement.class
-                        && EXECUTE_METHODS.contains(method.getName());
-            }
-        }));
+    protected PreparedStatement createPreparedStatement(Connection connection, PreparedStatement statement,
+            String query) {
+        QueryFormat queryFormat = queryLogger.isEnabled() ? createQueryFormat(statement, query) : null;
+        return new LoggingPreparedStatement(connection, statement, queryLogger, queryFormat);
     }
 
     protected QueryFormat createQueryFormat(Statement statement, String query) {
         return queryFormatFactory.createQueryFormat(statement, query);
     }
 
-    protected void log(Statement statement, String query) {
-        log(createQueryFormat(statement, query).format());
-    }
-
-    protected void log(String statement) {
-        queryLogger.log(statement);
-    }
-
     @Override
     protected Connection createConnection() throws SQLException {
         if (connectionProvider instanceof ConnectionProxyProviderBase) {
@@ -258,4 +154,71 @@ public class LoggingConnectionProvider extends ConnectionProxyProviderBase {
     public String toString() {
         return connectionProvider.toString();
     }
+
+    /**
+     * Connection returning logging statements and prepared statements
+     */
+    protected class LoggingConnection extends DelegatingConnectionProxy {
+
+        public LoggingConnection(Connection connection) {
+            super(connection);
+        }
+
+        @Override
+        public DatabaseMetaData getMetaData() throws SQLException {
+            return createMetaData(this, super.getMetaData());
+        }
+
+        @Override
+        public Statement createStatement() throws SQLException {
+            return LoggingConnectionProvider.this.createStatement(this, super.createStatement());
+        }
+
+        @Override
+        public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+            return LoggingConnectionProvider.this.createStatement(this,
+                    super.createStatement(resultSetType, resultSetConcurrency));
+        }
+
+        @Override
+        public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability)
+                throws SQLException {
+            return LoggingConnectionProvider.this.createStatement(this,
+                    super.createStatement(resultSetType, resultSetConcurrency, resultSetHoldability));
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql) throws SQLException {
+            return createPreparedStatement(this, super.prepareStatement(sql), sql);
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
+                throws SQLException {
+            return createPreparedStatement(this, super.prepareStatement(sql, resultSetType, resultSetConcurrency),
+                    sql);
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency,
+                int resultSetHoldability) throws SQLException {
+            return createPreparedStatement(this,
+                    super.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability), sql);
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+            return createPreparedStatement(this, super.prepareStatement(sql, autoGeneratedKeys), sql);
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+            return createPreparedStatement(this, super.prepareStatement(sql, columnIndexes), sql);
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+            return createPreparedStatement(this, super.prepareStatement(sql, columnNames), sql);
+        }
+    }
 }
@@ -32,5 +32,21 @@ package com.nuodb.migrator.jdbc.connection;
  */
 public interface QueryLogger {
 
+    /**
+     * Tells whether queries may be logged at all, so that callers can skip
+     * capturing statement parameters otherwise.
+     *
+     * @return true if logging is enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Tells whether the next executed query should be logged, callers format
+     * query only if this returns true.
+     *
+     * @return true if next query is to be logged
+     */
+    boolean isLoggable();
+
     void log(String query);
 }
@@ -29,15 +29,42 @@ package com.nuodb.migrator.jdbc.connection;
 
 import org.slf4j.Logger;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.Integer.getInteger;
+
 /**
+ * Logs queries at trace level. When sample is greater than 1 only each sample
+ * query is logged, the sample defaults to the value of
+ * {@value #QUERY_LOG_SAMPLE} system property.
+ *
  * @author Sergey Bushik
  */
 public class SimpleQueryLogger implements QueryLogger {
 
+    public static final String QUERY_LOG_SAMPLE = "com.nuodb.migrator.query.log.sample";
+
     private final Logger logger;
+    private final int sample;
+    private final AtomicLong queries = new AtomicLong();
 
     public SimpleQueryLogger(Logger logger) {
+        this(logger, getInteger(QUERY_LOG_SAMPLE, 1));
+    }
+
+    public SimpleQueryLogger(Logger logger, int sample) {
         this.logger = logger;
+        this.sample = sample;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return logger.isTraceEnabled();
+    }
+
+    @Override
+    public boolean isLoggable() {
+        return isEnabled() && (sample <= 1 || queries.getAndIncrement() % sample == 0);
     }
 
     @Override
@@ -46,4 +73,8 @@ public class SimpleQueryLogger implements QueryLogger {
             logger.trace(query);
         }
     }
+
+    public int getSample() {
+        return sample;
+    }
 }
@@ -32,10 +32,13 @@ import org.slf4j.Logger;
 
 import java.io.Serializable;
 import java.lang.reflect.Modifier;
+import java.util.Collection;
 import java.util.Map;
 
 import static com.nuodb.migrator.utils.ValidationUtils.isNotNull;
 import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static java.util.Collections.unmodifiableList;
 import static org.slf4j.LoggerFactory.getLogger;
 
 public class MetaDataType implements Comparable<MetaDataType>, Serializable {
@@ -56,6 +59,20 @@ public class MetaDataType implements Comparable<MetaDataType>, Serializable {
     public static final MetaDataType TRIGGER = new MetaDataType(Trigger.class);
     public static final MetaDataType COLUMN_TRIGGER = new MetaDataType(ColumnTrigger.class);
 
+    /**
+     * Types of objects containing tables or referred to by table columns, in
+     * the order they are inspected before tables
+     */
+    public static final Collection<MetaDataType> CONTAINER_TYPES = unmodifiableList(
+            asList(DATABASE, CATALOG, SCHEMA, USER_DEFINED_TYPE));
+
+    /**
+     * Types of objects owned by a table, in the order they are inspected after
+     * tables
+     */
+    public static final Collection<MetaDataType> TABLE_CHILD_TYPES = unmodifiableList(
+            asList(COLUMN, PRIMARY_KEY, INDEX, CHECK, FOREIGN_KEY, TRIGGER, COLUMN_TRIGGER));
+
     private Class<? extends MetaData> objectType;
 
     public static final Map<String, MetaDataType> NAME_TYPE_MAP = getNameTypeMap();
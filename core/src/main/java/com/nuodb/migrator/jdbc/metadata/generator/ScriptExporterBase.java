@@ -28,9 +28,11 @@
 package com.nuodb.migrator.jdbc.metadata.generator;
 
 import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jfr.ScriptExportEvent;
 
 import java.util.Collection;
 
+import static com.nuodb.migrator.jfr.MigratorEvents.AVAILABLE;
 import static java.lang.String.format;
 
 /**
@@ -43,9 +45,17 @@ public abstract class ScriptExporterBase extends ScriptProcessorBase implements
         if (scripts == null) {
             return;
         }
+        ScriptExportEvent scriptExportEvent = AVAILABLE ? new ScriptExportEvent() : null;
+        if (scriptExportEvent != null) {
+            scriptExportEvent.begin();
+        }
         for (Script script : scripts) {
             exportScript(script);
         }
+        if (scriptExportEvent != null && scriptExportEvent.shouldCommit()) {
+            scriptExportEvent.setScripts(scripts.size());
+            scriptExportEvent.commit();
+        }
     }
 
     @Override
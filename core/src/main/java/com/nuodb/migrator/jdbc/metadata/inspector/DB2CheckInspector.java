@@ -73,9 +73,13 @@ public class DB2CheckInspector extends TableInspectorBase<Table, TableInspection
     }
 
     @Override
-    protected void processResultSet(InspectionContext inspectionContext, ResultSet checks) throws SQLException {
+    protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
+            ResultSet checks) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
         while (checks.next()) {
+            if (!isInScope(tableInspectionScope, trim(checks.getString("TABNAME")))) {
+                continue;
+            }
             Table table = addTable(inspectionResults, null, trim(checks.getString("TABSCHEMA")),
                     trim(checks.getString("TABNAME")));
             Check check = new Check(checks.getString("CONSTNAME"), checks.getString("TEXT"));
@@ -83,4 +87,9 @@ public class DB2CheckInspector extends TableInspectorBase<Table, TableInspection
             inspectionResults.addObject(check);
         }
     }
+
+    @Override
+    protected boolean supportsBulkScope() {
+        return true;
+    }
 }
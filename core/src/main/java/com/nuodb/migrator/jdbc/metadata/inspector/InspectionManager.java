@@ -31,6 +31,8 @@ import com.nuodb.migrator.jdbc.dialect.DialectResolver;
 import com.nuodb.migrator.jdbc.metadata.Database;
 import com.nuodb.migrator.jdbc.metadata.MetaData;
 import com.nuodb.migrator.jdbc.metadata.MetaDataType;
+import com.nuodb.migrator.jdbc.session.SessionFactory;
+import com.nuodb.migrator.jfr.InspectionEvent;
 import org.slf4j.Logger;
 
 import java.sql.Connection;
@@ -39,6 +41,7 @@ import java.util.Collection;
 
 import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.*;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataType.*;
+import static com.nuodb.migrator.jfr.MigratorEvents.AVAILABLE;
 import static com.nuodb.migrator.utils.Collections.newPrioritySet;
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
@@ -56,6 +59,9 @@ public class InspectionManager {
     private final transient Logger logger = getLogger(getClass());
     private DialectResolver dialectResolver;
     private Collection<Inspector> inspectors = newPrioritySet();
+    private SessionFactory sessionFactory;
+    private int threads = 1;
+    private InspectionCache inspectionCache;
 
     public InspectionManager() {
         InspectorResolver databaseInspector = new InspectorResolver(DATABASE, new SimpleDatabaseInspector());
@@ -162,6 +168,31 @@ public class InspectionManager {
 
     public void inspect(Connection connection, InspectionResults inspectionResults, InspectionScope inspectionScope,
             MetaDataType... objectTypes) throws SQLException {
+        InspectionCache inspectionCache = getInspectionCache();
+        if (inspectionCache != null) {
+            inspectionCache.inspect(this, connection, inspectionResults, inspectionScope, objectTypes);
+        } else {
+            inspectDatabase(connection, inspectionResults, inspectionScope, objectTypes);
+        }
+    }
+
+    /**
+     * Inspects objects in the given scope reading them from the database
+     * directly, bypassing inspection cache
+     *
+     * @param connection
+     *            connection to the inspected database
+     * @param inspectionResults
+     *            inspection results to add objects to
+     * @param inspectionScope
+     *            scope to inspect
+     * @param objectTypes
+     *            types of objects to inspect
+     * @throws SQLException
+     */
+    public void inspectDatabase(Connection connection, InspectionResults inspectionResults,
+            InspectionScope inspectionScope, MetaDataType... objectTypes) throws SQLException {
+        InspectionEvent inspectionEvent = beginInspectionEvent();
         InspectionContext inspectionContext = createInspectionContext(connection, inspectionResults, objectTypes);
         try {
             if (logger.isDebugEnabled()) {
@@ -170,11 +201,13 @@ public class InspectionManager {
             inspectionContext.inspect(inspectionScope, objectTypes);
         } finally {
             closeInspectionContext(inspectionContext);
+            commitInspectionEvent(inspectionEvent, objectTypes);
         }
     }
 
     public void inspect(Connection connection, InspectionResults inspectionResults, MetaData object,
             MetaDataType... objectTypes) throws SQLException {
+        InspectionEvent inspectionEvent = beginInspectionEvent();
         InspectionContext inspectionContext = createInspectionContext(connection, inspectionResults, objectTypes);
         try {
             if (logger.isDebugEnabled()) {
@@ -183,11 +216,13 @@ public class InspectionManager {
             inspectionContext.inspect(object, objectTypes);
         } finally {
             closeInspectionContext(inspectionContext);
+            commitInspectionEvent(inspectionEvent, objectTypes);
         }
     }
 
     public void inspect(Connection connection, InspectionResults inspectionResults, Collection<MetaData> objects,
             MetaDataType... objectTypes) throws SQLException {
+        InspectionEvent inspectionEvent = beginInspectionEvent();
         InspectionContext inspectionContext = null;
         try {
             inspectionContext = createInspectionContext(connection, inspectionResults, objectTypes);
@@ -197,6 +232,22 @@ public class InspectionManager {
             inspectionContext.inspect(objects, objectTypes);
         } finally {
             closeInspectionContext(inspectionContext);
+            commitInspectionEvent(inspectionEvent, objectTypes);
+        }
+    }
+
+    protected InspectionEvent beginInspectionEvent() {
+        InspectionEvent inspectionEvent = AVAILABLE ? new InspectionEvent() : null;
+        if (inspectionEvent != null) {
+            inspectionEvent.begin();
+        }
+        return inspectionEvent;
+    }
+
+    protected void commitInspectionEvent(InspectionEvent inspectionEvent, MetaDataType... objectTypes) {
+        if (inspectionEvent != null && inspectionEvent.shouldCommit()) {
+            inspectionEvent.setObjectTypes(objectTypes != null ? asList(objectTypes).toString() : null);
+            inspectionEvent.commit();
         }
     }
 
@@ -206,8 +257,13 @@ public class InspectionManager {
 
     protected InspectionContext createInspectionContext(Connection connection, InspectionResults inspectionResults,
             MetaDataType... objectTypes) throws SQLException {
-        InspectionContext inspectionContext = new SimpleInspectionContext(this, connection, inspectionResults,
-                objectTypes);
+        InspectionContext inspectionContext;
+        if (sessionFactory != null && threads > 1) {
+            inspectionContext = new ParallelInspectionContext(this, connection, inspectionResults, sessionFactory,
+                    threads, objectTypes);
+        } else {
+            inspectionContext = new SimpleInspectionContext(this, connection, inspectionResults, objectTypes);
+        }
         inspectionContext.init();
         return inspectionContext;
     }
@@ -230,6 +286,50 @@ public class InspectionManager {
         this.inspectors = inspectors;
     }
 
+    public SessionFactory getSessionFactory() {
+        return sessionFactory;
+    }
+
+    /**
+     * Sets factory of sessions used to inspect tables in parallel
+     *
+     * @param sessionFactory
+     *            factory opening sessions to the inspected database
+     */
+    public void setSessionFactory(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets number of sessions inspecting tables in parallel, requires session
+     * factory to be set
+     *
+     * @param threads
+     *            number of parallel inspection sessions
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public InspectionCache getInspectionCache() {
+        return inspectionCache;
+    }
+
+    /**
+     * Sets cache serving inspected objects from a snapshot taken by one of the
+     * previous runs
+     *
+     * @param inspectionCache
+     *            inspection cache or null to always inspect the database
+     */
+    public void setInspectionCache(InspectionCache inspectionCache) {
+        this.inspectionCache = inspectionCache;
+    }
+
     public DialectResolver getDialectResolver() {
         return dialectResolver;
     }
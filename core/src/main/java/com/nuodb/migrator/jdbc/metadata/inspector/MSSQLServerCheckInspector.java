@@ -81,9 +81,13 @@ public class MSSQLServerCheckInspector extends TableInspectorBase<Table, TableIn
     }
 
     @Override
-    protected void processResultSet(InspectionContext inspectionContext, ResultSet checks) throws SQLException {
+    protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
+            ResultSet checks) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
         while (checks.next()) {
+            if (!isInScope(tableInspectionScope, checks.getString("TABLE_NAME"))) {
+                continue;
+            }
             Table table = addTable(inspectionResults, checks.getString("TABLE_CATALOG"),
                     checks.getString("TABLE_SCHEMA"), checks.getString("TABLE_NAME"));
             Check check = new Check(checks.getString("CONSTRAINT_NAME"));
@@ -92,4 +96,9 @@ public class MSSQLServerCheckInspector extends TableInspectorBase<Table, TableIn
             inspectionResults.addObject(check);
         }
     }
+
+    @Override
+    protected boolean supportsBulkScope() {
+        return true;
+    }
 }
@@ -51,8 +51,8 @@ import static org.apache.commons.lang3.StringUtils.containsAny;
 public class MySQLColumnInspector extends SimpleColumnInspector {
 
     @Override
-    protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
-            ResultSet resultSet) throws SQLException {
+    protected void processResultSet(InspectionContext inspectionContext,
+            final TableInspectionScope tableInspectionScope, ResultSet resultSet) throws SQLException {
         super.processResultSet(inspectionContext, tableInspectionScope, resultSet);
         final InspectionResults inspectionResults = inspectionContext.getInspectionResults();
         final StringBuilder query = new StringBuilder(
@@ -90,6 +90,9 @@ public class MySQLColumnInspector extends SimpleColumnInspector {
                 ResultSet columns = statement.executeQuery();
 
                 while (columns.next()) {
+                    if (!isInScope(tableInspectionScope, columns.getString("TABLE_NAME"))) {
+                        continue;
+                    }
                     Table table = addTable(inspectionResults, columns.getString("TABLE_SCHEMA"), null,
                             columns.getString("TABLE_NAME"));
                     Column column = table.addColumn(columns.getString("COLUMN_NAME"));
@@ -39,9 +39,13 @@ import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.
 public class MySQLPrimaryKeyInspector extends SimplePrimaryKeyInspector {
 
     @Override
-    protected void processResultSet(InspectionContext inspectionContext, ResultSet primaryKeys) throws SQLException {
+    protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
+            ResultSet primaryKeys) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
         while (primaryKeys.next()) {
+            if (!isInScope(tableInspectionScope, primaryKeys.getString("TABLE_NAME"))) {
+                continue;
+            }
             Table table = addTable(inspectionResults, primaryKeys.getString("TABLE_CAT"),
                     primaryKeys.getString("TABLE_SCHEM"), primaryKeys.getString("TABLE_NAME"));
 
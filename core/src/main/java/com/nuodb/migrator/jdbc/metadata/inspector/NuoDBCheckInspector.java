@@ -42,6 +42,8 @@ import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataType.CHECK;
 import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
 import static com.nuodb.migrator.jdbc.query.Queries.newQuery;
+import static com.nuodb.migrator.jdbc.query.QueryUtils.where;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
 import static java.util.regex.Pattern.compile;
 import static java.util.regex.Pattern.quote;
 
@@ -50,8 +52,7 @@ import static java.util.regex.Pattern.quote;
  */
 public class NuoDBCheckInspector extends TableInspectorBase<Table, TableInspectionScope> {
 
-    public static final String QUERY = "SELECT T.SCHEMA, T.TABLENAME, T.CONSTRAINTNAME, T.CONSTRAINTTEXT FROM SYSTEM.TABLECONSTRAINTS AS T "
-            + "WHERE T.SCHEMA=? AND T.TABLENAME=?";
+    public static final String QUERY = "SELECT T.SCHEMA, T.TABLENAME, T.CONSTRAINTNAME, T.CONSTRAINTTEXT FROM SYSTEM.TABLECONSTRAINTS AS T";
 
     public NuoDBCheckInspector() {
         super(CHECK, TableInspectionScope.class);
@@ -59,16 +60,25 @@ public class NuoDBCheckInspector extends TableInspectorBase<Table, TableInspecti
 
     @Override
     protected Query createQuery(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope) {
+        Collection<String> filters = newArrayList();
         Collection<Object> parameters = newArrayList();
+        filters.add("T.SCHEMA=?");
         parameters.add(tableInspectionScope.getSchema());
-        parameters.add(tableInspectionScope.getTable());
-        return new ParameterizedQuery(newQuery(QUERY), parameters);
+        if (!isEmpty(tableInspectionScope.getTable())) {
+            filters.add("T.TABLENAME=?");
+            parameters.add(tableInspectionScope.getTable());
+        }
+        return new ParameterizedQuery(newQuery(where(QUERY, filters, "AND")), parameters);
     }
 
     @Override
-    protected void processResultSet(InspectionContext inspectionContext, ResultSet checks) throws SQLException {
+    protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
+            ResultSet checks) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
         while (checks.next()) {
+            if (!isInScope(tableInspectionScope, checks.getString("TABLENAME"))) {
+                continue;
+            }
             Table table = addTable(inspectionResults, null, checks.getString("SCHEMA"), checks.getString("TABLENAME"));
             String constraint = checks.getString("CONSTRAINTNAME");
             Check check = new Check(constraint);
@@ -88,4 +98,9 @@ public class NuoDBCheckInspector extends TableInspectorBase<Table, TableInspecti
     protected boolean supportsScope(TableInspectionScope tableInspectionScope) {
         return tableInspectionScope.getSchema() != null && tableInspectionScope.getTable() != null;
     }
+
+    @Override
+    protected boolean supportsBulkScope() {
+        return true;
+    }
 }
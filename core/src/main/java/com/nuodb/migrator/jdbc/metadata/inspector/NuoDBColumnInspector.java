@@ -29,6 +29,7 @@ package com.nuodb.migrator.jdbc.metadata.inspector;
 
 import com.nuodb.migrator.jdbc.dialect.Dialect;
 import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.Schema;
 import com.nuodb.migrator.jdbc.metadata.Sequence;
 import com.nuodb.migrator.jdbc.metadata.Table;
 import com.nuodb.migrator.jdbc.query.ParameterizedQuery;
@@ -40,25 +41,24 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 
 import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
 import static com.nuodb.migrator.jdbc.metadata.DefaultValue.valueOf;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataType.COLUMN;
 import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
 import static com.nuodb.migrator.jdbc.metadata.inspector.NuoDBColumn.getJdbcType;
 import static com.nuodb.migrator.jdbc.query.Queries.newQuery;
+import static com.nuodb.migrator.jdbc.query.QueryUtils.where;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 /**
  * @author Sergey Bushik
  */
 public class NuoDBColumnInspector extends TableInspectorBase<Table, TableInspectionScope> {
 
-    private static final String QUERY = "SELECT * FROM SYSTEM.FIELDS AS F INNER JOIN SYSTEM.DATATYPES AS D ON F.DATATYPE = D.ID\n"
-            + "WHERE F.SCHEMA=? AND F.TABLENAME=? ORDER BY F.FIELDPOSITION ASC";
-    private String schema;
-    private String tableName;
+    private static final String QUERY = "SELECT * FROM SYSTEM.FIELDS AS F INNER JOIN SYSTEM.DATATYPES AS D ON F.DATATYPE = D.ID";
 
     public NuoDBColumnInspector() {
         super(COLUMN, TableInspectionScope.class);
@@ -66,37 +66,56 @@ public class NuoDBColumnInspector extends TableInspectorBase<Table, TableInspect
 
     @Override
     protected Query createQuery(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope) {
+        Collection<String> filters = newArrayList();
         Collection<Object> parameters = newArrayList();
-        schema = tableInspectionScope.getSchema();
-        tableName = tableInspectionScope.getTable();
-        parameters.add(schema);
-        parameters.add(tableName);
-        return new ParameterizedQuery(newQuery(QUERY), parameters);
+        filters.add("F.SCHEMA=?");
+        parameters.add(tableInspectionScope.getSchema());
+        if (!isEmpty(tableInspectionScope.getTable())) {
+            filters.add("F.TABLENAME=?");
+            parameters.add(tableInspectionScope.getTable());
+        }
+        return new ParameterizedQuery(
+                newQuery(where(QUERY, filters, "AND") + " ORDER BY F.TABLENAME, F.FIELDPOSITION ASC"), parameters);
     }
 
     @Override
-    protected void processResultSet(InspectionContext inspectionContext, ResultSet columns) throws SQLException {
+    protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
+            ResultSet columns) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
         Dialect dialect = inspectionContext.getDialect();
+        String schema = tableInspectionScope.getSchema();
 
-        // Get the fields' type from databaseMetaData
+        // Get the fields' type from databaseMetaData, for all tables of the
+        // schema at once when the scope is a bulk scope
         DatabaseMetaData databaseMetaData = inspectionContext.getConnection().getMetaData();
-        Map<String, JdbcTypeDesc> fieldsType = new HashMap<String, JdbcTypeDesc>();
-        try (ResultSet columnsFromDatabaseMetaData = databaseMetaData.getColumns(null, schema, tableName, null)) {
-            if (columnsFromDatabaseMetaData.next()) {
-                do {
-                    JdbcTypeDesc typeDescAlias = dialect.getJdbcTypeAlias(
-                            columnsFromDatabaseMetaData.getInt("DATA_TYPE"),
-                            columnsFromDatabaseMetaData.getString("TYPE_NAME"));
-                    fieldsType.put(columnsFromDatabaseMetaData.getString("COLUMN_NAME"), typeDescAlias);
-                } while (columnsFromDatabaseMetaData.next());
-            } else {
-                throw new SQLException(
-                        "Failed to get columns of table " + schema + "." + tableName + " from the database meta data");
+        Map<String, Map<String, JdbcTypeDesc>> tablesFieldsType = newHashMap();
+        try (ResultSet columnsFromDatabaseMetaData = databaseMetaData.getColumns(null, schema,
+                tableInspectionScope.getTable(), null)) {
+            while (columnsFromDatabaseMetaData.next()) {
+                String tableName = columnsFromDatabaseMetaData.getString("TABLE_NAME");
+                if (!isInScope(tableInspectionScope, tableName)) {
+                    continue;
+                }
+                Map<String, JdbcTypeDesc> fieldsType = tablesFieldsType.get(tableName);
+                if (fieldsType == null) {
+                    tablesFieldsType.put(tableName, fieldsType = newHashMap());
+                }
+                JdbcTypeDesc typeDescAlias = dialect.getJdbcTypeAlias(columnsFromDatabaseMetaData.getInt("DATA_TYPE"),
+                        columnsFromDatabaseMetaData.getString("TYPE_NAME"));
+                fieldsType.put(columnsFromDatabaseMetaData.getString("COLUMN_NAME"), typeDescAlias);
             }
         }
 
         while (columns.next()) {
+            String tableName = columns.getString("TABLENAME");
+            if (!isInScope(tableInspectionScope, tableName)) {
+                continue;
+            }
+            Map<String, JdbcTypeDesc> fieldsType = tablesFieldsType.get(tableName);
+            if (fieldsType == null) {
+                throw new SQLException(
+                        "Failed to get columns of table " + schema + "." + tableName + " from the database meta data");
+            }
             Table table = addTable(inspectionResults, null, schema, tableName);
 
             Column column = table.addColumn(columns.getString("FIELD"));
@@ -125,7 +144,11 @@ public class NuoDBColumnInspector extends TableInspectorBase<Table, TableInspect
             if (identifier != null) {
                 Sequence sequence = new Sequence(identifier);
                 column.setSequence(sequence);
-                column.getTable().getSchema().addSequence(sequence);
+                Schema sequenceSchema = table.getSchema();
+                // schema is shared by tables inspected in parallel
+                synchronized (sequenceSchema) {
+                    sequenceSchema.addSequence(sequence);
+                }
             }
             column.setAutoIncrement(identifier != null);
 
@@ -137,4 +160,9 @@ public class NuoDBColumnInspector extends TableInspectorBase<Table, TableInspect
     protected boolean supportsScope(TableInspectionScope tableInspectionScope) {
         return tableInspectionScope.getSchema() != null && tableInspectionScope.getTable() != null;
     }
+
+    @Override
+    protected boolean supportsBulkScope() {
+        return true;
+    }
 }
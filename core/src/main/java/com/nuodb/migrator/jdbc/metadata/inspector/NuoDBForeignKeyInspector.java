@@ -41,7 +41,9 @@ import java.util.Collection;
 import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
 import static com.nuodb.migrator.jdbc.query.Queries.newQuery;
+import static com.nuodb.migrator.jdbc.query.QueryUtils.where;
 import static com.nuodb.migrator.utils.StringUtils.equalsIgnoreCase;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
 
 /**
  * @author Sergey Bushik
@@ -62,16 +64,28 @@ public class NuoDBForeignKeyInspector extends ForeignKeyInspectorBase {
             + "INNER JOIN SYSTEM.TABLES FOREIGNTABLE ON FOREIGNTABLEID=FOREIGNTABLE.TABLEID\n"
             + "INNER JOIN SYSTEM.FIELDS FOREIGNFIELD ON FOREIGNTABLE.SCHEMA=FOREIGNFIELD.SCHEMA\n"
             + "AND FOREIGNTABLE.TABLENAME=FOREIGNFIELD.TABLENAME\n"
-            + "AND FOREIGNKEYS.FOREIGNFIELDID=FOREIGNFIELD.FIELDID\n"
-            + "WHERE FOREIGNTABLE.SCHEMA=? AND FOREIGNTABLE.TABLENAME=? ORDER BY PKTABLE_SCHEM, PKTABLE_NAME, "
-            + "KEY_SEQ ASC";
+            + "AND FOREIGNKEYS.FOREIGNFIELDID=FOREIGNFIELD.FIELDID";
+
+    private static final String ORDER_BY = " ORDER BY PKTABLE_SCHEM, PKTABLE_NAME, KEY_SEQ ASC";
+
+    private static final String BULK_ORDER_BY = " ORDER BY FKTABLE_NAME, FK_NAME, KEY_SEQ ASC";
 
     @Override
     protected Query createQuery(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope) {
+        Collection<String> filters = newArrayList();
         Collection<Object> parameters = newArrayList();
+        filters.add("FOREIGNTABLE.SCHEMA=?");
         parameters.add(tableInspectionScope.getSchema());
-        parameters.add(tableInspectionScope.getTable());
-        return new ParameterizedQuery(newQuery(QUERY), parameters);
+        String orderBy;
+        if (!isEmpty(tableInspectionScope.getTable())) {
+            filters.add("FOREIGNTABLE.TABLENAME=?");
+            parameters.add(tableInspectionScope.getTable());
+            orderBy = ORDER_BY;
+        } else {
+            // keys of the schema are fetched at once, keep references of each key together
+            orderBy = BULK_ORDER_BY;
+        }
+        return new ParameterizedQuery(newQuery(where(QUERY, filters, "AND") + orderBy), parameters);
     }
 
     @Override
@@ -80,6 +94,9 @@ public class NuoDBForeignKeyInspector extends ForeignKeyInspectorBase {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
         ForeignKey foreignKey = null;
         while (foreignKeys.next()) {
+            if (!isInScope(tableInspectionScope, foreignKeys.getString("FKTABLE_NAME"))) {
+                continue;
+            }
             String primarySchemaName = foreignKeys.getString("PKTABLE_SCHEM");
             boolean addObject = (tableInspectionScope.getSchema() == null
                     || equalsIgnoreCase(tableInspectionScope.getSchema(), primarySchemaName));
@@ -114,4 +131,9 @@ public class NuoDBForeignKeyInspector extends ForeignKeyInspectorBase {
     protected boolean supportsScope(TableInspectionScope tableInspectionScope) {
         return tableInspectionScope.getSchema() != null && tableInspectionScope.getTable() != null;
     }
+
+    @Override
+    protected boolean supportsBulkScope() {
+        return true;
+    }
 }
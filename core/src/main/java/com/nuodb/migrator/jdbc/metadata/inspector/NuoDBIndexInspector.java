@@ -57,9 +57,13 @@ public class NuoDBIndexInspector extends TableInspectorBase<Table, TableInspecti
     }
 
     @Override
-    protected void processResultSet(InspectionContext inspectionContext, ResultSet indexes) throws SQLException {
+    protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
+            ResultSet indexes) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
         while (indexes.next()) {
+            if (!isInScope(tableInspectionScope, indexes.getString("TABLENAME"))) {
+                continue;
+            }
             Table table = addTable(inspectionResults, null, indexes.getString("SCHEMA"),
                     indexes.getString("TABLENAME"));
             Identifier identifier = valueOf(indexes.getString("INDEXNAME"));
@@ -79,4 +83,9 @@ public class NuoDBIndexInspector extends TableInspectorBase<Table, TableInspecti
     protected boolean supportsScope(TableInspectionScope tableInspectionScope) {
         return tableInspectionScope.getSchema() != null && tableInspectionScope.getTable() != null;
     }
+
+    @Override
+    protected boolean supportsBulkScope() {
+        return true;
+    }
 }
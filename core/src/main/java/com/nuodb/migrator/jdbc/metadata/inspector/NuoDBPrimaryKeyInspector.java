@@ -55,9 +55,13 @@ public class NuoDBPrimaryKeyInspector extends TableInspectorBase<Table, TableIns
     }
 
     @Override
-    protected void processResultSet(InspectionContext inspectionContext, ResultSet primaryKeys) throws SQLException {
+    protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
+            ResultSet primaryKeys) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
         while (primaryKeys.next()) {
+            if (!isInScope(tableInspectionScope, primaryKeys.getString("TABLENAME"))) {
+                continue;
+            }
             Table table = addTable(inspectionResults, null, primaryKeys.getString("SCHEMA"),
                     primaryKeys.getString("TABLENAME"));
 
@@ -75,4 +79,9 @@ public class NuoDBPrimaryKeyInspector extends TableInspectorBase<Table, TableIns
     protected boolean supportsScope(TableInspectionScope tableInspectionScope) {
         return tableInspectionScope.getSchema() != null && tableInspectionScope.getTable() != null;
     }
+
+    @Override
+    protected boolean supportsBulkScope() {
+        return true;
+    }
 }
@@ -76,9 +76,13 @@ public class OracleCheckInspector extends TableInspectorBase<Table, TableInspect
     }
 
     @Override
-    protected void processResultSet(InspectionContext inspectionContext, ResultSet checks) throws SQLException {
+    protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
+            ResultSet checks) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
         while (checks.next()) {
+            if (!isInScope(tableInspectionScope, checks.getString("TABLE_NAME"))) {
+                continue;
+            }
             String condition = checks.getString("SEARCH_CONDITION");
             if (!condition.endsWith("IS NOT NULL")) {
                 Table table = addTable(inspectionResults, null, checks.getString("OWNER"),
@@ -95,4 +99,9 @@ public class OracleCheckInspector extends TableInspectorBase<Table, TableInspect
     protected boolean supportsScope(TableInspectionScope tableInspectionScope) {
         return tableInspectionScope.getSchema() != null && tableInspectionScope.getTable() != null;
     }
+
+    @Override
+    protected boolean supportsBulkScope() {
+        return true;
+    }
 }
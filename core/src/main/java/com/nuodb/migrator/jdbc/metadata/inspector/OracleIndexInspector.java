@@ -130,4 +130,9 @@ public class OracleIndexInspector extends SimpleIndexInspector {
         }
         return expression;
     }
+
+    @Override
+    protected boolean supportsBulkScope() {
+        return true;
+    }
 }
@@ -0,0 +1,262 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.inspector;
+
+import com.nuodb.migrator.jdbc.metadata.MetaData;
+import com.nuodb.migrator.jdbc.metadata.MetaDataType;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.session.Session;
+import com.nuodb.migrator.jdbc.session.SessionFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Lists.partition;
+import static com.google.common.collect.Sets.newLinkedHashSet;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.*;
+import static com.nuodb.migrator.utils.Collections.isEmpty;
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.apache.commons.lang3.StringUtils.defaultString;
+import static org.apache.commons.lang3.StringUtils.equalsIgnoreCase;
+
+/**
+ * Inspects objects of tables in parallel. Containers of tables and tables are
+ * inspected first on the context connection, then the tables are split into
+ * shards and objects confined to a single table (columns, primary keys,
+ * indexes and checks) are inspected for each shard on a separate session.
+ * Other table children, which may reference objects of other tables, and
+ * remaining types are inspected afterwards on the context connection, so the
+ * order of inspection dependencies is kept.
+ *
+ * @author Sergey Bushik
+ */
+public class ParallelInspectionContext extends SimpleInspectionContext {
+
+    /**
+     * Object types inspected in parallel, inspectors of these types modify
+     * only the table they inspect
+     */
+    public static final Collection<MetaDataType> PARALLEL_TYPES = asList(COLUMN, PRIMARY_KEY, INDEX, CHECK);
+
+    private final SessionFactory sessionFactory;
+    private final int threads;
+    private ExecutorService executorService;
+
+    public ParallelInspectionContext(InspectionManager inspectionManager, Connection connection,
+            InspectionResults inspectionResults, SessionFactory sessionFactory, int threads,
+            MetaDataType... objectTypes) {
+        super(inspectionManager, connection, inspectionResults, objectTypes);
+        this.sessionFactory = sessionFactory;
+        this.threads = threads;
+    }
+
+    @Override
+    public void inspect(InspectionScope scope, MetaDataType... objectTypes) throws SQLException {
+        Collection<MetaDataType> types = newLinkedHashSet(asList(objectTypes));
+        for (MetaDataType objectType : CONTAINER_TYPES) {
+            if (types.remove(objectType)) {
+                super.inspect(scope, objectType);
+            }
+        }
+        if (types.remove(TABLE)) {
+            super.inspect(scope, TABLE);
+        }
+        Collection<MetaDataType> parallelTypes = newArrayList();
+        for (MetaDataType objectType : PARALLEL_TYPES) {
+            if (types.remove(objectType)) {
+                parallelTypes.add(objectType);
+            }
+        }
+        List<MetaData> tables = newArrayList();
+        for (MetaData table : getInspectionResults().getObjects(TABLE)) {
+            if (isInScope(scope, (Table) table)) {
+                tables.add(table);
+            }
+        }
+        if (tables.size() > 1 && !isEmpty(parallelTypes)) {
+            inspectShards(tables, toArray(parallelTypes));
+        } else {
+            super.inspect(scope, toArray(parallelTypes));
+        }
+        for (MetaDataType objectType : TABLE_CHILD_TYPES) {
+            if (types.remove(objectType)) {
+                super.inspect(scope, objectType);
+            }
+        }
+        for (MetaDataType objectType : types) {
+            super.inspect(scope, objectType);
+        }
+    }
+
+    /**
+     * Checks if the table matches catalog, schema, table name and table types
+     * of the scope, tables inspected before with other scopes are skipped
+     *
+     * @param scope
+     *            inspected scope
+     * @param table
+     *            table from the inspection results
+     * @return true if the table belongs to the scope
+     */
+    protected boolean isInScope(InspectionScope scope, Table table) {
+        if (scope instanceof SchemaInspectionScope) {
+            SchemaInspectionScope schemaInspectionScope = (SchemaInspectionScope) scope;
+            if (!isInScope(schemaInspectionScope.getCatalog(), table.getCatalog().getName())
+                    || !isInScope(schemaInspectionScope.getSchema(), table.getSchema().getName())) {
+                return false;
+            }
+        }
+        if (scope instanceof TablesInspectionScope) {
+            return ((TablesInspectionScope) scope).hasTable(table.getName());
+        }
+        if (scope instanceof TableInspectionScope) {
+            TableInspectionScope tableInspectionScope = (TableInspectionScope) scope;
+            String[] tableTypes = tableInspectionScope.getTableTypes();
+            return isInScope(tableInspectionScope.getTable(), table.getName())
+                    && (tableTypes == null || table.getType() == null || asList(tableTypes).contains(table.getType()));
+        }
+        return true;
+    }
+
+    private static boolean isInScope(String scope, String name) {
+        return scope == null || equalsIgnoreCase(scope, defaultString(name));
+    }
+
+    /**
+     * Splits tables into shards of adjacent tables, so that tables of the same
+     * schema stay together and can be inspected with a schema wide query, and
+     * inspects each shard on its own session.
+     *
+     * @param tables
+     *            tables to inspect
+     * @param objectTypes
+     *            types of table objects to inspect
+     * @throws SQLException
+     *             if inspection of any shard fails
+     */
+    protected void inspectShards(List<MetaData> tables, final MetaDataType[] objectTypes) throws SQLException {
+        int shardSize = (tables.size() + threads - 1) / threads;
+        List<List<MetaData>> shards = partition(tables, shardSize);
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("Inspecting %s of %d tables in %d shards", asList(objectTypes), tables.size(),
+                    shards.size()));
+        }
+        final InspectionResults inspectionResults = new SynchronizedInspectionResults(getInspectionResults());
+        if (executorService == null) {
+            executorService = newFixedThreadPool(threads);
+        }
+        Collection<Future<Void>> futures = newArrayList();
+        try {
+            for (final List<MetaData> shard : shards) {
+                futures.add(executorService.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        inspectShard(inspectionResults, shard, objectTypes);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                get(future);
+            }
+        } finally {
+            // shards left running after a failure are not waited for
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    protected void inspectShard(InspectionResults inspectionResults, Collection<MetaData> shard,
+            MetaDataType... objectTypes) throws SQLException {
+        Session session = sessionFactory.openSession();
+        try {
+            InspectionContext inspectionContext = new SimpleInspectionContext(getInspectionManager(),
+                    session.getConnection(), inspectionResults, objectTypes);
+            inspectionContext.init();
+            try {
+                inspectionContext.inspect(shard, objectTypes);
+            } finally {
+                inspectionContext.close();
+            }
+        } finally {
+            session.close();
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            if (executorService != null) {
+                executorService.shutdownNow();
+                executorService = null;
+            }
+        } finally {
+            super.close();
+        }
+    }
+
+    private static void get(Future<Void> future) throws SQLException {
+        try {
+            future.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InspectorException(exception);
+        } catch (ExecutionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new InspectorException(cause);
+            }
+        }
+    }
+
+    private static MetaDataType[] toArray(Collection<MetaDataType> objectTypes) {
+        return objectTypes.toArray(new MetaDataType[objectTypes.size()]);
+    }
+
+    public SessionFactory getSessionFactory() {
+        return sessionFactory;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+}
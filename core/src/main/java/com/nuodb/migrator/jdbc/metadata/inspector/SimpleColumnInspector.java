@@ -57,9 +57,13 @@ public class SimpleColumnInspector extends TableInspectorBase<Table, TableInspec
     }
 
     @Override
-    protected void processResultSet(InspectionContext inspectionContext, ResultSet columns) throws SQLException {
+    protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
+            ResultSet columns) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
         while (columns.next()) {
+            if (!isInScope(tableInspectionScope, columns.getString("TABLE_NAME"))) {
+                continue;
+            }
             Table table = addTable(inspectionResults, columns.getString("TABLE_CAT"), columns.getString("TABLE_SCHEM"),
                     columns.getString("TABLE_NAME"));
             Column column = table.addColumn(columns.getString("COLUMN_NAME"));
@@ -95,4 +99,9 @@ public class SimpleColumnInspector extends TableInspectorBase<Table, TableInspec
     protected boolean supportsScope(TableInspectionScope tableInspectionScope) {
         return tableInspectionScope.getTable() != null;
     }
+
+    @Override
+    protected boolean supportsBulkScope() {
+        return true;
+    }
 }
@@ -58,9 +58,13 @@ public class SimpleIndexInspector extends TableInspectorBase<Table, TableInspect
     }
 
     @Override
-    protected void processResultSet(InspectionContext inspectionContext, ResultSet indexes) throws SQLException {
+    protected void processResultSet(InspectionContext inspectionContext, TableInspectionScope tableInspectionScope,
+            ResultSet indexes) throws SQLException {
         InspectionResults inspectionResults = inspectionContext.getInspectionResults();
         while (indexes.next()) {
+            if (!isInScope(tableInspectionScope, indexes.getString("TABLE_NAME"))) {
+                continue;
+            }
             if (indexes.getShort("TYPE") == tableIndexStatistic) {
                 continue;
             }
@@ -158,6 +158,10 @@ public class SimpleInspectionContext implements InspectionContext {
         }
     }
 
+    protected InspectionManager getInspectionManager() {
+        return inspectionManager;
+    }
+
     protected Inspector findInspector(MetaDataType objectType) {
         return getHandler(inspectionManager.getInspectors(), objectType);
     }
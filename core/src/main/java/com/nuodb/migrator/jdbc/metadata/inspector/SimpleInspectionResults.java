@@ -27,10 +27,10 @@
  */
 package com.nuodb.migrator.jdbc.metadata.inspector;
 
-import com.google.common.base.Optional;
-import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
-import com.google.common.collect.*;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
 import com.nuodb.migrator.jdbc.metadata.Identifiable;
 import com.nuodb.migrator.jdbc.metadata.Identifier;
 import com.nuodb.migrator.jdbc.metadata.MetaData;
@@ -38,12 +38,21 @@ import com.nuodb.migrator.jdbc.metadata.MetaDataType;
 import org.apache.commons.lang3.ObjectUtils;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 
+import static com.google.common.collect.ArrayListMultimap.create;
+import static com.google.common.collect.Maps.newHashMap;
 import static com.google.common.collect.Multimaps.newSetMultimap;
 import static com.google.common.collect.Sets.newLinkedHashSet;
 
 /**
+ * Keeps inspected objects in insertion order per object type. Identifiable
+ * objects are additionally indexed by type, by identifier and by qualified
+ * name, so that lookups do not scan all objects of the type and objects of
+ * the same name from different schemas can be told apart by qualified name.
+ * Objects renamed after they are added are re-indexed once a lookup misses.
+ *
  * @author Sergey Bushik
  */
 @SuppressWarnings("unchecked")
@@ -56,9 +65,13 @@ public class SimpleInspectionResults implements InspectionResults {
                 }
             });
 
+    private Map<MetaDataType, ListMultimap<Identifier, Identifiable>> identifiables = newHashMap();
+
     @Override
     public void addObject(MetaData object) {
-        objects.put(object.getObjectType(), object);
+        if (objects.put(object.getObjectType(), object) && object instanceof Identifiable) {
+            index(getIdentifiables(object.getObjectType()), (Identifiable) object);
+        }
     }
 
     @Override
@@ -79,16 +92,32 @@ public class SimpleInspectionResults implements InspectionResults {
         return getObject(objectType, Identifier.valueOf(name));
     }
 
+    /**
+     * Returns the first object of the type added with the given identifier or
+     * qualified name
+     */
     @Override
-    public <M extends Identifiable> M getObject(MetaDataType objectType, final Identifier identifier) {
-        Optional<MetaData> identifiable = Iterables.tryFind(objects.get(objectType), new Predicate<MetaData>() {
-            @Override
-            public boolean apply(MetaData object) {
-                return object instanceof Identifiable
-                        && ObjectUtils.equals(((Identifiable) object).getIdentifier(), identifier);
+    public <M extends Identifiable> M getObject(MetaDataType objectType, Identifier identifier) {
+        ListMultimap<Identifier, Identifiable> identifiablesByType = identifiables.get(objectType);
+        if (identifiablesByType == null) {
+            return null;
+        }
+        Identifiable object = getObject(identifiablesByType, identifier);
+        if (object == null && reindex(objectType, identifiablesByType)) {
+            object = getObject(identifiablesByType, identifier);
+        }
+        return (M) object;
+    }
+
+    protected Identifiable getObject(ListMultimap<Identifier, Identifiable> identifiablesByType,
+            Identifier identifier) {
+        for (Identifiable object : identifiablesByType.get(identifier)) {
+            // objects renamed since they are indexed are skipped
+            if (isIndexed(object, identifier)) {
+                return object;
             }
-        });
-        return identifiable.isPresent() ? (M) identifiable.get() : null;
+        }
+        return null;
     }
 
     @Override
@@ -103,6 +132,64 @@ public class SimpleInspectionResults implements InspectionResults {
 
     @Override
     public void removeObject(MetaData object) {
-        objects.remove(object.getObjectType(), object);
+        if (objects.remove(object.getObjectType(), object) && object instanceof Identifiable) {
+            ListMultimap<Identifier, Identifiable> identifiablesByType = identifiables.get(object.getObjectType());
+            if (identifiablesByType != null) {
+                Identifiable identifiable = (Identifiable) object;
+                identifiablesByType.remove(identifiable.getIdentifier(), identifiable);
+                identifiablesByType.remove(getQualifiedIdentifier(identifiable), identifiable);
+            }
+        }
+    }
+
+    protected ListMultimap<Identifier, Identifiable> getIdentifiables(MetaDataType objectType) {
+        ListMultimap<Identifier, Identifiable> identifiablesByType = identifiables.get(objectType);
+        if (identifiablesByType == null) {
+            identifiables.put(objectType, identifiablesByType = create());
+        }
+        return identifiablesByType;
+    }
+
+    /**
+     * Rebuilds index of the type if some of its objects were renamed since
+     * they are indexed
+     *
+     * @return true if index was rebuilt
+     */
+    protected boolean reindex(MetaDataType objectType, ListMultimap<Identifier, Identifiable> identifiablesByType) {
+        boolean stale = false;
+        for (Map.Entry<Identifier, Identifiable> entry : identifiablesByType.entries()) {
+            if (!isIndexed(entry.getValue(), entry.getKey())) {
+                stale = true;
+                break;
+            }
+        }
+        if (stale) {
+            identifiablesByType.clear();
+            for (MetaData object : objects.get(objectType)) {
+                if (object instanceof Identifiable) {
+                    index(identifiablesByType, (Identifiable) object);
+                }
+            }
+        }
+        return stale;
+    }
+
+    protected static void index(ListMultimap<Identifier, Identifiable> identifiablesByType, Identifiable object) {
+        Identifier identifier = object.getIdentifier();
+        identifiablesByType.put(identifier, object);
+        Identifier qualifiedIdentifier = getQualifiedIdentifier(object);
+        if (!ObjectUtils.equals(identifier, qualifiedIdentifier)) {
+            identifiablesByType.put(qualifiedIdentifier, object);
+        }
+    }
+
+    protected static boolean isIndexed(Identifiable object, Identifier identifier) {
+        return ObjectUtils.equals(object.getIdentifier(), identifier)
+                || ObjectUtils.equals(getQualifiedIdentifier(object), identifier);
+    }
+
+    protected static Identifier getQualifiedIdentifier(Identifiable object) {
+        return object.getIdentifier() != null ? Identifier.valueOf(object.getQualifiedName()) : null;
     }
 }
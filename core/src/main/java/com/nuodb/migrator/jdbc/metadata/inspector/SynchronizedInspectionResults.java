@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.inspector;
+
+import com.nuodb.migrator.jdbc.metadata.Identifiable;
+import com.nuodb.migrator.jdbc.metadata.Identifier;
+import com.nuodb.migrator.jdbc.metadata.MetaData;
+import com.nuodb.migrator.jdbc.metadata.MetaDataType;
+
+import java.util.Collection;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * Thread safe view of inspection results shared by inspection contexts
+ * running concurrently. Collections are returned as snapshots, so that they
+ * can be iterated while other threads keep adding objects.
+ *
+ * @author Sergey Bushik
+ */
+public class SynchronizedInspectionResults implements InspectionResults {
+
+    private final InspectionResults inspectionResults;
+
+    public SynchronizedInspectionResults(InspectionResults inspectionResults) {
+        this.inspectionResults = inspectionResults;
+    }
+
+    @Override
+    public synchronized void addObject(MetaData object) {
+        inspectionResults.addObject(object);
+    }
+
+    @Override
+    public synchronized void addObjects(Collection<? extends MetaData> objects) {
+        inspectionResults.addObjects(objects);
+    }
+
+    @Override
+    public synchronized <M extends MetaData> M getObject(MetaDataType objectType) {
+        return inspectionResults.getObject(objectType);
+    }
+
+    @Override
+    public synchronized <M extends Identifiable> M getObject(MetaDataType objectType, String name) {
+        return inspectionResults.getObject(objectType, name);
+    }
+
+    @Override
+    public synchronized <M extends Identifiable> M getObject(MetaDataType objectType, Identifier identifier) {
+        return inspectionResults.getObject(objectType, identifier);
+    }
+
+    @Override
+    public synchronized <M extends MetaData> Collection<M> getObjects(MetaDataType objectType) {
+        return newArrayList(inspectionResults.<M>getObjects(objectType));
+    }
+
+    @Override
+    public synchronized Collection<? extends MetaData> getObjects() {
+        return newArrayList(inspectionResults.getObjects());
+    }
+
+    @Override
+    public synchronized void removeObject(MetaData object) {
+        inspectionResults.removeObject(object);
+    }
+
+    public InspectionResults getInspectionResults() {
+        return inspectionResults;
+    }
+}
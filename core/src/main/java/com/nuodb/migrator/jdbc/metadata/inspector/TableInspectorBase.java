@@ -31,13 +31,31 @@ import com.nuodb.migrator.jdbc.metadata.MetaData;
 import com.nuodb.migrator.jdbc.metadata.MetaDataType;
 import com.nuodb.migrator.jdbc.metadata.Table;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static java.util.Arrays.asList;
+
 /**
+ * Inspects objects of tables. Inspectors supporting bulk scope fetch objects
+ * of all tables from a schema with a single schema wide query, tables of the
+ * same schema are then grouped into {@link TablesInspectionScope} instead of
+ * being inspected one by one.
+ *
  * @author Sergey Bushik
  */
 @SuppressWarnings("unchecked")
 public abstract class TableInspectorBase<M extends MetaData, T extends TableInspectionScope>
         extends ManagedInspectorBase<M, T> {
 
+    /**
+     * Minimum number of tables from a schema inspected with a schema wide query
+     */
+    public static final int BULK_TABLES = 2;
+
     public TableInspectorBase(MetaDataType objectType) {
         this(objectType, (Class<? extends T>) TableInspectionScope.class);
     }
@@ -55,6 +73,66 @@ public abstract class TableInspectorBase<M extends MetaData, T extends TableInsp
         return (T) createTableInspectionScope((Table) object);
     }
 
+    @Override
+    protected Collection<? extends T> createInspectionScopes(Collection<? extends M> objects) {
+        if (!supportsBulkScope()) {
+            return super.createInspectionScopes(objects);
+        }
+        Map<List<String>, Collection<String>> schemaTables = newLinkedHashMap();
+        Collection<T> inspectionScopes = newArrayList();
+        for (M object : objects) {
+            if (object instanceof Table) {
+                Table table = (Table) object;
+                List<String> schema = asList(table.getCatalog().getName(), table.getSchema().getName());
+                Collection<String> tables = schemaTables.get(schema);
+                if (tables == null) {
+                    schemaTables.put(schema, tables = newArrayList());
+                }
+                tables.add(table.getName());
+            } else {
+                inspectionScopes.add(createInspectionScope(object));
+            }
+        }
+        for (Map.Entry<List<String>, Collection<String>> entry : schemaTables.entrySet()) {
+            String catalog = entry.getKey().get(0);
+            String schema = entry.getKey().get(1);
+            Collection<String> tables = entry.getValue();
+            if (tables.size() >= BULK_TABLES) {
+                inspectionScopes.add((T) new TablesInspectionScope(catalog, schema, tables));
+            } else {
+                for (String table : tables) {
+                    inspectionScopes.add((T) new TableInspectionScope(catalog, schema, table));
+                }
+            }
+        }
+        return inspectionScopes;
+    }
+
+    /**
+     * Inspector supports bulk scope if its query returns objects of all tables
+     * from the schema when scope table is not set.
+     *
+     * @return true if tables of a schema can be inspected with a single query
+     */
+    protected boolean supportsBulkScope() {
+        return false;
+    }
+
+    /**
+     * Checks if table of the current result set row belongs to the inspected
+     * scope, which is always true unless the scope is a bulk scope.
+     *
+     * @param tableInspectionScope
+     *            inspected scope
+     * @param table
+     *            name of the table from the result set
+     * @return true if the row should be processed
+     */
+    protected boolean isInScope(TableInspectionScope tableInspectionScope, String table) {
+        return !(tableInspectionScope instanceof TablesInspectionScope)
+                || ((TablesInspectionScope) tableInspectionScope).hasTable(table);
+    }
+
     @Override
     public boolean supportsScope(InspectionContext inspectionContext, InspectionScope inspectionScope) {
         return inspectionScope instanceof TableInspectionScope && supportsScope((TableInspectionScope) inspectionScope);
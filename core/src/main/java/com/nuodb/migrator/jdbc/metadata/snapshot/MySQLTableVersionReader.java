@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.snapshot;
+
+import com.nuodb.migrator.jdbc.metadata.inspector.TableInspectionScope;
+
+import java.util.Collection;
+
+/**
+ * Uses digest of table definition as its version, as creation time of a table
+ * is not updated by altering statements executed in place or instantly, nor by
+ * creation of indexes and triggers. Definitions of columns, indexes, foreign
+ * keys and triggers of a table are read from the information schema, each row
+ * is hashed with CRC32 and the hashes are summed up, so that digest doesn't
+ * depend on the order of rows and isn't truncated by group_concat_max_len.
+ *
+ * @author Sergey Bushik
+ */
+public class MySQLTableVersionReader extends TableVersionReader {
+
+    private static final String QUERY = "SELECT T.TABLE_SCHEMA AS TABLE_CAT, NULL AS TABLE_SCHEM, T.TABLE_NAME,\n"
+            + "       CONCAT_WS(':',\n"
+            + "       CRC32(CONCAT_WS(',', T.ENGINE, QUOTE(T.TABLE_COLLATION), QUOTE(T.TABLE_COMMENT))),\n"
+            + "       (SELECT IFNULL(SUM(CRC32(CONCAT_WS(',', C.ORDINAL_POSITION, C.COLUMN_NAME, C.COLUMN_TYPE,\n"
+            + "               C.IS_NULLABLE, QUOTE(C.COLUMN_DEFAULT), C.EXTRA, QUOTE(C.COLLATION_NAME),\n"
+            + "               QUOTE(C.COLUMN_COMMENT)))), 0)\n"
+            + "        FROM INFORMATION_SCHEMA.COLUMNS C\n"
+            + "        WHERE C.TABLE_SCHEMA=T.TABLE_SCHEMA AND C.TABLE_NAME=T.TABLE_NAME),\n"
+            + "       (SELECT IFNULL(SUM(CRC32(CONCAT_WS(',', S.INDEX_NAME, S.SEQ_IN_INDEX, QUOTE(S.COLUMN_NAME),\n"
+            + "               S.NON_UNIQUE, S.INDEX_TYPE, QUOTE(S.COLLATION), QUOTE(S.SUB_PART)))), 0)\n"
+            + "        FROM INFORMATION_SCHEMA.STATISTICS S\n"
+            + "        WHERE S.TABLE_SCHEMA=T.TABLE_SCHEMA AND S.TABLE_NAME=T.TABLE_NAME),\n"
+            + "       (SELECT IFNULL(SUM(CRC32(CONCAT_WS(',', K.CONSTRAINT_NAME, K.ORDINAL_POSITION, K.COLUMN_NAME,\n"
+            + "               K.REFERENCED_TABLE_SCHEMA, K.REFERENCED_TABLE_NAME, K.REFERENCED_COLUMN_NAME,\n"
+            + "               R.UPDATE_RULE, R.DELETE_RULE))), 0)\n"
+            + "        FROM INFORMATION_SCHEMA.KEY_COLUMN_USAGE K\n"
+            + "        INNER JOIN INFORMATION_SCHEMA.REFERENTIAL_CONSTRAINTS R\n"
+            + "        ON R.CONSTRAINT_SCHEMA=K.CONSTRAINT_SCHEMA AND R.CONSTRAINT_NAME=K.CONSTRAINT_NAME\n"
+            + "        AND R.TABLE_NAME=K.TABLE_NAME\n"
+            + "        WHERE K.TABLE_SCHEMA=T.TABLE_SCHEMA AND K.TABLE_NAME=T.TABLE_NAME),\n"
+            + "       (SELECT IFNULL(SUM(CRC32(CONCAT_WS(',', G.TRIGGER_NAME, G.EVENT_MANIPULATION, G.ACTION_TIMING,\n"
+            + "               G.ACTION_ORDER, G.ACTION_STATEMENT))), 0)\n"
+            + "        FROM INFORMATION_SCHEMA.TRIGGERS G\n"
+            + "        WHERE G.EVENT_OBJECT_SCHEMA=T.TABLE_SCHEMA AND G.EVENT_OBJECT_TABLE=T.TABLE_NAME)) AS VERSION\n"
+            + "FROM INFORMATION_SCHEMA.TABLES T WHERE T.TABLE_TYPE='BASE TABLE'";
+
+    public MySQLTableVersionReader() {
+        super(QUERY);
+    }
+
+    @Override
+    protected void addFilters(TableInspectionScope tableInspectionScope, Collection<String> filters,
+            Collection<String> parameters) {
+        if (tableInspectionScope.getCatalog() == null) {
+            filters.add("TABLE_CAT=DATABASE()");
+        }
+        super.addFilters(tableInspectionScope, filters, parameters);
+    }
+}
@@ -0,0 +1,408 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.snapshot;
+
+import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.XmlBackupOps;
+import com.nuodb.migrator.jdbc.metadata.Catalog;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.Database;
+import com.nuodb.migrator.jdbc.metadata.ForeignKey;
+import com.nuodb.migrator.jdbc.metadata.MetaData;
+import com.nuodb.migrator.jdbc.metadata.MetaDataType;
+import com.nuodb.migrator.jdbc.metadata.Schema;
+import com.nuodb.migrator.jdbc.metadata.Sequence;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.metadata.Trigger;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionCache;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionManager;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionResults;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionScope;
+import com.nuodb.migrator.jdbc.metadata.inspector.TableInspectionScope;
+import com.nuodb.migrator.jdbc.metadata.resolver.SimpleServiceResolver;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.google.common.collect.Sets.newLinkedHashSet;
+import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.DB2;
+import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.MSSQL_SERVER;
+import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.MYSQL;
+import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.ORACLE;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.DATABASE;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.FOREIGN_KEY;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.SEQUENCE;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.TABLE;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.TABLE_CHILD_TYPES;
+import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addDatabase;
+import static com.nuodb.migrator.jdbc.metadata.snapshot.TableVersionReader.getTableKey;
+import static com.nuodb.migrator.spec.MetaDataSpec.TABLE_TYPES;
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static org.apache.commons.lang3.StringUtils.defaultIfEmpty;
+import static org.apache.commons.lang3.StringUtils.join;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Keeps snapshot of inspected meta data in a directory along with versions of
+ * inspected tables. On the next inspection of the same scope versions are
+ * re-read from the data dictionary, unchanged tables are served from the
+ * snapshot and only new or altered tables are inspected from the database.
+ * Sequences carry their current values and are always re-inspected. Dialects
+ * without table versions in their data dictionary are always inspected in
+ * full.
+ *
+ * @author Sergey Bushik
+ */
+public class SnapshotInspectionCache implements InspectionCache {
+
+    public static final String CATALOG_EXTENSION = "cat";
+    public static final String VERSIONS_EXTENSION = "properties";
+
+    private static final String KEY_SEPARATOR = "\t";
+
+    private static final String ORACLE_QUERY = "SELECT NULL AS TABLE_CAT, OWNER AS TABLE_SCHEM,\n"
+            + "       OBJECT_NAME AS TABLE_NAME, TO_CHAR(LAST_DDL_TIME, 'YYYY-MM-DD HH24:MI:SS') AS VERSION\n"
+            + "FROM ALL_OBJECTS WHERE OBJECT_TYPE='TABLE'";
+
+    private static final String MSSQL_SERVER_QUERY = "SELECT DB_NAME() AS TABLE_CAT, SCHEMA_NAME(SCHEMA_ID) AS TABLE_SCHEM,\n"
+            + "       NAME AS TABLE_NAME, CONVERT(VARCHAR(23), MODIFY_DATE, 121) AS VERSION\n" + "FROM SYS.TABLES";
+
+    private static final String DB2_QUERY = "SELECT CAST(NULL AS VARCHAR(128)) AS TABLE_CAT, TRIM(TABSCHEMA) AS TABLE_SCHEM,\n"
+            + "       TABNAME AS TABLE_NAME, VARCHAR(ALTER_TIME) AS VERSION\n"
+            + "FROM SYSCAT.TABLES WHERE TYPE='T'";
+
+    protected final transient Logger logger = getLogger(getClass());
+    private final File directory;
+    private BackupOps backupOps = new XmlBackupOps();
+    private SimpleServiceResolver<TableVersionReader> tableVersionReaderResolver;
+
+    public SnapshotInspectionCache(File directory) {
+        this.directory = directory;
+        tableVersionReaderResolver = new SimpleServiceResolver<TableVersionReader>();
+        tableVersionReaderResolver.register(ORACLE, new TableVersionReader(ORACLE_QUERY));
+        tableVersionReaderResolver.register(MYSQL, new MySQLTableVersionReader());
+        tableVersionReaderResolver.register(MSSQL_SERVER, new TableVersionReader(MSSQL_SERVER_QUERY));
+        tableVersionReaderResolver.register(DB2, new TableVersionReader(DB2_QUERY));
+    }
+
+    @Override
+    public void inspect(InspectionManager inspectionManager, Connection connection,
+            InspectionResults inspectionResults, InspectionScope inspectionScope, MetaDataType... objectTypes)
+            throws SQLException {
+        TableVersionReader tableVersionReader = isCached(inspectionScope, objectTypes)
+                ? tableVersionReaderResolver.resolve(connection) : null;
+        if (tableVersionReader == null) {
+            inspectionManager.inspectDatabase(connection, inspectionResults, inspectionScope, objectTypes);
+            return;
+        }
+        TableInspectionScope tableInspectionScope = (TableInspectionScope) inspectionScope;
+        String snapshot = getSnapshot(connection, tableInspectionScope, objectTypes);
+        // versions are read ahead of inspection, so tables altered meanwhile
+        // are re-inspected next time
+        Map<List<String>, String> tableVersions = tableVersionReader.getTableVersions(connection,
+                tableInspectionScope);
+        Map<List<String>, String> snapshotVersions = readTableVersions(snapshot);
+        Database database = snapshotVersions != null ? readDatabase(snapshot) : null;
+        if (database != null) {
+            refresh(inspectionManager, connection, inspectionResults, tableInspectionScope, database,
+                    snapshotVersions, tableVersions, objectTypes);
+        } else {
+            if (logger.isDebugEnabled()) {
+                logger.debug(format("Snapshot %s not found, inspecting database", snapshot));
+            }
+            inspectionManager.inspectDatabase(connection, inspectionResults, inspectionScope, objectTypes);
+        }
+        writeSnapshot(snapshot, inspectionResults.<Database> getObject(DATABASE), tableVersions);
+    }
+
+    /**
+     * Table versions cover tables only, so a scope including views or other
+     * table types is always inspected in full
+     */
+    protected boolean isCached(InspectionScope inspectionScope, MetaDataType... objectTypes) {
+        if (!(inspectionScope instanceof TableInspectionScope) || !asList(objectTypes).contains(TABLE)) {
+            return false;
+        }
+        TableInspectionScope tableInspectionScope = (TableInspectionScope) inspectionScope;
+        String[] tableTypes = tableInspectionScope.getTableTypes();
+        return tableInspectionScope.getTable() == null
+                && (tableTypes == null || Arrays.equals(tableTypes, TABLE_TYPES));
+    }
+
+    protected void refresh(InspectionManager inspectionManager, Connection connection,
+            InspectionResults inspectionResults, TableInspectionScope tableInspectionScope, Database database,
+            Map<List<String>, String> snapshotVersions, Map<List<String>, String> tableVersions,
+            MetaDataType... objectTypes) throws SQLException {
+        Set<List<String>> inspectTables = newLinkedHashSet();
+        for (Map.Entry<List<String>, String> tableVersion : tableVersions.entrySet()) {
+            String version = tableVersion.getValue();
+            if (version == null || !version.equals(snapshotVersions.get(tableVersion.getKey()))) {
+                inspectTables.add(tableVersion.getKey());
+            }
+        }
+        Set<Table> removedTables = newLinkedHashSet();
+        for (Table table : newArrayList(database.getTables())) {
+            List<String> tableKey = getTableKey(table);
+            if (!tableVersions.containsKey(tableKey) || inspectTables.contains(tableKey)) {
+                table.getSchema().removeTable(table);
+                removedTables.add(table);
+            }
+        }
+        // foreign keys referencing replaced tables are inspected again
+        Collection<MetaData> referencingTables = newArrayList();
+        for (Table table : database.getTables()) {
+            for (ForeignKey foreignKey : newArrayList(table.getForeignKeys())) {
+                if (removedTables.contains(foreignKey.getPrimaryTable())) {
+                    table.getForeignKeys().remove(foreignKey);
+                    if (!referencingTables.contains(table)) {
+                        referencingTables.add(table);
+                    }
+                }
+            }
+        }
+        Collection<MetaDataType> types = newArrayList(objectTypes);
+        if (types.contains(SEQUENCE)) {
+            for (Schema schema : database.getSchemas()) {
+                for (Sequence sequence : newArrayList(schema.getSequences())) {
+                    schema.removeSequence(sequence);
+                }
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(format("Snapshot has %d table(s) changed, %d table(s) removed", inspectTables.size(),
+                    removedTables.size()));
+        }
+        addObjects(inspectionResults, database);
+        for (List<String> tableKey : inspectTables) {
+            TableInspectionScope inspectionScope = new TableInspectionScope(defaultIfEmpty(tableKey.get(0), null),
+                    defaultIfEmpty(tableKey.get(1), null), tableKey.get(2));
+            inspectionScope.setTableTypes(tableInspectionScope.getTableTypes());
+            inspectionManager.inspectDatabase(connection, inspectionResults, inspectionScope, TABLE);
+        }
+        Collection<MetaData> tables = newArrayList();
+        for (Table table : database.getTables()) {
+            if (inspectTables.contains(getTableKey(table))) {
+                tables.add(table);
+            }
+        }
+        Collection<MetaDataType> tableTypes = newArrayList();
+        for (MetaDataType objectType : TABLE_CHILD_TYPES) {
+            if (types.contains(objectType)) {
+                tableTypes.add(objectType);
+            }
+        }
+        if (!tables.isEmpty() && !tableTypes.isEmpty()) {
+            inspectionManager.inspect(connection, inspectionResults, tables,
+                    tableTypes.toArray(new MetaDataType[tableTypes.size()]));
+        }
+        if (!referencingTables.isEmpty() && types.contains(FOREIGN_KEY)) {
+            inspectionManager.inspect(connection, inspectionResults, referencingTables, FOREIGN_KEY);
+        }
+        if (types.contains(SEQUENCE)) {
+            inspectionManager.inspectDatabase(connection, inspectionResults, tableInspectionScope, SEQUENCE);
+        }
+    }
+
+    protected void addObjects(InspectionResults inspectionResults, Database database) {
+        inspectionResults.addObject(database);
+        for (Catalog catalog : database.getCatalogs()) {
+            inspectionResults.addObject(catalog);
+            for (Schema schema : catalog.getSchemas()) {
+                inspectionResults.addObject(schema);
+                inspectionResults.addObjects(schema.getUserDefinedTypes());
+                inspectionResults.addObjects(schema.getSequences());
+                for (Table table : schema.getTables()) {
+                    addObjects(inspectionResults, table);
+                }
+            }
+        }
+    }
+
+    protected void addObjects(InspectionResults inspectionResults, Table table) {
+        inspectionResults.addObject(table);
+        for (Column column : table.getColumns()) {
+            inspectionResults.addObject(column);
+            inspectionResults.addObjects(column.getChecks());
+            Trigger trigger = column.getTrigger();
+            if (trigger != null) {
+                inspectionResults.addObject(trigger);
+            }
+        }
+        if (table.getPrimaryKey() != null) {
+            inspectionResults.addObject(table.getPrimaryKey());
+        }
+        inspectionResults.addObjects(table.getIndexes());
+        inspectionResults.addObjects(table.getForeignKeys());
+        inspectionResults.addObjects(table.getChecks());
+        inspectionResults.addObjects(table.getTriggers());
+    }
+
+    /**
+     * Snapshot is named after digest of the inspected database and scope, so
+     * different scopes of the same database are kept apart
+     */
+    protected String getSnapshot(Connection connection, TableInspectionScope tableInspectionScope,
+            MetaDataType... objectTypes) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        return sha1Hex(join(asList(metaData.getURL(), metaData.getUserName(), tableInspectionScope.getCatalog(),
+                tableInspectionScope.getSchema(), newLinkedHashSet(asList(objectTypes))), KEY_SEPARATOR));
+    }
+
+    protected List<String> getTableKey(Table table) {
+        return TableVersionReader.getTableKey(table.getCatalog().getName(), table.getSchema().getName(),
+                table.getName());
+    }
+
+    protected Map<List<String>, String> readTableVersions(String snapshot) {
+        File file = getFile(snapshot, VERSIONS_EXTENSION);
+        if (!file.exists()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        InputStream input = null;
+        try {
+            properties.load(input = new FileInputStream(file));
+        } catch (IOException exception) {
+            if (logger.isWarnEnabled()) {
+                logger.warn(format("Can't read snapshot versions %s", file), exception);
+            }
+            return null;
+        } finally {
+            closeQuietly(input);
+        }
+        Map<List<String>, String> tableVersions = newLinkedHashMap();
+        for (String tableKey : properties.stringPropertyNames()) {
+            tableVersions.put(asList(tableKey.split(KEY_SEPARATOR, -1)), properties.getProperty(tableKey));
+        }
+        return tableVersions;
+    }
+
+    protected Database readDatabase(String snapshot) {
+        File file = getFile(snapshot, CATALOG_EXTENSION);
+        if (!file.exists()) {
+            return null;
+        }
+        InputStream input = null;
+        try {
+            Backup backup = backupOps.read(input = new FileInputStream(file), newHashMap());
+            return backup.getDatabase();
+        } catch (Exception exception) {
+            if (logger.isWarnEnabled()) {
+                logger.warn(format("Can't read snapshot catalog %s", file), exception);
+            }
+            return null;
+        } finally {
+            closeQuietly(input);
+        }
+    }
+
+    /**
+     * Writes catalog and versions to temporary files renamed over the previous
+     * snapshot, failure to write a snapshot doesn't fail inspection
+     */
+    protected void writeSnapshot(String snapshot, Database database, Map<List<String>, String> tableVersions) {
+        if (database == null) {
+            return;
+        }
+        Properties properties = new Properties();
+        for (Map.Entry<List<String>, String> tableVersion : tableVersions.entrySet()) {
+            if (tableVersion.getValue() != null) {
+                properties.setProperty(join(tableVersion.getKey(), KEY_SEPARATOR), tableVersion.getValue());
+            }
+        }
+        OutputStream output = null;
+        try {
+            directory.mkdirs();
+            File catalog = getFile(snapshot + ".tmp", CATALOG_EXTENSION);
+            backupOps.write(new Backup(null, database), output = new FileOutputStream(catalog), newHashMap());
+            closeQuietly(output);
+            File versions = getFile(snapshot + ".tmp", VERSIONS_EXTENSION);
+            properties.store(output = new FileOutputStream(versions), null);
+            closeQuietly(output);
+            rename(catalog, getFile(snapshot, CATALOG_EXTENSION));
+            rename(versions, getFile(snapshot, VERSIONS_EXTENSION));
+        } catch (Exception exception) {
+            if (logger.isWarnEnabled()) {
+                logger.warn(format("Can't write snapshot %s", snapshot), exception);
+            }
+        } finally {
+            closeQuietly(output);
+        }
+    }
+
+    protected void rename(File source, File target) throws IOException {
+        if (target.exists() && !target.delete() || !source.renameTo(target)) {
+            throw new IOException(format("Can't rename %s to %s", source, target));
+        }
+    }
+
+    protected File getFile(String snapshot, String extension) {
+        return new File(directory, snapshot + "." + extension);
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public BackupOps getBackupOps() {
+        return backupOps;
+    }
+
+    public void setBackupOps(BackupOps backupOps) {
+        this.backupOps = backupOps;
+    }
+
+    public SimpleServiceResolver<TableVersionReader> getTableVersionReaderResolver() {
+        return tableVersionReaderResolver;
+    }
+
+    public void setTableVersionReaderResolver(SimpleServiceResolver<TableVersionReader> tableVersionReaderResolver) {
+        this.tableVersionReaderResolver = tableVersionReaderResolver;
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.snapshot;
+
+import com.nuodb.migrator.jdbc.metadata.inspector.TableInspectionScope;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
+import static com.nuodb.migrator.jdbc.query.QueryUtils.AND;
+import static com.nuodb.migrator.jdbc.query.QueryUtils.where;
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static org.apache.commons.lang3.StringUtils.defaultString;
+
+/**
+ * Reads versions of tables from the data dictionary, version of a table
+ * changes each time the table is altered. The query returns TABLE_CAT,
+ * TABLE_SCHEM, TABLE_NAME and VERSION columns, it's wrapped into a derived
+ * table filtered by catalog and schema of the inspection scope.
+ *
+ * @author Sergey Bushik
+ */
+public class TableVersionReader {
+
+    private static final String QUERY = "SELECT TABLE_CAT, TABLE_SCHEM, TABLE_NAME, VERSION FROM (%s) T";
+
+    private final String query;
+
+    public TableVersionReader(String query) {
+        this.query = query;
+    }
+
+    /**
+     * Returns versions of tables in the scope keyed by table key
+     *
+     * @param connection
+     *            connection to the inspected database
+     * @param tableInspectionScope
+     *            catalog and schema of tables
+     * @return versions of tables, version is null if it's unknown
+     * @throws SQLException
+     */
+    public Map<List<String>, String> getTableVersions(Connection connection,
+            TableInspectionScope tableInspectionScope) throws SQLException {
+        Collection<String> filters = newArrayList();
+        Collection<String> parameters = newArrayList();
+        addFilters(tableInspectionScope, filters, parameters);
+        Map<List<String>, String> tableVersions = newLinkedHashMap();
+        PreparedStatement statement = connection.prepareStatement(where(format(QUERY, query), filters, AND));
+        try {
+            int index = 1;
+            for (String parameter : parameters) {
+                statement.setString(index++, parameter);
+            }
+            ResultSet tables = statement.executeQuery();
+            try {
+                while (tables.next()) {
+                    tableVersions.put(
+                            getTableKey(tables.getString("TABLE_CAT"), tables.getString("TABLE_SCHEM"),
+                                    tables.getString("TABLE_NAME")), tables.getString("VERSION"));
+                }
+            } finally {
+                closeQuietly(tables);
+            }
+        } finally {
+            closeQuietly(statement);
+        }
+        return tableVersions;
+    }
+
+    protected void addFilters(TableInspectionScope tableInspectionScope, Collection<String> filters,
+            Collection<String> parameters) {
+        if (tableInspectionScope.getCatalog() != null) {
+            filters.add("TABLE_CAT=?");
+            parameters.add(tableInspectionScope.getCatalog());
+        }
+        if (tableInspectionScope.getSchema() != null) {
+            filters.add("TABLE_SCHEM=?");
+            parameters.add(tableInspectionScope.getSchema());
+        }
+    }
+
+    public static List<String> getTableKey(String catalog, String schema, String table) {
+        return asList(defaultString(catalog), defaultString(schema), table);
+    }
+
+    public String getQuery() {
+        return query;
+    }
+}
@@ -0,0 +1,392 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.session;
+
+import com.nuodb.migrator.jdbc.connection.ConnectionProvider;
+import com.nuodb.migrator.jdbc.connection.ConnectionProxy;
+import com.nuodb.migrator.jdbc.connection.DelegatingConnection;
+import com.nuodb.migrator.jdbc.connection.DelegatingPreparedStatement;
+import com.nuodb.migrator.jdbc.dialect.DialectResolver;
+import com.nuodb.migrator.spec.ConnectionSpec;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static java.lang.Math.abs;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Spreads sessions across several endpoints, such as NuoDB Transaction
+ * Engines, each served by its own pool of sessions. Endpoint is chosen by
+ * {@link SessionBalancing} strategy using latency of batch executions and
+ * commits observed on endpoint connections, so that sessions are routed away
+ * from an endpoint which slows down.
+ *
+ * @author Sergey Bushik
+ */
+public class BalancedSessionFactory extends SessionFactoryBase implements HasIdleSessions {
+
+    /**
+     * Session context key with affinity value, sessions with equal affinity
+     * are opened on the same endpoint by {@link SessionBalancing#TABLE_AFFINITY}
+     */
+    public static final String AFFINITY = "affinity";
+    /**
+     * Endpoint with latency exceeding the lowest one by this factor is
+     * considered slow and is bypassed
+     */
+    public static final double SLOW_FACTOR = 2;
+    /**
+     * Weight of the latest sample in the moving average of endpoint latency
+     */
+    public static final double LATENCY_WEIGHT = 0.2;
+
+    protected final transient Logger logger = getLogger(getClass());
+
+    private final List<Endpoint> endpoints;
+    private final SessionBalancing sessionBalancing;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public BalancedSessionFactory(Map<String, ConnectionProvider> connectionProviders,
+            DialectResolver dialectResolver, SessionBalancing sessionBalancing, int maxIdleSessions) {
+        this.endpoints = newArrayList();
+        for (Map.Entry<String, ConnectionProvider> connectionProvider : connectionProviders.entrySet()) {
+            endpoints.add(new Endpoint(connectionProvider.getKey(), connectionProvider.getValue(), dialectResolver,
+                    maxIdleSessions));
+        }
+        if (endpoints.isEmpty()) {
+            throw new SessionException("At least one endpoint is required");
+        }
+        this.sessionBalancing = sessionBalancing;
+    }
+
+    @Override
+    public Session openSession(Map<Object, Object> context) throws SQLException {
+        return open(context);
+    }
+
+    @Override
+    protected Session open(Map<Object, Object> context) throws SQLException {
+        Endpoint endpoint = selectEndpoint(context);
+        if (logger.isTraceEnabled()) {
+            logger.trace(format("Opening session on %s", endpoint));
+        }
+        return endpoint.openSession(context);
+    }
+
+    protected Endpoint selectEndpoint(Map<Object, Object> context) {
+        Endpoint fastest = getFastestEndpoint();
+        Endpoint endpoint;
+        switch (sessionBalancing) {
+        case ROUND_ROBIN:
+            endpoint = endpoints.get(abs(next.getAndIncrement() % endpoints.size()));
+            break;
+        case TABLE_AFFINITY:
+            Object affinity = context != null ? context.get(AFFINITY) : null;
+            endpoint = affinity != null ? endpoints.get(abs(affinity.hashCode() % endpoints.size())) : fastest;
+            break;
+        default:
+            endpoint = fastest;
+            break;
+        }
+        return endpoint != fastest && isSlow(endpoint) ? fastest : endpoint;
+    }
+
+    protected Endpoint getFastestEndpoint() {
+        Endpoint fastest = null;
+        double fastestScore = 0;
+        for (Endpoint endpoint : endpoints) {
+            double score = endpoint.getScore();
+            if (fastest == null || score < fastestScore) {
+                fastest = endpoint;
+                fastestScore = score;
+            }
+        }
+        return fastest;
+    }
+
+    /**
+     * Compares endpoint latency with the lowest latency observed across the
+     * endpoints, endpoints with no latency observed yet are never slow.
+     *
+     * @param endpoint
+     *            to check
+     * @return true if endpoint latency exceeds the lowest one by
+     *         {@link #SLOW_FACTOR}
+     */
+    protected boolean isSlow(Endpoint endpoint) {
+        double lowest = 0;
+        for (Endpoint other : endpoints) {
+            double latency = other.getLatency();
+            if (latency > 0 && (lowest == 0 || latency < lowest)) {
+                lowest = latency;
+            }
+        }
+        return lowest > 0 && endpoint.getLatency() > lowest * SLOW_FACTOR;
+    }
+
+    /**
+     * Sessions are closed by the endpoints they were opened on.
+     *
+     * @param session
+     *            to close
+     * @throws SQLException
+     *             if session can't be closed
+     */
+    @Override
+    protected void close(Session session) throws SQLException {
+        session.close();
+    }
+
+    @Override
+    public void closeSession(Session session) throws SQLException {
+        close(session);
+    }
+
+    @Override
+    public void addSessionObserver(SessionObserver sessionObserver) {
+        for (Endpoint endpoint : endpoints) {
+            endpoint.addSessionObserver(sessionObserver);
+        }
+    }
+
+    @Override
+    public void removeSessionObserver(SessionObserver sessionObserver) {
+        for (Endpoint endpoint : endpoints) {
+            endpoint.removeSessionObserver(sessionObserver);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        SQLException failure = null;
+        for (Endpoint endpoint : endpoints) {
+            try {
+                endpoint.close();
+            } catch (SQLException exception) {
+                failure = exception;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Sums up idle sessions pooled by the endpoints
+     *
+     * @return number of idle sessions across the endpoints
+     */
+    @Override
+    public int getIdleSessions() {
+        int idleSessions = 0;
+        for (Endpoint endpoint : endpoints) {
+            idleSessions += endpoint.getIdleSessions();
+        }
+        return idleSessions;
+    }
+
+    /**
+     * Spreads sessions opened ahead of time evenly across the endpoints
+     *
+     * @param sessions
+     *            number of sessions to keep idle across the endpoints
+     * @throws SQLException
+     *             if session can't be opened
+     */
+    @Override
+    public void prewarm(int sessions) throws SQLException {
+        int endpointSessions = (sessions + endpoints.size() - 1) / endpoints.size();
+        for (Endpoint endpoint : endpoints) {
+            endpoint.prewarm(endpointSessions);
+        }
+    }
+
+    public Collection<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public SessionBalancing getSessionBalancing() {
+        return sessionBalancing;
+    }
+
+    /**
+     * Pool of sessions connected to a single endpoint, tracks number of open
+     * sessions and moving average of latency observed on their connections.
+     */
+    public static class Endpoint extends PooledSessionFactory {
+
+        private final String name;
+        private final AtomicInteger sessions = new AtomicInteger();
+        private volatile double latency;
+
+        public Endpoint(String name, ConnectionProvider connectionProvider, DialectResolver dialectResolver,
+                int maxIdleSessions) {
+            super(connectionProvider, dialectResolver, maxIdleSessions, MAX_CACHED_STATEMENTS);
+            this.name = name;
+        }
+
+        @Override
+        public Session openSession(Map<Object, Object> context) throws SQLException {
+            Session session = super.openSession(context);
+            sessions.incrementAndGet();
+            return session;
+        }
+
+        @Override
+        public void closeSession(Session session) throws SQLException {
+            sessions.decrementAndGet();
+            super.closeSession(session);
+        }
+
+        @Override
+        protected Connection openConnection() throws SQLException {
+            return new EndpointConnection(this, super.openConnection());
+        }
+
+        public synchronized void addLatency(long latency) {
+            this.latency = this.latency == 0 ? latency
+                    : LATENCY_WEIGHT * latency + (1 - LATENCY_WEIGHT) * this.latency;
+        }
+
+        /**
+         * Latency weighted by the number of sessions open on the endpoint,
+         * endpoints without observed latency score by open sessions only.
+         *
+         * @return endpoint score, the lower the better
+         */
+        public double getScore() {
+            return (latency + 1) * (sessions.get() + 1);
+        }
+
+        public double getLatency() {
+            return latency;
+        }
+
+        public int getSessions() {
+            return sessions.get();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return format("endpoint %s, sessions %d, latency %.0fns", name, getSessions(), getLatency());
+        }
+    }
+
+    /**
+     * Times commits and batch executions of prepared statements and reports
+     * them to the endpoint as latency samples.
+     */
+    protected static class EndpointConnection extends DelegatingConnection implements ConnectionProxy {
+
+        private final Endpoint endpoint;
+
+        public EndpointConnection(Endpoint endpoint, Connection connection) {
+            super(connection);
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public void commit() throws SQLException {
+            long start = nanoTime();
+            super.commit();
+            endpoint.addLatency(nanoTime() - start);
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql) throws SQLException {
+            return createPreparedStatement(super.prepareStatement(sql));
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency)
+                throws SQLException {
+            return createPreparedStatement(super.prepareStatement(sql, resultSetType, resultSetConcurrency));
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency,
+                int resultSetHoldability) throws SQLException {
+            return createPreparedStatement(
+                    super.prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability));
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+            return createPreparedStatement(super.prepareStatement(sql, autoGeneratedKeys));
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+            return createPreparedStatement(super.prepareStatement(sql, columnIndexes));
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+            return createPreparedStatement(super.prepareStatement(sql, columnNames));
+        }
+
+        protected PreparedStatement createPreparedStatement(PreparedStatement statement) {
+            return new DelegatingPreparedStatement(this, statement) {
+                @Override
+                public int[] executeBatch() throws SQLException {
+                    long start = nanoTime();
+                    int[] result = super.executeBatch();
+                    endpoint.addLatency(nanoTime() - start);
+                    return result;
+                }
+            };
+        }
+
+        @Override
+        public Connection getConnection() {
+            Connection connection = getTarget();
+            return connection instanceof ConnectionProxy ? ((ConnectionProxy) connection).getConnection()
+                    : connection;
+        }
+
+        @Override
+        public ConnectionSpec getConnectionSpec() {
+            Connection connection = getTarget();
+            return connection instanceof ConnectionProxy ? ((ConnectionProxy) connection).getConnectionSpec() : null;
+        }
+    }
+}
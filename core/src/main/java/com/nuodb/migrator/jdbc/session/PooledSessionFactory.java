@@ -0,0 +1,341 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.session;
+
+import com.nuodb.migrator.jdbc.connection.ConnectionProvider;
+import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.dialect.DialectResolver;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
+import static com.nuodb.migrator.jdbc.session.SessionFactories.checkEnforcedTableLocks;
+import static java.lang.Math.min;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Session factory which keeps closed sessions open in a pool and hands them
+ * out again on the next request. Pooled sessions have session observers
+ * applied once, when the underlying connection is opened, and cache prepared
+ * statements by query text, so that repeatedly executed works do not pay for
+ * a connection open, session set up and statement preparation each time.
+ * Dialect and table locks enforcement are resolved once, on the first opened
+ * connection. Connection settings a session is opened with are restored when
+ * it's returned to the pool, so that the next work doesn't inherit settings
+ * changed by the previous one.
+ *
+ * @author Sergey Bushik
+ */
+public class PooledSessionFactory extends SessionFactoryBase implements HasIdleSessions {
+
+    public static final int MAX_IDLE_SESSIONS = 8;
+    public static final int MAX_CACHED_STATEMENTS = 32;
+
+    protected final transient Logger logger = getLogger(getClass());
+
+    private final ConnectionProvider connectionProvider;
+    private final DialectResolver dialectResolver;
+    private final BlockingDeque<PooledSession> idleSessions;
+    private final int maxCachedStatements;
+    private volatile Dialect dialect;
+    private volatile Boolean enforceTableLocksForDDL;
+    private volatile boolean closed;
+
+    public PooledSessionFactory(ConnectionProvider connectionProvider, DialectResolver dialectResolver) {
+        this(connectionProvider, dialectResolver, MAX_IDLE_SESSIONS, MAX_CACHED_STATEMENTS);
+    }
+
+    public PooledSessionFactory(ConnectionProvider connectionProvider, DialectResolver dialectResolver,
+            int maxIdleSessions, int maxCachedStatements) {
+        this.connectionProvider = connectionProvider;
+        this.dialectResolver = dialectResolver;
+        this.idleSessions = new LinkedBlockingDeque<PooledSession>(maxIdleSessions);
+        this.maxCachedStatements = maxCachedStatements;
+    }
+
+    @Override
+    public Session openSession(Map<Object, Object> context) throws SQLException {
+        PooledSession session;
+        while ((session = idleSessions.pollFirst()) != null) {
+            if (session.getConnection().isClosed()) {
+                closePooledSession(session);
+            } else {
+                session.setContext(context);
+                return session;
+            }
+        }
+        session = (PooledSession) super.openSession(context);
+        try {
+            session.saveState();
+        } catch (SQLException exception) {
+            closePooledSession(session);
+            throw exception;
+        }
+        return session;
+    }
+
+    @Override
+    protected Session open(Map<Object, Object> context) throws SQLException {
+        if (closed) {
+            throw new SessionException("Session factory is closed");
+        }
+        Connection connection = openConnection();
+        try {
+            if (dialect == null) {
+                dialect = dialectResolver.resolve(connection);
+            }
+            if (enforceTableLocksForDDL == null) {
+                enforceTableLocksForDDL = checkEnforcedTableLocks(connection);
+            }
+        } catch (SQLException exception) {
+            connection.close();
+            throw exception;
+        }
+        if (logger.isTraceEnabled()) {
+            logger.trace("Opening pooled session");
+        }
+        return new PooledSession(this, connection, dialect, context, enforceTableLocksForDDL, maxCachedStatements);
+    }
+
+    protected Connection openConnection() throws SQLException {
+        return connectionProvider.getConnection();
+    }
+
+    /**
+     * Returns session to the pool unless the pool is full, closed or session
+     * connection is broken, in which case the session is closed for real.
+     *
+     * @param session
+     *            to release
+     * @throws SQLException
+     *             if session connection can't be reset or closed
+     */
+    @Override
+    public void closeSession(Session session) throws SQLException {
+        PooledSession pooledSession = (PooledSession) session;
+        boolean release = !closed;
+        if (release) {
+            try {
+                release = pooledSession.reset();
+            } catch (SQLException exception) {
+                if (logger.isWarnEnabled()) {
+                    logger.warn("Failed resetting pooled session", exception);
+                }
+                release = false;
+            }
+        }
+        if (!release || !idleSessions.offerFirst(pooledSession)) {
+            closePooledSession(pooledSession);
+        } else if (closed && idleSessions.remove(pooledSession)) {
+            closePooledSession(pooledSession);
+        }
+    }
+
+    protected void closePooledSession(PooledSession session) throws SQLException {
+        if (logger.isTraceEnabled()) {
+            logger.trace("Closing pooled session");
+        }
+        try {
+            if (!session.getConnection().isClosed()) {
+                beforeClose(session);
+            }
+        } finally {
+            session.closeStatements();
+            close(session);
+        }
+    }
+
+    @Override
+    protected void close(Session session) throws SQLException {
+        connectionProvider.closeConnection(session.getConnection());
+    }
+
+    @Override
+    public void close() throws SQLException {
+        closed = true;
+        PooledSession session;
+        try {
+            while ((session = idleSessions.pollFirst()) != null) {
+                closePooledSession(session);
+            }
+        } finally {
+            connectionProvider.close();
+        }
+    }
+
+    @Override
+    public int getIdleSessions() {
+        return idleSessions.size();
+    }
+
+    @Override
+    public void prewarm(int sessions) throws SQLException {
+        sessions = min(sessions, idleSessions.size() + idleSessions.remainingCapacity());
+        List<Session> opened = newArrayList();
+        try {
+            while (opened.size() < sessions) {
+                opened.add(openSession());
+            }
+        } finally {
+            for (Session session : opened) {
+                closeSession(session);
+            }
+        }
+    }
+
+    /**
+     * Session caching prepared statements by their query text. A statement
+     * is checked out of the cache while in use and is returned to it by
+     * {@link #closeStatement(Statement)}.
+     */
+    public static class PooledSession extends SessionBase {
+
+        private final Map<String, PreparedStatement> statements;
+        private final Map<Statement, String> checkedOut = new IdentityHashMap<Statement, String>();
+        private boolean autoCommit;
+        private int transactionIsolation;
+        private boolean readOnly;
+        private String catalog;
+
+        public PooledSession(SessionFactoryBase sessionFactoryBase, Connection connection, Dialect dialect,
+                Map context, boolean enforceTableLocksForDDL, final int maxCachedStatements) {
+            super(sessionFactoryBase, connection, dialect, context, enforceTableLocksForDDL);
+            this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > maxCachedStatements) {
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        @Override
+        public PreparedStatement prepareStatement(String query) throws SQLException {
+            PreparedStatement statement = statements.remove(query);
+            if (statement == null || statement.isClosed()) {
+                statement = super.prepareStatement(query);
+            }
+            checkedOut.put(statement, query);
+            return statement;
+        }
+
+        @Override
+        public void closeStatement(Statement statement) throws SQLException {
+            String query = statement != null ? checkedOut.remove(statement) : null;
+            if (query == null || statements.containsKey(query) || statement.isClosed()) {
+                super.closeStatement(statement);
+            } else {
+                PreparedStatement preparedStatement = (PreparedStatement) statement;
+                preparedStatement.clearBatch();
+                preparedStatement.clearParameters();
+                statements.put(query, preparedStatement);
+            }
+        }
+
+        /**
+         * Saves connection settings, which are restored each time session is
+         * returned to the pool
+         *
+         * @throws SQLException
+         *             if connection settings can't be read
+         */
+        protected void saveState() throws SQLException {
+            Connection connection = getConnection();
+            autoCommit = connection.getAutoCommit();
+            transactionIsolation = connection.getTransactionIsolation();
+            readOnly = connection.isReadOnly();
+            catalog = connection.getCatalog();
+        }
+
+        /**
+         * Rolls back uncommitted work, releases checked out statements and
+         * restores connection settings saved when the session was opened.
+         *
+         * @return true if session can be reused
+         * @throws SQLException
+         *             if session connection can't be reset
+         */
+        protected boolean reset() throws SQLException {
+            Connection connection = getConnection();
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+            }
+            for (Iterator<Statement> iterator = checkedOut.keySet().iterator(); iterator.hasNext();) {
+                closeQuietly(iterator.next());
+                iterator.remove();
+            }
+            restoreState(connection);
+            setContext(null);
+            return true;
+        }
+
+        protected void restoreState(Connection connection) throws SQLException {
+            if (connection.getAutoCommit() != autoCommit) {
+                connection.setAutoCommit(autoCommit);
+            }
+            if (connection.getTransactionIsolation() != transactionIsolation) {
+                connection.setTransactionIsolation(transactionIsolation);
+            }
+            if (connection.isReadOnly() != readOnly) {
+                connection.setReadOnly(readOnly);
+            }
+            if (catalog != null && !catalog.equals(connection.getCatalog())) {
+                connection.setCatalog(catalog);
+            }
+        }
+
+        protected void closeStatements() {
+            for (PreparedStatement statement : statements.values()) {
+                closeQuietly(statement);
+            }
+            statements.clear();
+            for (Statement statement : checkedOut.keySet()) {
+                closeQuietly(statement);
+            }
+            checkedOut.clear();
+        }
+    }
+}
@@ -32,7 +32,9 @@ import com.nuodb.migrator.jdbc.metadata.DatabaseInfo;
 import com.nuodb.migrator.spec.ConnectionSpec;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Map;
 
 /**
@@ -50,6 +52,10 @@ public interface Session extends Map {
 
     boolean shouldEnforceTableLocksForDDL();
 
+    PreparedStatement prepareStatement(String query) throws SQLException;
+
+    void closeStatement(Statement statement) throws SQLException;
+
     void execute(Work work, WorkManager workManager) throws Exception;
 
     void close() throws SQLException;
@@ -34,7 +34,9 @@ import com.nuodb.migrator.spec.ConnectionSpec;
 import org.slf4j.Logger;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
@@ -69,6 +71,14 @@ public class SessionBase implements Session {
         this.enforceTableLocksForDDL = enforceTableLocksForDDL;
     }
 
+    protected Map getContext() {
+        return context;
+    }
+
+    protected void setContext(Map context) {
+        this.context = context == null ? newHashMap() : context;
+    }
+
     @Override
     public int size() {
         return context.size();
@@ -154,6 +164,18 @@ public class SessionBase implements Session {
         return enforceTableLocksForDDL;
     }
 
+    @Override
+    public PreparedStatement prepareStatement(String query) throws SQLException {
+        return getConnection().prepareStatement(query);
+    }
+
+    @Override
+    public void closeStatement(Statement statement) throws SQLException {
+        if (statement != null) {
+            statement.close();
+        }
+    }
+
     @Override
     public void execute(Work work, WorkManager workManager) throws Exception {
         workManager.execute(work, this);
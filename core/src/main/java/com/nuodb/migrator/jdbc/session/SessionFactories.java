@@ -38,6 +38,8 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Map;
 
+import static com.nuodb.migrator.jdbc.JdbcUtils.closeQuietly;
+
 /**
  * @author Sergey Bushik
  */
@@ -109,8 +111,43 @@ public class SessionFactories {
         };
     }
 
+    /**
+     * Creates session factory pooling opened sessions for reuse.
+     *
+     * @param connectionProvider
+     *            to open connections with
+     * @param dialectResolver
+     *            to resolve dialect from the first opened connection
+     * @param maxIdleSessions
+     *            maximum number of sessions kept open in the pool
+     * @return pooled session factory.
+     */
+    public static SessionFactory newPooledSessionFactory(ConnectionProvider connectionProvider,
+            DialectResolver dialectResolver, int maxIdleSessions) {
+        return new PooledSessionFactory(connectionProvider, dialectResolver, maxIdleSessions,
+                PooledSessionFactory.MAX_CACHED_STATEMENTS);
+    }
+
+    /**
+     * Creates session factory spreading sessions across several endpoints.
+     *
+     * @param connectionProviders
+     *            connection providers keyed by endpoint name
+     * @param dialectResolver
+     *            to resolve dialect from the first opened connection
+     * @param sessionBalancing
+     *            strategy to select endpoint with
+     * @param maxIdleSessions
+     *            maximum number of sessions kept open per endpoint
+     * @return balanced session factory.
+     */
+    public static SessionFactory newBalancedSessionFactory(Map<String, ConnectionProvider> connectionProviders,
+            DialectResolver dialectResolver, SessionBalancing sessionBalancing, int maxIdleSessions) {
+        return new BalancedSessionFactory(connectionProviders, dialectResolver, sessionBalancing, maxIdleSessions);
+    }
+
     protected static boolean checkEnforcedTableLocks(Connection connection) {
-        Statement statement;
+        Statement statement = null;
         try {
             statement = connection.createStatement();
             ResultSet rs = statement
@@ -125,6 +162,8 @@ public class SessionFactories {
                 return false;
             }
             return false;
+        } finally {
+            closeQuietly(statement);
         }
         return false;
     }
@@ -43,4 +43,6 @@ public interface SessionFactory {
 
     void removeSessionObserver(SessionObserver sessionObserver);
 
+    void close() throws SQLException;
+
 }
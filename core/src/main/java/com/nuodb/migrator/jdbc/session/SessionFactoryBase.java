@@ -83,4 +83,8 @@ public abstract class SessionFactoryBase implements SessionFactory {
     }
 
     protected abstract void close(Session session) throws SQLException;
+
+    @Override
+    public void close() throws SQLException {
+    }
 }
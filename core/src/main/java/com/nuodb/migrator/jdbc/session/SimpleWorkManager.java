@@ -100,7 +100,7 @@ public class SimpleWorkManager<L extends WorkListener> implements WorkManager<L>
     public void execute(Work work, SessionFactory sessionFactory) {
         Session session = null;
         try {
-            session = sessionFactory.openSession();
+            session = sessionFactory.openSession(createContext(work));
             execute(work, session);
         } catch (Exception exception) {
             failure(work, exception);
@@ -109,6 +109,17 @@ public class SimpleWorkManager<L extends WorkListener> implements WorkManager<L>
         }
     }
 
+    /**
+     * Creates context of the session opened for the work
+     *
+     * @param work
+     *            to open session for
+     * @return session context
+     */
+    protected Map<Object, Object> createContext(Work work) {
+        return Maps.newHashMap();
+    }
+
     protected void init(Work work, Session session) throws Exception {
         if (logger.isTraceEnabled()) {
             logger.trace(format("%s work is being initiated", work.getName()));
@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.type;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Large object value bound to a statement as a binary or a character stream,
+ * so that the value is not copied to a driver created {@link java.sql.Blob} or
+ * {@link java.sql.Clob} beforehand.
+ *
+ * @author Sergey Bushik
+ */
+public class JdbcLobStream {
+
+    private final InputStream binaryStream;
+    private final Reader characterStream;
+    private final long length;
+
+    protected JdbcLobStream(InputStream binaryStream, Reader characterStream, long length) {
+        this.binaryStream = binaryStream;
+        this.characterStream = characterStream;
+        this.length = length;
+    }
+
+    /**
+     * Creates binary stream of the given length in bytes
+     *
+     * @param binaryStream
+     *            stream of bytes
+     * @param length
+     *            number of bytes in the stream or -1 if not known
+     * @return binary stream
+     */
+    public static JdbcLobStream newBinaryStream(InputStream binaryStream, long length) {
+        return new JdbcLobStream(binaryStream, null, length);
+    }
+
+    /**
+     * Creates character stream of the given length in characters
+     *
+     * @param characterStream
+     *            stream of characters
+     * @param length
+     *            number of characters in the stream or -1 if not known
+     * @return character stream
+     */
+    public static JdbcLobStream newCharacterStream(Reader characterStream, long length) {
+        return new JdbcLobStream(null, characterStream, length);
+    }
+
+    public void setBinaryStream(PreparedStatement statement, int index) throws SQLException {
+        if (binaryStream == null) {
+            throw new JdbcTypeException("Character stream can't be bound as a binary stream");
+        }
+        if (length >= 0) {
+            statement.setBinaryStream(index, binaryStream, length);
+        } else {
+            statement.setBinaryStream(index, binaryStream);
+        }
+    }
+
+    public void setCharacterStream(PreparedStatement statement, int index) throws SQLException {
+        if (characterStream == null) {
+            throw new JdbcTypeException("Binary stream can't be bound as a character stream");
+        }
+        if (length >= 0) {
+            statement.setCharacterStream(index, characterStream, length);
+        } else {
+            statement.setCharacterStream(index, characterStream);
+        }
+    }
+
+    public void setNCharacterStream(PreparedStatement statement, int index) throws SQLException {
+        if (characterStream == null) {
+            throw new JdbcTypeException("Binary stream can't be bound as a character stream");
+        }
+        if (length >= 0) {
+            statement.setNCharacterStream(index, characterStream, length);
+        } else {
+            statement.setNCharacterStream(index, characterStream);
+        }
+    }
+
+    public InputStream getBinaryStream() {
+        return binaryStream;
+    }
+
+    public Reader getCharacterStream() {
+        return characterStream;
+    }
+
+    public long getLength() {
+        return length;
+    }
+}
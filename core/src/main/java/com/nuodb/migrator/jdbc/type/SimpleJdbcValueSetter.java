@@ -51,8 +51,10 @@ public class SimpleJdbcValueSetter implements JdbcValueSetter {
     @Override
     public <X> void setValue(PreparedStatement statement, Connection connection, int index, Field field, X value,
             Map<String, Object> options) throws SQLException {
-        JdbcTypeAdapter<X> adapter = jdbcTypeRegistry.getJdbcTypeAdapter(value != null ? value.getClass() : null,
-                jdbcTypeValue.getValueClass());
+        // lob streams are bound by the type value as they are, skipping adapter
+        JdbcTypeAdapter<X> adapter = value instanceof JdbcLobStream ? null
+                : jdbcTypeRegistry.getJdbcTypeAdapter(value != null ? value.getClass() : null,
+                        jdbcTypeValue.getValueClass());
         if (adapter != null) {
             value = adapter.wrap(value, connection);
         }
@@ -32,6 +32,7 @@ import com.nuodb.migrator.jdbc.type.JdbcTypeAdapter;
 import com.nuodb.migrator.jdbc.type.JdbcTypeAdapterBase;
 import com.nuodb.migrator.jdbc.type.JdbcTypeException;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Blob;
@@ -97,14 +98,33 @@ public class JdbcBlobTypeAdapter extends JdbcTypeAdapterBase<Blob> {
             }
         } else if (valueClass.isAssignableFrom(InputStream.class)) {
             initBlobBeforeAccess(connection, value);
-            X x = (X) value.getBinaryStream();
-            releaseBlobAfterAccess(connection, value);
-            return x;
+            return (X) releaseBlobOnClose(connection, value, value.getBinaryStream());
         } else {
             throw newUnwrapFailure(valueClass);
         }
     }
 
+    /**
+     * Blob is released once the stream is read & closed by the caller rather
+     * than right after the stream is opened
+     */
+    protected InputStream releaseBlobOnClose(final Connection connection, final Blob blob, InputStream input) {
+        return new FilterInputStream(input) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    try {
+                        releaseBlobAfterAccess(connection, blob);
+                    } catch (SQLException exception) {
+                        throw new IOException(exception);
+                    }
+                }
+            }
+        };
+    }
+
     protected Blob createBlob(Connection connection) throws SQLException {
         return jdbcLobTypeSupport.createBlob(connection);
     }
@@ -33,6 +33,7 @@ import com.nuodb.migrator.jdbc.type.JdbcTypeAdapter;
 import com.nuodb.migrator.jdbc.type.JdbcTypeAdapterBase;
 import com.nuodb.migrator.jdbc.type.JdbcTypeException;
 
+import java.io.FilterReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
@@ -123,9 +124,7 @@ public class JdbcClobTypeAdapter extends JdbcTypeAdapterBase<Clob> {
             }
         } else if (valueClass.isAssignableFrom(Reader.class)) {
             initClobBeforeAccess(connection, value);
-            X x = (X) value.getCharacterStream();
-            releaseClobAfterAccess(connection, value);
-            return x;
+            return (X) releaseClobOnClose(connection, value, value.getCharacterStream());
         } else if (valueClass.isAssignableFrom(InputStream.class)) {
             initClobBeforeAccess(connection, value);
             X x = (X) value.getAsciiStream();
@@ -136,6 +135,27 @@ public class JdbcClobTypeAdapter extends JdbcTypeAdapterBase<Clob> {
         }
     }
 
+    /**
+     * Clob is released once the reader is read & closed by the caller rather
+     * than right after the reader is opened
+     */
+    protected Reader releaseClobOnClose(final Connection connection, final Clob clob, Reader reader) {
+        return new FilterReader(reader) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    try {
+                        releaseClobAfterAccess(connection, clob);
+                    } catch (SQLException exception) {
+                        throw new IOException(exception);
+                    }
+                }
+            }
+        };
+    }
+
     protected Clob createClob(Connection connection) throws SQLException {
         return jdbcLobTypeSupport.createClob(connection);
     }
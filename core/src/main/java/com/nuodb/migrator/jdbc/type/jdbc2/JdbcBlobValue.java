@@ -28,6 +28,7 @@
 package com.nuodb.migrator.jdbc.type.jdbc2;
 
 import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.type.JdbcLobStream;
 import com.nuodb.migrator.jdbc.type.JdbcTypeValue;
 import com.nuodb.migrator.jdbc.type.JdbcTypeValueBase;
 
@@ -37,7 +38,7 @@ import java.util.Map;
 /**
  * @author Sergey Bushik
  */
-public class JdbcBlobValue extends JdbcTypeValueBase<Blob> {
+public class JdbcBlobValue extends JdbcTypeValueBase<Object> {
 
     public static final JdbcTypeValue INSTANCE = new JdbcBlobValue();
 
@@ -51,8 +52,12 @@ public class JdbcBlobValue extends JdbcTypeValueBase<Blob> {
     }
 
     @Override
-    protected void setNullSafeValue(PreparedStatement statement, Blob value, int index, Field field,
+    protected void setNullSafeValue(PreparedStatement statement, Object value, int index, Field field,
             Map<String, Object> options) throws SQLException {
-        statement.setBlob(index, value);
+        if (value instanceof JdbcLobStream) {
+            ((JdbcLobStream) value).setBinaryStream(statement, index);
+        } else {
+            statement.setBlob(index, (Blob) value);
+        }
     }
 }
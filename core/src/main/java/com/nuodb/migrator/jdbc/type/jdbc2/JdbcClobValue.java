@@ -28,6 +28,7 @@
 package com.nuodb.migrator.jdbc.type.jdbc2;
 
 import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.type.JdbcLobStream;
 import com.nuodb.migrator.jdbc.type.JdbcTypeValue;
 import com.nuodb.migrator.jdbc.type.JdbcTypeValueBase;
 
@@ -37,7 +38,7 @@ import java.util.Map;
 /**
  * @author Sergey Bushik
  */
-public class JdbcClobValue extends JdbcTypeValueBase<Clob> {
+public class JdbcClobValue extends JdbcTypeValueBase<Object> {
 
     public static final JdbcTypeValue INSTANCE = new JdbcClobValue();
 
@@ -51,8 +52,12 @@ public class JdbcClobValue extends JdbcTypeValueBase<Clob> {
     }
 
     @Override
-    protected void setNullSafeValue(PreparedStatement statement, Clob value, int index, Field field,
+    protected void setNullSafeValue(PreparedStatement statement, Object value, int index, Field field,
             Map<String, Object> options) throws SQLException {
-        statement.setClob(index, value);
+        if (value instanceof JdbcLobStream) {
+            ((JdbcLobStream) value).setCharacterStream(statement, index);
+        } else {
+            statement.setClob(index, (Clob) value);
+        }
     }
 }
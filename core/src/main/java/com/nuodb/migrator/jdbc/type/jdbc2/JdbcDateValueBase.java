@@ -44,6 +44,8 @@ public abstract class JdbcDateValueBase<T> extends JdbcTypeValueBase<T> {
 
     public static final String TIMEZONE = "TIMEZONE";
 
+    private static final ThreadLocal<Calendar> CALENDARS = new ThreadLocal<Calendar>();
+
     protected JdbcDateValueBase(int typeCode, Class<? extends T> typeClass) {
         super(typeCode, typeClass);
     }
@@ -60,9 +62,25 @@ public abstract class JdbcDateValueBase<T> extends JdbcTypeValueBase<T> {
         if (calendar == null) {
             TimeZone timeZone = getOption(options, TIMEZONE);
             if (timeZone != null) {
-                calendar = getInstance(timeZone);
+                calendar = getCalendar(timeZone);
             }
         }
         return calendar;
     }
+
+    /**
+     * Returns calendar confined to the current thread, which is reused until a
+     * different time zone is requested
+     *
+     * @param timeZone
+     *            time zone of the calendar
+     * @return calendar in the given time zone
+     */
+    public static Calendar getCalendar(TimeZone timeZone) {
+        Calendar calendar = CALENDARS.get();
+        if (calendar == null || !calendar.getTimeZone().equals(timeZone)) {
+            CALENDARS.set(calendar = getInstance(timeZone));
+        }
+        return calendar;
+    }
 }
@@ -28,6 +28,7 @@
 package com.nuodb.migrator.jdbc.type.jdbc4;
 
 import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.type.JdbcLobStream;
 import com.nuodb.migrator.jdbc.type.JdbcTypeValue;
 import com.nuodb.migrator.jdbc.type.JdbcTypeValueBase;
 import com.nuodb.migrator.jdbc.type.JdbcTypeDesc;
@@ -38,7 +39,7 @@ import java.util.Map;
 /**
  * @author Sergey Bushik
  */
-public class JdbcNClobValue extends JdbcTypeValueBase<NClob> {
+public class JdbcNClobValue extends JdbcTypeValueBase<Object> {
 
     public static final JdbcTypeValue INSTANCE = new JdbcNClobValue();
 
@@ -65,8 +66,12 @@ public class JdbcNClobValue extends JdbcTypeValueBase<NClob> {
     }
 
     @Override
-    protected void setNullSafeValue(PreparedStatement statement, NClob value, int index, Field field,
+    protected void setNullSafeValue(PreparedStatement statement, Object value, int index, Field field,
             Map<String, Object> options) throws SQLException {
-        statement.setNClob(index, value);
+        if (value instanceof JdbcLobStream) {
+            ((JdbcLobStream) value).setNCharacterStream(statement, index);
+        } else {
+            statement.setNClob(index, (NClob) value);
+        }
     }
 }
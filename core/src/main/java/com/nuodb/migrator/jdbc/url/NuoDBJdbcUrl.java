@@ -27,7 +27,12 @@
  */
 package com.nuodb.migrator.jdbc.url;
 
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.jdbc.url.JdbcUrlConstants.NUODB_SUB_PROTOCOL;
+import static org.apache.commons.lang3.StringUtils.indexOfAny;
+import static org.apache.commons.lang3.StringUtils.split;
 import static org.apache.commons.lang3.StringUtils.substring;
 
 /**
@@ -35,6 +40,8 @@ import static org.apache.commons.lang3.StringUtils.substring;
  */
 public class NuoDBJdbcUrl extends JdbcUrlBase {
 
+    private List<String> hosts;
+
     public static JdbcUrlParser getParser() {
         return new JdbcUrlParserBase(NUODB_SUB_PROTOCOL) {
             @Override
@@ -51,6 +58,12 @@ public class NuoDBJdbcUrl extends JdbcUrlBase {
     @Override
     protected void parseSubName(String subName) {
         int prefix = subName.indexOf("//");
+        hosts = newArrayList();
+        if (prefix >= 0) {
+            for (String host : split(substring(subName, prefix + 2, getHostsEnd(subName, prefix + 2)), ',')) {
+                hosts.add(host.trim());
+            }
+        }
         int parameters;
         if (prefix >= 0 && (parameters = subName.indexOf('?', prefix + 3)) > 0) {
             parseParameters(getParameters(), substring(subName, parameters + 1), "&");
@@ -71,4 +84,39 @@ public class NuoDBJdbcUrl extends JdbcUrlBase {
     public String getQualifier() {
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Brokers listed in the url, i.e. broker1:port1 and broker2:port2 for
+     * jdbc:com.nuodb://broker1:port1,broker2:port2/database
+     *
+     * @return list of hosts with optional ports
+     */
+    public List<String> getHosts() {
+        return hosts;
+    }
+
+    /**
+     * Constructs url connecting through a single of the listed hosts.
+     *
+     * @param host
+     *            to substitute the listed hosts with
+     * @return url with the host
+     */
+    public String getUrl(String host) {
+        String url = getUrl();
+        int prefix = url.indexOf("//");
+        if (prefix < 0) {
+            return url;
+        }
+        return url.substring(0, prefix + 2) + host + url.substring(getHostsEnd(url, prefix + 2));
+    }
+
+    /**
+     * Hosts are followed by the database or by the parameters if the database
+     * is omitted
+     */
+    private static int getHostsEnd(String url, int start) {
+        int end = indexOfAny(url.substring(start), '/', '?');
+        return end >= 0 ? start + end : url.length();
+    }
+}
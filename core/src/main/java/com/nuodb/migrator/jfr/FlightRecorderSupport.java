@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+
+/**
+ * @author Sergey Bushik
+ */
+public class FlightRecorderSupport {
+
+    private static final String EVENT_CLASS = "jdk.jfr.Event";
+
+    private FlightRecorderSupport() {
+    }
+
+    static boolean isAvailable() {
+        try {
+            Class.forName(EVENT_CLASS, false, FlightRecorderSupport.class.getClassLoader());
+            return true;
+        } catch (Throwable throwable) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks if events of the given class are recorded by any of the running
+     * recordings. Callers check {@link MigratorEvents#AVAILABLE} first, so that
+     * jdk.jfr classes are not resolved when the API is absent.
+     *
+     * @param eventClass
+     *            class of the event
+     * @return true if events of the class are recorded
+     */
+    public static boolean isEnabled(Class<? extends Event> eventClass) {
+        return EventType.getEventType(eventClass).isEnabled();
+    }
+}
@@ -29,10 +29,23 @@ package com.nuodb.migrator.job;
 
 import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistryResolver;
+import com.nuodb.migrator.jdbc.connection.ConnectionProvider;
 import com.nuodb.migrator.jdbc.connection.ConnectionProviderFactory;
+import com.nuodb.migrator.jdbc.connection.DriverConnectionProvider;
+import com.nuodb.migrator.jdbc.connection.LoggingConnectionProvider;
 import com.nuodb.migrator.jdbc.dialect.DialectResolver;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionCache;
 import com.nuodb.migrator.jdbc.metadata.inspector.InspectionManager;
+import com.nuodb.migrator.jdbc.metadata.snapshot.SnapshotInspectionCache;
+import com.nuodb.migrator.jdbc.session.SessionFactory;
+import com.nuodb.migrator.metrics.MetricRegistry;
+import com.nuodb.migrator.metrics.MetricsReporter;
+import com.nuodb.migrator.spec.ConnectionSpec;
 import com.nuodb.migrator.spec.JobSpec;
+import com.nuodb.migrator.spec.MetaDataSpec;
+import com.nuodb.migrator.spec.MetricsSpec;
+
+import java.io.File;
 
 import static com.nuodb.migrator.context.ContextUtils.createService;
 
@@ -86,6 +99,60 @@ public abstract class HasServicesJobBase<J extends JobSpec> extends HasJobSpecBa
         return createService(getInspectionManager(), InspectionManager.class);
     }
 
+    /**
+     * Creates inspection manager inspecting tables in parallel over sessions
+     * opened from the given session factory
+     *
+     * @param sessionFactory
+     *            factory of inspection sessions
+     * @param threads
+     *            number of parallel inspection sessions
+     * @return inspection manager
+     */
+    public InspectionManager createInspectionManager(SessionFactory sessionFactory, int threads) {
+        InspectionManager inspectionManager = createInspectionManager();
+        inspectionManager.setSessionFactory(sessionFactory);
+        inspectionManager.setThreads(threads);
+        return inspectionManager;
+    }
+
+    /**
+     * Creates cache serving inspected objects from a snapshot kept in the
+     * snapshot directory of the meta data spec
+     *
+     * @param metaDataSpec
+     *            meta data spec
+     * @return inspection cache or null if snapshot directory is not set
+     */
+    public InspectionCache createInspectionCache(MetaDataSpec metaDataSpec) {
+        String snapshotDirectory = metaDataSpec != null ? metaDataSpec.getSnapshotDirectory() : null;
+        return snapshotDirectory != null ? new SnapshotInspectionCache(new File(snapshotDirectory)) : null;
+    }
+
+    /**
+     * Creates reporter logging progress of the job and writing its metrics as
+     * requested by the metrics spec
+     *
+     * @param metricRegistry
+     *            metrics of the job
+     * @param name
+     *            name of the job in progress reports
+     * @param metricsSpec
+     *            metrics spec or null for default reporting
+     * @return metrics reporter
+     */
+    public MetricsReporter createMetricsReporter(MetricRegistry metricRegistry, String name,
+            MetricsSpec metricsSpec) {
+        MetricsReporter metricsReporter = new MetricsReporter(metricRegistry, name);
+        if (metricsSpec != null && metricsSpec.getInterval() != null) {
+            metricsReporter.setInterval(metricsSpec.getInterval());
+        }
+        if (metricsSpec != null && metricsSpec.getPath() != null) {
+            metricsReporter.setFile(new File(metricsSpec.getPath()));
+        }
+        return metricsReporter;
+    }
+
     public void setInspectionManager(InspectionManager inspectionManager) {
         this.inspectionManager = inspectionManager;
     }
@@ -98,6 +165,57 @@ public abstract class HasServicesJobBase<J extends JobSpec> extends HasJobSpecBa
         return createService(getConnectionProviderFactory(), ConnectionProviderFactory.class);
     }
 
+    /**
+     * Creates connection provider for the job running the given number of
+     * threads. Pool of driver connections is capped at a connection per
+     * worker thread and per thread spawned by the executor to compensate a
+     * worker blocked joining its forks, plus the connection of the session
+     * held by the job for its whole run.
+     *
+     * @param connectionSpec
+     *            connection spec
+     * @param threads
+     *            number of job threads
+     * @return connection provider
+     */
+    public ConnectionProvider createConnectionProvider(ConnectionSpec connectionSpec, int threads) {
+        ConnectionProvider connectionProvider = createConnectionProviderFactory()
+                .createConnectionProvider(connectionSpec);
+        DriverConnectionProvider driverConnectionProvider = getDriverConnectionProvider(connectionProvider);
+        if (driverConnectionProvider != null) {
+            driverConnectionProvider.setMaxConnections(getMaxConnections(threads));
+        }
+        return connectionProvider;
+    }
+
+    /**
+     * Returns maximum number of pooled connections for the given number of
+     * job threads
+     *
+     * @param threads
+     *            number of job threads
+     * @return maximum number of connections
+     */
+    public static int getMaxConnections(int threads) {
+        return 2 * threads + 1;
+    }
+
+    /**
+     * Unwraps driver connection provider from logging connection providers
+     *
+     * @param connectionProvider
+     *            to unwrap
+     * @return driver connection provider or null if connections are provided
+     *         otherwise
+     */
+    public static DriverConnectionProvider getDriverConnectionProvider(ConnectionProvider connectionProvider) {
+        while (connectionProvider instanceof LoggingConnectionProvider) {
+            connectionProvider = ((LoggingConnectionProvider) connectionProvider).getConnectionProvider();
+        }
+        return connectionProvider instanceof DriverConnectionProvider
+                ? (DriverConnectionProvider) connectionProvider : null;
+    }
+
     public void setConnectionProviderFactory(ConnectionProviderFactory connectionProviderFactory) {
         this.connectionProviderFactory = connectionProviderFactory;
     }
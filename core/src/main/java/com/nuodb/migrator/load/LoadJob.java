@@ -30,23 +30,39 @@ package com.nuodb.migrator.load;
 import com.nuodb.migrator.MigratorException;
 import com.nuodb.migrator.backup.loader.*;
 import com.nuodb.migrator.jdbc.commit.CommitStrategy;
+import com.nuodb.migrator.jdbc.connection.ConnectionProvider;
+import com.nuodb.migrator.jdbc.connection.DriverConnectionProvider;
 import com.nuodb.migrator.jdbc.dialect.TranslationConfig;
 import com.nuodb.migrator.jdbc.metadata.filter.MetaDataFilterManager;
 import com.nuodb.migrator.jdbc.query.InsertType;
+import com.nuodb.migrator.jdbc.session.HasIdleSessions;
+import com.nuodb.migrator.jdbc.session.SessionBalancing;
 import com.nuodb.migrator.jdbc.session.SessionFactory;
+import com.nuodb.migrator.jdbc.url.JdbcUrl;
+import com.nuodb.migrator.jdbc.url.NuoDBJdbcUrl;
 import com.nuodb.migrator.job.ScriptGeneratorJobBase;
+import com.nuodb.migrator.metrics.Gauge;
+import com.nuodb.migrator.metrics.MetricRegistry;
+import com.nuodb.migrator.metrics.MetricsReporter;
 import com.nuodb.migrator.spec.ConnectionSpec;
+import com.nuodb.migrator.spec.DriverConnectionSpec;
 import com.nuodb.migrator.spec.LoadJobSpec;
+import com.nuodb.migrator.spec.MetricsSpec;
 import com.nuodb.migrator.spec.MigrationMode;
 import com.nuodb.migrator.spec.ResourceSpec;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newLinkedHashMap;
 import static com.nuodb.migrator.backup.loader.BackupLoader.THREADS;
-import static com.nuodb.migrator.jdbc.session.SessionFactories.newSessionFactory;
+import static com.nuodb.migrator.jdbc.session.SessionFactories.newBalancedSessionFactory;
+import static com.nuodb.migrator.jdbc.session.SessionFactories.newPooledSessionFactory;
 import static com.nuodb.migrator.jdbc.session.SessionObservers.newSessionTimeZoneSetter;
+import static com.nuodb.migrator.metrics.MetricNames.SESSIONS_IDLE;
 
 /**
  * @author Sergey Bushik
@@ -55,6 +71,7 @@ import static com.nuodb.migrator.jdbc.session.SessionObservers.newSessionTimeZon
 public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
 
     private BackupLoader backupLoader;
+    private MetricsReporter metricsReporter;
 
     public LoadJob(LoadJobSpec jobSpec) {
         super(jobSpec);
@@ -68,6 +85,9 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         for (BackupLoaderListener listener : getListeners()) {
             backupLoader.addListener(listener);
         }
+        MetricRegistry metricRegistry = new MetricRegistry();
+        backupLoader.addListener(new MetricsBackupLoaderListener(metricRegistry));
+        backupLoader.setMetricRegistry(metricRegistry);
         backupLoader.setCommitStrategy(getCommitStrategy());
         backupLoader.setDialectResolver(createDialectResolver());
         backupLoader.setFormatAttributes(getFormatAttributes());
@@ -77,35 +97,125 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         backupLoader.setIdentifierNormalizer(getIdentifierNormalizer());
         backupLoader.setIdentifierQuoting(getIdentifierQuoting());
         backupLoader.setInsertTypeFactory(createInsertTypeMapper());
-        backupLoader.setInspectionManager(createInspectionManager());
+        int threads = getThreads() != null ? getThreads() : THREADS;
+        final SessionFactory targetSessionFactory = createTargetSessionFactory(threads, metricRegistry);
+        if (targetSessionFactory instanceof HasIdleSessions) {
+            metricRegistry.register(SESSIONS_IDLE, new Gauge() {
+                @Override
+                public long getValue() {
+                    return ((HasIdleSessions) targetSessionFactory).getIdleSessions();
+                }
+            });
+        }
+        backupLoader.setInspectionManager(createInspectionManager(targetSessionFactory, threads));
         backupLoader.setMetaDataSpec(getMetaDataSpec());
         backupLoader.setMigrationModes(getMigrationModes());
         backupLoader.setNamingStrategies(getNamingStrategies());
         backupLoader.setParallelizer(getParallelizer());
+        backupLoader.setResume(isResume());
         backupLoader.setScriptTypes(getScriptTypes());
         backupLoader.setMetaDataFilterManager(getMetaDataFilterManager());
         backupLoader.setTargetSpec(getTargetSpec());
-        backupLoader.setTargetSessionFactory(createTargetSessionFactory());
+        backupLoader.setTargetSessionFactory(targetSessionFactory);
         backupLoader.setTimeZone(getTimeZone());
-        backupLoader.setThreads(getThreads() != null ? getThreads() : THREADS);
+        backupLoader.setThreads(threads);
         backupLoader.setTranslationConfig(getTranslationConfig());
         backupLoader.setValueFormatRegistryResolver(createValueFormatRegistryResolver());
         setBackupLoader(backupLoader);
+        setMetricsReporter(createMetricsReporter(metricRegistry, "Load", getMetricsSpec()));
     }
 
     protected InsertTypeFactory createInsertTypeMapper() {
         return new SimpleInsertTypeFactory(getInsertType(), getTableInsertTypes());
     }
 
-    protected SessionFactory createTargetSessionFactory() {
-        SessionFactory targetSessionFactory = newSessionFactory(
-                createConnectionProviderFactory().createConnectionProvider(getTargetSpec()), createDialectResolver());
+    /**
+     * Target sessions are pooled, so that table loads reuse connections and
+     * prepared statements instead of opening them per table. Pool keeps a
+     * session per loader thread plus the one used for schema changes. If
+     * session balancing is requested and target url lists several hosts,
+     * sessions are spread across the hosts, each having its own pool.
+     * Connection pools are sized from the number of loader threads and their
+     * statistics are reported with the job metrics.
+     *
+     * @param threads
+     *            number of loader threads
+     * @param metricRegistry
+     *            metrics of the job
+     * @return pooled target session factory
+     */
+    protected SessionFactory createTargetSessionFactory(int threads, MetricRegistry metricRegistry) {
+        Collection<ConnectionProvider> connectionProviders = newArrayList();
+        SessionBalancing sessionBalancing = getSessionBalancing();
+        Map<String, ConnectionSpec> endpoints = sessionBalancing != null ? createTargetEndpoints() : null;
+        SessionFactory targetSessionFactory;
+        if (endpoints != null && endpoints.size() > 1) {
+            Map<String, ConnectionProvider> endpointConnectionProviders = newLinkedHashMap();
+            for (Map.Entry<String, ConnectionSpec> endpoint : endpoints.entrySet()) {
+                endpointConnectionProviders.put(endpoint.getKey(),
+                        createConnectionProvider(endpoint.getValue(), threads));
+            }
+            connectionProviders.addAll(endpointConnectionProviders.values());
+            targetSessionFactory = newBalancedSessionFactory(endpointConnectionProviders, createDialectResolver(),
+                    sessionBalancing, threads + 1);
+        } else {
+            ConnectionProvider connectionProvider = createConnectionProvider(getTargetSpec(), threads);
+            connectionProviders.add(connectionProvider);
+            targetSessionFactory = newPooledSessionFactory(connectionProvider, createDialectResolver(), threads + 1);
+        }
+        Collection<DriverConnectionProvider> driverConnectionProviders = newArrayList();
+        for (ConnectionProvider connectionProvider : connectionProviders) {
+            DriverConnectionProvider driverConnectionProvider = getDriverConnectionProvider(connectionProvider);
+            if (driverConnectionProvider != null) {
+                driverConnectionProviders.add(driverConnectionProvider);
+            }
+        }
+        if (!driverConnectionProviders.isEmpty()) {
+            metricRegistry.registerConnectionPools(driverConnectionProviders);
+        }
         targetSessionFactory.addSessionObserver(newSessionTimeZoneSetter(getTimeZone()));
         return targetSessionFactory;
     }
 
+    /**
+     * Splits NuoDB target url listing several hosts into connection specs
+     * connecting through a single host each.
+     *
+     * @return connection specs keyed by host or null if target url is not a
+     *         NuoDB url
+     */
+    protected Map<String, ConnectionSpec> createTargetEndpoints() {
+        ConnectionSpec targetSpec = getTargetSpec();
+        JdbcUrl jdbcUrl = targetSpec instanceof DriverConnectionSpec
+                ? ((DriverConnectionSpec) targetSpec).getJdbcUrl() : null;
+        if (!(jdbcUrl instanceof NuoDBJdbcUrl)) {
+            return null;
+        }
+        DriverConnectionSpec driverConnectionSpec = (DriverConnectionSpec) targetSpec;
+        List<String> hosts = ((NuoDBJdbcUrl) jdbcUrl).getHosts();
+        Map<String, ConnectionSpec> endpoints = newLinkedHashMap();
+        for (String host : hosts) {
+            DriverConnectionSpec endpoint = new DriverConnectionSpec();
+            endpoint.setId(driverConnectionSpec.getId());
+            endpoint.setType(driverConnectionSpec.getType());
+            endpoint.setDriver(driverConnectionSpec.getDriver());
+            endpoint.setUrl(((NuoDBJdbcUrl) jdbcUrl).getUrl(host));
+            endpoint.setUsername(driverConnectionSpec.getUsername());
+            endpoint.setPassword(driverConnectionSpec.getPassword());
+            endpoint.setProperties(driverConnectionSpec.getProperties());
+            endpoint.setCatalog(driverConnectionSpec.getCatalog());
+            endpoint.setSchema(driverConnectionSpec.getSchema());
+            endpoint.setAutoCommit(driverConnectionSpec.getAutoCommit());
+            endpoint.setTransactionIsolation(driverConnectionSpec.getTransactionIsolation());
+            endpoints.put(host, endpoint);
+        }
+        return endpoints;
+    }
+
     @Override
     public void execute() throws Exception {
+        MetricsReporter metricsReporter = getMetricsReporter();
+        metricsReporter.start();
         try {
             BackupLoader backupLoader = getBackupLoader();
             backupLoader.load(getPath());
@@ -113,11 +223,18 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
             throw exception;
         } catch (Exception exception) {
             throw new LoadException(exception);
+        } finally {
+            metricsReporter.close();
         }
     }
 
     @Override
     public void close() throws Exception {
+        BackupLoader backupLoader = getBackupLoader();
+        SessionFactory targetSessionFactory = backupLoader != null ? backupLoader.getTargetSessionFactory() : null;
+        if (targetSessionFactory != null) {
+            targetSessionFactory.close();
+        }
     }
 
     protected BackupLoader getBackupLoader() {
@@ -128,6 +245,14 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         this.backupLoader = backupLoader;
     }
 
+    protected MetricsReporter getMetricsReporter() {
+        return metricsReporter;
+    }
+
+    protected void setMetricsReporter(MetricsReporter metricsReporter) {
+        this.metricsReporter = metricsReporter;
+    }
+
     protected Collection<BackupLoaderListener> getListeners() {
         return getJobSpec().getListeners();
     }
@@ -148,6 +273,10 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         return getJobSpec().getMigrationModes();
     }
 
+    protected MetricsSpec getMetricsSpec() {
+        return getJobSpec().getMetricsSpec();
+    }
+
     protected Map<String, InsertType> getTableInsertTypes() {
         return getJobSpec().getTableInsertTypes();
     }
@@ -164,6 +293,14 @@ public class LoadJob extends ScriptGeneratorJobBase<LoadJobSpec> {
         return getJobSpec().getParallelizer();
     }
 
+    protected boolean isResume() {
+        return getJobSpec().isResume();
+    }
+
+    protected SessionBalancing getSessionBalancing() {
+        return getJobSpec().getSessionBalancing();
+    }
+
     protected MetaDataFilterManager getMetaDataFilterManager() {
         return getJobSpec().getMetaDataFilterManager();
     }
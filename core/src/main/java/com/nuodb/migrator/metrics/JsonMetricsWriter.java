@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.metrics;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Writes metrics as a JSON document, latencies are in milliseconds
+ *
+ * @author Sergey Bushik
+ */
+public class JsonMetricsWriter implements MetricsWriter {
+
+    private static final double NANOS_PER_MILLI = MILLISECONDS.toNanos(1);
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Override
+    public void write(MetricRegistry metricRegistry, Writer writer) throws IOException {
+        JsonGenerator generator = jsonFactory.createJsonGenerator(writer);
+        generator.useDefaultPrettyPrinter();
+        generator.writeStartObject();
+        generator.writeNumberField("timestamp", System.currentTimeMillis());
+        generator.writeArrayFieldStart("meters");
+        for (Map.Entry<MetricName, Meter> entry : metricRegistry.getMeters().entrySet()) {
+            generator.writeStartObject();
+            writeName(generator, entry.getKey());
+            generator.writeNumberField("count", entry.getValue().getCount());
+            generator.writeNumberField("mean_rate", entry.getValue().getMeanRate());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeArrayFieldStart("histograms");
+        for (Map.Entry<MetricName, Histogram> entry : metricRegistry.getHistograms().entrySet()) {
+            Histogram histogram = entry.getValue();
+            generator.writeStartObject();
+            writeName(generator, entry.getKey());
+            generator.writeNumberField("count", histogram.getCount());
+            generator.writeNumberField("mean_ms", histogram.getMean() / NANOS_PER_MILLI);
+            generator.writeNumberField("p50_ms", histogram.getPercentile(0.5) / NANOS_PER_MILLI);
+            generator.writeNumberField("p99_ms", histogram.getPercentile(0.99) / NANOS_PER_MILLI);
+            generator.writeNumberField("max_ms", histogram.getMax() / NANOS_PER_MILLI);
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeArrayFieldStart("gauges");
+        for (Map.Entry<MetricName, Gauge> entry : metricRegistry.getGauges().entrySet()) {
+            generator.writeStartObject();
+            writeName(generator, entry.getKey());
+            generator.writeNumberField("value", entry.getValue().getValue());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    protected void writeName(JsonGenerator generator, MetricName name) throws IOException {
+        generator.writeStringField("name", name.getName());
+        if (name.getRowSet() != null) {
+            generator.writeStringField("row_set", name.getRowSet());
+        }
+    }
+}
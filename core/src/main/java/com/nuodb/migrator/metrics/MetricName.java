@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.metrics;
+
+import com.nuodb.migrator.utils.ObjectUtils;
+
+/**
+ * Metric name optionally qualified with a row set the metric is collected for
+ *
+ * @author Sergey Bushik
+ */
+public class MetricName implements Comparable<MetricName> {
+
+    private final String name;
+    private final String rowSet;
+
+    public MetricName(String name) {
+        this(name, null);
+    }
+
+    public MetricName(String name, String rowSet) {
+        this.name = name;
+        this.rowSet = rowSet;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getRowSet() {
+        return rowSet;
+    }
+
+    @Override
+    public int compareTo(MetricName that) {
+        int result = name.compareTo(that.name);
+        if (result == 0) {
+            result = rowSet == null ? (that.rowSet == null ? 0 : -1)
+                    : (that.rowSet == null ? 1 : rowSet.compareTo(that.rowSet));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        MetricName that = (MetricName) o;
+
+        if (!name.equals(that.name))
+            return false;
+        if (rowSet != null ? !rowSet.equals(that.rowSet) : that.rowSet != null)
+            return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = name.hashCode();
+        result = 31 * result + (rowSet != null ? rowSet.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return ObjectUtils.toString(this);
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.metrics;
+
+/**
+ * Names of the metrics collected by dump and load jobs
+ *
+ * @author Sergey Bushik
+ */
+public interface MetricNames {
+
+    /**
+     * Rows written or loaded, total and per row set
+     */
+    final String ROWS = "rows";
+
+    /**
+     * Rows to be loaded according to the backup catalog less the rows loaded
+     * by the previous runs, marked once the catalog is read, used for ETA
+     */
+    final String ROWS_EXPECTED = "rows.expected";
+
+    /**
+     * Bytes of written or loaded chunks, total and per row set
+     */
+    final String BYTES = "bytes";
+
+    /**
+     * Latency of ResultSet.next() calls in nanoseconds
+     */
+    final String FETCH_LATENCY = "fetch.latency";
+
+    /**
+     * Latency of statement batch execution and commit in nanoseconds
+     */
+    final String COMMIT_LATENCY = "commit.latency";
+
+    final String EXECUTOR_THREADS = "executor.threads";
+
+    final String EXECUTOR_ACTIVE = "executor.active";
+
+    final String EXECUTOR_QUEUED = "executor.queued";
+
+    final String SESSIONS_IDLE = "sessions.idle";
+
+    final String POOL_ACTIVE = "pool.active";
+
+    final String POOL_IDLE = "pool.idle";
+
+    /**
+     * Total time spent by threads waiting for a pooled connection in
+     * milliseconds
+     */
+    final String POOL_WAIT_TIME = "pool.wait.time";
+
+    final String POOL_MAX_WAIT_TIME = "pool.max.wait.time";
+}
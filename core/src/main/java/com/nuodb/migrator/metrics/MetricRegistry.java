@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.metrics;
+
+import com.nuodb.migrator.jdbc.connection.ConnectionPool;
+import com.nuodb.migrator.jdbc.connection.DriverConnectionProvider;
+import com.nuodb.migrator.utils.concurrent.ForkJoinPool;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.nuodb.migrator.metrics.MetricNames.EXECUTOR_ACTIVE;
+import static com.nuodb.migrator.metrics.MetricNames.EXECUTOR_QUEUED;
+import static com.nuodb.migrator.metrics.MetricNames.EXECUTOR_THREADS;
+import static com.nuodb.migrator.metrics.MetricNames.POOL_ACTIVE;
+import static com.nuodb.migrator.metrics.MetricNames.POOL_IDLE;
+import static com.nuodb.migrator.metrics.MetricNames.POOL_MAX_WAIT_TIME;
+import static com.nuodb.migrator.metrics.MetricNames.POOL_WAIT_TIME;
+import static java.lang.Math.max;
+
+/**
+ * Registry of the metrics collected by a job, metrics are created on the first
+ * access and looked up without locking afterwards.
+ *
+ * @author Sergey Bushik
+ */
+public class MetricRegistry {
+
+    private final ConcurrentMap<MetricName, Meter> meters = new ConcurrentHashMap<MetricName, Meter>();
+    private final ConcurrentMap<MetricName, Histogram> histograms = new ConcurrentHashMap<MetricName, Histogram>();
+    private final ConcurrentMap<MetricName, Gauge> gauges = new ConcurrentHashMap<MetricName, Gauge>();
+
+    public Meter meter(String name) {
+        return meter(new MetricName(name));
+    }
+
+    public Meter meter(String name, String rowSet) {
+        return meter(new MetricName(name, rowSet));
+    }
+
+    public Meter meter(MetricName name) {
+        Meter meter = meters.get(name);
+        if (meter == null) {
+            Meter previous = meters.putIfAbsent(name, meter = new Meter());
+            if (previous != null) {
+                meter = previous;
+            }
+        }
+        return meter;
+    }
+
+    public Histogram histogram(String name) {
+        return histogram(new MetricName(name));
+    }
+
+    public Histogram histogram(MetricName name) {
+        Histogram histogram = histograms.get(name);
+        if (histogram == null) {
+            Histogram previous = histograms.putIfAbsent(name, histogram = new Histogram());
+            if (previous != null) {
+                histogram = previous;
+            }
+        }
+        return histogram;
+    }
+
+    public void register(String name, Gauge gauge) {
+        gauges.put(new MetricName(name), gauge);
+    }
+
+    /**
+     * Registers gauges of the executor parallelism, active threads and queued
+     * tasks
+     */
+    public void registerExecutor(final ForkJoinPool executor) {
+        register(EXECUTOR_THREADS, new Gauge() {
+            @Override
+            public long getValue() {
+                return executor.getParallelism();
+            }
+        });
+        register(EXECUTOR_ACTIVE, new Gauge() {
+            @Override
+            public long getValue() {
+                return executor.getActiveThreadCount();
+            }
+        });
+        register(EXECUTOR_QUEUED, new Gauge() {
+            @Override
+            public long getValue() {
+                return executor.getQueuedTaskCount() + executor.getQueuedSubmissionCount();
+            }
+        });
+    }
+
+    /**
+     * Registers gauges of active and idle connections and of the time spent
+     * waiting for a connection, summed up over the pools of the given
+     * providers. Pools are created on the first connection request, so
+     * providers without a pool yet report zeros.
+     */
+    public void registerConnectionPools(final Collection<DriverConnectionProvider> connectionProviders) {
+        register(POOL_ACTIVE, new ConnectionPoolGauge(connectionProviders) {
+            @Override
+            protected long getValue(ConnectionPool connectionPool, long value) {
+                return value + connectionPool.getActive();
+            }
+        });
+        register(POOL_IDLE, new ConnectionPoolGauge(connectionProviders) {
+            @Override
+            protected long getValue(ConnectionPool connectionPool, long value) {
+                return value + connectionPool.getIdle();
+            }
+        });
+        register(POOL_WAIT_TIME, new ConnectionPoolGauge(connectionProviders) {
+            @Override
+            protected long getValue(ConnectionPool connectionPool, long value) {
+                return value + connectionPool.getWaitTime();
+            }
+        });
+        register(POOL_MAX_WAIT_TIME, new ConnectionPoolGauge(connectionProviders) {
+            @Override
+            protected long getValue(ConnectionPool connectionPool, long value) {
+                return max(value, connectionPool.getMaxWaitTime());
+            }
+        });
+    }
+
+    public Gauge getGauge(String name) {
+        return gauges.get(new MetricName(name));
+    }
+
+    /**
+     * Returns count of the meter or 0 if there is no such meter
+     */
+    public long getCount(String name) {
+        Meter meter = meters.get(new MetricName(name));
+        return meter != null ? meter.getCount() : 0;
+    }
+
+    public Map<MetricName, Meter> getMeters() {
+        return new TreeMap<MetricName, Meter>(meters);
+    }
+
+    public Map<MetricName, Histogram> getHistograms() {
+        return new TreeMap<MetricName, Histogram>(histograms);
+    }
+
+    public Map<MetricName, Gauge> getGauges() {
+        return new TreeMap<MetricName, Gauge>(gauges);
+    }
+
+    static abstract class ConnectionPoolGauge implements Gauge {
+
+        private final Collection<DriverConnectionProvider> connectionProviders;
+
+        protected ConnectionPoolGauge(Collection<DriverConnectionProvider> connectionProviders) {
+            this.connectionProviders = connectionProviders;
+        }
+
+        @Override
+        public long getValue() {
+            long value = 0;
+            for (DriverConnectionProvider connectionProvider : connectionProviders) {
+                ConnectionPool connectionPool = connectionProvider.getConnectionPool();
+                if (connectionPool != null) {
+                    value = getValue(connectionPool, value);
+                }
+            }
+            return value;
+        }
+
+        protected abstract long getValue(ConnectionPool connectionPool, long value);
+    }
+}
@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.metrics;
+
+import org.slf4j.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+import static com.nuodb.migrator.metrics.MetricNames.BYTES;
+import static com.nuodb.migrator.metrics.MetricNames.EXECUTOR_ACTIVE;
+import static com.nuodb.migrator.metrics.MetricNames.EXECUTOR_QUEUED;
+import static com.nuodb.migrator.metrics.MetricNames.EXECUTOR_THREADS;
+import static com.nuodb.migrator.metrics.MetricNames.ROWS;
+import static com.nuodb.migrator.metrics.MetricNames.ROWS_EXPECTED;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.commons.io.FileUtils.byteCountToDisplaySize;
+import static org.apache.commons.io.FileUtils.openOutputStream;
+import static org.apache.commons.lang3.StringUtils.endsWithIgnoreCase;
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Periodically logs a progress line with throughput of the running job, its
+ * executor utilization and ETA, and optionally writes all of the metrics to a
+ * file, which is replaced atomically on each report. The file is written in
+ * JSON if its name ends with .json and in Prometheus text format otherwise.
+ *
+ * @author Sergey Bushik
+ */
+public class MetricsReporter implements Runnable, Closeable {
+
+    public static final int INTERVAL = 30;
+    public static final String JSON_SUFFIX = ".json";
+
+    protected final transient Logger logger = getLogger(getClass());
+
+    private final MetricRegistry metricRegistry;
+    private final String name;
+    private int interval = INTERVAL;
+    private File file;
+    private ScheduledExecutorService scheduler;
+    private long startTime;
+    private long lastTime;
+    private long lastRows;
+    private long lastBytes;
+
+    public MetricsReporter(MetricRegistry metricRegistry, String name) {
+        this.metricRegistry = metricRegistry;
+        this.name = name;
+    }
+
+    public synchronized void start() {
+        startTime = lastTime = nanoTime();
+        if (interval > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, name + " metrics");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            scheduler.scheduleAtFixedRate(this, interval, interval, SECONDS);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            report();
+        } catch (Exception exception) {
+            // failed report should not cancel the following ones
+            if (logger.isWarnEnabled()) {
+                logger.warn(format("Failed reporting %s metrics", name), exception);
+            }
+        }
+    }
+
+    public synchronized void report() throws IOException {
+        reportProgress();
+        if (file != null) {
+            writeMetrics();
+        }
+    }
+
+    protected void reportProgress() {
+        long time = nanoTime();
+        long rows = metricRegistry.getCount(ROWS);
+        long bytes = metricRegistry.getCount(BYTES);
+        double elapsed = (double) (time - lastTime) / SECONDS.toNanos(1);
+        if (logger.isInfoEnabled()) {
+            StringBuilder progress = new StringBuilder();
+            progress.append(format("%s progress: %d rows at %d rows/s, %s at %s/s", name, rows,
+                    rate(rows - lastRows, elapsed), byteCountToDisplaySize(bytes),
+                    byteCountToDisplaySize(rate(bytes - lastBytes, elapsed))));
+            Gauge threads = metricRegistry.getGauge(EXECUTOR_THREADS);
+            Gauge active = metricRegistry.getGauge(EXECUTOR_ACTIVE);
+            Gauge queued = metricRegistry.getGauge(EXECUTOR_QUEUED);
+            if (threads != null && active != null && queued != null) {
+                progress.append(format(", %d of %d threads active, %d tasks queued", active.getValue(),
+                        threads.getValue(), queued.getValue()));
+            }
+            long expected = metricRegistry.getCount(ROWS_EXPECTED);
+            long total = time - startTime;
+            if (expected > rows && rows > 0) {
+                long eta = (long) ((double) total / rows * (expected - rows));
+                progress.append(", ETA ").append(duration(eta));
+            }
+            logger.info(progress.toString());
+        }
+        if (logger.isDebugEnabled()) {
+            for (Map.Entry<MetricName, Meter> entry : metricRegistry.getMeters().entrySet()) {
+                MetricName metricName = entry.getKey();
+                if (metricName.getRowSet() != null && ROWS.equals(metricName.getName())) {
+                    Meter meter = entry.getValue();
+                    logger.debug(format("%s progress of %s: %d rows at %.1f rows/s", name, metricName.getRowSet(),
+                            meter.getCount(), meter.getMeanRate()));
+                }
+            }
+        }
+        lastTime = time;
+        lastRows = rows;
+        lastBytes = bytes;
+    }
+
+    protected static long rate(long events, double elapsed) {
+        return elapsed > 0 ? (long) (events / elapsed) : 0;
+    }
+
+    protected static String duration(long nanos) {
+        long seconds = NANOSECONDS.toSeconds(nanos);
+        return format("%02d:%02d:%02d", seconds / 3600, (seconds / 60) % 60, seconds % 60);
+    }
+
+    protected void writeMetrics() throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        Writer writer = new OutputStreamWriter(openOutputStream(temp), "UTF-8");
+        try {
+            createMetricsWriter().write(metricRegistry, writer);
+        } finally {
+            writer.close();
+        }
+        Files.move(temp.toPath(), file.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+    }
+
+    protected MetricsWriter createMetricsWriter() {
+        return endsWithIgnoreCase(file.getName(), JSON_SUFFIX) ? new JsonMetricsWriter()
+                : new PrometheusMetricsWriter();
+    }
+
+    /**
+     * Stops periodic reports and makes the final one
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService scheduler;
+        synchronized (this) {
+            scheduler = this.scheduler;
+            this.scheduler = null;
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        run();
+    }
+
+    public MetricRegistry getMetricRegistry() {
+        return metricRegistry;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public void setInterval(int interval) {
+        this.interval = interval;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public void setFile(File file) {
+        this.file = file;
+    }
+}
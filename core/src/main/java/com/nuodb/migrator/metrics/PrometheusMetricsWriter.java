@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Writes metrics in Prometheus text exposition format, so that the file can be
+ * picked up by node exporter textfile collector. Meters are exposed as
+ * counters, histograms as summaries in seconds and row sets as labels.
+ *
+ * @author Sergey Bushik
+ */
+public class PrometheusMetricsWriter implements MetricsWriter {
+
+    public static final String PREFIX = "migrator_";
+
+    private static final double NANOS_PER_SECOND = SECONDS.toNanos(1);
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99 };
+
+    @Override
+    public void write(MetricRegistry metricRegistry, Writer writer) throws IOException {
+        String type = null;
+        for (Map.Entry<MetricName, Meter> entry : metricRegistry.getMeters().entrySet()) {
+            String name = getName(entry.getKey()) + "_total";
+            if (!name.equals(type)) {
+                writeType(writer, type = name, "counter");
+            }
+            writeSample(writer, name, entry.getKey(), null, entry.getValue().getCount());
+        }
+        for (Map.Entry<MetricName, Histogram> entry : metricRegistry.getHistograms().entrySet()) {
+            String name = getName(entry.getKey()) + "_seconds";
+            Histogram histogram = entry.getValue();
+            if (!name.equals(type)) {
+                writeType(writer, type = name, "summary");
+            }
+            for (double quantile : QUANTILES) {
+                writeSample(writer, name, entry.getKey(), "quantile=\"" + quantile + "\"",
+                        histogram.getPercentile(quantile) / NANOS_PER_SECOND);
+            }
+            writeSample(writer, name + "_sum", entry.getKey(), null, histogram.getSum() / NANOS_PER_SECOND);
+            writeSample(writer, name + "_count", entry.getKey(), null, histogram.getCount());
+        }
+        for (Map.Entry<MetricName, Gauge> entry : metricRegistry.getGauges().entrySet()) {
+            String name = getName(entry.getKey());
+            writeType(writer, name, "gauge");
+            writeSample(writer, name, entry.getKey(), null, entry.getValue().getValue());
+        }
+        writer.flush();
+    }
+
+    protected String getName(MetricName name) {
+        return PREFIX + name.getName().replace('.', '_');
+    }
+
+    protected void writeType(Writer writer, String name, String type) throws IOException {
+        writer.write("# TYPE ");
+        writer.write(name);
+        writer.write(' ');
+        writer.write(type);
+        writer.write('\n');
+    }
+
+    protected void writeSample(Writer writer, String name, MetricName metricName, String label, Number value)
+            throws IOException {
+        writer.write(name);
+        String rowSet = metricName.getRowSet();
+        if (rowSet != null || label != null) {
+            writer.write('{');
+            if (rowSet != null) {
+                writer.write("row_set=\"");
+                writer.write(rowSet.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"));
+                writer.write('"');
+            }
+            if (label != null) {
+                if (rowSet != null) {
+                    writer.write(',');
+                }
+                writer.write(label);
+            }
+            writer.write('}');
+        }
+        writer.write(' ');
+        writer.write(String.valueOf(value));
+        writer.write('\n');
+    }
+}
@@ -39,6 +39,7 @@ import com.nuodb.migrator.jdbc.metadata.generator.ScriptExporter;
 import com.nuodb.migrator.jdbc.metadata.generator.ScriptGeneratorManager;
 import com.nuodb.migrator.jdbc.metadata.generator.SessionScriptExporter;
 import com.nuodb.migrator.jdbc.metadata.generator.Script;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionManager;
 import com.nuodb.migrator.jdbc.metadata.inspector.InspectionScope;
 import com.nuodb.migrator.jdbc.metadata.inspector.TableInspectionScope;
 import com.nuodb.migrator.jdbc.session.Session;
@@ -144,7 +145,9 @@ public class SchemaJob extends ScriptGeneratorJobBase<SchemaJobSpec> {
     protected Database inspect() throws SQLException {
         InspectionScope inspectionScope = new TableInspectionScope(getSourceSpec().getCatalog(),
                 getSourceSpec().getSchema(), getTableTypes());
-        return createInspectionManager().inspect(getSourceSession().getConnection(), inspectionScope, TYPES)
+        InspectionManager inspectionManager = createInspectionManager();
+        inspectionManager.setInspectionCache(createInspectionCache(getJobSpec().getMetaDataSpec()));
+        return inspectionManager.inspect(getSourceSession().getConnection(), inspectionScope, TYPES)
                 .getObject(DATABASE);
     }
 
@@ -52,8 +52,11 @@ public class DumpJobSpec extends JobSpecBase {
     private ConnectionSpec sourceSpec;
     private ResourceSpec outputSpec;
     private MetaDataSpec metaDataSpec = new MetaDataSpec();
+    private MetricsSpec metricsSpec;
     private Collection<QuerySpec> querySpecs = newArrayList();
     private QueryLimit queryLimit;
+    private Long lobThreshold;
+    private boolean resume;
 
     public void addListener(BackupWriterListener listener) {
         listeners.add(listener);
@@ -131,6 +134,14 @@ public class DumpJobSpec extends JobSpecBase {
         return metaDataSpec.getTableTypes();
     }
 
+    public String getSnapshotDirectory() {
+        return metaDataSpec.getSnapshotDirectory();
+    }
+
+    public void setSnapshotDirectory(String snapshotDirectory) {
+        metaDataSpec.setSnapshotDirectory(snapshotDirectory);
+    }
+
     public void setMetaDataFilterManager(MetaDataFilterManager metaDataFilterManager) {
         metaDataSpec.setMetaDataFilterManager(metaDataFilterManager);
     }
@@ -155,6 +166,30 @@ public class DumpJobSpec extends JobSpecBase {
         this.queryLimit = queryLimit;
     }
 
+    public Long getLobThreshold() {
+        return lobThreshold;
+    }
+
+    public void setLobThreshold(Long lobThreshold) {
+        this.lobThreshold = lobThreshold;
+    }
+
+    public MetricsSpec getMetricsSpec() {
+        return metricsSpec;
+    }
+
+    public void setMetricsSpec(MetricsSpec metricsSpec) {
+        this.metricsSpec = metricsSpec;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -166,8 +201,14 @@ public class DumpJobSpec extends JobSpecBase {
 
         DumpJobSpec that = (DumpJobSpec) o;
 
+        if (resume != that.resume)
+            return false;
+        if (lobThreshold != null ? !lobThreshold.equals(that.lobThreshold) : that.lobThreshold != null)
+            return false;
         if (metaDataSpec != null ? !metaDataSpec.equals(that.metaDataSpec) : that.metaDataSpec != null)
             return false;
+        if (metricsSpec != null ? !metricsSpec.equals(that.metricsSpec) : that.metricsSpec != null)
+            return false;
         if (migrationModes != null ? !migrationModes.equals(that.migrationModes) : that.migrationModes != null)
             return false;
         if (outputSpec != null ? !outputSpec.equals(that.outputSpec) : that.outputSpec != null)
@@ -195,8 +236,11 @@ public class DumpJobSpec extends JobSpecBase {
         result = 31 * result + (sourceSpec != null ? sourceSpec.hashCode() : 0);
         result = 31 * result + (outputSpec != null ? outputSpec.hashCode() : 0);
         result = 31 * result + (metaDataSpec != null ? metaDataSpec.hashCode() : 0);
+        result = 31 * result + (metricsSpec != null ? metricsSpec.hashCode() : 0);
         result = 31 * result + (querySpecs != null ? querySpecs.hashCode() : 0);
         result = 31 * result + (queryLimit != null ? queryLimit.hashCode() : 0);
+        result = 31 * result + (lobThreshold != null ? lobThreshold.hashCode() : 0);
+        result = 31 * result + (resume ? 1 : 0);
         return result;
     }
 }
@@ -34,6 +34,7 @@ import com.nuodb.migrator.jdbc.commit.BatchCommitStrategy;
 import com.nuodb.migrator.jdbc.commit.CommitStrategy;
 import com.nuodb.migrator.jdbc.metadata.filter.MetaDataFilterManager;
 import com.nuodb.migrator.jdbc.query.InsertType;
+import com.nuodb.migrator.jdbc.session.SessionBalancing;
 
 import java.util.Collection;
 import java.util.Map;
@@ -55,7 +56,10 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
     private InsertType insertType;
     private Collection<BackupLoaderListener> listeners = newArrayList();
     private Collection<MigrationMode> migrationModes = newHashSet(DATA, SCHEMA);
+    private MetricsSpec metricsSpec;
     private Parallelizer parallelizer = new TableLevelParallelizer();
+    private boolean resume;
+    private SessionBalancing sessionBalancing;
     private Map<String, InsertType> tableInsertTypes = newHashMap();
     private ConnectionSpec targetSpec;
     private TimeZone timeZone;
@@ -105,6 +109,14 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
         this.migrationModes = migrationModes;
     }
 
+    public MetricsSpec getMetricsSpec() {
+        return metricsSpec;
+    }
+
+    public void setMetricsSpec(MetricsSpec metricsSpec) {
+        this.metricsSpec = metricsSpec;
+    }
+
     public ConnectionSpec getTargetSpec() {
         return targetSpec;
     }
@@ -145,6 +157,22 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
         this.parallelizer = parallelizer;
     }
 
+    public boolean isResume() {
+        return resume;
+    }
+
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    public SessionBalancing getSessionBalancing() {
+        return sessionBalancing;
+    }
+
+    public void setSessionBalancing(SessionBalancing sessionBalancing) {
+        this.sessionBalancing = sessionBalancing;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -164,6 +192,12 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
             return false;
         if (migrationModes != null ? !migrationModes.equals(that.migrationModes) : that.migrationModes != null)
             return false;
+        if (metricsSpec != null ? !metricsSpec.equals(that.metricsSpec) : that.metricsSpec != null)
+            return false;
+        if (resume != that.resume)
+            return false;
+        if (sessionBalancing != that.sessionBalancing)
+            return false;
         if (tableInsertTypes != null ? !tableInsertTypes.equals(that.tableInsertTypes) : that.tableInsertTypes != null)
             return false;
         if (targetSpec != null ? !targetSpec.equals(that.targetSpec) : that.targetSpec != null)
@@ -183,6 +217,9 @@ public class LoadJobSpec extends ScriptGeneratorJobSpecBase {
         result = 31 * result + (inputSpec != null ? inputSpec.hashCode() : 0);
         result = 31 * result + (insertType != null ? insertType.hashCode() : 0);
         result = 31 * result + (migrationModes != null ? migrationModes.hashCode() : 0);
+        result = 31 * result + (metricsSpec != null ? metricsSpec.hashCode() : 0);
+        result = 31 * result + (resume ? 1 : 0);
+        result = 31 * result + (sessionBalancing != null ? sessionBalancing.hashCode() : 0);
         result = 31 * result + (tableInsertTypes != null ? tableInsertTypes.hashCode() : 0);
         result = 31 * result + (targetSpec != null ? targetSpec.hashCode() : 0);
         result = 31 * result + (timeZone != null ? timeZone.hashCode() : 0);
@@ -49,6 +49,7 @@ public class MetaDataSpec extends SpecBase {
     private Collection<MetaDataType> objectTypes = OBJECT_TYPES;
     private MetaDataFilterManager metaDataFilterManager = new MetaDataFilterManager();
     private String[] tableTypes = TABLE_TYPES;
+    private String snapshotDirectory;
 
     public Collection<MetaDataType> getObjectTypes() {
         return objectTypes;
@@ -79,6 +80,21 @@ public class MetaDataSpec extends SpecBase {
         this.tableTypes = tableTypes;
     }
 
+    public String getSnapshotDirectory() {
+        return snapshotDirectory;
+    }
+
+    /**
+     * Sets directory keeping snapshots of inspected meta data, inspection
+     * reuses a snapshot for tables unchanged since it was taken
+     *
+     * @param snapshotDirectory
+     *            snapshot directory or null to inspect database in full
+     */
+    public void setSnapshotDirectory(String snapshotDirectory) {
+        this.snapshotDirectory = snapshotDirectory;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -97,6 +113,9 @@ public class MetaDataSpec extends SpecBase {
             return false;
         if (!Arrays.equals(tableTypes, that.tableTypes))
             return false;
+        if (snapshotDirectory != null ? !snapshotDirectory.equals(that.snapshotDirectory)
+                : that.snapshotDirectory != null)
+            return false;
 
         return true;
     }
@@ -107,6 +126,7 @@ public class MetaDataSpec extends SpecBase {
         result = 31 * result + (objectTypes != null ? objectTypes.hashCode() : 0);
         result = 31 * result + (metaDataFilterManager != null ? metaDataFilterManager.hashCode() : 0);
         result = 31 * result + (tableTypes != null ? Arrays.hashCode(tableTypes) : 0);
+        result = 31 * result + (snapshotDirectory != null ? snapshotDirectory.hashCode() : 0);
         return result;
     }
 }
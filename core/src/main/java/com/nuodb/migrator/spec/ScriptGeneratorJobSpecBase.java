@@ -89,6 +89,14 @@ public class ScriptGeneratorJobSpecBase extends JobSpecBase {
         return metaDataSpec.getTableTypes();
     }
 
+    public String getSnapshotDirectory() {
+        return metaDataSpec.getSnapshotDirectory();
+    }
+
+    public void setSnapshotDirectory(String snapshotDirectory) {
+        metaDataSpec.setSnapshotDirectory(snapshotDirectory);
+    }
+
     public void setObjectTypes(Collection<MetaDataType> objectTypes) {
         metaDataSpec.setObjectTypes(objectTypes);
     }
@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup;
+
+import com.nuodb.migrator.backup.format.value.Value;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import static com.google.common.io.Files.createTempDir;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.closeValue;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.decodeBinary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.encodeBinary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.getReference;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.isReference;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.apache.commons.io.FileUtils.writeByteArrayToFile;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * @author Sergey Bushik
+ */
+public class LobStoreTest {
+
+    private static final int THRESHOLD = 1024;
+
+    private File dir;
+    private BackupOps backupOps;
+    private LobStore lobStore;
+
+    @BeforeMethod
+    public void setUp() {
+        dir = createTempDir();
+        backupOps = new XmlBackupOps();
+        backupOps.setDir(dir.getAbsolutePath());
+        lobStore = new LobStore(backupOps, THRESHOLD);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        deleteQuietly(dir);
+    }
+
+    @Test
+    public void testInline() {
+        Value value = binary(new byte[THRESHOLD]);
+        assertSame(lobStore.write(value), value);
+
+        Value stream = lobStore.write(binary(new ByteArrayInputStream(new byte[THRESHOLD]), -1));
+        assertFalse(isReference(stream));
+        assertEquals(stream.asBytes(), new byte[THRESHOLD]);
+
+        Value text = string(new String(new char[THRESHOLD * 2]));
+        assertSame(lobStore.write(text), text);
+        assertEquals(dir.list().length, 0);
+    }
+
+    @Test
+    public void testDeduplicate() {
+        byte[] bytes = new byte[THRESHOLD * 4];
+        new Random(0).nextBytes(bytes);
+        Value value1 = lobStore.write(binary(bytes));
+        Value value2 = lobStore.write(binary(new ByteArrayInputStream(bytes), -1));
+        assertTrue(isReference(value1));
+        assertEquals(value2, value1);
+        assertEquals(dir.list(), new String[] { getReference(value1) });
+
+        Value value = lobStore.read(decodeBinary(encodeBinary(value1)));
+        assertFalse(isReference(value));
+        assertEquals(value.getLength(), bytes.length);
+        assertEquals(value.asBytes(), bytes);
+    }
+
+    @Test
+    public void testStoredConcurrently() {
+        final byte[] bytes = new byte[THRESHOLD * 2];
+        new Random(0).nextBytes(bytes);
+        BackupOps backupOps = new XmlBackupOps() {
+            @Override
+            public void rename(String name, String newName) {
+                // identical value is stored by another thread meanwhile and
+                // the target can't be replaced
+                try {
+                    writeByteArrayToFile(new File(getDir(), newName), bytes);
+                } catch (IOException exception) {
+                    throw new BackupException(exception);
+                }
+                throw new BackupException("Error renaming file");
+            }
+        };
+        backupOps.setDir(dir.getAbsolutePath());
+        Value value = new LobStore(backupOps, THRESHOLD).write(binary(bytes));
+        assertTrue(isReference(value));
+        assertEquals(dir.list(), new String[] { getReference(value) });
+    }
+
+    @Test
+    public void testCloseStoredValue() throws Exception {
+        byte[] bytes = new byte[THRESHOLD * 2];
+        Value value = lobStore.read(lobStore.write(binary(bytes)));
+        InputStream input = value.asInputStream();
+        assertEquals(input.read(), 0);
+        closeValue(value);
+        try {
+            input.read();
+            fail("Stream of the stored value should be closed");
+        } catch (IOException exception) {
+            // expected
+        }
+        assertEquals(value.asBytes(), bytes);
+    }
+}
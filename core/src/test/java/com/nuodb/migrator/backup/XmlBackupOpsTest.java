@@ -39,11 +39,17 @@ import com.nuodb.migrator.jdbc.type.JdbcTypeDesc;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static com.google.common.base.Charsets.UTF_8;
 import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
 import static com.nuodb.migrator.jdbc.metadata.Identifier.EMPTY;
 import static com.nuodb.migrator.jdbc.type.JdbcTypeOptions.newOptions;
 import static org.apache.commons.io.IOUtils.toInputStream;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 /**
  * @author Sergey Bushik
@@ -120,4 +126,84 @@ public class XmlBackupOpsTest {
         assertEquals(actual, expected);
         assertEquals(actual.getDatabase().getSchemas(), expected.getDatabase().getSchemas());
     }
+
+    @Test
+    public void testReadRowSetLazily() {
+        String input = "<?xml version=\"1.0\"?>\n" + "<backup version=\"" + Migrator.getVersion()
+                + "\" format=\"csv\">\n" + "  <database/>\n"
+                + "  <row-set type=\"table\" name=\"test.t1\" row-count=\"1\" catalog=\"test\" table=\"t1\">\n"
+                + "    <chunk name=\"test.t1.csv\" row-count=\"1\"/>\n" + "  </row-set>\n"
+                + "  <row-set type=\"query\" name=\"query1\" row-count=\"0\">\n"
+                + "    <query>SELECT * FROM t1 WHERE f1 &lt; 1</query>\n"
+                + "    <column name=\"f1\" value-type=\"string\"/>\n" + "  </row-set>\n" + "</backup>";
+        BackupReader backupReader = xmlBackupOps.openReader(toInputStream(input), null);
+        Backup backup = backupReader.getBackup();
+        assertEquals(backup.getFormat(), "csv");
+        assertTrue(backup.getRowSets().isEmpty());
+
+        RowSet rowSet = backupReader.readRowSet();
+        assertEquals(((TableRowSet) rowSet).getTable(), "t1");
+        assertEquals(backup.getRowSets().size(), 1);
+
+        rowSet = backupReader.readRowSet();
+        assertEquals(((QueryRowSet) rowSet).getQuery(), "SELECT * FROM t1 WHERE f1 < 1");
+        assertEquals(backup.getRowSets().size(), 2);
+
+        assertNull(backupReader.readRowSet());
+        backupReader.close();
+    }
+
+    @Test
+    public void testWriteRead() {
+        Backup expected = new Backup("csv");
+        Table table = expected.getDatabase().addCatalog("test").addSchema(EMPTY).addTable("t1");
+        Column column = table.addColumn("f1");
+        column.setJdbcType(new JdbcType(new JdbcTypeDesc(4, "INT"), newOptions(10, 10, 0)));
+
+        TableRowSet tableRowSet = new TableRowSet(table);
+        tableRowSet.addColumn("f1", STRING);
+        Chunk chunk = new Chunk();
+        chunk.setName("test.t1.csv");
+        chunk.setRowCount(2L);
+        tableRowSet.addChunk(chunk);
+        expected.addRowSet(tableRowSet);
+
+        QueryRowSet queryRowSet = new QueryRowSet("SELECT * FROM t1");
+        queryRowSet.addColumn("f1", STRING);
+        expected.addRowSet(queryRowSet);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        xmlBackupOps.write(expected, output, null);
+        Backup actual = xmlBackupOps.read(new ByteArrayInputStream(output.toByteArray()));
+        assertEquals(actual.getDatabase().getTables(), expected.getDatabase().getTables());
+        assertEquals(actual.getRowSets().size(), 2);
+        TableRowSet actualTableRowSet = (TableRowSet) actual.getRowSets().iterator().next();
+        assertEquals(actualTableRowSet.getTable(), "t1");
+        assertEquals(actualTableRowSet.getChunks(), tableRowSet.getChunks());
+        assertEquals(actualTableRowSet.getColumns(), tableRowSet.getColumns());
+    }
+
+    /**
+     * Catalog is written in UTF-8 and is read back in UTF-8 regardless of the
+     * platform charset
+     */
+    @Test
+    public void testWriteReadNonAscii() {
+        Backup expected = new Backup("csv");
+        Table table = expected.getDatabase().addCatalog("tëst").addSchema(EMPTY).addTable("tаблица");
+        Column column = table.addColumn("プロパティ");
+        column.setJdbcType(new JdbcType(new JdbcTypeDesc(4, "INT"), newOptions(10, 10, 0)));
+        TableRowSet tableRowSet = new TableRowSet(table);
+        tableRowSet.addColumn("プロパティ", STRING);
+        expected.addRowSet(tableRowSet);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        xmlBackupOps.write(expected, output, null);
+        assertTrue(new String(output.toByteArray(), UTF_8).contains("tаблица"));
+        Backup actual = xmlBackupOps.read(new ByteArrayInputStream(output.toByteArray()));
+        assertEquals(actual.getDatabase().getTables(), expected.getDatabase().getTables());
+        TableRowSet actualTableRowSet = (TableRowSet) actual.getRowSets().iterator().next();
+        assertEquals(actualTableRowSet.getTable(), "tаблица");
+        assertEquals(actualTableRowSet.getColumns(), tableRowSet.getColumns());
+    }
 }
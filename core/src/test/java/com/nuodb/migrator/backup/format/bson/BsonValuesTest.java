@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.bson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.FormatFactory;
+import com.nuodb.migrator.backup.format.Input;
+import com.nuodb.migrator.backup.format.Output;
+import com.nuodb.migrator.backup.format.SimpleFormatFactory;
+import com.nuodb.migrator.backup.format.value.Value;
+import de.undercouch.bson4jackson.BsonFactory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.BitSet;
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.backup.format.bson.BsonFormat.ROWS_FIELD;
+import static com.nuodb.migrator.backup.format.bson.BsonFormat.TYPE;
+import static com.nuodb.migrator.backup.format.utils.BitSetUtils.toByteArray;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static de.undercouch.bson4jackson.BsonGenerator.Feature.ENABLE_STREAMING;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * Verifies that rows are written in the same layout as before and are read
+ * back without changes
+ *
+ * @author Sergey Bushik
+ */
+public class BsonValuesTest {
+
+    private static final int COLUMNS = 10;
+
+    private FormatFactory formatFactory;
+    private Map<String, Object> attributes;
+    private RowSet rowSet;
+
+    @BeforeMethod
+    public void setUp() {
+        formatFactory = new SimpleFormatFactory();
+        attributes = newHashMap();
+        rowSet = new RowSet();
+        for (int i = 0; i < COLUMNS; i++) {
+            rowSet.addColumn("c" + i, i % 2 == 0 ? STRING : BINARY);
+        }
+    }
+
+    protected Value[][] createRows() {
+        Value[][] rows = new Value[3][COLUMNS];
+        for (int row = 0; row < rows.length; row++) {
+            for (int i = 0; i < COLUMNS; i++) {
+                // no nulls in the first row, trailing null in the second, leading nulls in the third
+                boolean isNull = row == 1 ? i == COLUMNS - 1 : row == 2 && i < 3;
+                if (i % 2 == 0) {
+                    rows[row][i] = string(isNull ? null : "value " + row + i);
+                } else {
+                    rows[row][i] = binary(isNull ? null : new byte[] { (byte) row, (byte) i });
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    public void testWireCompatibility() throws Exception {
+        Value[][] rows = createRows();
+        assertEquals(write(rows), writeLegacy(rows));
+    }
+
+    @Test
+    public void testReadValues() {
+        Value[][] rows = createRows();
+        Value[][] values = read(write(rows));
+        assertEquals(values.length, rows.length);
+        for (int row = 0; row < rows.length; row++) {
+            for (int i = 0; i < COLUMNS; i++) {
+                assertEquals(values[row][i].isNull(), rows[row][i].isNull());
+                assertEquals(values[row][i].asBytes(), rows[row][i].asBytes());
+            }
+        }
+    }
+
+    protected byte[] write(Value[][] rows) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Output output = formatFactory.createOutput(TYPE, attributes);
+        output.setRowSet(rowSet);
+        output.setOutputStream(outputStream);
+        output.init();
+        output.writeStart();
+        for (Value[] row : rows) {
+            output.writeValues(row);
+        }
+        output.writeEnd();
+        output.close();
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Writes rows with a generator created per output & nulls converted from
+     * bit set, as chunks were written before
+     */
+    protected byte[] writeLegacy(Value[][] rows) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BsonFactory factory = new BsonFactory();
+        factory.enable(ENABLE_STREAMING);
+        JsonGenerator generator = factory.createJsonGenerator(outputStream);
+        generator.writeStartObject();
+        generator.writeArrayFieldStart(ROWS_FIELD);
+        for (Value[] row : rows) {
+            generator.writeStartArray();
+            BitSet nulls = new BitSet();
+            for (int i = 0; i < row.length; i++) {
+                nulls.set(i, row[i].isNull());
+            }
+            if (nulls.isEmpty()) {
+                generator.writeNull();
+            } else {
+                generator.writeBinary(toByteArray(nulls));
+            }
+            for (Value value : row) {
+                if (!value.isNull()) {
+                    if (value.getValueType() == BINARY) {
+                        generator.writeBinary(value.asBytes());
+                    } else {
+                        generator.writeString(value.asString());
+                    }
+                }
+            }
+            generator.writeEndArray();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.close();
+        return outputStream.toByteArray();
+    }
+
+    protected Value[][] read(byte[] bytes) {
+        Input input = formatFactory.createInput(TYPE, attributes);
+        input.setRowSet(rowSet);
+        input.setInputStream(new ByteArrayInputStream(bytes));
+        input.init();
+        input.readStart();
+        Value[][] rows = new Value[3][];
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = input.readValues();
+        }
+        assertNull(input.readValues());
+        input.readEnd();
+        input.close();
+        return rows;
+    }
+}
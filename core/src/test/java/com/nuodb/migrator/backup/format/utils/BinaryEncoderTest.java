@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.utils;
+
+import com.nuodb.migrator.backup.format.value.ValueFormatException;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.BASE64;
+import static com.nuodb.migrator.backup.format.utils.BinaryEncoder.HEX;
+import static org.apache.commons.codec.binary.Base64.encodeBase64String;
+import static org.apache.commons.codec.binary.Base64.encodeBase64URLSafeString;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Sergey Bushik
+ */
+public class BinaryEncoderTest {
+
+    @Test
+    public void testBase64() {
+        Random random = new Random(0);
+        for (int length = 0; length < 100; length++) {
+            byte[] value = new byte[length];
+            random.nextBytes(value);
+            String text = encodeBase64String(value);
+            assertEquals(BASE64.encode(value), text);
+            assertEquals(BASE64.decode(text), value);
+            assertEquals(BASE64.decode(new StringBuilder(text)), value);
+            assertEquals(BASE64.decode(encodeBase64URLSafeString(value)), value);
+        }
+    }
+
+    @Test
+    public void testBase64Pieces() {
+        byte[] value = new byte[100];
+        new Random(0).nextBytes(value);
+        char[] buffer = new char[BASE64.getEncodedLength(value.length)];
+        int length = 0;
+        for (int offset = 0; offset < value.length; offset += 33) {
+            length += BASE64.encode(value, offset, Math.min(33, value.length - offset), buffer, length);
+        }
+        assertEquals(new String(buffer, 0, length), encodeBase64String(value));
+    }
+
+    @Test
+    public void testBase64SkipsLineBreaks() {
+        assertEquals(BASE64.decode("AQID\r\nBAU="), new byte[] { 1, 2, 3, 4, 5 });
+    }
+
+    @Test
+    public void testHex() {
+        byte[] value = new byte[] { 0, 1, 127, -128, -1 };
+        assertEquals(HEX.encode(value), encodeHexString(value).toUpperCase());
+        assertEquals(HEX.decode("00017F80FF"), value);
+        assertEquals(HEX.decode("00017f80ff"), value);
+    }
+
+    @Test(expectedExceptions = ValueFormatException.class)
+    public void testHexOddLength() {
+        HEX.decode("012");
+    }
+}
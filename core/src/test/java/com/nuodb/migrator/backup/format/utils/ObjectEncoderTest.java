@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.utils;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.Struct;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Locale;
+import java.util.UUID;
+
+import static com.nuodb.migrator.backup.format.utils.ObjectEncoder.DecodedArray;
+import static com.nuodb.migrator.backup.format.utils.ObjectEncoder.decode;
+import static com.nuodb.migrator.backup.format.utils.ObjectEncoder.encode;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Sergey Bushik
+ */
+public class ObjectEncoderTest {
+
+    @DataProvider(name = "encode")
+    public Object[][] createEncodeData() {
+        Timestamp timestamp = Timestamp.valueOf("2015-03-07 10:20:30.123456789");
+        return new Object[][] { { "text é" }, { true }, { (byte) 1 }, { (short) 2 }, { 3 }, { 4L }, { 5.5f },
+                { 6.5d }, { new BigInteger("123456789012345678901234567890") }, { new BigDecimal("-1234.5678") },
+                { Date.valueOf("2015-03-07") }, { Time.valueOf("10:20:30") }, { timestamp },
+                { UUID.fromString("1b4e28ba-2fa1-11d2-883f-0016d3cca427") }, { Locale.CANADA } };
+    }
+
+    @Test(dataProvider = "encode")
+    public void testEncode(Object value) {
+        assertEquals(decode(encode(value)), value);
+    }
+
+    @Test
+    public void testEncodeNull() {
+        assertNull(encode(null));
+        assertNull(decode(null));
+    }
+
+    @Test
+    public void testEncodeStruct() throws Exception {
+        Struct struct = mock(Struct.class);
+        when(struct.getSQLTypeName()).thenReturn("ADDRESS");
+        when(struct.getAttributes()).thenReturn(
+                new Object[] { "Main St", null, new BigDecimal("10"), new byte[] { 1, 2 }, Locale.UK, 1L });
+
+        Object value = decode(encode(struct));
+        assertTrue(value instanceof Struct);
+        assertEquals(((Struct) value).getSQLTypeName(), "ADDRESS");
+        assertEquals(((Struct) value).getAttributes(), struct.getAttributes());
+    }
+
+    @Test
+    public void testEncodeArray() throws Exception {
+        Array array = mock(Array.class);
+        when(array.getBaseTypeName()).thenReturn("VARCHAR");
+        when(array.getArray()).thenReturn(new Object[] { "a", null, "b" });
+
+        Object value = decode(encode(array));
+        assertTrue(value instanceof DecodedArray);
+        assertEquals(((DecodedArray) value).getBaseTypeName(), "VARCHAR");
+        assertNull(((DecodedArray) value).getSQLTypeName());
+        assertEquals(((DecodedArray) value).getArray(), new Object[] { "a", null, "b" });
+        assertEquals(((DecodedArray) value).getArray(2, 2), new Object[] { null, "b" });
+    }
+
+    @Test
+    public void testDecodeSerialized() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream output = new ObjectOutputStream(bytes);
+        output.writeObject("serialized");
+        output.close();
+        assertEquals(decode(bytes.toByteArray()), "serialized");
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import com.nuodb.migrator.backup.format.value.JdbcNumericValueFormat.NumericType;
+import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.dialect.PostgreSQLDialect;
+import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.model.SimpleField;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.backup.format.value.JdbcNumericValueFormat.NumericType.DECIMAL;
+import static com.nuodb.migrator.backup.format.value.JdbcNumericValueFormat.NumericType.INT;
+import static com.nuodb.migrator.backup.format.value.JdbcNumericValueFormat.NumericType.LONG;
+import static com.nuodb.migrator.backup.format.value.JdbcNumericValueFormat.NumericType.SHORT;
+import static com.nuodb.migrator.backup.format.value.ValueHandleListBuilder.newBuilder;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.POSTGRE_SQL;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Verifies exact numeric columns get numeric value format parsing values to
+ * the Java type of the column
+ *
+ * @author Sergey Bushik
+ */
+public class JdbcNumericValueFormatTest {
+
+    private Dialect dialect;
+    private Connection connection;
+    private List<Field> fields;
+
+    @BeforeMethod
+    public void setUp() {
+        dialect = new PostgreSQLDialect(POSTGRE_SQL);
+        connection = mock(Connection.class);
+        fields = newArrayList();
+        fields.add(createField("TI", Types.TINYINT, "TINYINT"));
+        fields.add(createField("SI", Types.SMALLINT, "SMALLINT"));
+        fields.add(createField("I", Types.INTEGER, "INTEGER"));
+        fields.add(createField("BI", Types.BIGINT, "BIGINT"));
+        fields.add(createField("N", Types.NUMERIC, "NUMERIC"));
+        fields.add(createField("D", Types.DECIMAL, "DECIMAL"));
+    }
+
+    protected Field createField(String name, int typeCode, String typeName) {
+        SimpleField field = new SimpleField();
+        field.setName(name);
+        field.setTypeCode(typeCode);
+        field.setTypeName(typeName);
+        return field;
+    }
+
+    protected ValueHandleList createValueHandleList(ValueHandleListBuilder builder) {
+        return builder.withDialect(dialect).withFields(fields)
+                .withValueFormatRegistry(new SimpleValueFormatRegistry()).build();
+    }
+
+    @Test
+    public void testNumericTypes() throws Exception {
+        ValueHandleList valueHandleList = createValueHandleList(newBuilder(connection, mock(ResultSet.class)));
+        Iterator<NumericType> numericTypes = newArrayList(SHORT, SHORT, INT, LONG, DECIMAL, DECIMAL).iterator();
+        for (ValueHandle valueHandle : valueHandleList) {
+            ValueFormat valueFormat = valueHandle.getValueFormat();
+            assertTrue(valueFormat instanceof JdbcNumericValueFormat);
+            assertEquals(((JdbcNumericValueFormat) valueFormat).getNumericType(), numericTypes.next());
+            assertEquals(valueHandle.getValueType(), ValueType.STRING);
+        }
+    }
+
+    @Test
+    public void testDump() throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        given(resultSet.getShort(1)).willReturn((short) -128);
+        given(resultSet.getShort(2)).willReturn(Short.MAX_VALUE);
+        given(resultSet.getInt(3)).willReturn(Integer.MIN_VALUE);
+        given(resultSet.getLong(4)).willReturn(Long.MAX_VALUE);
+        given(resultSet.getBigDecimal(5)).willReturn(new BigDecimal("-12.50"));
+        given(resultSet.getBigDecimal(6)).willReturn(null);
+
+        ValueHandleList valueHandleList = createValueHandleList(newBuilder(connection, resultSet));
+        List<String> values = newArrayList();
+        for (ValueHandle valueHandle : valueHandleList) {
+            values.add(valueHandle.getValueFormat()
+                    .getValue(valueHandle.getJdbcValueAccess(), valueHandle.getJdbcValueAccessOptions())
+                    .asString());
+        }
+        assertEquals(values, newArrayList("-128", "32767", "-2147483648", "9223372036854775807", "-12.50", null));
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        given(statement.getConnection()).willReturn(connection);
+
+        ValueHandleList valueHandleList = createValueHandleList(newBuilder(connection, statement));
+        Value[] values = new Value[] { string("-128"), string("+32767"), string("-2147483648"),
+                string("9223372036854775807"), string("123456789012345678901.5"), string("") };
+        int index = 0;
+        for (ValueHandle valueHandle : valueHandleList) {
+            valueHandle.getValueFormat().setValue(values[index++], valueHandle.getJdbcValueAccess(),
+                    valueHandle.getJdbcValueAccessOptions());
+        }
+        verify(statement).setShort(1, (short) -128);
+        verify(statement).setShort(2, Short.MAX_VALUE);
+        verify(statement).setInt(3, Integer.MIN_VALUE);
+        verify(statement).setLong(4, Long.MAX_VALUE);
+        verify(statement).setBigDecimal(5, new BigDecimal("123456789012345678901.5"));
+        verify(statement).setNull(6, Types.DECIMAL);
+    }
+
+    @DataProvider(name = "parse")
+    public Object[][] createParseData() {
+        return new Object[][] { { SHORT, "-32768", (short) -32768 }, { INT, "007", 7 },
+                { LONG, "-9223372036854775808", Long.MIN_VALUE }, { DECIMAL, "1E+3", new BigDecimal("1E+3") } };
+    }
+
+    @Test(dataProvider = "parse")
+    public void testParse(NumericType numericType, String value, Object expected) {
+        assertEquals(numericType.parse(value), expected);
+    }
+
+    @DataProvider(name = "parseOutOfRange")
+    public Object[][] createParseOutOfRangeData() {
+        return new Object[][] { { SHORT, "32768" }, { INT, "2147483648" }, { LONG, "9223372036854775808" } };
+    }
+
+    @Test(dataProvider = "parseOutOfRange", expectedExceptions = NumberFormatException.class)
+    public void testParseOutOfRange(NumericType numericType, String value) {
+        numericType.parse(value);
+    }
+
+    @Test(expectedExceptions = ValueFormatException.class)
+    public void testLoadInvalid() throws Exception {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ValueHandle valueHandle = createValueHandleList(newBuilder(connection, statement)).iterator().next();
+        valueHandle.getValueFormat().setValue(string("1a"), valueHandle.getJdbcValueAccess(),
+                valueHandle.getJdbcValueAccessOptions());
+    }
+
+    @Test
+    public void testLoadNull() throws Exception {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ValueHandle valueHandle = createValueHandleList(newBuilder(connection, statement)).iterator().next();
+        valueHandle.getValueFormat().setValue(string(null), valueHandle.getJdbcValueAccess(),
+                valueHandle.getJdbcValueAccessOptions());
+        verify(statement).setNull(anyInt(), anyInt());
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+
+import static com.nuodb.migrator.backup.format.value.NumericUtils.parseDecimal;
+import static com.nuodb.migrator.backup.format.value.NumericUtils.parseInt;
+import static com.nuodb.migrator.backup.format.value.NumericUtils.parseLong;
+import static com.nuodb.migrator.backup.format.value.NumericUtils.parseShort;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Sergey Bushik
+ */
+public class NumericUtilsTest {
+
+    @DataProvider(name = "parseDecimal")
+    public Object[][] createParseDecimalData() {
+        return new Object[][] { { "0" }, { "-1" }, { "+12.50" }, { "123456789.123456789" }, { ".5" }, { "5." },
+                { "-0.000" }, { "12345678901234567890.1" }, { "1E+3" }, { "-1.5e-7" } };
+    }
+
+    @Test(dataProvider = "parseDecimal")
+    public void testParseDecimal(String value) {
+        assertEquals(parseDecimal(value), new BigDecimal(value));
+    }
+
+    @DataProvider(name = "parseInvalid")
+    public Object[][] createParseInvalidData() {
+        return new Object[][] { { "" }, { "-" }, { "." }, { "1.2.3" }, { "1a" } };
+    }
+
+    @Test(dataProvider = "parseInvalid", expectedExceptions = NumberFormatException.class)
+    public void testParseInvalidDecimal(String value) {
+        parseDecimal(value);
+    }
+
+    @Test(dataProvider = "parseInvalid", expectedExceptions = NumberFormatException.class)
+    public void testParseInvalidLong(String value) {
+        parseLong(value);
+    }
+
+    @Test
+    public void testParseInteger() {
+        assertEquals(parseShort("-32768"), Short.MIN_VALUE);
+        assertEquals(parseInt("+2147483647"), Integer.MAX_VALUE);
+        assertEquals(parseLong("-9223372036854775808"), Long.MIN_VALUE);
+        assertEquals(parseLong("123456789012345678"), 123456789012345678L);
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void testParseShortOutOfRange() {
+        parseShort("32768");
+    }
+
+    @Test(expectedExceptions = NumberFormatException.class)
+    public void testParseIntOutOfRange() {
+        parseInt("-2147483649");
+    }
+}
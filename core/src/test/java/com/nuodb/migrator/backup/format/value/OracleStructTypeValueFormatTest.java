@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import com.nuodb.migrator.jdbc.type.JdbcValueAccess;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Struct;
+import java.util.Map;
+
+import static com.nuodb.migrator.backup.format.utils.ObjectEncoder.encode;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Sergey Bushik
+ */
+@SuppressWarnings("unchecked")
+public class OracleStructTypeValueFormatTest {
+
+    private OracleStructTypeValueFormat valueFormat;
+    private JdbcValueAccess<Object> access;
+
+    @BeforeMethod
+    public void setUp() {
+        valueFormat = new OracleStructTypeValueFormat() {
+            @Override
+            protected void doLazyInit() {
+                try {
+                    initOracleConnection(OracleConnection.class);
+                } catch (NoSuchMethodException exception) {
+                    throw new ValueFormatException(exception);
+                }
+            }
+        };
+        access = mock(JdbcValueAccess.class);
+    }
+
+    @Test
+    public void testNestedStruct() throws Exception {
+        OracleArray phones = mock(OracleArray.class);
+        given(phones.getBaseTypeName()).willReturn("VARCHAR2");
+        given(phones.getSQLTypeName()).willReturn("PHONES");
+        given(phones.getArray()).willReturn(new Object[] { "555-0100", "555-0101" });
+        Struct address = createStruct("ADDRESS", "Main St", phones);
+        Struct person = createStruct("PERSON", "John", new BigDecimal("42"), address);
+        given(access.getValue(anyMap())).willReturn(person);
+
+        Value value = valueFormat.getValue(access, null);
+
+        OracleConnection connection = mock(OracleConnection.class);
+        given(connection.isWrapperFor(OracleConnection.class)).willReturn(true);
+        given(connection.unwrap(OracleConnection.class)).willReturn(connection);
+        Array phonesArray = mock(Array.class);
+        given(connection.createOracleArray(eq("PHONES"), any())).willReturn(phonesArray);
+        Struct addressStruct = mock(Struct.class);
+        given(connection.createStruct(eq("ADDRESS"), any(Object[].class))).willReturn(addressStruct);
+        Struct personStruct = mock(Struct.class);
+        given(connection.createStruct(eq("PERSON"), any(Object[].class))).willReturn(personStruct);
+        given(access.getConnection()).willReturn(connection);
+
+        valueFormat.setValue(value, access, null);
+
+        verify(connection).createOracleArray("PHONES", new Object[] { "555-0100", "555-0101" });
+        verify(connection).createStruct("ADDRESS", new Object[] { "Main St", phonesArray });
+        verify(connection).createStruct("PERSON", new Object[] { "John", new BigDecimal("42"), addressStruct });
+        verify(connection, never()).createArrayOf(anyString(), any(Object[].class));
+        verify(access).setValue(personStruct, null);
+    }
+
+    @Test
+    public void testArrayOf() throws Exception {
+        Array tags = mock(Array.class);
+        given(tags.getBaseTypeName()).willReturn("VARCHAR");
+        given(tags.getArray()).willReturn(new Object[] { "a", "b" });
+        Value value = binary(encode(createStruct("ITEM", 1L, tags)));
+
+        Connection connection = mock(Connection.class);
+        Array tagsArray = mock(Array.class);
+        given(connection.createArrayOf(eq("VARCHAR"), any(Object[].class))).willReturn(tagsArray);
+        Struct itemStruct = mock(Struct.class);
+        given(connection.createStruct(eq("ITEM"), any(Object[].class))).willReturn(itemStruct);
+        given(access.getConnection()).willReturn(connection);
+
+        valueFormat.setValue(value, access, null);
+
+        verify(connection).createArrayOf("VARCHAR", new Object[] { "a", "b" });
+        verify(connection).createStruct("ITEM", new Object[] { 1L, tagsArray });
+        verify(access).setValue(itemStruct, null);
+    }
+
+    @Test
+    public void testNull() throws Exception {
+        valueFormat.setValue(binary((byte[]) null), access, null);
+        verify(access).setValue(null, null);
+    }
+
+    protected Struct createStruct(String typeName, Object... attributes) throws SQLException {
+        Struct struct = mock(Struct.class);
+        given(struct.getSQLTypeName()).willReturn(typeName);
+        given(struct.getAttributes()).willReturn(attributes);
+        return struct;
+    }
+
+    /**
+     * Mirrors oracle.jdbc.OracleConnection method used to create collections
+     */
+    public interface OracleConnection extends Connection {
+
+        Array createOracleArray(String typeName, Object elements) throws SQLException;
+    }
+
+    /**
+     * Mirrors oracle.jdbc.OracleArray method returning name of the collection
+     * type
+     */
+    public interface OracleArray extends Array {
+
+        String getSQLTypeName() throws SQLException;
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import com.nuodb.migrator.jdbc.model.SimpleField;
+import com.nuodb.migrator.jdbc.type.JdbcValueAccess;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.UUID;
+
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * @author Sergey Bushik
+ */
+@SuppressWarnings("unchecked")
+public class PostgreSQLOtherValueFormatTest {
+
+    private static final String UUID_TEXT = "1b4e28ba-2fa1-11d2-883f-0016d3cca427";
+
+    private PostgreSQLOtherValueFormat valueFormat;
+    private JdbcValueAccess<Object> access;
+
+    @BeforeMethod
+    public void setUp() {
+        valueFormat = new PostgreSQLOtherValueFormat();
+        access = mock(JdbcValueAccess.class);
+    }
+
+    @Test
+    public void testGetValue() throws Exception {
+        given(access.getValue(anyMap())).willReturn(UUID.fromString(UUID_TEXT));
+        Value value = valueFormat.getValue(access, null);
+        assertEquals(value.getValueType(), ValueType.STRING);
+        assertEquals(value.asString(), UUID_TEXT);
+    }
+
+    @Test
+    public void testGetNullValue() {
+        assertNull(valueFormat.getValue(access, null).asString());
+    }
+
+    @Test
+    public void testSetValue() throws Exception {
+        valueFormat.setValue(string("{\"key\": [1, 2]}"), access, null);
+        verify(access).setValue("{\"key\": [1, 2]}", null);
+    }
+
+    @Test
+    public void testValueType() {
+        assertEquals(valueFormat.getValueType(new SimpleField()), ValueType.STRING);
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+
+import static com.nuodb.migrator.backup.format.value.TemporalUtils.formatYear;
+import static com.nuodb.migrator.backup.format.value.TemporalUtils.parseDate;
+import static com.nuodb.migrator.backup.format.value.TemporalUtils.parseTime;
+import static com.nuodb.migrator.backup.format.value.TemporalUtils.parseTimestamp;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * @author Sergey Bushik
+ */
+public class TemporalUtilsTest {
+
+    @DataProvider(name = "parseTimestamp")
+    public Object[][] createParseTimestampData() {
+        return new Object[][] { { "2015-03-07 10:20:30", Timestamp.valueOf("2015-03-07 10:20:30") },
+                { "2015-3-7 1:02:03.5", Timestamp.valueOf("2015-3-7 1:02:03.5") },
+                { " 2015-12-31 23:59:59.123456789 ", Timestamp.valueOf("2015-12-31 23:59:59.123456789") },
+                { "2015-03-07", Timestamp.valueOf("2015-03-07 00:00:00") },
+                { "2015-03-07 1:2:3", Timestamp.valueOf("2015-03-07 1:2:3") },
+                { "2015-03-07 10:20:3.25", Timestamp.valueOf("2015-03-07 10:20:3.25") },
+                { "2015", Timestamp.valueOf("2015-01-01 00:00:00") }, { "2015-13-01", null },
+                { "2015-03-07 -1:02:03", null }, { "2015-03-07 100:02:03", null },
+                { "2015-03-07T10:20:30", null }, { "2015-03-07 10:20", null }, { "15-03-07", null },
+                { "2015-03-07 10:20:30.1234567890", null }, { "20150", null }, { "text", null } };
+    }
+
+    @Test(dataProvider = "parseTimestamp")
+    public void testParseTimestamp(String value, Timestamp timestamp) {
+        assertEquals(parseTimestamp(value), timestamp);
+    }
+
+    @DataProvider(name = "parseDate")
+    public Object[][] createParseDateData() {
+        return new Object[][] { { "2015-03-07", Date.valueOf("2015-03-07") }, { "2015-3-7", Date.valueOf("2015-3-7") },
+                { "1970", Date.valueOf("1970-01-01") }, { "2015-03-07 10:20:30", null }, { "2015-03-32", null },
+                { "2015-03", null } };
+    }
+
+    @Test(dataProvider = "parseDate")
+    public void testParseDate(String value, Date date) {
+        assertEquals(parseDate(value), date);
+    }
+
+    @DataProvider(name = "parseTime")
+    public Object[][] createParseTimeData() {
+        return new Object[][] { { "10:20:30", Time.valueOf("10:20:30") }, { "1:2:3", Time.valueOf("1:2:3") },
+                { "838:59:59", Time.valueOf("838:59:59") }, { "-838:59:59", Time.valueOf("-838:59:59") },
+                { " -1:02:03 ", Time.valueOf("-1:02:03") }, { "+10:20:30", Time.valueOf("+10:20:30") },
+                { "-0:0:1", Time.valueOf("-0:0:1") }, { "10:20", null }, { "10:20:30.5", null },
+                { "10-20-30", null }, { "--1:02:03", null }, { "-:02:03", null }, { "1:-2:03", null } };
+    }
+
+    @Test(dataProvider = "parseTime")
+    public void testParseTime(String value, Time time) {
+        assertEquals(parseTime(value), time);
+    }
+
+    @Test
+    public void testFormatYear() {
+        assertEquals(formatYear(Date.valueOf("2015-03-07")), "2015");
+        assertEquals(formatYear(Date.valueOf("0099-01-01")), "0099");
+        assertNull(parseTimestamp(""));
+    }
+}
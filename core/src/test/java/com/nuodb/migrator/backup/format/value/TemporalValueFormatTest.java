@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.value;
+
+import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.dialect.MySQLDialect;
+import com.nuodb.migrator.jdbc.model.Field;
+import com.nuodb.migrator.jdbc.model.SimpleField;
+import com.nuodb.migrator.jdbc.type.jdbc2.JdbcDateValueBase;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.backup.format.value.ValueHandleListBuilder.newBuilder;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static com.nuodb.migrator.jdbc.metadata.DatabaseInfos.MYSQL;
+import static com.nuodb.migrator.jdbc.type.jdbc2.JdbcDateValueBase.TIMEZONE;
+import static com.nuodb.migrator.jdbc.type.jdbc2.JdbcTimestampValue.INSTANCE;
+import static java.util.TimeZone.getTimeZone;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+/**
+ * Verifies date, time & timestamp values are dumped & loaded in the requested
+ * time zone
+ *
+ * @author Sergey Bushik
+ */
+@SuppressWarnings("unchecked")
+public class TemporalValueFormatTest {
+
+    private static final TimeZone TIME_ZONE = getTimeZone("Pacific/Kiritimati");
+
+    private static final int ROWS = 2;
+
+    private Dialect dialect;
+    private Connection connection;
+    private List<Field> fields;
+
+    @BeforeMethod
+    public void setUp() {
+        dialect = new MySQLDialect(MYSQL);
+        connection = mock(Connection.class);
+        fields = newArrayList();
+        fields.add(createField("D", Types.DATE, "DATE"));
+        fields.add(createField("T", Types.TIME, "TIME"));
+        fields.add(createField("TS", Types.TIMESTAMP, "TIMESTAMP"));
+    }
+
+    protected Field createField(String name, int typeCode, String typeName) {
+        SimpleField field = new SimpleField();
+        field.setName(name);
+        field.setTypeCode(typeCode);
+        field.setTypeName(typeName);
+        return field;
+    }
+
+    protected ValueHandleList createValueHandleList(ValueHandleListBuilder builder) {
+        return builder.withDialect(dialect).withFields(fields).withTimeZone(TIME_ZONE)
+                .withValueFormatRegistry(new SimpleValueFormatRegistry()).build();
+    }
+
+    @Test
+    public void testDump() throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        Date date = Date.valueOf("2015-03-01");
+        Time time = Time.valueOf("23:30:00");
+        Timestamp timestamp = Timestamp.valueOf("2015-03-01 23:30:00");
+        given(resultSet.getDate(eq(1), any(Calendar.class))).willReturn(date);
+        given(resultSet.getTime(eq(2), any(Calendar.class))).willReturn(time);
+        given(resultSet.getTimestamp(eq(3), any(Calendar.class))).willReturn(timestamp);
+
+        ValueHandleList valueHandleList = createValueHandleList(newBuilder(connection, resultSet));
+        for (int row = 0; row < ROWS; row++) {
+            Value[] values = new Value[fields.size()];
+            int index = 0;
+            for (ValueHandle valueHandle : valueHandleList) {
+                values[index++] = valueHandle.getValueFormat().getValue(valueHandle.getJdbcValueAccess(),
+                        valueHandle.getJdbcValueAccessOptions());
+            }
+            assertEquals(values[0].asString(), date.toString());
+            assertEquals(values[1].asString(), time.toString());
+            assertEquals(values[2].asString(), timestamp.toString());
+        }
+        ArgumentCaptor<Calendar> dateCalendar = ArgumentCaptor.forClass(Calendar.class);
+        ArgumentCaptor<Calendar> timeCalendar = ArgumentCaptor.forClass(Calendar.class);
+        ArgumentCaptor<Calendar> timestampCalendar = ArgumentCaptor.forClass(Calendar.class);
+        verify(resultSet, times(ROWS)).getDate(eq(1), dateCalendar.capture());
+        verify(resultSet, times(ROWS)).getTime(eq(2), timeCalendar.capture());
+        verify(resultSet, times(ROWS)).getTimestamp(eq(3), timestampCalendar.capture());
+        assertCalendars(dateCalendar.getAllValues(), timeCalendar.getAllValues(), timestampCalendar.getAllValues());
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        given(statement.getConnection()).willReturn(connection);
+
+        ValueHandleList valueHandleList = createValueHandleList(newBuilder(connection, statement));
+        Value[] values = new Value[] { string("2015-03-01"), string("23:30:00"), string("2015-03-01 23:30:00") };
+        for (int row = 0; row < ROWS; row++) {
+            int index = 0;
+            for (ValueHandle valueHandle : valueHandleList) {
+                valueHandle.getValueFormat().setValue(values[index++], valueHandle.getJdbcValueAccess(),
+                        valueHandle.getJdbcValueAccessOptions());
+            }
+        }
+        ArgumentCaptor<Calendar> dateCalendar = ArgumentCaptor.forClass(Calendar.class);
+        ArgumentCaptor<Calendar> timeCalendar = ArgumentCaptor.forClass(Calendar.class);
+        ArgumentCaptor<Calendar> timestampCalendar = ArgumentCaptor.forClass(Calendar.class);
+        verify(statement, times(ROWS)).setDate(eq(1), eq(Date.valueOf("2015-03-01")), dateCalendar.capture());
+        verify(statement, times(ROWS)).setTime(eq(2), eq(Time.valueOf("23:30:00")), timeCalendar.capture());
+        verify(statement, times(ROWS)).setTimestamp(eq(3), eq(Timestamp.valueOf("2015-03-01 23:30:00")),
+                timestampCalendar.capture());
+        assertCalendars(dateCalendar.getAllValues(), timeCalendar.getAllValues(), timestampCalendar.getAllValues());
+    }
+
+    /**
+     * Each column is given its own calendar in the requested time zone, which
+     * is reused across the rows
+     */
+    protected void assertCalendars(List<Calendar>... columns) {
+        List<Calendar> calendars = newArrayList();
+        for (List<Calendar> column : columns) {
+            assertEquals(column.size(), ROWS);
+            for (Calendar calendar : column) {
+                assertEquals(calendar.getTimeZone(), TIME_ZONE);
+                assertSame(calendar, column.get(0));
+            }
+            for (Calendar calendar : calendars) {
+                assertNotSame(column.get(0), calendar);
+            }
+            calendars.add(column.get(0));
+        }
+    }
+
+    @Test
+    public void testThreadLocalCalendar() throws Exception {
+        TimeZone utc = getTimeZone("UTC");
+        PreparedStatement statement = mock(PreparedStatement.class);
+        Timestamp timestamp = Timestamp.valueOf("2015-03-01 23:30:00");
+        for (TimeZone timeZone : new TimeZone[] { TIME_ZONE, utc, TIME_ZONE, TIME_ZONE }) {
+            Map<String, Object> options = newHashMap();
+            options.put(TIMEZONE, timeZone);
+            INSTANCE.setValue(statement, 1, null, timestamp, options);
+        }
+        ArgumentCaptor<Calendar> calendars = ArgumentCaptor.forClass(Calendar.class);
+        verify(statement, times(4)).setTimestamp(eq(1), eq(timestamp), calendars.capture());
+        List<Calendar> values = calendars.getAllValues();
+        assertEquals(values.get(0).getTimeZone(), TIME_ZONE);
+        assertEquals(values.get(1).getTimeZone(), utc);
+        assertEquals(values.get(2).getTimeZone(), TIME_ZONE);
+        // calendar of the previous zone is never handed out for another zone
+        assertNotSame(values.get(1), values.get(0));
+        assertNotSame(values.get(2), values.get(1));
+        // while it's reused for the same zone
+        assertSame(values.get(3), values.get(2));
+        assertSame(JdbcDateValueBase.getCalendar(TIME_ZONE), values.get(3));
+    }
+}
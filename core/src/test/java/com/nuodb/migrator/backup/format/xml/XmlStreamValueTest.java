@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.format.xml;
+
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.format.FormatFactory;
+import com.nuodb.migrator.backup.format.Input;
+import com.nuodb.migrator.backup.format.Output;
+import com.nuodb.migrator.backup.format.SimpleFormatFactory;
+import com.nuodb.migrator.backup.format.value.Value;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.Random;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.isStream;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static com.nuodb.migrator.backup.format.xml.XmlFormat.ATTRIBUTE_SPOOL_THRESHOLD;
+import static com.nuodb.migrator.backup.format.xml.XmlFormat.TYPE;
+import static org.apache.commons.lang3.StringUtils.repeat;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Verifies that large values are streamed to and from xml without changes
+ *
+ * @author Sergey Bushik
+ */
+public class XmlStreamValueTest {
+
+    private static final int SPOOL_THRESHOLD = 1024;
+
+    private FormatFactory formatFactory;
+    private Map<String, Object> attributes;
+    private RowSet rowSet;
+
+    @BeforeMethod
+    public void setUp() {
+        formatFactory = new SimpleFormatFactory();
+        attributes = newHashMap();
+        attributes.put(ATTRIBUTE_SPOOL_THRESHOLD, String.valueOf(SPOOL_THRESHOLD));
+        rowSet = new RowSet();
+        rowSet.addColumn("b", BINARY);
+        rowSet.addColumn("s", STRING);
+    }
+
+    @DataProvider(name = "streamValue")
+    public Object[][] createStreamValueData() {
+        byte[] bytes = new byte[SPOOL_THRESHOLD * 10 + 1];
+        new Random(0).nextBytes(bytes);
+        return new Object[][] { { new byte[] { 1, 2, 3 }, "small" },
+                { bytes, repeat("large text & <markup> ", SPOOL_THRESHOLD) },
+                { bytes, repeat("invalid \u0001 xml character ", SPOOL_THRESHOLD) } };
+    }
+
+    @Test(dataProvider = "streamValue")
+    public void testStreamValue(byte[] bytes, String text) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Output output = formatFactory.createOutput(TYPE, attributes);
+        output.setRowSet(rowSet);
+        output.setOutputStream(outputStream);
+        output.init();
+        output.writeStart();
+        output.writeValues(new Value[] { binary(new ByteArrayInputStream(bytes), bytes.length),
+                string(new StringReader(text), text.length()) });
+        output.writeEnd();
+        output.close();
+
+        Input input = formatFactory.createInput(TYPE, attributes);
+        input.setRowSet(rowSet);
+        input.setInputStream(new ByteArrayInputStream(outputStream.toByteArray()));
+        input.init();
+        input.readStart();
+        Value[] values = input.readValues();
+        assertEquals(isStream(values[0]), bytes.length > SPOOL_THRESHOLD);
+        assertEquals(values[0].asBytes(), bytes);
+        assertFalse(isStream(values[0]));
+        assertEquals(values[1].asString(), text);
+        assertNull(input.readValues());
+        input.readEnd();
+        input.close();
+    }
+
+    @Test
+    public void testSpoolLength() {
+        String text = repeat('x', SPOOL_THRESHOLD * 3);
+        Input input = formatFactory.createInput(TYPE, attributes);
+        input.setRowSet(rowSet);
+        input.setInputStream(new ByteArrayInputStream(("<?xml version=\"1.0\"?><rs><r ns=\"01\"><c>" + text
+                + "</c></r></rs>").getBytes()));
+        input.init();
+        input.readStart();
+        Value[] values = input.readValues();
+        assertTrue(values[0].isNull());
+        assertTrue(isStream(values[1]));
+        assertEquals(values[1].getLength(), text.length());
+        assertEquals(values[1].asString(), text);
+        input.close();
+    }
+}
@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.XmlBackupOps;
+import com.nuodb.migrator.backup.format.value.Row;
+import com.nuodb.migrator.backup.loader.BackupLoaderJournal.CommittedRows;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.apache.commons.io.FileUtils.getTempDirectory;
+import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Sergey Bushik
+ */
+public class BackupLoaderJournalTest {
+
+    private File dir;
+    private BackupOps backupOps;
+
+    @BeforeMethod
+    public void setUp() {
+        dir = new File(getTempDirectory(), "load-journal-" + System.nanoTime());
+        backupOps = new XmlBackupOps();
+        backupOps.setDir(dir.getPath());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        deleteQuietly(dir);
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        Chunk chunk = createChunk("t1.csv");
+        BackupLoaderJournal journal = new BackupLoaderJournal(backupOps);
+        journal.open(false);
+        journal.writeSchemaLoaded();
+        // rows of the chunk are interleaved between two threads
+        CommittedRows thread1 = new CommittedRows();
+        CommittedRows thread2 = new CommittedRows();
+        for (long number = 0; number < 10; number++) {
+            (number % 4 < 2 ? thread1 : thread2).add(new Row(chunk, null, number));
+        }
+        journal.writeCommittedRows(thread2);
+        assertEquals(journal.getCommittedRows("t1.csv"), 0);
+        journal.writeCommittedRows(thread1);
+        assertEquals(journal.getCommittedRows("t1.csv"), 10);
+        thread1.clear();
+        thread1.add(new Row(chunk, null, 12));
+        journal.writeCommittedRows(thread1);
+        journal.writeConstraintLoaded("index");
+        journal.close();
+
+        journal = new BackupLoaderJournal(backupOps);
+        journal.open(true);
+        assertTrue(journal.isResume());
+        assertTrue(journal.isSchemaLoaded());
+        assertTrue(journal.isConstraintLoaded("index"));
+        assertFalse(journal.isConstraintLoaded("foreign key"));
+        assertEquals(journal.getCommittedRows("t1.csv"), 10);
+        assertEquals(journal.getCommittedRowCount("t1.csv"), 11);
+        assertEquals(journal.getCommittedRowCount("t2.csv"), 0);
+        assertTrue(journal.isRowCommitted("t1.csv", 9));
+        assertFalse(journal.isRowCommitted("t1.csv", 10));
+        assertFalse(journal.isRowCommitted("t1.csv", 11));
+        assertTrue(journal.isRowCommitted("t1.csv", 12));
+        assertFalse(journal.isRowCommitted("t2.csv", 0));
+
+        CommittedRows committedRows = new CommittedRows();
+        committedRows.add(new Row(chunk, null, 10));
+        committedRows.add(new Row(chunk, null, 11));
+        journal.writeCommittedRows(committedRows);
+        assertEquals(journal.getCommittedRows("t1.csv"), 13);
+        journal.delete();
+        assertFalse(journal.getFile().exists());
+    }
+
+    @Test
+    public void testStartOver() throws Exception {
+        CommittedRows committedRows = new CommittedRows();
+        committedRows.add(new Row(createChunk("t1.csv"), null, 0));
+        BackupLoaderJournal journal = new BackupLoaderJournal(backupOps);
+        journal.open(false);
+        journal.writeCommittedRows(committedRows);
+        journal.close();
+
+        journal = new BackupLoaderJournal(backupOps);
+        journal.open(false);
+        assertFalse(journal.isResume());
+        assertFalse(journal.isRowCommitted("t1.csv", 0));
+        journal.close();
+    }
+
+    /**
+     * Each run is killed while writing a record, the resumed run cuts the torn
+     * record off, so its own records survive the next resume
+     */
+    @Test
+    public void testResumeAfterTornRecord() throws Exception {
+        BackupLoaderJournal journal = new BackupLoaderJournal(backupOps);
+        journal.open(false);
+        journal.writeSchemaLoaded();
+        journal.close();
+        writeStringToFile(journal.getFile(), "constraint\tind", UTF_8, true);
+
+        journal = new BackupLoaderJournal(backupOps);
+        journal.open(true);
+        assertTrue(journal.isSchemaLoaded());
+        journal.writeConstraintLoaded("index");
+        journal.writeConstraintLoaded("foreign key");
+        journal.close();
+        writeStringToFile(journal.getFile(), "rows\tt1.c", UTF_8, true);
+
+        journal = new BackupLoaderJournal(backupOps);
+        journal.open(true);
+        assertTrue(journal.isSchemaLoaded());
+        assertTrue(journal.isConstraintLoaded("index"));
+        assertTrue(journal.isConstraintLoaded("foreign key"));
+        assertFalse(journal.isConstraintLoaded("ind"));
+        journal.close();
+        assertEquals(readFileToString(journal.getFile(), UTF_8),
+                "schema\nconstraint\tindex\nconstraint\tforeign key\n");
+    }
+
+    /**
+     * Rows recorded as pending and not as committed are reported as pending on
+     * resume, committed rows are not
+     */
+    @Test
+    public void testPendingRows() throws Exception {
+        Chunk chunk = createChunk("t1.csv");
+        CommittedRows rows = new CommittedRows();
+        rows.add(new Row(chunk, null, 0));
+        rows.add(new Row(chunk, null, 1));
+        BackupLoaderJournal journal = new BackupLoaderJournal(backupOps);
+        journal.open(false);
+        journal.writePendingRows(rows);
+        journal.writeCommittedRows(rows);
+        rows.clear();
+        rows.add(new Row(chunk, null, 2));
+        // killed before the commit of the row got recorded
+        journal.writePendingRows(rows);
+        journal.close();
+
+        journal = new BackupLoaderJournal(backupOps);
+        journal.open(true);
+        assertFalse(journal.isRowPending("t1.csv", 1));
+        assertTrue(journal.isRowPending("t1.csv", 2));
+        assertFalse(journal.isRowPending("t1.csv", 3));
+        journal.writeCommittedRows(rows);
+        assertFalse(journal.isRowPending("t1.csv", 2));
+        journal.close();
+    }
+
+    protected Chunk createChunk(String name) {
+        Chunk chunk = new Chunk();
+        chunk.setName(name);
+        return chunk;
+    }
+}
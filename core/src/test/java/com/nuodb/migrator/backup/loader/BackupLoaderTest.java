@@ -27,9 +27,22 @@
  */
 package com.nuodb.migrator.backup.loader;
 
+import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.XmlBackupOps;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
 
+import java.io.File;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.apache.commons.io.FileUtils.getTempDirectory;
 import static org.mockito.Mockito.spy;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 /**
  * @author Sergey Bushik
@@ -37,9 +50,50 @@ import static org.mockito.Mockito.spy;
 public class BackupLoaderTest {
 
     private BackupLoader backupLoader;
+    private File dir;
+    private BackupOps backupOps;
 
     @BeforeMethod
     public void setUp() {
         backupLoader = spy(new BackupLoader());
+        dir = new File(getTempDirectory(), "backup-loader-" + System.nanoTime());
+        assertTrue(dir.mkdirs());
+        backupOps = new XmlBackupOps();
+        backupOps.setDir(dir.getPath());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        dir.setWritable(true);
+        deleteQuietly(dir);
+    }
+
+    @Test
+    public void testOpenJournal() throws Exception {
+        BackupLoaderJournal backupLoaderJournal = backupLoader.openBackupLoaderJournal(backupOps);
+        assertNotNull(backupLoaderJournal);
+        assertTrue(backupLoaderJournal.getFile().exists());
+        backupLoaderJournal.delete();
+    }
+
+    @Test
+    public void testOpenJournalReadOnly() throws Exception {
+        setReadOnly(dir);
+        assertNull(backupLoader.openBackupLoaderJournal(backupOps));
+        assertFalse(new BackupLoaderJournal(backupOps).getFile().exists());
+    }
+
+    @Test(expectedExceptions = BackupLoaderException.class)
+    public void testResumeJournalReadOnly() throws Exception {
+        setReadOnly(dir);
+        backupLoader.setResume(true);
+        backupLoader.openBackupLoaderJournal(backupOps);
+    }
+
+    private static void setReadOnly(File dir) {
+        dir.setWritable(false);
+        if (dir.canWrite()) {
+            throw new SkipException("Permissions are not enforced for the current user");
+        }
     }
 }
@@ -0,0 +1,275 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.google.common.base.Predicate;
+import com.nuodb.migrator.backup.Backup;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.XmlBackupOps;
+import com.nuodb.migrator.backup.format.FormatFactory;
+import com.nuodb.migrator.backup.format.Output;
+import com.nuodb.migrator.backup.format.SimpleFormatFactory;
+import com.nuodb.migrator.backup.format.value.Row;
+import com.nuodb.migrator.backup.format.value.RowReader;
+import com.nuodb.migrator.backup.format.value.SimpleValueFormatRegistry;
+import com.nuodb.migrator.backup.format.value.Value;
+import com.nuodb.migrator.backup.loader.BackupLoaderJournal.CommittedRows;
+import com.nuodb.migrator.jdbc.commit.BatchCommitStrategy;
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.Database;
+import com.nuodb.migrator.jdbc.metadata.DatabaseInfo;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.query.Query;
+import com.nuodb.migrator.jdbc.session.Session;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Types;
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.backup.format.utils.SpoolUtils.PREFIX;
+import static com.nuodb.migrator.backup.format.utils.SpoolUtils.SUFFIX;
+import static com.nuodb.migrator.backup.format.value.RowReaders.newFilteringRowReader;
+import static com.nuodb.migrator.backup.format.value.RowReaders.newSequentialRowReader;
+import static com.nuodb.migrator.backup.format.value.ValueType.BINARY;
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.binary;
+import static com.nuodb.migrator.backup.format.value.ValueUtils.string;
+import static com.nuodb.migrator.backup.format.xml.XmlFormat.ATTRIBUTE_SPOOL_THRESHOLD;
+import static com.nuodb.migrator.backup.format.xml.XmlFormat.TYPE;
+import static com.nuodb.migrator.jdbc.metadata.Identifier.EMPTY;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.apache.commons.io.FileUtils.getTempDirectory;
+import static org.apache.commons.lang3.StringUtils.repeat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Sergey Bushik
+ */
+public class LoadTableForkWorkTest {
+
+    private static final int SPOOL_THRESHOLD = 16;
+    private static final int ROWS = 5;
+
+    private File dir;
+    private XmlBackupOps backupOps;
+    private FormatFactory formatFactory;
+    private Map<String, Object> attributes;
+    private RowSet rowSet;
+    private Table table;
+
+    @BeforeMethod
+    public void setUp() {
+        dir = new File(getTempDirectory(), "load-table-" + System.nanoTime());
+        backupOps = new XmlBackupOps();
+        backupOps.setDir(dir.getPath());
+        formatFactory = new SimpleFormatFactory();
+        attributes = newHashMap();
+        attributes.put(ATTRIBUTE_SPOOL_THRESHOLD, String.valueOf(SPOOL_THRESHOLD));
+
+        rowSet = new RowSet();
+        rowSet.setName("t");
+        rowSet.addColumn("b", BINARY);
+        rowSet.addColumn("c", STRING);
+        new Backup(TYPE).addRowSet(rowSet);
+
+        Database database = new Database();
+        database.setDialect(new NuoDBDialect(new DatabaseInfo("NuoDB")));
+        table = database.addCatalog(EMPTY).addSchema("s").addTable("t");
+        addColumn(table, "b", Types.BLOB, "BLOB");
+        addColumn(table, "c", Types.CLOB, "CLOB");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        deleteQuietly(dir);
+    }
+
+    protected static void addColumn(Table table, String name, int typeCode, String typeName) {
+        Column column = table.addColumn(name);
+        column.setTypeCode(typeCode);
+        column.setTypeName(typeName);
+    }
+
+    protected void writeChunk() {
+        Chunk chunk = new Chunk();
+        chunk.setName("t.xml");
+        Output output = formatFactory.createOutput(TYPE, attributes);
+        output.setRowSet(rowSet);
+        output.setOutputStream(backupOps.openOutput(chunk.getName()));
+        output.init();
+        output.writeStart();
+        for (int row = 0; row < ROWS; row++) {
+            byte[] bytes = repeat("binary ", SPOOL_THRESHOLD).getBytes();
+            String text = repeat("text ", SPOOL_THRESHOLD);
+            output.writeValues(new Value[] { binary(bytes), string(text) });
+            chunk.incrementRowCount();
+        }
+        output.writeEnd();
+        output.close();
+        rowSet.addChunk(chunk);
+    }
+
+    /**
+     * Large values are spooled to temporary files as they are read, spool
+     * files should be removed once the rows are executed rather than on exit
+     */
+    @Test
+    public void testSpoolFilesRemoved() throws Exception {
+        writeChunk();
+        int spoolFiles = getSpoolFiles();
+
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        given(statement.getConnection()).willReturn(connection);
+        Session session = mock(Session.class);
+        given(session.getConnection()).willReturn(connection);
+        given(session.getDialect()).willReturn(table.getDatabase().getDialect());
+        given(session.prepareStatement(anyString())).willReturn(statement);
+
+        SimpleBackupLoaderContext backupLoaderContext = new SimpleBackupLoaderContext();
+        BatchCommitStrategy commitStrategy = new BatchCommitStrategy();
+        commitStrategy.setBatchSize(2);
+        backupLoaderContext.setCommitStrategy(commitStrategy);
+        backupLoaderContext.setValueFormatRegistry(new SimpleValueFormatRegistry());
+        BackupLoaderManager backupLoaderManager = mock(BackupLoaderManager.class);
+        given(backupLoaderManager.getBackupLoaderContext()).willReturn(backupLoaderContext);
+        given(backupLoaderManager.canExecute(any(LoadTableForkWork.class))).willReturn(true);
+
+        RowReader rowReader = newSequentialRowReader(rowSet, backupOps, formatFactory, attributes);
+        LoadTableForkWork work = new LoadTableForkWork(new LoadTable(rowSet, table, mock(Query.class)), rowReader,
+                0, backupLoaderManager);
+        try {
+            work.init(session);
+            work.execute();
+        } finally {
+            work.close();
+            rowReader.close();
+        }
+        verify(statement, times(ROWS)).setBinaryStream(anyInt(), any(InputStream.class), anyLong());
+        verify(statement, times(ROWS)).setCharacterStream(anyInt(), any(Reader.class), anyLong());
+        assertEquals(getSpoolFiles(), spoolFiles);
+    }
+
+    /**
+     * Rows which were about to be committed when the previous run was killed
+     * are inserted one by one, the ones found in the target are skipped
+     */
+    @Test
+    public void testResumePendingRows() throws Exception {
+        writeChunk();
+        Chunk chunk = rowSet.getChunks().iterator().next();
+        BackupLoaderJournal journal = new BackupLoaderJournal(backupOps);
+        journal.open(false);
+        CommittedRows rows = new CommittedRows();
+        rows.add(new Row(chunk, null, 0));
+        rows.add(new Row(chunk, null, 1));
+        journal.writePendingRows(rows);
+        journal.writeCommittedRows(rows);
+        rows.clear();
+        rows.add(new Row(chunk, null, 2));
+        rows.add(new Row(chunk, null, 3));
+        journal.writePendingRows(rows);
+        journal.close();
+        journal = new BackupLoaderJournal(backupOps);
+        journal.open(true);
+
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        given(statement.getConnection()).willReturn(connection);
+        // row 2 was committed by the previous run, row 3 wasn't
+        given(statement.executeUpdate()).willThrow(new SQLIntegrityConstraintViolationException("duplicate", "23000"))
+                .willReturn(1);
+        Session session = mock(Session.class);
+        given(session.getConnection()).willReturn(connection);
+        given(session.getDialect()).willReturn(table.getDatabase().getDialect());
+        given(session.prepareStatement(anyString())).willReturn(statement);
+
+        SimpleBackupLoaderContext backupLoaderContext = new SimpleBackupLoaderContext();
+        BatchCommitStrategy commitStrategy = new BatchCommitStrategy();
+        commitStrategy.setBatchSize(2);
+        backupLoaderContext.setCommitStrategy(commitStrategy);
+        backupLoaderContext.setValueFormatRegistry(new SimpleValueFormatRegistry());
+        backupLoaderContext.setBackupLoaderJournal(journal);
+        BackupLoaderManager backupLoaderManager = mock(BackupLoaderManager.class);
+        given(backupLoaderManager.getBackupLoaderContext()).willReturn(backupLoaderContext);
+        given(backupLoaderManager.canExecute(any(LoadTableForkWork.class))).willReturn(true);
+
+        final BackupLoaderJournal backupLoaderJournal = journal;
+        RowReader rowReader = newSequentialRowReader(rowSet, backupOps, formatFactory, attributes);
+        rowReader = newFilteringRowReader(rowReader, new Predicate<Row>() {
+            @Override
+            public boolean apply(Row row) {
+                return !backupLoaderJournal.isRowCommitted(row.getChunk().getName(), row.getNumber());
+            }
+        });
+        LoadTableForkWork work = new LoadTableForkWork(new LoadTable(rowSet, table, mock(Query.class)), rowReader,
+                0, backupLoaderManager);
+        try {
+            work.init(session);
+            work.execute();
+        } finally {
+            work.close();
+            rowReader.close();
+            journal.close();
+        }
+        verify(statement, times(2)).executeUpdate();
+        verify(statement, times(1)).addBatch();
+        verify(connection, times(1)).rollback();
+        assertEquals(journal.getCommittedRows(chunk.getName()), ROWS);
+    }
+
+    protected static int getSpoolFiles() {
+        File[] files = getTempDirectory().listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.getName().startsWith(PREFIX) && file.getName().endsWith(SUFFIX);
+            }
+        });
+        return files != null ? files.length : 0;
+    }
+}
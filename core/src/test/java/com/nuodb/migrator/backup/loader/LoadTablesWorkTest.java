@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.loader;
+
+import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.RowSet;
+import com.nuodb.migrator.backup.XmlBackupOps;
+import com.nuodb.migrator.backup.format.value.Row;
+import com.nuodb.migrator.backup.loader.BackupLoaderJournal.CommittedRows;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.apache.commons.io.FileUtils.getTempDirectory;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Sergey Bushik
+ */
+public class LoadTablesWorkTest {
+
+    private File dir;
+    private BackupOps backupOps;
+    private LoadTablesWork loadTablesWork;
+    private LoadTable loadTable;
+    private Chunk chunk1;
+
+    @BeforeMethod
+    public void setUp() {
+        dir = new File(getTempDirectory(), "load-tables-" + System.nanoTime());
+        backupOps = new XmlBackupOps();
+        backupOps.setDir(dir.getPath());
+
+        BackupLoaderManager backupLoaderManager = mock(BackupLoaderManager.class);
+        given(backupLoaderManager.getBackupLoaderContext()).willReturn(new SimpleBackupLoaderContext());
+        loadTablesWork = new LoadTablesWork(backupLoaderManager);
+
+        RowSet rowSet = new RowSet();
+        rowSet.addChunk(chunk1 = createChunk("t.1.csv", 10));
+        rowSet.addChunk(createChunk("t.2.csv", 5));
+        loadTable = new LoadTable(rowSet, null, null);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        deleteQuietly(dir);
+    }
+
+    @Test
+    public void testExpectedRows() throws Exception {
+        assertEquals(loadTablesWork.getExpectedRows(loadTable, null), 15);
+    }
+
+    /**
+     * Rows committed by the previous run are not expected on resume
+     */
+    @Test
+    public void testExpectedRowsOnResume() throws Exception {
+        BackupLoaderJournal journal = new BackupLoaderJournal(backupOps);
+        journal.open(false);
+        CommittedRows committedRows = new CommittedRows();
+        committedRows.add(new Row(chunk1, null, 0));
+        committedRows.add(new Row(chunk1, null, 1));
+        committedRows.add(new Row(chunk1, null, 5));
+        journal.writeCommittedRows(committedRows);
+        journal.close();
+
+        journal = new BackupLoaderJournal(backupOps);
+        journal.open(true);
+        try {
+            assertEquals(loadTablesWork.getExpectedRows(loadTable, journal), 12);
+        } finally {
+            journal.close();
+        }
+    }
+
+    protected static Chunk createChunk(String name, long rowCount) {
+        Chunk chunk = new Chunk();
+        chunk.setName(name);
+        chunk.setRowCount(rowCount);
+        return chunk;
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.writer;
+
+import com.nuodb.migrator.backup.BackupOps;
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.Column;
+import com.nuodb.migrator.backup.XmlBackupOps;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+
+import static com.nuodb.migrator.backup.format.value.ValueType.STRING;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.apache.commons.io.FileUtils.checksumCRC32;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.apache.commons.io.FileUtils.getTempDirectory;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Sergey Bushik
+ */
+public class BackupWriterJournalTest {
+
+    private File dir;
+    private BackupOps backupOps;
+
+    @BeforeMethod
+    public void setUp() {
+        dir = new File(getTempDirectory(), "journal-" + System.nanoTime());
+        backupOps = new XmlBackupOps();
+        backupOps.setDir(dir.getPath());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        deleteQuietly(dir);
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        Chunk chunk1 = writeChunk("t1.1.csv", "1,2\n");
+        Chunk chunk2 = writeChunk("t1.2.csv", "3,4\n");
+        Chunk chunk3 = writeChunk("t2.csv", "5,6\n");
+        Column column = new Column("f1", STRING);
+
+        BackupWriterJournal journal = new BackupWriterJournal(backupOps);
+        journal.open(false);
+        journal.writeChunk("t1", 0, chunk1, chunk1.getSize(), checksum(chunk1));
+        journal.writeChunk("t1", 0, chunk2, chunk2.getSize(), checksum(chunk2));
+        journal.writeSplit("t1", 0, singleton(column));
+        // split of t2 is not completed
+        journal.writeChunk("t2", 0, chunk3, chunk3.getSize(), checksum(chunk3));
+        journal.close();
+
+        journal = new BackupWriterJournal(backupOps);
+        journal.open(true);
+        BackupWriterJournal.Split split = journal.getSplit("t1", 0);
+        assertNotNull(split);
+        assertEquals(split.getChunks(), asList(chunk1, chunk2));
+        assertEquals(split.getColumns(), asList(column));
+        assertTrue(journal.verify(split));
+        assertNull(journal.getSplit("t2", 0));
+        journal.close();
+
+        journal = new BackupWriterJournal(backupOps);
+        journal.open(false);
+        assertNull(journal.getSplit("t1", 0));
+        journal.close();
+    }
+
+    @Test
+    public void testResumeChangedChunk() throws Exception {
+        Chunk chunk = writeChunk("t1.csv", "1,2\n");
+
+        BackupWriterJournal journal = new BackupWriterJournal(backupOps);
+        journal.open(false);
+        journal.writeChunk("t1", 0, chunk, chunk.getSize(), checksum(chunk));
+        journal.writeSplit("t1", 0, singleton(new Column("f1", STRING)));
+        journal.close();
+
+        // same size, checksum is verified separately by the split's work
+        writeChunk("t1.csv", "1,3\n");
+        journal = new BackupWriterJournal(backupOps);
+        journal.open(true);
+        BackupWriterJournal.Split split = journal.getSplit("t1", 0);
+        assertNotNull(split);
+        assertFalse(journal.verify(split));
+        journal.close();
+
+        // size changed, split is dropped without reading the chunk
+        writeChunk("t1.csv", "1,23\n");
+        journal = new BackupWriterJournal(backupOps);
+        journal.open(true);
+        assertNull(journal.getSplit("t1", 0));
+        journal.close();
+    }
+
+    private Chunk writeChunk(String name, String content) throws Exception {
+        File file = new File(dir, name);
+        writeStringToFile(file, content);
+        Chunk chunk = new Chunk();
+        chunk.setName(name);
+        chunk.setRowCount(1);
+        chunk.setSize(file.length());
+        return chunk;
+    }
+
+    private long checksum(Chunk chunk) throws Exception {
+        return checksumCRC32(new File(dir, chunk.getName()));
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.backup.writer;
+
+import com.nuodb.migrator.backup.Chunk;
+import com.nuodb.migrator.backup.format.value.Row;
+import com.nuodb.migrator.jdbc.session.Work;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Sergey Bushik
+ */
+public class SimpleBackupWriterManagerTest {
+
+    private SimpleBackupWriterManager backupWriterManager;
+
+    @BeforeMethod
+    public void setUp() {
+        backupWriterManager = new SimpleBackupWriterManager();
+    }
+
+    @Test
+    public void testWriteRows() {
+        BackupWriterListener listener = mock(BackupWriterListener.class);
+        backupWriterManager.addListener(listener);
+        assertFalse(backupWriterManager.hasRowListeners());
+
+        Work work = mock(Work.class);
+        WriteQuery writeQuery = mock(WriteQuery.class);
+        Chunk chunk = new Chunk();
+        backupWriterManager.writeRow(work, writeQuery, new Row(chunk, null, 0));
+        backupWriterManager.writeRows(work, writeQuery, chunk, 10);
+
+        verify(listener, times(1)).onWriteRows(any(WriteRowsEvent.class));
+    }
+
+    @Test
+    public void testWriteRow() {
+        BackupWriterRowListener listener = mock(BackupWriterRowListener.class);
+        backupWriterManager.addListener(listener);
+        assertTrue(backupWriterManager.hasRowListeners());
+
+        Work work = mock(Work.class);
+        WriteQuery writeQuery = mock(WriteQuery.class);
+        Chunk chunk = new Chunk();
+        backupWriterManager.writeRow(work, writeQuery, new Row(chunk, null, 0));
+        verify(listener, times(1)).onWriteRow(any(WriteRowEvent.class));
+
+        backupWriterManager.removeListener(listener);
+        assertFalse(backupWriterManager.hasRowListeners());
+        backupWriterManager.writeRows(work, writeQuery, chunk, 10);
+        verify(listener, never()).onWriteRows(any(WriteRowsEvent.class));
+    }
+}
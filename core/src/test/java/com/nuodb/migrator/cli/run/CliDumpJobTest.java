@@ -69,7 +69,7 @@ public class CliDumpJobTest {
 
                 "--table.type=TABLE", "--table.type=SYSTEM TABLE",
 
-                "--query=SELECT id, name, definition FROM definitions", "--time.zone=GMT" };
+                "--query=SELECT id, name, definition FROM definitions", "--time.zone=GMT", "--resume" };
         parser.parse(arguments, cliDumpJob);
 
         assertEquals(cliDumpJob.getJobSpec(), createDumpSpec());
@@ -105,6 +105,7 @@ public class CliDumpJobTest {
         dumpSpec.setQuerySpecs(asList(new QuerySpec("SELECT id, name, definition FROM definitions")));
         dumpSpec.setTableTypes(new String[] { "TABLE", "SYSTEM TABLE" });
         dumpSpec.setTimeZone(TimeZone.getTimeZone("GMT"));
+        dumpSpec.setResume(true);
         return dumpSpec;
     }
 }
@@ -69,7 +69,7 @@ public class CliLoadJobTest {
                 "--input.path=/tmp/dump.cat", "--input.csv.encoding=cp1251", "--input.csv.delimiter= ",
                 "--input.csv.quoting=true", "--input.csv.escape=|",
 
-                "--table.deployments.insert", "--table.deployments_nodes.replace", "--time.zone=GMT+2" };
+                "--table.deployments.insert", "--table.deployments_nodes.replace", "--time.zone=GMT+2", "--resume" };
         parser.parse(arguments, cliLoadJob);
 
         assertEquals(cliLoadJob.getJobSpec(), createLoadSpec());
@@ -102,6 +102,7 @@ public class CliLoadJobTest {
         tableInsertTypes.put("deployments_nodes", InsertType.REPLACE);
         loadJobSpec.setTableInsertTypes(tableInsertTypes);
         loadJobSpec.setTimeZone(TimeZone.getTimeZone("GMT+2"));
+        loadJobSpec.setResume(true);
         loadJobSpec.setCommitStrategy(new BatchCommitStrategy());
         return loadJobSpec;
     }
@@ -32,6 +32,8 @@ import com.nuodb.migrator.backup.format.FormatFactory;
 import com.nuodb.migrator.backup.format.value.ValueFormatRegistryResolver;
 import com.nuodb.migrator.jdbc.connection.ConnectionProvider;
 import com.nuodb.migrator.jdbc.connection.ConnectionProviderFactory;
+import com.nuodb.migrator.jdbc.connection.DriverConnectionProvider;
+import com.nuodb.migrator.jdbc.connection.LoggingConnectionProvider;
 import com.nuodb.migrator.jdbc.dialect.Dialect;
 import com.nuodb.migrator.jdbc.dialect.DialectResolver;
 import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
@@ -42,6 +44,8 @@ import com.nuodb.migrator.jdbc.metadata.Table;
 import com.nuodb.migrator.jdbc.metadata.inspector.InspectionManager;
 import com.nuodb.migrator.job.JobExecution;
 import com.nuodb.migrator.job.JobExecutor;
+import com.nuodb.migrator.metrics.MetricRegistry;
+import com.nuodb.migrator.spec.DriverConnectionSpec;
 import com.nuodb.migrator.spec.DumpJobSpec;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -57,11 +61,14 @@ import java.util.Map;
 import static com.google.common.collect.Maps.newHashMap;
 import static com.nuodb.migrator.jdbc.metadata.Identifier.EMPTY;
 import static com.nuodb.migrator.job.JobExecutors.createJobExecutor;
+import static com.nuodb.migrator.metrics.MetricNames.POOL_ACTIVE;
+import static com.nuodb.migrator.metrics.MetricNames.POOL_IDLE;
 import static org.mockito.BDDMockito.*;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.MockitoAnnotations.initMocks;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 
@@ -164,4 +171,21 @@ public class DumpJobTest {
             throw failure;
         }
     }
+
+    @Test
+    public void testCreateSourceSessionFactory() throws Exception {
+        DriverConnectionSpec sourceSpec = new DriverConnectionSpec();
+        sourceSpec.setUrl("jdbc:com.nuodb://localhost/test");
+        dumpJob.getJobSpec().setSourceSpec(sourceSpec);
+        DriverConnectionProvider driverConnectionProvider = new DriverConnectionProvider(sourceSpec);
+        given(connectionProviderFactory.createConnectionProvider(sourceSpec))
+                .willReturn(new LoggingConnectionProvider(driverConnectionProvider));
+
+        MetricRegistry metricRegistry = new MetricRegistry();
+        assertNotNull(dumpJob.createSourceSessionFactory(4, metricRegistry));
+        assertEquals(driverConnectionProvider.getMaxConnections(), 9);
+        // pool is not created until the first connection is requested
+        assertEquals(metricRegistry.getGauge(POOL_ACTIVE).getValue(), 0);
+        assertEquals(metricRegistry.getGauge(POOL_IDLE).getValue(), 0);
+    }
 }
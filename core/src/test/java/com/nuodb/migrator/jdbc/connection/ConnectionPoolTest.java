@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.connection;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static java.sql.Connection.TRANSACTION_READ_COMMITTED;
+import static java.sql.Connection.TRANSACTION_SERIALIZABLE;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.*;
+
+/**
+ * @author Sergey Bushik
+ */
+public class ConnectionPoolTest {
+
+    private ConnectionPool.ConnectionFactory connectionFactory;
+
+    @BeforeMethod
+    public void setUp() {
+        connectionFactory = new ConnectionPool.ConnectionFactory() {
+            @Override
+            public Connection createConnection() throws SQLException {
+                return mock(Connection.class);
+            }
+        };
+    }
+
+    @Test
+    public void testReuse() throws Exception {
+        ConnectionPool connectionPool = new ConnectionPool(connectionFactory);
+        Connection connection = connectionPool.getConnection();
+        Connection target = ((DelegatingConnection) connection).getTarget();
+        assertEquals(connectionPool.getActive(), 1);
+        assertEquals(connectionPool.getIdle(), 0);
+
+        connection.close();
+        assertTrue(connection.isClosed());
+        verify(target, never()).close();
+        assertEquals(connectionPool.getActive(), 0);
+        assertEquals(connectionPool.getIdle(), 1);
+
+        Connection reused = connectionPool.getConnection();
+        assertNotSame(reused, connection);
+        assertSame(((DelegatingConnection) reused).getTarget(), target);
+        assertEquals(connectionPool.getCreateCount(), 1);
+        assertEquals(connectionPool.getBorrowCount(), 2);
+
+        reused.close();
+        connectionPool.close();
+        assertEquals(connectionPool.getIdle(), 0);
+        verify(target).close();
+    }
+
+    @Test(expectedExceptions = SQLException.class)
+    public void testClosedHandle() throws Exception {
+        ConnectionPool connectionPool = new ConnectionPool(connectionFactory);
+        Connection connection = connectionPool.getConnection();
+        connection.close();
+        connection.createStatement();
+    }
+
+    @Test
+    public void testMaxLifetime() throws Exception {
+        ConnectionPool connectionPool = new ConnectionPool(connectionFactory, 0, 1, 0);
+        Connection connection = connectionPool.getConnection();
+        Connection target = ((DelegatingConnection) connection).getTarget();
+        Thread.sleep(5);
+        connection.close();
+        verify(target).close();
+        assertEquals(connectionPool.getIdle(), 0);
+    }
+
+    @Test
+    public void testMaxConnections() throws Exception {
+        ConnectionPool connectionPool = new ConnectionPool(connectionFactory, 1, 0, 10);
+        Connection connection = connectionPool.getConnection();
+        try {
+            connectionPool.getConnection();
+            fail("Pool of one connection should be exhausted");
+        } catch (ConnectionException exception) {
+            assertEquals(connectionPool.getActive(), 1);
+        }
+        connection.close();
+        connectionPool.getConnection().close();
+        assertEquals(connectionPool.getCreateCount(), 1);
+    }
+
+    @Test
+    public void testWaitIndefinitely() throws Exception {
+        final ConnectionPool connectionPool = new ConnectionPool(connectionFactory, 1, 0, 0);
+        final Connection connection = connectionPool.getConnection();
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    sleep(100);
+                    connection.close();
+                } catch (Exception exception) {
+                    throw new RuntimeException(exception);
+                }
+            }
+        };
+        thread.start();
+        connectionPool.getConnection().close();
+        thread.join();
+        assertEquals(connectionPool.getCreateCount(), 1);
+    }
+
+    @Test
+    public void testRestoreState() throws Exception {
+        final Connection target = mock(Connection.class);
+        given(target.getAutoCommit()).willReturn(true, false, false);
+        given(target.getTransactionIsolation()).willReturn(TRANSACTION_READ_COMMITTED, TRANSACTION_SERIALIZABLE);
+        given(target.isReadOnly()).willReturn(false, true);
+        given(target.getCatalog()).willReturn("test", "other");
+        ConnectionPool connectionPool = new ConnectionPool(new ConnectionPool.ConnectionFactory() {
+            @Override
+            public Connection createConnection() {
+                return target;
+            }
+        });
+        connectionPool.getConnection().close();
+        verify(target).rollback();
+        verify(target).setAutoCommit(true);
+        verify(target).setTransactionIsolation(TRANSACTION_READ_COMMITTED);
+        verify(target).setReadOnly(false);
+        verify(target).setCatalog("test");
+        assertEquals(connectionPool.getIdle(), 1);
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.connection;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+/**
+ * @author Sergey Bushik
+ */
+public class LoggingConnectionProviderTest {
+
+    private static final String QUERY = "INSERT INTO T VALUES (?, ?)";
+
+    private Connection connection;
+    private QueryLogger queryLogger;
+    private LoggingConnectionProvider connectionProvider;
+
+    @BeforeMethod
+    public void setUp() throws SQLException {
+        connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+
+        ConnectionProvider target = mock(ConnectionProvider.class);
+        when(target.getConnection()).thenReturn(connection);
+        queryLogger = mock(QueryLogger.class);
+        connectionProvider = new LoggingConnectionProvider(target, new SimpleQueryFormatFactory(), queryLogger);
+    }
+
+    @Test
+    public void testWrapping() throws SQLException {
+        Connection proxy = connectionProvider.getConnection();
+        assertSame(((ConnectionProxy) proxy).getConnection(), connection);
+
+        Statement statement = proxy.createStatement();
+        assertSame(statement.getConnection(), proxy);
+        PreparedStatement preparedStatement = proxy.prepareStatement(QUERY);
+        assertSame(preparedStatement.getConnection(), proxy);
+    }
+
+    @Test
+    public void testLogPreparedStatement() throws SQLException {
+        when(queryLogger.isEnabled()).thenReturn(true);
+        when(queryLogger.isLoggable()).thenReturn(true);
+
+        PreparedStatement statement = connectionProvider.getConnection().prepareStatement(QUERY);
+        statement.setInt(1, 1);
+        statement.setString(2, "value");
+        statement.executeUpdate();
+
+        verify(queryLogger).log("INSERT INTO T VALUES (1, 'value')");
+        verify(((LoggingPreparedStatement) statement).getTarget()).setInt(1, 1);
+    }
+
+    @Test
+    public void testLoggingDisabled() throws SQLException {
+        Connection proxy = connectionProvider.getConnection();
+        PreparedStatement statement = proxy.prepareStatement(QUERY);
+        assertNull(((LoggingPreparedStatement) statement).getQueryFormat());
+        statement.setInt(1, 1);
+        statement.executeUpdate();
+        proxy.createStatement().execute(QUERY);
+
+        verify(queryLogger, never()).log(anyString());
+    }
+}
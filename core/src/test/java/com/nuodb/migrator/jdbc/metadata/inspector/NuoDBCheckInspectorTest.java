@@ -27,8 +27,10 @@
  */
 package com.nuodb.migrator.jdbc.metadata.inspector;
 
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
 import com.nuodb.migrator.jdbc.metadata.Check;
 import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.MetaData;
 import com.nuodb.migrator.jdbc.metadata.Table;
 import org.testng.annotations.Test;
 
@@ -37,13 +39,17 @@ import java.sql.ResultSet;
 import java.util.Collection;
 
 import static com.google.common.collect.Iterables.get;
+import static com.google.common.collect.Lists.newArrayList;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataType.CHECK;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createColumn;
 import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createTable;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
 
@@ -95,4 +101,35 @@ public class NuoDBCheckInspectorTest extends InspectorTestBase {
         check = column.addCheck(new Check(checkName2, checkClause2));
         assertEquals(get(checks, 1), check);
     }
+
+    @Test
+    public void testInspectBulk() throws Exception {
+        willResolveDialect(getInspectionManager(), new NuoDBDialect());
+        PreparedStatement query = mock(PreparedStatement.class);
+        given(getConnection().prepareStatement(anyString(), anyInt(), anyInt())).willReturn(query);
+
+        ResultSet resultSet = mock(ResultSet.class);
+        given(query.executeQuery()).willReturn(resultSet);
+
+        given(resultSet.next()).willReturn(true, true, true, false);
+
+        String catalogName = null;
+        String schemaName = "schema";
+        given(resultSet.getString("SCHEMA")).willReturn(schemaName);
+        given(resultSet.getString("TABLENAME")).willReturn("table1", "table1", "table3", "table2", "table2");
+        given(resultSet.getString("CONSTRAINTNAME")).willReturn("constraint1", "constraint2");
+        given(resultSet.getString("CONSTRAINTTEXT")).willReturn("column1 > 0", "column2 > 0");
+
+        Collection<MetaData> tables = newArrayList();
+        tables.add(createTable(catalogName, schemaName, "table1"));
+        tables.add(createTable(catalogName, schemaName, "table2"));
+        InspectionResults inspectionResults = getInspectionManager().inspect(getConnection(), tables, CHECK);
+        verify(getInspector()).inspectScope(any(InspectionContext.class), isA(TablesInspectionScope.class));
+
+        Collection<Check> checks = inspectionResults.getObjects(CHECK);
+        assertNotNull(checks);
+        assertEquals(checks.size(), 2);
+        assertEquals(get(checks, 0).getTable().getName(), "table1");
+        assertEquals(get(checks, 1).getTable().getName(), "table2");
+    }
 }
@@ -101,6 +101,7 @@ public class NuoDBColumnInspectorTest extends InspectorTestBase {
         ResultSet columnsResultSet = mock(ResultSet.class);
         given(metaData.getColumns(anyString(), anyString(), anyString(), anyString())).willReturn(columnsResultSet);
         given(columnsResultSet.next()).willReturn(true, false);
+        given(columnsResultSet.getString("TABLE_NAME")).willReturn(tableName);
         given(columnsResultSet.getInt("DATA_TYPE")).willReturn(typeCode);
         given(columnsResultSet.getString("TYPE_NAME")).willReturn(typeName);
         given(columnsResultSet.getString("COLUMN_NAME")).willReturn(columnName);
@@ -0,0 +1,257 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.inspector;
+
+import com.nuodb.migrator.jdbc.metadata.Column;
+import com.nuodb.migrator.jdbc.metadata.MetaData;
+import com.nuodb.migrator.jdbc.metadata.MetaDataType;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.session.Session;
+import com.nuodb.migrator.jdbc.session.SessionFactory;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.collect.Sets.newHashSet;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.*;
+import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
+import static java.util.Arrays.asList;
+import static java.util.Collections.synchronizedList;
+import static java.util.Collections.synchronizedSet;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Sergey Bushik
+ */
+@SuppressWarnings("unchecked")
+public class ParallelInspectionContextTest {
+
+    private static final int TABLES = 5;
+    private static final int THREADS = 2;
+
+    private Connection connection;
+    private SessionFactory sessionFactory;
+    private InspectionManager inspectionManager;
+    private Inspector columnInspector;
+    private Set<Connection> columnConnections;
+    private Set<Connection> foreignKeyConnections;
+    private List<MetaDataType> inspectedTypes;
+    private Set<Thread> columnThreads;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        connection = mock(Connection.class);
+        sessionFactory = mock(SessionFactory.class);
+        given(sessionFactory.openSession()).willAnswer(new Answer<Session>() {
+            @Override
+            public Session answer(InvocationOnMock invocation) throws Throwable {
+                Session session = mock(Session.class);
+                given(session.getConnection()).willReturn(mock(Connection.class));
+                return session;
+            }
+        });
+        inspectedTypes = synchronizedList(new ArrayList<MetaDataType>());
+        columnConnections = synchronizedSet(newHashSet());
+        foreignKeyConnections = synchronizedSet(newHashSet());
+        columnThreads = synchronizedSet(new HashSet<Thread>());
+
+        Inspector tableInspector = mock(Inspector.class);
+        given(tableInspector.supports(TABLE)).willReturn(true);
+        given(tableInspector.supportsScope(any(InspectionContext.class), any(InspectionScope.class))).willReturn(true);
+        willAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                InspectionContext inspectionContext = (InspectionContext) invocation.getArguments()[0];
+                inspectedTypes.add(TABLE);
+                for (int table = 0; table < TABLES; table++) {
+                    addTable(inspectionContext.getInspectionResults(), null, "schema", "table" + table);
+                }
+                return null;
+            }
+        }).given(tableInspector).inspectScope(any(InspectionContext.class), any(InspectionScope.class));
+
+        columnInspector = mock(Inspector.class);
+        given(columnInspector.supports(COLUMN)).willReturn(true);
+        willAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                InspectionContext inspectionContext = (InspectionContext) invocation.getArguments()[0];
+                columnConnections.add(inspectionContext.getConnection());
+                columnThreads.add(Thread.currentThread());
+                inspectedTypes.add(COLUMN);
+                for (MetaData object : (Collection<MetaData>) invocation.getArguments()[1]) {
+                    inspectionContext.getInspectionResults().addObject(((Table) object).addColumn("column"));
+                }
+                return null;
+            }
+        }).given(columnInspector).inspectObjects(any(InspectionContext.class), anyCollection());
+
+        Inspector foreignKeyInspector = mock(Inspector.class);
+        given(foreignKeyInspector.supports(FOREIGN_KEY)).willReturn(true);
+        willAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                InspectionContext inspectionContext = (InspectionContext) invocation.getArguments()[0];
+                foreignKeyConnections.add(inspectionContext.getConnection());
+                inspectedTypes.add(FOREIGN_KEY);
+                return null;
+            }
+        }).given(foreignKeyInspector).inspect(any(InspectionContext.class));
+
+        inspectionManager = new InspectionManager();
+        inspectionManager.getInspectors().clear();
+        inspectionManager.addInspector(tableInspector);
+        inspectionManager.addInspector(columnInspector);
+        inspectionManager.addInspector(foreignKeyInspector);
+        for (MetaDataType objectType : TYPES) {
+            if (objectType != TABLE && objectType != COLUMN && objectType != FOREIGN_KEY) {
+                inspectionManager.addInspector(createInspector(objectType));
+            }
+        }
+        inspectionManager.setSessionFactory(sessionFactory);
+        inspectionManager.setThreads(THREADS);
+    }
+
+    protected Inspector createInspector(final MetaDataType objectType) throws Exception {
+        Inspector inspector = mock(Inspector.class);
+        given(inspector.supports(objectType)).willReturn(true);
+        Answer answer = new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                inspectedTypes.add(objectType);
+                return null;
+            }
+        };
+        willAnswer(answer).given(inspector).inspect(any(InspectionContext.class));
+        willAnswer(answer).given(inspector).inspectObjects(any(InspectionContext.class), anyCollection());
+        return inspector;
+    }
+
+    @Test
+    public void testInspectTypes() throws Exception {
+        InspectionResults inspectionResults = inspectionManager.inspect(connection, new TableInspectionScope(),
+                TYPES);
+
+        assertEquals(inspectionResults.getObjects(COLUMN).size(), TABLES);
+        assertEquals(columnConnections.size(), THREADS);
+        int table = inspectedTypes.indexOf(TABLE);
+        for (MetaDataType objectType : asList(DATABASE, CATALOG, SCHEMA, USER_DEFINED_TYPE)) {
+            assertTrue(inspectedTypes.indexOf(objectType) >= 0, objectType + " is inspected");
+            assertTrue(inspectedTypes.indexOf(objectType) < table, objectType + " is inspected before tables");
+        }
+        for (MetaDataType objectType : asList(COLUMN, PRIMARY_KEY, INDEX, CHECK, FOREIGN_KEY, SEQUENCE)) {
+            assertTrue(inspectedTypes.indexOf(objectType) > table, objectType + " is inspected after tables");
+        }
+        assertTrue(inspectedTypes.lastIndexOf(COLUMN) < inspectedTypes.indexOf(FOREIGN_KEY));
+    }
+
+    @Test
+    public void testInspect() throws Exception {
+        InspectionResults inspectionResults = inspectionManager.inspect(connection, new TableInspectionScope(),
+                TABLE, COLUMN, FOREIGN_KEY);
+
+        assertEquals(inspectionResults.getObjects(TABLE).size(), TABLES);
+        assertEquals(inspectionResults.getObjects(COLUMN).size(), TABLES);
+
+        verify(sessionFactory, times(THREADS)).openSession();
+        verify(columnInspector, times(THREADS)).inspectObjects(any(InspectionContext.class), anyCollection());
+        assertEquals(columnConnections.size(), THREADS);
+        assertFalse(columnConnections.contains(connection));
+        assertTrue(foreignKeyConnections.contains(connection));
+    }
+
+    @Test
+    public void testInspectSerial() throws Exception {
+        inspectionManager.setThreads(1);
+        inspectionManager.inspect(connection, new TableInspectionScope(), TABLE, COLUMN);
+
+        verify(columnInspector).inspect(any(InspectionContext.class));
+        verify(sessionFactory, times(0)).openSession();
+    }
+
+    /**
+     * Tables of the results outside of the inspected scope are not sharded
+     */
+    @Test
+    public void testInspectScope() throws Exception {
+        InspectionResults inspectionResults = new SimpleInspectionResults();
+        for (int table = 0; table < TABLES; table++) {
+            addTable(inspectionResults, null, "other", "other" + table);
+        }
+        inspectionManager.inspectDatabase(connection, inspectionResults, new TableInspectionScope(null, "schema"),
+                TABLE, COLUMN);
+
+        assertEquals(inspectionResults.getObjects(TABLE).size(), TABLES * 2);
+        assertEquals(inspectionResults.getObjects(COLUMN).size(), TABLES);
+        for (MetaData object : inspectionResults.getObjects(COLUMN)) {
+            assertEquals(((Column) object).getTable().getSchema().getName(), "schema");
+        }
+    }
+
+    /**
+     * Shards of subsequent inspections are run on the same threads, which are
+     * stopped once the context is closed
+     */
+    @Test
+    public void testCloseExecutor() throws Exception {
+        InspectionResults inspectionResults = new SimpleInspectionResults();
+        ParallelInspectionContext inspectionContext = new ParallelInspectionContext(inspectionManager, connection,
+                inspectionResults, sessionFactory, THREADS, TABLE, COLUMN);
+        inspectionContext.init();
+        try {
+            inspectionContext.inspect(new TableInspectionScope(), TABLE, COLUMN);
+            inspectionContext.inspect(new TableInspectionScope(null, "schema"), COLUMN);
+        } finally {
+            inspectionContext.close();
+        }
+        verify(columnInspector, times(THREADS * 2)).inspectObjects(any(InspectionContext.class), anyCollection());
+        assertEquals(columnThreads.size(), THREADS);
+        for (Thread thread : columnThreads) {
+            thread.join(SECONDS.toMillis(10));
+            assertFalse(thread.isAlive());
+        }
+    }
+}
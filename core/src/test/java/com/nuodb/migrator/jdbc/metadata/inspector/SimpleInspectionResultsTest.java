@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.inspector;
+
+import com.nuodb.migrator.jdbc.metadata.Table;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.TABLE;
+import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+/**
+ * @author Sergey Bushik
+ */
+public class SimpleInspectionResultsTest {
+
+    private InspectionResults inspectionResults;
+
+    @BeforeMethod
+    public void setUp() {
+        inspectionResults = new SimpleInspectionResults();
+    }
+
+    @Test
+    public void testGetObject() {
+        Table table1 = addTable(inspectionResults, null, "schema", "table1");
+        Table table2 = addTable(inspectionResults, null, "schema", "table2");
+
+        assertSame(inspectionResults.getObject(TABLE, "table1"), table1);
+        assertSame(inspectionResults.getObject(TABLE, "table2"), table2);
+        assertNull(inspectionResults.getObject(TABLE, "table3"));
+    }
+
+    @Test
+    public void testGetObjectFromSchemas() {
+        Table table1 = addTable(inspectionResults, null, "schema1", "table");
+        Table table2 = addTable(inspectionResults, null, "schema2", "table");
+
+        assertEquals(inspectionResults.getObjects(TABLE).size(), 2);
+        assertSame(inspectionResults.getObject(TABLE, "table"), table1);
+
+        inspectionResults.removeObject(table1);
+        assertSame(inspectionResults.getObject(TABLE, "table"), table2);
+
+        inspectionResults.removeObject(table2);
+        assertNull(inspectionResults.getObject(TABLE, "table"));
+    }
+
+    @Test
+    public void testGetObjectByQualifiedName() {
+        Table table1 = addTable(inspectionResults, null, "schema1", "table");
+        Table table2 = addTable(inspectionResults, null, "schema2", "table");
+
+        assertSame(inspectionResults.getObject(TABLE, table1.getQualifiedName()), table1);
+        assertSame(inspectionResults.getObject(TABLE, table2.getQualifiedName()), table2);
+        assertNull(inspectionResults.getObject(TABLE, "schema3.table"));
+
+        inspectionResults.removeObject(table2);
+        assertNull(inspectionResults.getObject(TABLE, table2.getQualifiedName()));
+        assertSame(inspectionResults.getObject(TABLE, "table"), table1);
+    }
+
+    /**
+     * Object renamed after it's added is found by its new name only
+     */
+    @Test
+    public void testGetRenamedObject() {
+        Table table1 = addTable(inspectionResults, null, "schema", "table1");
+        Table table2 = addTable(inspectionResults, null, "schema", "table2");
+        assertSame(inspectionResults.getObject(TABLE, "table1"), table1);
+
+        table1.setName("table3");
+        assertNull(inspectionResults.getObject(TABLE, "table1"));
+        assertSame(inspectionResults.getObject(TABLE, "table3"), table1);
+        assertSame(inspectionResults.getObject(TABLE, "schema.table3"), table1);
+        assertSame(inspectionResults.getObject(TABLE, "table2"), table2);
+    }
+}
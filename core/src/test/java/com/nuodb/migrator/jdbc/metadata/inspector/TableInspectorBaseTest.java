@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.inspector;
+
+import com.nuodb.migrator.jdbc.dialect.NuoDBDialect;
+import com.nuodb.migrator.jdbc.metadata.Index;
+import com.nuodb.migrator.jdbc.metadata.MetaData;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.INDEX;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataUtils.createTable;
+import static com.nuodb.migrator.jdbc.metadata.inspector.NuoDBIndex.UNIQUE;
+import static com.nuodb.migrator.jdbc.metadata.inspector.TableInspectorBase.BULK_TABLES;
+import static java.util.Arrays.asList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Verifies tables of a schema are grouped into a bulk scope once there are
+ * {@link TableInspectorBase#BULK_TABLES} of them and that rows of tables
+ * outside of the bulk scope are skipped
+ *
+ * @author Sergey Bushik
+ */
+@SuppressWarnings("unchecked")
+public class TableInspectorBaseTest extends InspectorTestBase {
+
+    public TableInspectorBaseTest() {
+        super(NuoDBIndexInspector.class);
+    }
+
+    protected Collection<MetaData> createTables() {
+        Collection<MetaData> tables = newArrayList();
+        // schema with as many tables as needed for a bulk scope
+        for (int table = 1; table <= BULK_TABLES; table++) {
+            tables.add(createTable(null, "schema1", "table1" + table));
+        }
+        // schema with fewer tables than needed for a bulk scope
+        for (int table = 1; table < BULK_TABLES; table++) {
+            tables.add(createTable(null, "schema2", "table2" + table));
+        }
+        // schema with more tables than needed for a bulk scope
+        for (int table = 1; table <= BULK_TABLES + 1; table++) {
+            tables.add(createTable(null, "schema3", "table3" + table));
+        }
+        return tables;
+    }
+
+    @Test
+    public void testCreateInspectionScopes() throws Exception {
+        TableInspectorBase inspector = (TableInspectorBase) getInspector();
+        Collection<MetaData> tables = createTables();
+        List<String> inspectionScopes = newArrayList();
+        inspectionScopes.add("schema1." + getTableNames("table1", BULK_TABLES));
+        for (String table : getTableNames("table2", BULK_TABLES - 1)) {
+            inspectionScopes.add("schema2." + table);
+        }
+        inspectionScopes.add("schema3." + getTableNames("table3", BULK_TABLES + 1));
+        assertEquals(toString(inspector.createInspectionScopes(tables)), inspectionScopes);
+    }
+
+    @Test
+    public void testCreateInspectionScopesWithoutBulkScope() throws Exception {
+        TableInspectorBase inspector = new NuoDBIndexInspector() {
+            @Override
+            protected boolean supportsBulkScope() {
+                return false;
+            }
+        };
+        Collection<MetaData> tables = createTables();
+        Collection<TableInspectionScope> inspectionScopes = newArrayList(inspector.createInspectionScopes(tables));
+        assertEquals(inspectionScopes.size(), tables.size());
+        for (TableInspectionScope inspectionScope : inspectionScopes) {
+            assertEquals(inspectionScope.getClass(), TableInspectionScope.class);
+        }
+    }
+
+    @Test
+    public void testIsInScope() {
+        TableInspectorBase inspector = (TableInspectorBase) getInspector();
+        TableInspectionScope tablesInspectionScope = new TablesInspectionScope(null, "schema1",
+                asList("table11", "table12"));
+        assertEquals(inspector.isInScope(tablesInspectionScope, "table11"), true);
+        assertEquals(inspector.isInScope(tablesInspectionScope, "table13"), false);
+        // rows of a single table scope are filtered by the query
+        assertEquals(inspector.isInScope(new TableInspectionScope(null, "schema1", "table11"), "table13"), true);
+    }
+
+    /**
+     * Schema wide query of the bulk scope returns indexes of a table outside of
+     * the scope, which are skipped
+     */
+    @Test
+    public void testInspectBulkScope() throws Exception {
+        PreparedStatement query = mock(PreparedStatement.class);
+        given(getConnection().prepareStatement(anyString(), anyInt(), anyInt())).willReturn(query);
+        ResultSet schema1 = createResultSet(createIndexRow("schema1", "table11", "index11"),
+                createIndexRow("schema1", "table99", "index99"), createIndexRow("schema1", "table12", "index12"));
+        ResultSet schema2 = createResultSet(createIndexRow("schema2", "table21", "index21"));
+        given(query.executeQuery()).willReturn(schema1, schema2);
+
+        Collection<MetaData> tables = newArrayList();
+        tables.add(createTable(null, "schema1", "table11"));
+        tables.add(createTable(null, "schema1", "table12"));
+        tables.add(createTable(null, "schema2", "table21"));
+        willResolveDialect(getInspectionManager(), new NuoDBDialect());
+        InspectionResults inspectionResults = getInspectionManager().inspect(getConnection(), tables, INDEX);
+        ArgumentCaptor<TableInspectionScope> inspectionScopes = ArgumentCaptor.forClass(TableInspectionScope.class);
+        verify(getInspector(), times(2)).inspectScope(any(InspectionContext.class), inspectionScopes.capture());
+        assertEquals(toString(inspectionScopes.getAllValues()),
+                asList("schema1.[table11, table12]", "schema2.table21"));
+
+        List<String> indexes = newArrayList();
+        for (Object index : inspectionResults.getObjects(INDEX)) {
+            indexes.add(((Index) index).getTable().getName() + "." + ((Index) index).getName());
+        }
+        assertEquals(indexes, asList("table11.index11", "table12.index12", "table21.index21"));
+    }
+
+    /**
+     * Describes scopes by schema and tables, as schema inspection scopes are
+     * compared by identity
+     */
+    protected static List<String> toString(Collection<? extends TableInspectionScope> inspectionScopes) {
+        List<String> strings = newArrayList();
+        for (TableInspectionScope inspectionScope : inspectionScopes) {
+            strings.add(inspectionScope.getSchema() + "." + (inspectionScope instanceof TablesInspectionScope
+                    ? ((TablesInspectionScope) inspectionScope).getTables() : inspectionScope.getTable()));
+        }
+        return strings;
+    }
+
+    protected static Collection<String> getTableNames(String prefix, int tables) {
+        Collection<String> tableNames = newArrayList();
+        for (int table = 1; table <= tables; table++) {
+            tableNames.add(prefix + table);
+        }
+        return tableNames;
+    }
+
+    protected static Map<String, Object> createIndexRow(String schema, String table, String index) {
+        Map<String, Object> row = newHashMap();
+        row.put("SCHEMA", schema);
+        row.put("TABLENAME", table);
+        row.put("INDEXNAME", index);
+        row.put("FIELD", "column");
+        row.put("INDEXTYPE", UNIQUE);
+        row.put("POSITION", 0);
+        return row;
+    }
+
+    /**
+     * Result set mock returning values of the current row by column name
+     */
+    protected static ResultSet createResultSet(final Map<String, Object>... rows) throws Exception {
+        final int[] current = { -1 };
+        Answer<Object> value = new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                return rows[current[0]].get(invocation.getArguments()[0]);
+            }
+        };
+        ResultSet resultSet = mock(ResultSet.class);
+        given(resultSet.next()).will(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) throws Throwable {
+                return ++current[0] < rows.length;
+            }
+        });
+        given(resultSet.getString(anyString())).will(value);
+        given(resultSet.getInt(anyString())).will(value);
+        return resultSet;
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.metadata.snapshot;
+
+import com.nuodb.migrator.jdbc.metadata.Database;
+import com.nuodb.migrator.jdbc.metadata.MetaData;
+import com.nuodb.migrator.jdbc.metadata.MetaDataType;
+import com.nuodb.migrator.jdbc.metadata.Table;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionContext;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionManager;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionResults;
+import com.nuodb.migrator.jdbc.metadata.inspector.InspectionScope;
+import com.nuodb.migrator.jdbc.metadata.inspector.Inspector;
+import com.nuodb.migrator.jdbc.metadata.inspector.TableInspectionScope;
+import com.nuodb.migrator.jdbc.metadata.resolver.SimpleServiceResolver;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.CHECK;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.COLUMN;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.DATABASE;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.FOREIGN_KEY;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.INDEX;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.PRIMARY_KEY;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.SCHEMA;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.SEQUENCE;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.TABLE;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.TYPES;
+import static com.nuodb.migrator.jdbc.metadata.MetaDataType.USER_DEFINED_TYPE;
+import static com.nuodb.migrator.jdbc.metadata.inspector.InspectionResultsUtils.addTable;
+import static com.nuodb.migrator.jdbc.metadata.snapshot.TableVersionReader.getTableKey;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Arrays.asList;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.apache.commons.io.FileUtils.getTempDirectory;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Sergey Bushik
+ */
+@SuppressWarnings("unchecked")
+public class SnapshotInspectionCacheTest {
+
+    private static final String CATALOG = "catalog";
+    private static final int TABLES = 3;
+
+    private File directory;
+    private Connection connection;
+    private Map<List<String>, String> tableVersions;
+    private Inspector tableInspector;
+    private Inspector columnInspector;
+    private InspectionManager inspectionManager;
+    private Map<MetaDataType, Inspector> inspectors;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        directory = new File(getTempDirectory(), "snapshot" + currentTimeMillis());
+        connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        given(metaData.getURL()).willReturn("jdbc:mysql://localhost/catalog");
+        given(connection.getMetaData()).willReturn(metaData);
+
+        tableVersions = newLinkedHashMap();
+        for (int table = 0; table < TABLES; table++) {
+            tableVersions.put(getTableKey(CATALOG, null, "table" + table), "1");
+        }
+        TableVersionReader tableVersionReader = mock(TableVersionReader.class);
+        given(tableVersionReader.getTableVersions(any(Connection.class), any(TableInspectionScope.class)))
+                .willReturn(tableVersions);
+
+        tableInspector = mock(Inspector.class);
+        given(tableInspector.supports(TABLE)).willReturn(true);
+        given(tableInspector.supportsScope(any(InspectionContext.class), any(InspectionScope.class))).willReturn(true);
+        willAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                InspectionContext inspectionContext = (InspectionContext) invocation.getArguments()[0];
+                String table = ((TableInspectionScope) invocation.getArguments()[1]).getTable();
+                for (List<String> tableKey : tableVersions.keySet()) {
+                    if (table == null || table.equals(tableKey.get(2))) {
+                        addTable(inspectionContext.getInspectionResults(), CATALOG, null, tableKey.get(2));
+                    }
+                }
+                return null;
+            }
+        }).given(tableInspector).inspectScope(any(InspectionContext.class), any(InspectionScope.class));
+
+        columnInspector = mock(Inspector.class);
+        given(columnInspector.supports(COLUMN)).willReturn(true);
+        willAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                InspectionContext inspectionContext = (InspectionContext) invocation.getArguments()[0];
+                for (MetaData object : (Collection<MetaData>) invocation.getArguments()[1]) {
+                    inspectionContext.getInspectionResults().addObject(((Table) object).addColumn("column"));
+                }
+                return null;
+            }
+        }).given(columnInspector).inspectObjects(any(InspectionContext.class), anyCollection());
+        willAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                InspectionContext inspectionContext = (InspectionContext) invocation.getArguments()[0];
+                InspectionResults inspectionResults = inspectionContext.getInspectionResults();
+                for (Table table : inspectionResults.<Table> getObjects(TABLE)) {
+                    inspectionResults.addObject(table.addColumn("column"));
+                }
+                return null;
+            }
+        }).given(columnInspector).inspect(any(InspectionContext.class));
+
+        SnapshotInspectionCache inspectionCache = new SnapshotInspectionCache(directory);
+        inspectionCache.setTableVersionReaderResolver(new SimpleServiceResolver<TableVersionReader>(
+                tableVersionReader));
+
+        inspectionManager = new InspectionManager();
+        inspectionManager.getInspectors().clear();
+        inspectionManager.addInspector(tableInspector);
+        inspectionManager.addInspector(columnInspector);
+        inspectors = newLinkedHashMap();
+        for (MetaDataType objectType : TYPES) {
+            if (objectType != TABLE && objectType != COLUMN) {
+                Inspector inspector = mock(Inspector.class);
+                given(inspector.supports(objectType)).willReturn(true);
+                inspectionManager.addInspector(inspector);
+                inspectors.put(objectType, inspector);
+            }
+        }
+        inspectionManager.setInspectionCache(inspectionCache);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        deleteQuietly(directory);
+    }
+
+    @Test
+    public void testInspectUnchanged() throws Exception {
+        inspect();
+        InspectionResults inspectionResults = inspect();
+
+        verify(tableInspector, times(1)).inspectScope(any(InspectionContext.class), any(InspectionScope.class));
+        assertEquals(inspectionResults.getObjects(TABLE).size(), TABLES);
+        assertEquals(inspectionResults.getObjects(COLUMN).size(), TABLES);
+    }
+
+    @Test
+    public void testInspectChanged() throws Exception {
+        inspect();
+        tableVersions.put(getTableKey(CATALOG, null, "table1"), "2");
+        tableVersions.remove(getTableKey(CATALOG, null, "table2"));
+        tableVersions.put(getTableKey(CATALOG, null, "table3"), "1");
+        InspectionResults inspectionResults = inspect();
+
+        verify(tableInspector, times(3)).inspectScope(any(InspectionContext.class), any(InspectionScope.class));
+        assertEquals(inspectionResults.getObjects(TABLE).size(), TABLES);
+        assertEquals(inspectionResults.getObjects(COLUMN).size(), TABLES);
+        Database database = inspectionResults.getObject(DATABASE);
+        assertEquals(database.getTables().size(), TABLES);
+        for (Table table : database.getTables()) {
+            assertTrue(table.hasColumn("column"));
+        }
+        inspectionResults = inspect();
+        verify(tableInspector, times(3)).inspectScope(any(InspectionContext.class), any(InspectionScope.class));
+        assertEquals(inspectionResults.getObjects(TABLE).size(), TABLES);
+    }
+
+    /**
+     * Refreshes changed tables with all types, only table child types are
+     * inspected for the changed tables
+     */
+    @Test
+    public void testInspectChangedTypes() throws Exception {
+        inspect(TYPES);
+        tableVersions.put(getTableKey(CATALOG, null, "table1"), "2");
+        InspectionResults inspectionResults = inspect(TYPES);
+
+        assertEquals(inspectionResults.getObjects(TABLE).size(), TABLES);
+        assertEquals(inspectionResults.getObjects(COLUMN).size(), TABLES);
+        for (MetaDataType objectType : asList(DATABASE, MetaDataType.CATALOG, USER_DEFINED_TYPE, SCHEMA, SEQUENCE)) {
+            verify(inspectors.get(objectType), never()).inspectObjects(any(InspectionContext.class),
+                    anyCollection());
+        }
+        for (MetaDataType objectType : asList(PRIMARY_KEY, INDEX, FOREIGN_KEY, CHECK)) {
+            verify(inspectors.get(objectType)).inspectObjects(any(InspectionContext.class), anyCollection());
+        }
+    }
+
+    protected InspectionResults inspect() throws Exception {
+        return inspect(TABLE, COLUMN);
+    }
+
+    protected InspectionResults inspect(MetaDataType... objectTypes) throws Exception {
+        return inspectionManager.inspect(connection, new TableInspectionScope(CATALOG, null), objectTypes);
+    }
+}
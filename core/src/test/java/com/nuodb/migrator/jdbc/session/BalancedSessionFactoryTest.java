@@ -0,0 +1,269 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.session;
+
+import com.nuodb.migrator.jdbc.connection.ConnectionProvider;
+import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.dialect.DialectResolver;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.google.common.collect.Maps.newHashMap;
+import static com.google.common.collect.Maps.newLinkedHashMap;
+import static com.nuodb.migrator.jdbc.session.BalancedSessionFactory.AFFINITY;
+import static com.nuodb.migrator.jdbc.session.BalancedSessionFactory.Endpoint;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static java.sql.ResultSet.CLOSE_CURSORS_AT_COMMIT;
+import static java.sql.ResultSet.CONCUR_READ_ONLY;
+import static java.sql.ResultSet.TYPE_FORWARD_ONLY;
+import static java.sql.Statement.RETURN_GENERATED_KEYS;
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.*;
+
+/**
+ * @author Sergey Bushik
+ */
+public class BalancedSessionFactoryTest {
+
+    private static final long BATCH_LATENCY = 10;
+
+    private Map<String, ConnectionProvider> connectionProviders;
+    private DialectResolver dialectResolver;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        connectionProviders = newLinkedHashMap();
+        for (String host : new String[] { "te1", "te2", "te3" }) {
+            ConnectionProvider connectionProvider = mock(ConnectionProvider.class);
+            given(connectionProvider.getConnection()).will(new Answer<Connection>() {
+                @Override
+                public Connection answer(InvocationOnMock invocation) throws Throwable {
+                    Connection connection = mock(Connection.class);
+                    given(connection.createStatement()).willThrow(new SQLException());
+                    PreparedStatement statement = createPreparedStatement();
+                    given(connection.prepareStatement(anyString())).willReturn(statement);
+                    given(connection.prepareStatement(anyString(), anyInt(), anyInt())).willReturn(statement);
+                    given(connection.prepareStatement(anyString(), anyInt(), anyInt(), anyInt()))
+                            .willReturn(statement);
+                    given(connection.prepareStatement(anyString(), anyInt())).willReturn(statement);
+                    given(connection.prepareStatement(anyString(), any(int[].class))).willReturn(statement);
+                    given(connection.prepareStatement(anyString(), any(String[].class))).willReturn(statement);
+                    return connection;
+                }
+            });
+            connectionProviders.put(host, connectionProvider);
+        }
+        dialectResolver = mock(DialectResolver.class);
+        given(dialectResolver.resolve(any(Connection.class))).willReturn(mock(Dialect.class));
+    }
+
+    /**
+     * Prepared statement taking a while to execute batch, so that batch latency
+     * stands out of commit latency
+     */
+    protected PreparedStatement createPreparedStatement() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        given(statement.executeBatch()).will(new Answer<int[]>() {
+            @Override
+            public int[] answer(InvocationOnMock invocation) throws Throwable {
+                Thread.sleep(BATCH_LATENCY);
+                return new int[0];
+            }
+        });
+        return statement;
+    }
+
+    protected BalancedSessionFactory createSessionFactory(SessionBalancing sessionBalancing) {
+        return new BalancedSessionFactory(connectionProviders, dialectResolver, sessionBalancing, 4);
+    }
+
+    protected List<Endpoint> getEndpoints(BalancedSessionFactory sessionFactory) {
+        return newArrayList(sessionFactory.getEndpoints());
+    }
+
+    @Test
+    public void testRoundRobin() throws Exception {
+        BalancedSessionFactory sessionFactory = createSessionFactory(SessionBalancing.ROUND_ROBIN);
+        for (int i = 0; i < 3; i++) {
+            sessionFactory.openSession();
+        }
+        for (Endpoint endpoint : sessionFactory.getEndpoints()) {
+            assertEquals(endpoint.getSessions(), 1);
+        }
+    }
+
+    @Test
+    public void testSlowEndpointBypassed() throws Exception {
+        BalancedSessionFactory sessionFactory = createSessionFactory(SessionBalancing.ROUND_ROBIN);
+        List<Endpoint> endpoints = getEndpoints(sessionFactory);
+        endpoints.get(0).addLatency(1000000);
+        endpoints.get(1).addLatency(1000);
+        endpoints.get(2).addLatency(1000);
+        for (int i = 0; i < 3; i++) {
+            sessionFactory.openSession();
+        }
+        assertEquals(endpoints.get(0).getSessions(), 0);
+        assertEquals(endpoints.get(1).getSessions() + endpoints.get(2).getSessions(), 3);
+    }
+
+    @Test
+    public void testLeastLatency() throws Exception {
+        BalancedSessionFactory sessionFactory = createSessionFactory(SessionBalancing.LEAST_LATENCY);
+        List<Endpoint> endpoints = getEndpoints(sessionFactory);
+        endpoints.get(0).addLatency(5000);
+        endpoints.get(1).addLatency(1000);
+        endpoints.get(2).addLatency(3000);
+        Session session = sessionFactory.openSession();
+        assertEquals(endpoints.get(1).getSessions(), 1);
+
+        session.close();
+        assertEquals(endpoints.get(1).getSessions(), 0);
+        assertEquals(endpoints.get(1).getIdleSessions(), 1);
+    }
+
+    @Test
+    public void testIdleSessions() throws Exception {
+        BalancedSessionFactory sessionFactory = createSessionFactory(SessionBalancing.ROUND_ROBIN);
+        List<Session> sessions = newArrayList();
+        for (int i = 0; i < 3; i++) {
+            sessions.add(sessionFactory.openSession());
+        }
+        assertEquals(sessionFactory.getIdleSessions(), 0);
+        for (Session session : sessions) {
+            session.close();
+        }
+        assertEquals(sessionFactory.getIdleSessions(), 3);
+        for (Endpoint endpoint : sessionFactory.getEndpoints()) {
+            assertEquals(endpoint.getIdleSessions(), 1);
+        }
+    }
+
+    @Test
+    public void testPrewarm() throws Exception {
+        BalancedSessionFactory sessionFactory = createSessionFactory(SessionBalancing.ROUND_ROBIN);
+        sessionFactory.prewarm(4);
+        for (Endpoint endpoint : sessionFactory.getEndpoints()) {
+            assertEquals(endpoint.getIdleSessions(), 2);
+            assertEquals(endpoint.getSessions(), 0);
+        }
+    }
+
+    @Test
+    public void testTableAffinity() throws Exception {
+        BalancedSessionFactory sessionFactory = createSessionFactory(SessionBalancing.TABLE_AFFINITY);
+        Map<Object, Object> context = newHashMap();
+        context.put(AFFINITY, "SCHEMA.TABLE");
+        Session session1 = sessionFactory.openSession(context);
+        Session session2 = sessionFactory.openSession(context);
+        int sessions = 0;
+        for (Endpoint endpoint : sessionFactory.getEndpoints()) {
+            sessions = Math.max(sessions, endpoint.getSessions());
+        }
+        assertEquals(sessions, 2);
+        session1.close();
+        session2.close();
+    }
+
+    @Test
+    public void testCommitLatency() throws Exception {
+        BalancedSessionFactory sessionFactory = createSessionFactory(SessionBalancing.LEAST_LATENCY);
+        Session session = sessionFactory.openSession();
+        session.getConnection().commit();
+        double latency = 0;
+        for (Endpoint endpoint : sessionFactory.getEndpoints()) {
+            latency += endpoint.getLatency();
+        }
+        assertTrue(latency > 0);
+        session.close();
+        sessionFactory.close();
+    }
+
+    @DataProvider(name = "prepareStatement")
+    public Object[][] createPrepareStatementData() {
+        return new Object[][] { { 0 }, { 1 }, { 2 }, { 3 }, { 4 }, { 5 } };
+    }
+
+    /**
+     * Batches of statements prepared with any of the prepare statement methods
+     * are timed
+     */
+    @Test(dataProvider = "prepareStatement")
+    public void testBatchLatency(int method) throws Exception {
+        BalancedSessionFactory sessionFactory = createSessionFactory(SessionBalancing.LEAST_LATENCY);
+        Session session = sessionFactory.openSession();
+        Connection connection = session.getConnection();
+        String sql = "INSERT INTO T VALUES (?)";
+        PreparedStatement statement;
+        switch (method) {
+        case 0:
+            statement = connection.prepareStatement(sql);
+            break;
+        case 1:
+            statement = connection.prepareStatement(sql, TYPE_FORWARD_ONLY, CONCUR_READ_ONLY);
+            break;
+        case 2:
+            statement = connection.prepareStatement(sql, TYPE_FORWARD_ONLY, CONCUR_READ_ONLY, CLOSE_CURSORS_AT_COMMIT);
+            break;
+        case 3:
+            statement = connection.prepareStatement(sql, RETURN_GENERATED_KEYS);
+            break;
+        case 4:
+            statement = connection.prepareStatement(sql, new int[] { 1 });
+            break;
+        default:
+            statement = connection.prepareStatement(sql, new String[] { "ID" });
+            break;
+        }
+        double latency = getLatency(sessionFactory);
+        statement.executeBatch();
+        assertTrue(getLatency(sessionFactory) > latency);
+        session.close();
+        sessionFactory.close();
+    }
+
+    protected double getLatency(BalancedSessionFactory sessionFactory) {
+        double latency = 0;
+        for (Endpoint endpoint : sessionFactory.getEndpoints()) {
+            latency += endpoint.getLatency();
+        }
+        return latency;
+    }
+}
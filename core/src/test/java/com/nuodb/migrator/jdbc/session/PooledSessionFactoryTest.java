@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.session;
+
+import com.nuodb.migrator.jdbc.connection.ConnectionProvider;
+import com.nuodb.migrator.jdbc.dialect.Dialect;
+import com.nuodb.migrator.jdbc.dialect.DialectResolver;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static java.sql.Connection.TRANSACTION_READ_COMMITTED;
+import static java.sql.Connection.TRANSACTION_SERIALIZABLE;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+
+/**
+ * @author Sergey Bushik
+ */
+public class PooledSessionFactoryTest {
+
+    private static final String QUERY = "INSERT INTO T (C) VALUES (?)";
+
+    private ConnectionProvider connectionProvider;
+    private DialectResolver dialectResolver;
+    private PooledSessionFactory sessionFactory;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        connectionProvider = mock(ConnectionProvider.class);
+        given(connectionProvider.getConnection()).will(new Answer<Connection>() {
+            @Override
+            public Connection answer(InvocationOnMock invocation) throws Throwable {
+                Connection connection = mock(Connection.class);
+                given(connection.createStatement()).willThrow(new SQLException());
+                given(connection.getAutoCommit()).willReturn(false);
+                given(connection.prepareStatement(anyString())).will(
+                        new Answer<PreparedStatement>() {
+                            @Override
+                            public PreparedStatement answer(InvocationOnMock invocation) {
+                                return mock(PreparedStatement.class);
+                            }
+                        });
+                return connection;
+            }
+        });
+        dialectResolver = mock(DialectResolver.class);
+        given(dialectResolver.resolve(any(Connection.class))).willReturn(mock(Dialect.class));
+        sessionFactory = new PooledSessionFactory(connectionProvider, dialectResolver, 2, 4);
+    }
+
+    @Test
+    public void testSessionReuse() throws Exception {
+        SessionObserver sessionObserver = mock(SessionObserver.class);
+        sessionFactory.addSessionObserver(sessionObserver);
+
+        Session session = sessionFactory.openSession();
+        Connection connection = session.getConnection();
+        session.close();
+        verify(connection).rollback();
+        verify(connection, never()).close();
+        assertEquals(sessionFactory.getIdleSessions(), 1);
+
+        Session reused = sessionFactory.openSession();
+        assertSame(reused, session);
+        assertSame(reused.getConnection(), connection);
+        reused.close();
+
+        verify(connectionProvider, times(1)).getConnection();
+        verify(dialectResolver, times(1)).resolve(any(Connection.class));
+        verify(sessionObserver, times(1)).afterOpen(session);
+        verify(sessionObserver, never()).beforeClose(session);
+
+        sessionFactory.close();
+        assertEquals(sessionFactory.getIdleSessions(), 0);
+        verify(sessionObserver, times(1)).beforeClose(session);
+        verify(connectionProvider).closeConnection(connection);
+    }
+
+    @Test
+    public void testMaxIdleSessions() throws Exception {
+        Session session1 = sessionFactory.openSession();
+        Session session2 = sessionFactory.openSession();
+        Session session3 = sessionFactory.openSession();
+        session1.close();
+        session2.close();
+        session3.close();
+        assertEquals(sessionFactory.getIdleSessions(), 2);
+        verify(connectionProvider).closeConnection(session3.getConnection());
+        verify(dialectResolver, times(1)).resolve(any(Connection.class));
+    }
+
+    @Test
+    public void testStatementCache() throws Exception {
+        Session session = sessionFactory.openSession();
+        PreparedStatement statement = session.prepareStatement(QUERY);
+        session.closeStatement(statement);
+        verify(statement, never()).close();
+        verify(statement).clearParameters();
+        session.close();
+
+        session = sessionFactory.openSession();
+        assertSame(session.prepareStatement(QUERY), statement);
+        PreparedStatement other = session.prepareStatement(QUERY);
+        assertNotSame(other, statement);
+        session.closeStatement(statement);
+        session.closeStatement(other);
+        verify(other).close();
+        session.close();
+
+        sessionFactory.close();
+        verify(statement).close();
+        verify(session.getConnection(), times(2)).prepareStatement(QUERY);
+    }
+
+    @Test
+    public void testRestoreState() throws Exception {
+        Connection connection = mock(Connection.class);
+        given(connection.createStatement()).willThrow(new SQLException());
+        // settings the session is opened with are changed by the work
+        given(connection.getAutoCommit()).willReturn(true, false, false);
+        given(connection.getTransactionIsolation()).willReturn(TRANSACTION_READ_COMMITTED, TRANSACTION_SERIALIZABLE);
+        given(connection.isReadOnly()).willReturn(false, true);
+        given(connection.getCatalog()).willReturn("test", "other");
+        doReturn(connection).when(connectionProvider).getConnection();
+
+        Session session = sessionFactory.openSession();
+        session.close();
+        verify(connection).rollback();
+        verify(connection).setAutoCommit(true);
+        verify(connection).setTransactionIsolation(TRANSACTION_READ_COMMITTED);
+        verify(connection).setReadOnly(false);
+        verify(connection).setCatalog("test");
+        assertEquals(sessionFactory.getIdleSessions(), 1);
+    }
+
+    @Test
+    public void testDiscardUnrestoredSession() throws Exception {
+        Session session = sessionFactory.openSession();
+        Connection connection = session.getConnection();
+        given(connection.getTransactionIsolation()).willReturn(TRANSACTION_SERIALIZABLE);
+        doThrow(new SQLException()).when(connection).setTransactionIsolation(anyInt());
+        session.close();
+        assertEquals(sessionFactory.getIdleSessions(), 0);
+        verify(connectionProvider).closeConnection(connection);
+    }
+
+    @Test
+    public void testPrewarm() throws Exception {
+        SessionObserver sessionObserver = mock(SessionObserver.class);
+        sessionFactory.addSessionObserver(sessionObserver);
+        sessionFactory.prewarm(3);
+        assertEquals(sessionFactory.getIdleSessions(), 2);
+        verify(connectionProvider, times(2)).getConnection();
+        verify(sessionObserver, times(2)).afterOpen(any(Session.class));
+
+        sessionFactory.openSession();
+        sessionFactory.openSession();
+        verify(connectionProvider, times(2)).getConnection();
+    }
+
+    @Test(expectedExceptions = SessionException.class)
+    public void testClosed() throws Exception {
+        sessionFactory.close();
+        sessionFactory.openSession();
+    }
+}
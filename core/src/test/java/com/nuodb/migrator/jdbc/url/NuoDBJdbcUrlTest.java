@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jdbc.url;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * @author Sergey Bushik
+ */
+public class NuoDBJdbcUrlTest {
+
+    @DataProvider(name = "hosts")
+    public Object[][] createHostsData() {
+        return new Object[][] {
+                { "jdbc:com.nuodb://localhost/test", newArrayList("localhost") },
+                { "jdbc:com.nuodb://broker1:48004,broker2:48005/test",
+                        newArrayList("broker1:48004", "broker2:48005") },
+                { "jdbc:com.nuodb://broker1, broker2:48004 ,broker3/test?schema=hockey",
+                        newArrayList("broker1", "broker2:48004", "broker3") },
+                { "jdbc:com.nuodb://broker1,broker2?schema=hockey", newArrayList("broker1", "broker2") },
+                { "jdbc:com.nuodb://broker1:48004", newArrayList("broker1:48004") } };
+    }
+
+    @Test(dataProvider = "hosts")
+    public void testGetHosts(String url, List<String> hosts) {
+        assertEquals(createJdbcUrl(url).getHosts(), hosts);
+    }
+
+    @DataProvider(name = "url")
+    public Object[][] createUrlData() {
+        return new Object[][] {
+                { "jdbc:com.nuodb://localhost/test", "broker:48004", "jdbc:com.nuodb://broker:48004/test" },
+                { "jdbc:com.nuodb://broker1:48004,broker2:48005/test?schema=hockey&user=dba", "broker2:48005",
+                        "jdbc:com.nuodb://broker2:48005/test?schema=hockey&user=dba" },
+                { "jdbc:com.nuodb://broker1,broker2?schema=hockey", "broker1",
+                        "jdbc:com.nuodb://broker1?schema=hockey" },
+                { "jdbc:com.nuodb://broker1,broker2", "broker2", "jdbc:com.nuodb://broker2" } };
+    }
+
+    @Test(dataProvider = "url")
+    public void testGetUrl(String url, String host, String hostUrl) {
+        NuoDBJdbcUrl jdbcUrl = createJdbcUrl(url);
+        assertEquals(jdbcUrl.getUrl(host), hostUrl);
+        // each of the host urls is parsed back with the same parameters
+        NuoDBJdbcUrl parsedUrl = createJdbcUrl(jdbcUrl.getUrl(host));
+        assertEquals(parsedUrl.getHosts(), newArrayList(host));
+        assertEquals(parsedUrl.getParameters(), jdbcUrl.getParameters());
+    }
+
+    @Test
+    public void testGetParameters() {
+        NuoDBJdbcUrl jdbcUrl = createJdbcUrl("jdbc:com.nuodb://broker1,broker2:48004/test?schema=hockey&user=dba");
+        Map<String, Object> parameters = jdbcUrl.getParameters();
+        assertEquals(parameters.get("schema"), "hockey");
+        assertEquals(parameters.get("user"), "dba");
+        assertEquals(jdbcUrl.getSchema(), "hockey");
+    }
+
+    protected NuoDBJdbcUrl createJdbcUrl(String url) {
+        return (NuoDBJdbcUrl) NuoDBJdbcUrl.getParser().parse(url, null);
+    }
+}
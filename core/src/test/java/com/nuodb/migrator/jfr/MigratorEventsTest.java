@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static com.nuodb.migrator.jfr.MigratorEvents.AVAILABLE;
+import static com.nuodb.migrator.jfr.MigratorEvents.PREFIX;
+import static com.nuodb.migrator.jfr.MigratorEvents.WRITE;
+import static java.io.File.createTempFile;
+import static org.apache.commons.io.FileUtils.deleteQuietly;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Sergey Bushik
+ */
+public class MigratorEventsTest {
+
+    @Test
+    public void testChunkEvent() throws Exception {
+        assertTrue(AVAILABLE);
+        File file = createTempFile("migrator", ".jfr");
+        Recording recording = new Recording();
+        try {
+            recording.enable(ChunkEvent.class);
+            recording.start();
+            ChunkEvent chunkEvent = new ChunkEvent();
+            chunkEvent.begin();
+            chunkEvent.setTable("t1");
+            chunkEvent.setChunk("t1.csv");
+            chunkEvent.setOperation(WRITE);
+            chunkEvent.setRows(10);
+            chunkEvent.setBytes(100);
+            chunkEvent.commit();
+            recording.stop();
+            recording.dump(file.toPath());
+
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+            RecordedEvent event = null;
+            for (RecordedEvent recordedEvent : events) {
+                if (recordedEvent.getEventType().getName().equals(PREFIX + "Chunk")) {
+                    event = recordedEvent;
+                }
+            }
+            assertTrue(event != null);
+            assertEquals(event.getString("table"), "t1");
+            assertEquals(event.getString("operation"), WRITE);
+            assertEquals(event.getLong("rows"), 10);
+            assertEquals(event.getLong("bytes"), 100);
+        } finally {
+            recording.close();
+            deleteQuietly(file);
+        }
+    }
+}
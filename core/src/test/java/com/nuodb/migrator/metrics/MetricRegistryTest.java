@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2015, NuoDB, Inc.
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *     * Redistributions of source code must retain the above copyright
+ *       notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ *       notice, this list of conditions and the following disclaimer in the
+ *       documentation and/or other materials provided with the distribution.
+ *     * Neither the name of NuoDB, Inc. nor the names of its contributors may
+ *       be used to endorse or promote products derived from this software
+ *       without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL NUODB, INC. BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA,
+ * OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF
+ * ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.nuodb.migrator.metrics;
+
+import com.nuodb.migrator.jdbc.connection.ConnectionPool;
+import com.nuodb.migrator.jdbc.connection.DriverConnectionProvider;
+import com.nuodb.migrator.spec.DriverConnectionSpec;
+import org.testng.annotations.Test;
+
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static com.nuodb.migrator.metrics.MetricNames.COMMIT_LATENCY;
+import static com.nuodb.migrator.metrics.MetricNames.POOL_ACTIVE;
+import static com.nuodb.migrator.metrics.MetricNames.POOL_IDLE;
+import static com.nuodb.migrator.metrics.MetricNames.POOL_MAX_WAIT_TIME;
+import static com.nuodb.migrator.metrics.MetricNames.ROWS;
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Sergey Bushik
+ */
+public class MetricRegistryTest {
+
+    @Test
+    public void testHistogram() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 1000; value++) {
+            histogram.update(value);
+        }
+        assertEquals(histogram.getCount(), 1000);
+        assertEquals(histogram.getSum(), 500500);
+        assertEquals(histogram.getMax(), 1000);
+        assertEquals(histogram.getPercentile(0.5), 511);
+        assertEquals(histogram.getPercentile(0.99), 1000);
+    }
+
+    @Test
+    public void testMeters() {
+        MetricRegistry metricRegistry = new MetricRegistry();
+        metricRegistry.meter(ROWS).mark(3);
+        metricRegistry.meter(ROWS, "t1").mark(2);
+        metricRegistry.meter(ROWS, "t1").mark();
+        assertEquals(metricRegistry.getCount(ROWS), 3);
+        assertEquals(metricRegistry.meter(ROWS, "t1").getCount(), 3);
+        assertEquals(metricRegistry.getMeters().size(), 2);
+    }
+
+    @Test
+    public void testConnectionPools() throws Exception {
+        DriverConnectionProvider connectionProvider1 = createConnectionProvider();
+        DriverConnectionProvider connectionProvider2 = createConnectionProvider();
+        MetricRegistry metricRegistry = new MetricRegistry();
+        metricRegistry.registerConnectionPools(newArrayList(connectionProvider1, connectionProvider2));
+        assertEquals(metricRegistry.getGauge(POOL_ACTIVE).getValue(), 0);
+
+        Connection connection1 = connectionProvider1.getConnection();
+        Connection connection2 = connectionProvider2.getConnection();
+        Connection connection3 = connectionProvider2.getConnection();
+        assertEquals(metricRegistry.getGauge(POOL_ACTIVE).getValue(), 3);
+        assertEquals(metricRegistry.getGauge(POOL_IDLE).getValue(), 0);
+
+        connectionProvider1.closeConnection(connection1);
+        connectionProvider2.closeConnection(connection2);
+        assertEquals(metricRegistry.getGauge(POOL_ACTIVE).getValue(), 1);
+        assertEquals(metricRegistry.getGauge(POOL_IDLE).getValue(), 2);
+        assertTrue(metricRegistry.getGauge(POOL_MAX_WAIT_TIME).getValue() >= 0);
+        connectionProvider2.closeConnection(connection3);
+    }
+
+    private static DriverConnectionProvider createConnectionProvider() {
+        return new DriverConnectionProvider(new DriverConnectionSpec()) {
+            @Override
+            protected ConnectionPool createConnectionPool() throws SQLException {
+                return new ConnectionPool(new ConnectionPool.ConnectionFactory() {
+                    @Override
+                    public Connection createConnection() {
+                        return mock(Connection.class);
+                    }
+                });
+            }
+        };
+    }
+
+    @Test
+    public void testPrometheusMetricsWriter() throws Exception {
+        MetricRegistry metricRegistry = new MetricRegistry();
+        metricRegistry.meter(ROWS, "t\"1").mark(5);
+        metricRegistry.histogram(COMMIT_LATENCY).update(1000000);
+        StringWriter writer = new StringWriter();
+        new PrometheusMetricsWriter().write(metricRegistry, writer);
+        String metrics = writer.toString();
+        assertTrue(metrics.contains("# TYPE migrator_rows_total counter\n"));
+        assertTrue(metrics.contains("migrator_rows_total{row_set=\"t\\\"1\"} 5\n"));
+        assertTrue(metrics.contains("# TYPE migrator_commit_latency_seconds summary\n"));
+        assertTrue(metrics.contains("migrator_commit_latency_seconds_count 1\n"));
+    }
+
+    @Test
+    public void testJsonMetricsWriter() throws Exception {
+        MetricRegistry metricRegistry = new MetricRegistry();
+        metricRegistry.meter(ROWS, "t1").mark(5);
+        StringWriter writer = new StringWriter();
+        new JsonMetricsWriter().write(metricRegistry, writer);
+        String metrics = writer.toString();
+        assertTrue(metrics.contains("\"row_set\" : \"t1\""));
+        assertTrue(metrics.contains("\"count\" : 5"));
+    }
+}